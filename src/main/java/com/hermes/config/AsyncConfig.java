@@ -1,9 +1,13 @@
 package com.hermes.config;
 
+import com.hermes.config.properties.MailDispatchProperties;
 import java.util.concurrent.Executor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
@@ -12,14 +16,53 @@ import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 @Configuration
 public class AsyncConfig {
 
+    /**
+     * 실제 SMTP 전송을 수행하는 스레드 풀 (동시 전송 수는 디스패처의 in-flight 한도로 제한)
+     * <p>
+     * spring.threads.virtual.enabled 가 켜져 있으면 전송마다 가상 스레드를 새로 만든다.
+     */
     @Bean(name = "mailTaskExecutor")
-    public Executor mailTaskExecutor() {
+    public Executor mailTaskExecutor(MailDispatchProperties dispatchProperties, Environment environment) {
+        int maxInFlight = Math.max(1, dispatchProperties.getMaxInFlight());
+
+        if (Threading.VIRTUAL.isActive(environment)) {
+            log.info("메일 전송을 가상 스레드에서 실행합니다: 최대 동시 전송 = {}", maxInFlight);
+            return virtualThreadExecutor("Hermes-Mail-", maxInFlight);
+        }
+
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(5);
-        executor.setMaxPoolSize(10);
-        executor.setQueueCapacity(100);
+        executor.setCorePoolSize(maxInFlight);
+        executor.setMaxPoolSize(maxInFlight);
+        executor.setQueueCapacity(maxInFlight);
         executor.setThreadNamePrefix("Hermes-Mail-");
         executor.initialize();
         return executor;
     }
-}
\ No newline at end of file
+
+    /**
+     * 큐를 지속적으로 가져오는 디스패처 워커 전용 스레드 풀
+     */
+    @Bean(name = "mailDispatchExecutor")
+    public Executor mailDispatchExecutor(MailDispatchProperties dispatchProperties, Environment environment) {
+        int workerCount = Math.max(1, dispatchProperties.getWorkerCount());
+
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return virtualThreadExecutor("Hermes-Dispatch-", workerCount);
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workerCount);
+        executor.setMaxPoolSize(workerCount);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("Hermes-Dispatch-");
+        executor.initialize();
+        return executor;
+    }
+
+    private SimpleAsyncTaskExecutor virtualThreadExecutor(String threadNamePrefix, int concurrencyLimit) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(concurrencyLimit);
+        return executor;
+    }
+}
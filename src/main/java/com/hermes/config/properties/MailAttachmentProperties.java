@@ -0,0 +1,21 @@
+package com.hermes.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "hermes.mail.attachment")
+public class MailAttachmentProperties {
+
+    /**
+     * 첨부 파일 저장 디렉터리 (내용 해시로 파일 하나씩 저장, 여러 노드가 전송하면 모든 노드가 같은 디렉터리를 보도록 공유 스토리지 사용)
+     */
+    private String directory = "./data/attachments";
+
+    /**
+     * 메일 하나에 붙일 수 있는 최대 첨부 파일 수
+     */
+    private int maxAttachmentsPerMail = 10;
+}
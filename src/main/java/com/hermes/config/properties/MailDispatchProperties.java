@@ -0,0 +1,58 @@
+package com.hermes.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "hermes.mail.dispatch")
+public class MailDispatchProperties {
+
+    /**
+     * 디스패처 활성화 여부 (API 전용 노드에서는 비활성화)
+     */
+    private boolean enabled = true;
+
+    /**
+     * 큐에서 메일을 가져오는 워커 수
+     */
+    private int workerCount = 4;
+
+    /**
+     * 노드 전체에서 동시에 전송 중일 수 있는 최대 메일 수 (모든 워커가 공유)
+     */
+    private int maxInFlight = 32;
+
+    /**
+     * 워커가 한 번에 큐에서 가져오는 최대 메일 수
+     */
+    private int batchSize = 10;
+
+    /**
+     * 큐가 비어 있을 때 다음 조회까지 대기 시간 (밀리초, 폴링 모드 및 오류 발생 시 사용)
+     */
+    private long idleWaitMillis = 200;
+
+    /**
+     * 블로킹 모드 사용 여부 (true 면 워커 전용 커넥션에서 BLPOP 으로 새 메일을 기다림)
+     */
+    private boolean blockingPop = true;
+
+    /**
+     * 블로킹 대기 최대 시간 (밀리초)
+     */
+    private long blockTimeoutMillis = 1000;
+
+    /**
+     * 종료 시 전송 중인 메일이 끝나기를 기다리는 최대 시간 (밀리초) - 시작하지 않은 메일은 즉시 큐로 되돌린다
+     */
+    private long shutdownTimeoutMillis = 20000;
+
+    /**
+     * 가상 스레드 모드(spring.threads.virtual.enabled)에서 SMTP 전송만 따로 실행할 플랫폼 스레드 수 (0 이면 가상 스레드에서 직접 전송)
+     * <p>
+     * JavaMail 의 SMTPTransport 는 synchronized 안에서 소켓 I/O 를 하므로, Java 21 에서는 전송 중 가상 스레드가 캐리어 스레드를 점유(pinning)한다.
+     */
+    private int smtpPlatformThreads = 0;
+}
@@ -0,0 +1,66 @@
+package com.hermes.config.properties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "hermes.mail.domain-throttle")
+public class MailDomainThrottleProperties {
+
+    /**
+     * 수신 도메인별 동시 전송 수 / 전송 속도 제한 여부
+     */
+    private boolean enabled = true;
+
+    /**
+     * 별도 설정이 없는 도메인의 노드당 최대 동시 전송 수
+     */
+    private int defaultMaxConcurrency = 20;
+
+    /**
+     * 별도 설정이 없는 도메인의 노드당 초당 최대 전송 수
+     */
+    private double defaultRatePerSecond = 50;
+
+    /**
+     * 도메인별 제한 (예: gmail.com, naver.com, daum.net)
+     */
+    private Map<String, Limit> domains = new LinkedHashMap<>();
+
+    /**
+     * 421 / 451 응답 시 전송 속도에 곱하는 비율
+     */
+    private double decreaseFactor = 0.5;
+
+    /**
+     * 지연 응답 없이 전송될 때 adjustIntervalMillis 마다 늘리는 초당 전송 수 (설정한 최대 속도까지)
+     */
+    private double increaseStep = 1;
+
+    /**
+     * 속도를 조정하는 최소 간격 (밀리초) - 동시에 돌아온 지연 응답 여러 개로 속도가 한 번에 무너지지 않도록 제한
+     */
+    private long adjustIntervalMillis = 1000;
+
+    /**
+     * 속도를 낮출 수 있는 하한 (초당 전송 수)
+     */
+    private double minRatePerSecond = 1;
+
+    /**
+     * 동시 전송 수가 가득 찬 도메인의 메일을 미루는 시간 (밀리초)
+     */
+    private long concurrencyDeferMillis = 500;
+
+    @Data
+    public static class Limit {
+
+        private int maxConcurrency = 20;
+
+        private double ratePerSecond = 50;
+    }
+}
@@ -0,0 +1,16 @@
+package com.hermes.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "hermes.mail.idempotency")
+public class MailIdempotencyProperties {
+
+    /**
+     * 멱등성 키를 기억하는 시간 (초) - 이 시간 안에 같은 키로 다시 요청하면 원래 응답을 돌려줌
+     */
+    private long ttlSeconds = 86_400;
+}
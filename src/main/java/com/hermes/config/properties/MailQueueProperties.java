@@ -0,0 +1,116 @@
+package com.hermes.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "hermes.mail.queue")
+public class MailQueueProperties {
+
+    /**
+     * 큐 저장소 (redis-list: Redis List, redis-stream: Redis Streams 컨슈머 그룹, local-journal: 로컬 디스크 저널, postgres: mail_log 테이블 SKIP LOCKED)
+     */
+    private String backend = "redis-list";
+
+    /**
+     * 메일 한 건의 처리 임대(lease) 시간 (초) - 이 시간 안에 완료되지 않으면 다시 큐에 넣는다
+     */
+    private long leaseSeconds = 300;
+
+    /**
+     * 소비자(워커) heartbeat 가 끊긴 것으로 판단하는 시간 (초)
+     */
+    private long consumerTimeoutSeconds = 60;
+
+    /**
+     * 만료된 임대를 회수하는 주기 (밀리초)
+     */
+    private long reaperIntervalMillis = 5000;
+
+    /**
+     * 한 번의 회수 주기에서 다시 큐에 넣는 최대 메일 수
+     */
+    private int reaperBatchSize = 100;
+
+    /**
+     * 공정 배분 시 그룹이 한 라운드에 가져가는 기본 메일 수 (queue_weight 설정값을 곱해 적용)
+     */
+    private int fairQuantum = 5;
+
+    /**
+     * 활성 그룹 목록을 다시 읽는 주기 (밀리초)
+     */
+    private long groupRefreshMillis = 200;
+
+    /**
+     * 그룹 가중치(queue_weight)를 로컬에 보관하는 시간 (초)
+     */
+    private long weightCacheSeconds = 30;
+
+    /**
+     * LOW 우선순위(대량 발송) 레인에 예약하는 처리량 비율 (0.0 ~ 1.0) - 나머지는 HIGH 레인이 먼저 사용
+     */
+    private double bulkShare = 0.2;
+
+    /**
+     * LOW 레인이 이 시간 동안 한 건도 처리되지 못하면 다음 회차를 LOW 레인에 전부 배정 (밀리초)
+     */
+    private long bulkAgingMillis = 30000;
+
+    /**
+     * Redis Streams 컨슈머 그룹 이름 (모든 노드가 같은 그룹에 참여)
+     */
+    private String streamGroup = "hermes-dispatcher";
+
+    /**
+     * 스트림에 보관하는 최대 항목 수 (처리 완료된 항목도 재생을 위해 이 한도까지 보관, 전달되지 않았거나 처리 중인 항목은 한도를 넘어도 지우지 않음)
+     */
+    private long streamMaxLength = 1_000_000;
+
+    /**
+     * postgres 저장소에서 새 메일을 알리는 LISTEN/NOTIFY 채널 이름
+     */
+    private String postgresNotifyChannel = "hermes_mail_queue";
+
+    /**
+     * local-journal 저장소 및 임시 보관(spill-over) 저널 디렉터리
+     */
+    private String journalDirectory = "./data/journal";
+
+    /**
+     * 저널 세그먼트 파일 크기 (바이트, 레코드 16바이트 단위)
+     */
+    private int journalSegmentBytes = 64 * 1024 * 1024;
+
+    /**
+     * 저널 디스크 동기화(msync) 주기 (밀리초) - 운영체제 장애 시 이 시간만큼의 기록이 유실될 수 있음
+     */
+    private long journalFsyncIntervalMillis = 100;
+
+    /**
+     * 큐 저장소(Redis)에 넣지 못한 메일을 로컬 저널에 임시 보관했다가 복구 후 다시 넣을지 여부
+     */
+    private boolean spilloverEnabled = false;
+
+    /**
+     * 임시 보관 메일을 큐 저장소로 다시 넣는 주기 (밀리초)
+     */
+    private long spilloverDrainIntervalMillis = 1000;
+
+    /**
+     * 저장 후 이 시간(초)이 지나도 큐 등록이 확인되지 않은 대기 메일을 미등록 메일 회수 대상으로 봄
+     */
+    private long outboxSweepAfterSeconds = 60;
+
+    /**
+     * 미등록 메일 회수 주기 (밀리초)
+     */
+    private long outboxSweepIntervalMillis = 30000;
+
+    /**
+     * 미등록 메일 회수 1회당 최대 메일 수
+     */
+    private int outboxSweepBatchSize = 500;
+}
@@ -0,0 +1,55 @@
+package com.hermes.config.properties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "hermes.mail.smtp")
+public class MailRelayProperties {
+
+    /**
+     * SMTP 전송 엔진 (javamail: 연결마다 스레드가 응답을 기다림, netty: 이벤트 루프 스레드 몇 개가 모든 연결의 I/O 처리)
+     */
+    private String engine = "javamail";
+
+    /**
+     * SMTP 릴레이 정의 (이름 -> 접속 정보) - 비어 있으면 spring.mail 릴레이 하나만 사용
+     */
+    private Map<String, Relay> relays = new LinkedHashMap<>();
+
+    /**
+     * 4xx 응답 / 연결 실패 / 시간 초과가 난 릴레이를 후순위로 미루는 시간 (밀리초)
+     */
+    private long failoverCooldownMillis = 30_000;
+
+    @Data
+    public static class Relay {
+
+        private String host;
+
+        private int port = 587;
+
+        private String username;
+
+        private String password;
+
+        /**
+         * 최대 동시 연결 수 (0 이면 hermes.mail.smtp.pool.max-connections)
+         */
+        private int maxConnections = 0;
+
+        /**
+         * 노드당 초당 최대 전송 수 (0 이면 제한 없음)
+         */
+        private int maxRatePerSecond = 0;
+
+        /**
+         * 그룹 라우팅 규칙(smtp_relays)이 없을 때 사용하는 가중치
+         */
+        private int weight = 1;
+    }
+}
@@ -0,0 +1,51 @@
+package com.hermes.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "hermes.mail.retry")
+public class MailRetryProperties {
+
+    /**
+     * 재시도 시간이 된 메일을 확인하는 주기 (밀리초)
+     */
+    private long pollIntervalMillis = 100;
+
+    /**
+     * 한 번에 큐로 옮기는 최대 메일 수
+     */
+    private int batchSize = 500;
+
+    /**
+     * 한 주기에서 반복하는 최대 배치 수 (밀린 재시도가 많을 때 한 번에 쏟아내지 않도록 제한)
+     */
+    private int maxBatchesPerPoll = 10;
+
+    /**
+     * 재시도마다 지연 시간에 곱하는 배수 (그룹 설정 retry_multiplier 로 덮어쓸 수 있음)
+     */
+    private double multiplier = 2.0;
+
+    /**
+     * 지연 시간 중 무작위로 흩뿌리는 비율 (0.0 ~ 1.0) - 장애 복구 직후 재시도가 한꺼번에 몰리지 않도록 분산
+     */
+    private double jitterRatio = 0.5;
+
+    /**
+     * 재시도 지연 시간 상한 (밀리초, 그룹 설정 retry_max_delay_millis 로 덮어쓸 수 있음)
+     */
+    private long maxDelayMillis = 3_600_000;
+
+    /**
+     * 큐로 옮기는 중인 재시도를 다시 예약하기까지의 시간 (초) - 옮기던 노드가 중단된 경우 대비
+     */
+    private long claimTimeoutSeconds = 60;
+
+    /**
+     * DLQ 재처리 시 한 번에 꺼내 큐에 넣는 메일 수 (힙 사용량과 DB 갱신 범위를 이 크기로 제한)
+     */
+    private int deadLetterChunkSize = 500;
+}
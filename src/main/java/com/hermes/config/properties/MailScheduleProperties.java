@@ -0,0 +1,46 @@
+package com.hermes.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "hermes.mail.schedule")
+public class MailScheduleProperties {
+
+    /**
+     * 예약 시각이 된 메일을 확인하는 주기 (밀리초)
+     */
+    private long tickMillis = 100;
+
+    /**
+     * 시간 단위 칸을 초 단위 칸으로 미리 나누는 시간 (밀리초) - 다음 시간이 이 시간 안으로 다가오면 나눔
+     */
+    private long cascadeLeadMillis = 60_000;
+
+    /**
+     * 한 tick 에서 시간 칸에서 초 칸으로 옮기는 최대 메일 수 (큰 캠페인을 여러 tick 에 나눠 옮김)
+     */
+    private int maxCascadePerTick = 5000;
+
+    /**
+     * 한 tick 에서 지나가는 최대 초 칸 수 (노드가 오래 멈췄다 재시작한 경우 밀린 칸을 나눠 처리)
+     */
+    private int maxSlotsPerTick = 1000;
+
+    /**
+     * 예약 메일을 큐로 풀어주는 초당 최대 건수 (모든 노드 합산) - 같은 시각에 예약된 캠페인을 이 속도로 나눠 보냄
+     */
+    private int releaseRatePerSecond = 500;
+
+    /**
+     * 한 번에 풀어줄 수 있는 최대 건수 (토큰 버킷 크기)
+     */
+    private int releaseBurst = 500;
+
+    /**
+     * 큐로 옮기는 중인 예약 메일을 다시 옮기기까지의 시간 (초) - 옮기던 노드가 중단된 경우 대비
+     */
+    private long claimTimeoutSeconds = 60;
+}
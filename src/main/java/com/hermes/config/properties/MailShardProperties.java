@@ -0,0 +1,31 @@
+package com.hermes.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "hermes.mail.shard")
+public class MailShardProperties {
+
+    /**
+     * groupKey 별 담당 노드를 일관 해싱으로 나눌지 여부 (redis-list 저장소에서만 적용)
+     */
+    private boolean enabled = false;
+
+    /**
+     * 노드 heartbeat 및 담당 노드 목록 갱신 주기 (밀리초)
+     */
+    private long heartbeatIntervalMillis = 1000;
+
+    /**
+     * heartbeat 가 이 시간 동안 없으면 노드가 빠진 것으로 보고 담당 그룹을 다른 노드에 넘김 (밀리초)
+     */
+    private long instanceTimeoutMillis = 5000;
+
+    /**
+     * 해시 링에 노드마다 배치하는 가상 노드 수 (많을수록 그룹이 고르게 나뉨)
+     */
+    private int virtualNodes = 128;
+}
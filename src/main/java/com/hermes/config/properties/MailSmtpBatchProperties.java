@@ -0,0 +1,31 @@
+package com.hermes.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "hermes.mail.smtp.batch")
+public class MailSmtpBatchProperties {
+
+    /**
+     * 디스패처가 한 번에 가져온 메일 중 같은 그룹(발신자 / 릴레이) 메일을 한 SMTP 세션으로 묶어 보낼지 여부
+     */
+    private boolean enabled = true;
+
+    /**
+     * 한 세션으로 묶는 최대 메일 수
+     */
+    private int maxMessagesPerSession = 50;
+
+    /**
+     * 제목과 내용이 같은 메일을 RCPT TO 여러 개의 DATA 트랜잭션 하나로 보낼지 여부 (To 헤더는 undisclosed-recipients 로 표시)
+     */
+    private boolean multiRecipient = true;
+
+    /**
+     * DATA 트랜잭션 하나에 넣는 최대 수신자 수 (릴레이의 RCPT 제한 이하로 설정, RFC 5321 최소 보장값 100)
+     */
+    private int maxRecipientsPerMessage = 50;
+}
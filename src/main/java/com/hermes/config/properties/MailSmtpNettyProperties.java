@@ -0,0 +1,56 @@
+package com.hermes.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "hermes.mail.smtp.netty")
+public class MailSmtpNettyProperties {
+
+    /**
+     * SMTP I/O 를 처리할 이벤트 루프 스레드 수 (0 이면 CPU 수)
+     */
+    private int eventLoopThreads = 0;
+
+    /**
+     * 연결 수립 제한 시간 (밀리초)
+     */
+    private long connectTimeoutMillis = 5000;
+
+    /**
+     * 명령 응답 제한 시간 (밀리초)
+     */
+    private long commandTimeoutMillis = 5000;
+
+    /**
+     * 본문 전송 후 최종 응답 제한 시간 (밀리초) - 큰 첨부파일은 서버 검사 시간이 길어짐
+     */
+    private long dataTimeoutMillis = 60_000;
+
+    /**
+     * 서버가 PIPELINING 을 지원하면 MAIL FROM / RCPT TO / DATA 를 한 번에 보냄
+     */
+    private boolean pipelining = true;
+
+    /**
+     * 서버가 지원하면 STARTTLS 로 암호화
+     */
+    private boolean starttlsEnable = true;
+
+    /**
+     * STARTTLS 를 지원하지 않는 서버에는 전송하지 않음
+     */
+    private boolean starttlsRequired = true;
+
+    /**
+     * 연결 즉시 TLS (465 포트 SMTPS)
+     */
+    private boolean ssl = false;
+
+    /**
+     * EHLO 에 사용할 호스트 이름 (비어 있으면 로컬 호스트 이름)
+     */
+    private String localHost;
+}
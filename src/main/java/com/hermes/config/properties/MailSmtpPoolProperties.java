@@ -0,0 +1,56 @@
+package com.hermes.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "hermes.mail.smtp.pool")
+public class MailSmtpPoolProperties {
+
+    /**
+     * 인증된 SMTP 연결을 재사용할지 여부 (false 면 메일마다 연결 + STARTTLS + AUTH)
+     */
+    private boolean enabled = true;
+
+    /**
+     * SMTP 릴레이(호스트 + 계정)별 최대 연결 수
+     */
+    private int maxConnections = 16;
+
+    /**
+     * 연결이 모두 사용 중일 때 기다리는 최대 시간 (밀리초)
+     */
+    private long borrowTimeoutMillis = 5000;
+
+    /**
+     * 이 시간 이상 사용하지 않은 연결은 닫음 (밀리초) - SMTP 서버의 유휴 연결 종료 시간보다 짧게 설정
+     */
+    private long idleTimeoutMillis = 30_000;
+
+    /**
+     * 이 시간 이상 쉬었던 연결은 빌려주기 전에 NOOP 으로 상태 확인 (밀리초)
+     */
+    private long validateAfterIdleMillis = 2000;
+
+    /**
+     * 연결 하나로 보내는 최대 메일 수 (서버의 세션당 메일 수 제한 대비)
+     */
+    private int maxMessagesPerConnection = 100;
+
+    /**
+     * 연결 최대 수명 (밀리초)
+     */
+    private long maxLifetimeMillis = 600_000;
+
+    /**
+     * 유휴 연결 정리 주기 (밀리초)
+     */
+    private long evictionIntervalMillis = 10_000;
+
+    /**
+     * 성공한 메일 뒤에도 RSET 으로 세션 상태를 초기화할지 여부 (실패한 메일 뒤에는 항상 RSET)
+     */
+    private boolean resetAfterEachMessage = false;
+}
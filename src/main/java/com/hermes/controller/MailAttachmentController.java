@@ -0,0 +1,33 @@
+package com.hermes.controller;
+
+import com.hermes.dto.MailAttachmentResponse;
+import com.hermes.service.attachment.MailAttachmentStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestPart;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/mail/attachments")
+public class MailAttachmentController {
+
+    private final MailAttachmentStore mailAttachmentStore;
+
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<MailAttachmentResponse> upload(@RequestPart("file") MultipartFile file, @RequestParam String groupKey) {
+        return ResponseEntity.ok(MailAttachmentResponse.from(mailAttachmentStore.store(groupKey, file)));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<MailAttachmentResponse> getAttachment(@PathVariable Long id, @RequestParam String groupKey) {
+        return ResponseEntity.ok(MailAttachmentResponse.from(mailAttachmentStore.getAttachment(id, groupKey)));
+    }
+}
@@ -12,7 +12,9 @@ import com.hermes.dto.TemplateMailRequest;
 import com.hermes.entity.MailLog;
 import com.hermes.service.MailQueueService;
 import com.hermes.service.MailService;
+import com.hermes.service.queue.MailQueueBackend;
 import jakarta.validation.Valid;
+import java.util.List;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -20,6 +22,7 @@ import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -28,17 +31,21 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/mail")
 public class MailController {
 
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     private final MailService mailService;
 
     @PostMapping("/send")
-    public ResponseEntity<MailResponse> sendMail(@Valid @RequestBody MailRequest request) {
-        MailResponse response = mailService.sendMail(request);
+    public ResponseEntity<MailResponse> sendMail(@Valid @RequestBody MailRequest request,
+        @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        MailResponse response = mailService.sendMail(request, idempotencyKey);
         return ResponseEntity.ok(response);
     }
 
     @PostMapping("/send/template")
-    public ResponseEntity<MailResponse> sendTemplatedMail(@Valid @RequestBody TemplateMailRequest request) {
-        MailResponse response = mailService.sendTemplatedMail(request);
+    public ResponseEntity<MailResponse> sendTemplatedMail(@Valid @RequestBody TemplateMailRequest request,
+        @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        MailResponse response = mailService.sendTemplatedMail(request, idempotencyKey);
         return ResponseEntity.ok(response);
     }
 
@@ -71,15 +78,23 @@ public class MailController {
         return ResponseEntity.ok(status);
     }
 
+    @GetMapping("/queue/consumers")
+    public ResponseEntity<List<MailQueueBackend.ConsumerStatus>> getQueueConsumers() {
+        List<MailQueueBackend.ConsumerStatus> consumers = mailService.getQueueConsumers();
+        return ResponseEntity.ok(consumers);
+    }
+
     @PostMapping("/send/bulk")
-    public ResponseEntity<BulkMailResponse> sendBulkMail(@Valid @RequestBody BulkMailRequest request) {
-        BulkMailResponse response = mailService.sendBulkMail(request);
+    public ResponseEntity<BulkMailResponse> sendBulkMail(@Valid @RequestBody BulkMailRequest request,
+        @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        BulkMailResponse response = mailService.sendBulkMail(request, idempotencyKey);
         return ResponseEntity.ok(response);
     }
 
     @PostMapping("/send/bulk/template")
-    public ResponseEntity<BulkMailResponse> sendBulkTemplatedMail(@Valid @RequestBody BulkTemplateMailRequest request) {
-        BulkMailResponse response = mailService.sendBulkTemplatedMail(request);
+    public ResponseEntity<BulkMailResponse> sendBulkTemplatedMail(@Valid @RequestBody BulkTemplateMailRequest request,
+        @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        BulkMailResponse response = mailService.sendBulkTemplatedMail(request, idempotencyKey);
         return ResponseEntity.ok(response);
     }
 
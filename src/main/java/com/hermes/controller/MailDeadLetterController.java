@@ -0,0 +1,51 @@
+package com.hermes.controller;
+
+import com.hermes.dto.DeadLetterEntry;
+import com.hermes.dto.DeadLetterReplayRequest;
+import com.hermes.dto.DeadLetterReplayResponse;
+import com.hermes.dto.DeadLetterSummaryResponse;
+import com.hermes.service.deadletter.MailDeadLetterQueue;
+import jakarta.validation.Valid;
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/mail/dlq")
+public class MailDeadLetterController {
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private final MailDeadLetterQueue mailDeadLetterQueue;
+
+    @GetMapping("/summary")
+    public ResponseEntity<DeadLetterSummaryResponse> getSummary() {
+        return ResponseEntity.ok(mailDeadLetterQueue.getSummary());
+    }
+
+    @GetMapping
+    public ResponseEntity<List<DeadLetterEntry>> getEntries(@RequestParam(required = false) String groupKey,
+        @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime from,
+        @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime to,
+        @RequestParam(required = false) String errorClass,
+        @RequestParam(defaultValue = "0") long offset,
+        @RequestParam(defaultValue = "100") int size) {
+
+        int pageSize = Math.min(Math.max(1, size), MAX_PAGE_SIZE);
+        return ResponseEntity.ok(mailDeadLetterQueue.getEntries(groupKey, from, to, errorClass, Math.max(0, offset), pageSize));
+    }
+
+    @PostMapping("/replay")
+    public ResponseEntity<DeadLetterReplayResponse> replay(@Valid @RequestBody DeadLetterReplayRequest request) {
+        return ResponseEntity.ok(mailDeadLetterQueue.replay(request));
+    }
+}
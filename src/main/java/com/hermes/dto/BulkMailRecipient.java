@@ -2,13 +2,18 @@ package com.hermes.dto;
 
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 
 public record BulkMailRecipient(
     @NotBlank(message = "수신자 이메일은 필수입니다")
     @Email(message = "올바른 이메일 형식이 아닙니다")
     String to,
 
-    String name  // 선택적 필드 (개인화를 위해)
+    String name,  // 선택적 필드 (개인화를 위해)
+
+    // 수신자별 멱등성 키 (생략 시 Idempotency-Key 헤더 + ":" + 수신자)
+    @Size(max = 200, message = "멱등성 키는 200자를 초과할 수 없습니다")
+    String idempotencyKey
 ) {
 
 }
\ No newline at end of file
@@ -1,9 +1,11 @@
 package com.hermes.dto;
 
+import com.fasterxml.jackson.annotation.JsonFormat;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Size;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public record BulkMailRequest(
@@ -22,7 +24,14 @@ public record BulkMailRequest(
     boolean isHtml,
 
     @NotBlank(message = "groupKey는 필수입니다")
-    String groupKey
+    String groupKey,
+
+    // 예약 발송 시각 (생략하거나 지난 시각이면 즉시 발송)
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    LocalDateTime sendAt,
+
+    // 모든 수신자에게 붙일 첨부 파일 ID 목록 (파일은 한 번만 저장되고 메일 로그에는 ID 만 남음)
+    List<Long> attachmentIds
 ) {
 
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.hermes.dto;
 
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 import java.util.Map;
 
 public record BulkTemplateMailRecipient(
@@ -9,7 +10,11 @@ public record BulkTemplateMailRecipient(
     @Email(message = "올바른 이메일 형식이 아닙니다")
     String to,
 
-    Map<String, String> variables  // 각 수신자별 개별 변수
+    Map<String, String> variables,  // 각 수신자별 개별 변수
+
+    // 수신자별 멱등성 키 (생략 시 Idempotency-Key 헤더 + ":" + 수신자)
+    @Size(max = 200, message = "멱등성 키는 200자를 초과할 수 없습니다")
+    String idempotencyKey
 ) {
 
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.hermes.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.hermes.entity.MailLog;
+import java.time.LocalDateTime;
+
+public record DeadLetterEntry(
+    Long mailLogId,
+    String groupKey,
+    MailLog.MailPriority priority,
+    String errorClass,
+    String errorMessage,
+    int attempts,
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss.SSS")
+    LocalDateTime failedAt
+) {
+
+}
@@ -0,0 +1,26 @@
+package com.hermes.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.validation.constraints.Positive;
+import java.time.LocalDateTime;
+
+public record DeadLetterReplayRequest(
+    // 대상 그룹 (생략 시 전체)
+    String groupKey,
+
+    // 실패 시각 범위 (생략 시 제한 없음)
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    LocalDateTime from,
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    LocalDateTime to,
+
+    // 오류 분류 (생략 시 전체)
+    String errorClass,
+
+    // 최대 재처리 수 (생략 시 조건에 맞는 전체)
+    @Positive(message = "최대 재처리 수는 1 이상이어야 합니다")
+    Integer limit
+) {
+
+}
@@ -0,0 +1,9 @@
+package com.hermes.dto;
+
+public record DeadLetterReplayResponse(
+    long replayedCount,
+    long skippedCount,
+    int chunkCount
+) {
+
+}
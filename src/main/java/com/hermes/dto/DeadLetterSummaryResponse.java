@@ -0,0 +1,10 @@
+package com.hermes.dto;
+
+import java.util.Map;
+
+public record DeadLetterSummaryResponse(
+    long totalCount,
+    Map<String, Long> countByErrorClass
+) {
+
+}
@@ -0,0 +1,27 @@
+package com.hermes.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.hermes.entity.MailAttachment;
+import java.time.LocalDateTime;
+
+public record MailAttachmentResponse(
+    Long id,
+    String fileName,
+    String contentType,
+    Long size,
+    String contentHash,
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss.SSS")
+    LocalDateTime createdAt
+) {
+
+    public static MailAttachmentResponse from(MailAttachment attachment) {
+        return new MailAttachmentResponse(
+            attachment.getId(),
+            attachment.getFileName(),
+            attachment.getContentType(),
+            attachment.getSize(),
+            attachment.getContentHash(),
+            attachment.getCreatedAt()
+        );
+    }
+}
@@ -11,6 +11,8 @@ public record MailResponse(
     MailLog.MailStatus status,
     String errorMessage,
     @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss.SSS")
+    LocalDateTime scheduledAt,
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss.SSS")
     LocalDateTime sentAt,
     @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss.SSS")
     LocalDateTime createdAt
@@ -23,6 +25,7 @@ public record MailResponse(
             mailLog.getSubject(),
             mailLog.getStatus(),
             mailLog.getErrorMessage(),
+            mailLog.getScheduledAt(),
             mailLog.getSentAt(),
             mailLog.getCreatedAt()
         );
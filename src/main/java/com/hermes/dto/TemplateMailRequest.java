@@ -1,7 +1,11 @@
 package com.hermes.dto;
 
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.hermes.entity.MailLog;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 
 public record TemplateMailRequest(
@@ -15,7 +19,17 @@ public record TemplateMailRequest(
     Map<String, String> variables,
 
     @NotBlank(message = "groupKey는 필수입니다")
-    String groupKey
+    String groupKey,
+
+    // 큐 우선순위 (생략 시 HIGH)
+    MailLog.MailPriority priority,
+
+    // 예약 발송 시각 (생략하거나 지난 시각이면 즉시 발송)
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    LocalDateTime sendAt,
+
+    // 첨부 파일 ID 목록 (POST /mail/attachments 로 먼저 업로드)
+    List<Long> attachmentIds
 ) {
 
 }
\ No newline at end of file
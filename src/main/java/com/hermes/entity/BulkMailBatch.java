@@ -7,6 +7,7 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import java.time.LocalDateTime;
 import lombok.AllArgsConstructor;
@@ -32,7 +33,8 @@ import org.springframework.data.annotation.CreatedDate;
 public class BulkMailBatch {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bulk_mail_batch_id_seq")
+    @SequenceGenerator(name = "bulk_mail_batch_id_seq", sequenceName = "bulk_mail_batch_id_seq", allocationSize = 20)
     @Comment("배치 고유 ID")
     private Long id;
 
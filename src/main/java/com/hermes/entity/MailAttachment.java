@@ -0,0 +1,60 @@
+package com.hermes.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Comment;
+import org.hibernate.annotations.DynamicInsert;
+import org.hibernate.annotations.DynamicUpdate;
+import org.springframework.data.annotation.CreatedDate;
+
+@Entity
+@Getter
+@Builder
+@ToString
+@DynamicInsert
+@DynamicUpdate
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "mail_attachment")
+@Comment("메일 첨부 파일 테이블 (파일 내용은 내용 해시 이름으로 디스크에 한 번만 저장)")
+public class MailAttachment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Comment("첨부 파일 고유 ID")
+    private Long id;
+
+    @Comment("첨부 파일 그룹 KEY")
+    private String groupKey;
+
+    @Column(name = "file_name")
+    @Comment("첨부 파일 이름")
+    private String fileName;
+
+    @Column(name = "content_type")
+    @Comment("첨부 파일 MIME 타입")
+    private String contentType;
+
+    @Column(name = "size")
+    @Comment("첨부 파일 크기 (바이트)")
+    private Long size;
+
+    @Column(name = "content_hash")
+    @Comment("파일 내용 SHA-256 (저장 파일 이름)")
+    private String contentHash;
+
+    @CreatedDate
+    @Column(name = "created_at", nullable = false, updatable = false)
+    @Comment("업로드 시간")
+    private LocalDateTime createdAt;
+}
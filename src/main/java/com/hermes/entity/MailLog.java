@@ -8,6 +8,7 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import java.time.LocalDateTime;
 import lombok.AllArgsConstructor;
@@ -32,8 +33,10 @@ import org.springframework.data.annotation.CreatedDate;
 @Comment("메일 전송 로그 테이블")
 public class MailLog {
 
+    // 시퀀스에서 allocationSize 개씩 미리 받아 두므로 대량 발송 INSERT 가 JDBC 배치(hibernate.jdbc.batch_size)로 묶임 (IDENTITY 는 배치 불가)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "mail_log_id_seq")
+    @SequenceGenerator(name = "mail_log_id_seq", sequenceName = "mail_log_id_seq", allocationSize = 100)
     @Comment("메일 로그 고유 ID")
     private Long id;
 
@@ -58,6 +61,33 @@ public class MailLog {
     @Comment("전송 상태 (PENDING, SENT, FAILED)")
     private MailStatus status = MailStatus.PENDING;
 
+    @Enumerated(EnumType.STRING)
+    @Column(name = "priority")
+    @Builder.Default
+    @Comment("큐 우선순위 (HIGH: 트랜잭션 메일, LOW: 대량 발송)")
+    private MailPriority priority = MailPriority.LOW;
+
+    @Column(name = "attachment_ids")
+    @Comment("첨부 파일 ID 목록 (쉼표로 구분, mail_attachment.id - 파일 내용은 한 번만 저장)")
+    private String attachmentIds;
+
+    @Column(name = "idempotency_key")
+    @Comment("발송 요청 멱등성 키 (같은 키로 다시 요청하면 이 메일을 돌려줌)")
+    private String idempotencyKey;
+
+    @Column(name = "scheduled_at")
+    @Comment("예약 발송 시각 (없으면 즉시 발송)")
+    private LocalDateTime scheduledAt;
+
+    @Column(name = "available_at", updatable = false)
+    @Comment("처리 가능 시각 (postgres 큐 저장소의 임대 기한 / 재시도 시각, 예약 메일은 예약 시각으로 저장) - 저장 후에는 큐 저장소만 갱신")
+    private LocalDateTime availableAt;
+
+    @Column(name = "enqueued")
+    @Builder.Default
+    @Comment("큐(또는 예약 지연 큐) 등록 여부 - 커밋 후 등록에 성공하면 true, false 로 오래 남은 PENDING 메일은 미등록 메일 회수가 다시 등록")
+    private Boolean enqueued = false;
+
     @Column(name = "sent_at")
     @Comment("실제 전송 완료 시간")
     private LocalDateTime sentAt;
@@ -75,6 +105,10 @@ public class MailLog {
         PENDING, SENT, FAILED
     }
 
+    public enum MailPriority {
+        HIGH, LOW
+    }
+
     // 편의 생성자
     public MailLog(String recipient, String subject, String content) {
         this.recipient = recipient;
@@ -100,5 +134,12 @@ public class MailLog {
         if (status == null) {
             status = MailStatus.PENDING;
         }
+        if (enqueued == null) {
+            enqueued = false;
+        }
+        // 예약 메일은 INSERT 시점부터 예약 시각 전에는 가져갈 수 없도록 (없으면 컬럼 기본값 now())
+        if (availableAt == null) {
+            availableAt = scheduledAt;
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.hermes.repository;
+
+import com.hermes.entity.MailAttachment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface MailAttachmentRepository extends JpaRepository<MailAttachment, Long> {
+
+}
@@ -2,9 +2,14 @@ package com.hermes.repository;
 
 import com.hermes.entity.MailLog;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -24,4 +29,34 @@ public interface MailLogRepository extends JpaRepository<MailLog, Long> {
     long countByStatusAndGroupKeyAndSentAtAfter(MailLog.MailStatus status, String groupKey, LocalDateTime sentAt);
 
     java.util.Optional<MailLog> findByIdAndGroupKey(Long id, String groupKey);
+
+    // 멱등성 키로 원래 요청 조회
+    java.util.Optional<MailLog> findFirstByGroupKeyAndIdempotencyKeyOrderByIdDesc(String groupKey, String idempotencyKey);
+
+    java.util.List<MailLog> findByGroupKeyAndIdempotencyKeyIn(String groupKey, Collection<String> idempotencyKeys);
+
+    // 실패 상태인 메일만 대기 상태로 되돌리고 되돌린 ID 반환 (큐에 넣기 전이므로 미등록으로 표시)
+    @Query(value = """
+        WITH updated AS (
+            UPDATE mail_log SET status = 'PENDING', enqueued = false
+            WHERE id IN (:ids) AND status = 'FAILED'
+            RETURNING id
+        )
+        SELECT id FROM updated
+        """, nativeQuery = true)
+    List<Long> updateFailedToPendingByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("update MailLog m set m.enqueued = :enqueued where m.id in :ids")
+    int updateEnqueuedByIdIn(@Param("enqueued") boolean enqueued, @Param("ids") Collection<Long> ids);
+
+    // 큐 등록이 확인되지 않은 채 오래 남은 대기 메일 (여러 노드가 나눠 가져가도록 잠긴 행은 건너뜀)
+    @Query(value = """
+        SELECT * FROM mail_log
+        WHERE status = 'PENDING' AND enqueued = false AND created_at < :createdBefore
+        ORDER BY id
+        LIMIT :limit
+        FOR UPDATE SKIP LOCKED
+        """, nativeQuery = true)
+    List<MailLog> findUnqueuedForUpdate(@Param("createdBefore") LocalDateTime createdBefore, @Param("limit") int limit);
 }
\ No newline at end of file
@@ -3,9 +3,12 @@ package com.hermes.service;
 import com.hermes.entity.MailLog;
 import com.hermes.repository.MailLogRepository;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 @Slf4j
@@ -46,4 +49,42 @@ public class MailLogService {
 
         mailLogRepository.save(mailLog);
     }
-}
\ No newline at end of file
+
+    /**
+     * 재처리 대상 메일 중 FAILED 상태인 메일만 PENDING 으로 되돌리고 되돌린 ID 반환 (청크 단위 일괄 변경)
+     * <p>
+     * 그 사이 전송되었거나 이미 대기 중인 메일은 건드리지 않는다. 되돌린 메일은 큐 등록이 확인될 때까지 미등록으로 표시되어, 큐에 넣지 못해도 미등록 메일 회수가 다시 등록한다.
+     */
+    @Transactional
+    public List<Long> markPending(List<Long> mailLogIds) {
+        if (mailLogIds.isEmpty()) {
+            return List.of();
+        }
+        return mailLogRepository.updateFailedToPendingByIdIn(mailLogIds);
+    }
+
+    /**
+     * 큐 등록 여부 기록 - 커밋 후(afterCommit) 호출되어도 원래 트랜잭션에 참여하지 않도록 새 트랜잭션으로 처리
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void markEnqueued(Collection<Long> mailLogIds, boolean enqueued) {
+        if (mailLogIds.isEmpty()) {
+            return;
+        }
+        mailLogRepository.updateEnqueuedByIdIn(enqueued, mailLogIds);
+    }
+
+    /**
+     * createdBefore 이전에 저장되었는데 큐 등록이 확인되지 않은 대기 메일을 최대 limit 건 가져와 등록된 것으로 표시
+     * <p>
+     * 표시한 뒤 커밋하므로 다른 노드가 같은 메일을 다시 가져가지 않는다. 호출자는 큐 등록에 실패한 메일을 markEnqueued(false) 로 되돌린다.
+     */
+    @Transactional
+    public List<MailLog> claimUnqueuedMails(LocalDateTime createdBefore, int limit) {
+        List<MailLog> mailLogs = mailLogRepository.findUnqueuedForUpdate(createdBefore, limit);
+        if (!mailLogs.isEmpty()) {
+            mailLogRepository.updateEnqueuedByIdIn(true, mailLogs.stream().map(MailLog::getId).toList());
+        }
+        return mailLogs;
+    }
+}
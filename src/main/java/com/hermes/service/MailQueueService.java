@@ -1,278 +1,630 @@
 package com.hermes.service;
 
+import com.hermes.config.properties.MailQueueProperties;
+import com.hermes.config.properties.MailRelayProperties;
+import com.hermes.config.properties.MailSmtpBatchProperties;
 import com.hermes.entity.MailLog;
 import com.hermes.repository.MailLogRepository;
+import com.hermes.service.attachment.MailAttachmentStore;
+import com.hermes.service.deadletter.MailDeadLetterQueue;
+import com.hermes.service.dispatch.DispatchInstanceRegistry;
+import com.hermes.service.dispatch.RecipientDomainThrottle;
+import com.hermes.service.dispatch.VirtualThreadPinningGuard;
+import com.hermes.service.queue.MailQueueBackend;
+import com.hermes.service.queue.MailQueueConsumer;
+import com.hermes.service.queue.MailQueueSpillover;
+import com.hermes.service.retry.MailRetryScheduler;
+import com.hermes.service.schedule.MailDelayQueue;
+import com.hermes.service.smtp.SmtpFailureClass;
+import com.hermes.service.smtp.SmtpFailureClassifier;
+import com.hermes.service.smtp.SmtpSubmission;
+import com.hermes.service.smtp.SmtpTransportPool;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.mail.Address;
 import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
 import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeBodyPart;
 import jakarta.mail.internet.MimeMessage;
+import jakarta.mail.internet.MimeMultipart;
 import java.io.UnsupportedEncodingException;
-import java.util.concurrent.TimeUnit;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class MailQueueService {
 
-    private static final String MAIL_QUEUE_KEY = "mail:queue";
-    private static final String MAIL_PROCESSING_KEY = "mail:processing";
-    private static final String MAIL_RETRY_KEY = "mail:retry";
+    // 조회되지 않은 메일을 다시 큐에 넣기까지의 지연
+    private static final long UNLOADED_RETRY_DELAY_MILLIS = 1_000;
 
-    private final RedisTemplate<String, Object> redisTemplate;
     private final JavaMailSender mailSender;
     private final MailLogRepository mailLogRepository;
     private final MailSettingService mailSettingService;
     private final MailLogService mailLogService;
+    private final MailQueueBackend mailQueueBackend;
+    private final MailRetryScheduler mailRetryScheduler;
+    private final MailDeadLetterQueue mailDeadLetterQueue;
+    private final ObjectProvider<MailQueueSpillover> mailQueueSpillover;
+    private final DispatchInstanceRegistry dispatchInstanceRegistry;
+    private final VirtualThreadPinningGuard virtualThreadPinningGuard;
+    private final MailDelayQueue mailDelayQueue;
+    private final SmtpTransportPool smtpTransportPool;
+    private final MailSmtpBatchProperties smtpBatchProperties;
+    private final RecipientDomainThrottle recipientDomainThrottle;
+    private final SmtpFailureClassifier smtpFailureClassifier;
+    private final MailAttachmentStore mailAttachmentStore;
+    private final MailRelayProperties relayProperties;
+    private final MailQueueProperties queueProperties;
+    private final MeterRegistry meterRegistry;
 
     /**
-     * 메일을 큐에 추가
+     * 메일 로그를 큐에 추가 (예약 시각이 아직 오지 않았으면 지연 큐에 보관했다가 그 시각에 큐로 이동)
      */
-    public void enqueueMailForSending(Long mailLogId) {
-        redisTemplate.opsForList().rightPush(MAIL_QUEUE_KEY, mailLogId);
-        log.debug("메일 큐에 추가: ID = {}", mailLogId);
+    public void enqueueMailForSending(MailLog mailLog) {
+        enqueueMailsForSending(List.of(mailLog));
     }
 
     /**
-     * 큐에서 메일을 꺼내서 처리 (스케줄러로 주기적 실행) 대량 발송을 위해 배치 처리 지원
+     * 메일 로그 여러 건을 큐에 추가하고 등록된 메일을 한 번에 표시
+     * <p>
+     * 트랜잭션 안에서 호출되면 커밋된 뒤에 등록한다. 커밋 전에 넣으면 대기 중인 워커가 바로 가져가 아직 보이지 않는 메일 로그를 조회하게 된다. 커밋 후 등록에 실패하거나 그 전에 노드가 중단되면 메일 로그는 enqueued = false 로 남고, 미등록 메일 회수(sweepUnqueuedMails)가 다시 등록한다.
      */
-//    @Scheduled(cron = "0/2 * * * * *") // 2초
-    @Scheduled(fixedDelay = 2, initialDelay = 3, timeUnit = TimeUnit.SECONDS) // 2초
-    public void processMailQueue() {
+    public void enqueueMailsForSending(List<MailLog> mailLogs) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueueCommitted(mailLogs);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                enqueueCommitted(mailLogs);
+            }
+        });
+    }
+
+    private void enqueueCommitted(List<MailLog> mailLogs) {
+        List<Long> enqueued = new ArrayList<>(mailLogs.size());
+        for (MailLog mailLog : mailLogs) {
+            try {
+                enqueueCommitted(mailLog);
+                enqueued.add(mailLog.getId());
+            } catch (Exception e) {
+                log.error("커밋 후 메일 큐 등록 실패 (미등록 메일 회수에서 다시 등록): ID = {}, 오류 = {}", mailLog.getId(), e.getMessage());
+            }
+        }
+
         try {
-            // 배치 크기 (그룹 컨텍스트가 없으므로 안전한 기본값 사용)
-            int batchSize = 10;
+            mailLogService.markEnqueued(enqueued, true);
+        } catch (Exception e) {
+            // 표시하지 못한 메일은 미등록 메일 회수가 한 번 더 넣을 수 있음 (처리 시 이미 전송된 메일은 건너뜀)
+            log.warn("메일 큐 등록 표시 실패: {}건, 오류 = {}", enqueued.size(), e.getMessage());
+        }
+    }
 
-            // 배치 단위로 메일 처리
-            for (int i = 0; i < batchSize; i++) {
-                Object mailLogId = redisTemplate.opsForList().leftPop(MAIL_QUEUE_KEY);
+    private void enqueueCommitted(MailLog mailLog) {
+        if (scheduleIfNotDue(mailLog)) {
+            return;
+        }
 
-                if (mailLogId == null) {
-                    break; // 큐가 비어있으면 종료
-                }
+        enqueueMailForSending(mailLog.getId(), mailLog.getGroupKey(), mailLog.getPriority());
+    }
 
-                Long id = parseLongSafely(mailLogId.toString());
-                if (id == null) {
-                    log.warn("잘못된 메일 ID 형식: {}", mailLogId);
-                    continue;
-                }
+    /**
+     * 예약 시각이 아직 오지 않았으면 지연 큐에 (다시) 등록하고 true
+     */
+    private boolean scheduleIfNotDue(MailLog mailLog) {
+        LocalDateTime scheduledAt = mailLog.getScheduledAt();
+        if (scheduledAt == null || !scheduledAt.isAfter(LocalDateTime.now())) {
+            return false;
+        }
+
+        long sendAtMillis = scheduledAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        mailDelayQueue.schedule(mailLog.getId(), mailLog.getGroupKey(), mailLog.getPriority(), sendAtMillis);
+        log.debug("메일 예약 등록: ID = {}, 예약 시각 = {}", mailLog.getId(), scheduledAt);
+        return true;
+    }
+
+    /**
+     * 메일을 큐에 추가 (우선순위 레인 안에서 groupKey 별로 공정하게 배분됨)
+     * <p>
+     * 큐 저장소에 넣지 못하면 임시 보관(spill-over)이 켜져 있는 경우 로컬 저널에 보관했다가 복구 후 다시 넣는다.
+     */
+    public void enqueueMailForSending(Long mailLogId, String groupKey, MailLog.MailPriority priority) {
+        try {
+            mailQueueBackend.enqueue(mailLogId, groupKey, priority);
+        } catch (RuntimeException e) {
+            MailQueueSpillover spillover = mailQueueSpillover.getIfAvailable();
+            if (spillover == null) {
+                throw e;
+            }
+            spillover.spill(mailLogId);
+            log.warn("큐 저장소 등록 실패로 로컬 저널에 임시 보관: ID = {}, 오류 = {}", mailLogId, e.getMessage());
+            return;
+        }
+        log.debug("메일 큐에 추가: ID = {}, groupKey = {}, 우선순위 = {}", mailLogId, groupKey, priority);
+    }
+
+    /**
+     * 실패 횟수를 늘리지 않고 지정한 시간 뒤 다시 전송 (수신 도메인 전송 속도 제한)
+     */
+    public void deferMail(MailLog mailLog, long delayMillis) {
+        mailRetryScheduler.defer(mailLog, delayMillis);
+        log.debug("메일 전송 연기: ID = {}, 수신자 = {}, 지연 = {}ms", mailLog.getId(), mailLog.getRecipient(), delayMillis);
+    }
+
+    /**
+     * 디스패처 워커용 큐 소비자 생성
+     */
+    public MailQueueConsumer createConsumer(int workerIndex) {
+        return mailQueueBackend.createConsumer(dispatchInstanceRegistry.getInstanceId() + ":" + workerIndex);
+    }
 
-                // 처리 중 큐에 추가 (중복 처리 방지)
-                redisTemplate.opsForSet().add(MAIL_PROCESSING_KEY, id);
-                redisTemplate.expire(MAIL_PROCESSING_KEY, 10, TimeUnit.MINUTES);
+    /**
+     * 멈춘 메일 회수 (임대 만료, 중단된 소비자)
+     */
+    @Scheduled(fixedDelayString = "${hermes.mail.queue.reaper-interval-millis:5000}", initialDelay = 10000)
+    public void recoverStuckMails() {
+        try {
+            mailQueueBackend.recoverStuckMails();
+        } catch (Exception e) {
+            log.error("멈춘 메일 회수 중 오류 발생: {}", e.getMessage());
+        }
+    }
 
-                log.debug("메일 전송 처리 시작: ID = {}", id);
-                processMailSending(id);
+    /**
+     * 미등록 메일 회수 (outbox sweep) - 저장된 지 outboxSweepAfterSeconds 가 지났는데 큐 등록이 확인되지 않은 대기 메일을 다시 등록
+     * <p>
+     * 커밋 후 큐 등록이 실패했거나 등록 전에 노드가 중단된 메일이 대상이다. 가져간 메일은 먼저 등록된 것으로 표시해 다른 노드와 겹치지 않게 하고, 등록에 실패한 메일만 되돌려 다음 주기에 다시 시도한다.
+     */
+    @Scheduled(fixedDelayString = "${hermes.mail.queue.outbox-sweep-interval-millis:30000}", initialDelay = 30000)
+    public void sweepUnqueuedMails() {
+        try {
+            LocalDateTime createdBefore = LocalDateTime.now().minusSeconds(queueProperties.getOutboxSweepAfterSeconds());
+            List<MailLog> mailLogs = mailLogService.claimUnqueuedMails(createdBefore, Math.max(1, queueProperties.getOutboxSweepBatchSize()));
+            if (mailLogs.isEmpty()) {
+                return;
+            }
 
-                // 처리 완료 후 처리 중 큐에서 제거
-                redisTemplate.opsForSet().remove(MAIL_PROCESSING_KEY, id);
+            List<Long> failed = new ArrayList<>();
+            for (MailLog mailLog : mailLogs) {
+                try {
+                    enqueueCommitted(mailLog);
+                } catch (Exception e) {
+                    failed.add(mailLog.getId());
+                }
             }
+            if (!failed.isEmpty()) {
+                mailLogService.markEnqueued(failed, false);
+            }
+            log.warn("큐 등록이 확인되지 않은 메일 재등록: {}건 (실패 {}건)", mailLogs.size() - failed.size(), failed.size());
         } catch (Exception e) {
-            log.error("메일 큐 처리 중 오류 발생: {}", e.getMessage(), e);
+            log.error("미등록 메일 회수 중 오류 발생: {}", e.getMessage());
         }
     }
 
     /**
      * 실제 메일 전송 처리
      */
-    private void processMailSending(Long mailLogId) {
+    public boolean processMailSending(Long mailLogId) {
+        return processMailSending(mailLogId, null);
+    }
+
+    /**
+     * 디스패처가 여러 건을 한 번에 조회할 때 사용 (조회되지 않은 메일은 개별 조회)
+     */
+    public Map<Long, MailLog> loadMailLogs(List<Long> mailLogIds) {
         try {
-            MailLog mailLog = mailLogRepository.findById(mailLogId).orElseThrow(() -> new RuntimeException("메일 로그를 찾을 수 없습니다: " + mailLogId));
+            return mailLogRepository.findAllById(mailLogIds).stream()
+                .collect(Collectors.toMap(MailLog::getId, Function.identity()));
+        } catch (Exception e) {
+            log.warn("메일 로그 일괄 조회 실패, 개별 조회로 처리합니다: {}", e.getMessage());
+            return Map.of();
+        }
+    }
+
+    /**
+     * 실제 메일 전송 처리 (미리 조회한 메일 로그 사용)
+     *
+     * @return 처리 결과(전송, 재시도 예약, 최종 실패)를 기록했으면 true - false 면(Redis 장애로 재시도 예약 실패 등) 디스패처가 처리 완료 대신 큐로 되돌림
+     */
+    public boolean processMailSending(Long mailLogId, MailLog preloaded) {
+        log.debug("메일 전송 처리 시작: ID = {}", mailLogId);
+
+        MailLog mailLog = preloaded;
+        if (mailLog == null) {
+            mailLog = findMailLog(mailLogId);
+            if (mailLog == null) {
+                return deferUnloaded(mailLogId);
+            }
+        }
 
+        try {
             // 이미 전송된 메일은 스킵
             if (mailLog.getStatus() == MailLog.MailStatus.SENT) {
                 log.info("이미 전송된 메일입니다: ID = {}", mailLogId);
-                return;
+                return true;
+            }
+            if (isNotDue(mailLog)) {
+                return true;
             }
 
             // 메일 전송
             sendMail(mailLog);
 
             // 성공 시 상태 업데이트
+            recipientDomainThrottle.recordSuccess(mailLog.getRecipient());
             mailLogService.updateMailLogStatus(mailLog, MailLog.MailStatus.SENT, null);
             log.info("메일 전송 성공: {} -> {}", mailLog.getSubject(), mailLog.getRecipient());
 
         } catch (Exception e) {
             log.error("메일 전송 실패: ID = {}, 오류 = {}", mailLogId, e.getMessage());
-            handleMailError(mailLogId, e.getMessage());
+            return handleMailError(mailLogId, mailLog, e);
         }
+        return true;
     }
 
     /**
-     * 실제 메일 전송
+     * 예약 시각 전에 큐에서 꺼낸 메일은 보내지 않고 예약 시각에 다시 큐로 오도록 등록 (다시 등록하지 못하면 등록 안 됨으로 되돌려 미등록 메일 회수가 다시 넣음)
      */
-    private void sendMail(MailLog mailLog) throws MessagingException, UnsupportedEncodingException {
-        MimeMessage message = mailSender.createMimeMessage();
-
-        String sender = mailSettingService.getSettingValue(mailLog.getGroupKey(), "from_address");
-        String senderName = mailSettingService.getSettingValue(mailLog.getGroupKey(), "from_name");
-        message.setFrom(new InternetAddress(sender, senderName, "UTF-8"));
-        message.setRecipients(MimeMessage.RecipientType.TO, mailLog.getRecipient());
-        message.setSubject(mailLog.getSubject());
-        message.setText(mailLog.getContent(), "UTF-8", "html");
-
-        mailSender.send(message);
+    private boolean isNotDue(MailLog mailLog) {
+        try {
+            if (!scheduleIfNotDue(mailLog)) {
+                return false;
+            }
+            log.info("예약 시각 전에 꺼낸 메일을 다시 예약: ID = {}, 예약 시각 = {}", mailLog.getId(), mailLog.getScheduledAt());
+        } catch (Exception e) {
+            log.error("예약 시각 전에 꺼낸 메일 재예약 실패 (미등록 메일 회수에서 다시 등록): ID = {}, 오류 = {}", mailLog.getId(), e.getMessage());
+            try {
+                mailLogService.markEnqueued(List.of(mailLog.getId()), false);
+            } catch (Exception markException) {
+                log.error("메일 큐 미등록 표시 실패: ID = {}, 오류 = {}", mailLog.getId(), markException.getMessage());
+            }
+        }
+        return true;
     }
 
     /**
-     * 메일 전송 실패 처리
+     * 큐에서 가져온 메일 로그 개별 조회 - 조회되지 않으면(복제 지연, 일시적인 DB 오류) null
      */
-    private void handleMailError(Long mailLogId, String errorMessage) {
+    private MailLog findMailLog(Long mailLogId) {
         try {
             MailLog mailLog = mailLogRepository.findById(mailLogId).orElse(null);
-            if (mailLog == null) {
-                return;
+            if (mailLog != null) {
+                return mailLog;
             }
+            log.warn("메일 로그를 찾을 수 없어 다시 예약: ID = {}", mailLogId);
+        } catch (Exception e) {
+            log.warn("메일 로그 조회 실패로 다시 예약: ID = {}, 오류 = {}", mailLogId, e.getMessage());
+        }
+        return null;
+    }
 
-            // 재시도 횟수 확인
-            int maxRetryCount = mailSettingService.getSettingValueAsInt(mailLog.getGroupKey(), "max_retry_count", 3);
-            int currentRetryCount = getCurrentRetryCount(mailLogId);
+    /**
+     * 조회되지 않은 메일을 처리 완료로 버리지 않고 잠시 뒤 다시 큐에 넣도록 예약 (예약하지 못하면 false)
+     */
+    private boolean deferUnloaded(Long mailLogId) {
+        try {
+            mailRetryScheduler.deferUnloaded(mailLogId, UNLOADED_RETRY_DELAY_MILLIS);
+            return true;
+        } catch (Exception e) {
+            log.error("조회되지 않은 메일 재예약 실패: ID = {}, 오류 = {}", mailLogId, e.getMessage());
+            return false;
+        }
+    }
 
-            if (currentRetryCount < maxRetryCount) {
-                // 재시도 큐에 추가
-                scheduleRetry(mailLogId, currentRetryCount + 1);
-                log.info("메일 재시도 예약: ID = {}, 시도 횟수 = {}", mailLogId, currentRetryCount + 1);
-            } else {
-                // 최대 재시도 횟수 초과 시 실패 처리
-                mailLogService.updateMailLogStatus(mailLog, MailLog.MailStatus.FAILED, errorMessage);
-                log.error("메일 전송 최종 실패: ID = {}, 오류 = {}", mailLogId, errorMessage);
+    /**
+     * 같은 그룹 메일을 한 SMTP 세션으로 전송 (제목과 내용이 같은 메일은 RCPT TO 여러 개의 DATA 트랜잭션 하나로 묶음)
+     * <p>
+     * 부분 전송 결과(거부된 수신자, 보내지 못한 수신자)는 수신자 주소로 각 메일 로그에 돌려 성공 처리 또는 재시도 / DLQ 처리한다.
+     *
+     * @return 처리 결과를 기록하지 못한 메일 ID (디스패처가 처리 완료 대신 큐로 되돌림)
+     */
+    public List<Long> processMailSendingBatch(List<Long> mailLogIds, Map<Long, MailLog> preloaded) {
+        List<Long> unsettled = new ArrayList<>();
+        List<MailLog> pending = new ArrayList<>(mailLogIds.size());
+        for (Long mailLogId : mailLogIds) {
+            MailLog mailLog = preloaded.get(mailLogId);
+            if (mailLog == null) {
+                // 일괄 조회되지 않은 메일은 개별 처리
+                if (!processMailSending(mailLogId, null)) {
+                    unsettled.add(mailLogId);
+                }
+            } else if (mailLog.getStatus() == MailLog.MailStatus.SENT) {
+                log.info("이미 전송된 메일입니다: ID = {}", mailLogId);
+            } else if (!isNotDue(mailLog)) {
+                pending.add(mailLog);
             }
-        } catch (Exception e) {
-            log.error("메일 오류 처리 중 예외 발생: {}", e.getMessage());
         }
+
+        // 그룹마다 발신자와 릴레이가 다르므로 그룹별로 한 세션 (groupingBy 는 null 키를 허용하지 않으므로 그룹 없는 메일도 한 세션으로 모으도록 직접 분류)
+        Map<String, List<MailLog>> byGroup = new LinkedHashMap<>();
+        for (MailLog mailLog : pending) {
+            byGroup.computeIfAbsent(mailLog.getGroupKey(), key -> new ArrayList<>()).add(mailLog);
+        }
+        byGroup.forEach((groupKey, mailLogs) -> sendSession(groupKey, mailLogs, unsettled));
+        return unsettled;
     }
 
     /**
-     * 재시도 스케줄링
+     * 그룹 메일을 그룹의 릴레이로 한 세션에서 전송하고 결과 반영 (결과를 기록하지 못한 메일은 unsettled 에 추가)
      */
-    private void scheduleRetry(Long mailLogId, int retryCount) {
-        // mailLog에서 groupKey 조회 후 그룹별 설정 적용
-        MailLog mailLog = mailLogRepository.findById(mailLogId).orElse(null);
-        int retryDelayMinutes = 5;
-        if (mailLog != null && mailLog.getGroupKey() != null) {
+    private void sendSession(String groupKey, List<MailLog> mailLogs, List<Long> unsettled) {
+        List<SmtpSubmission> submissions = new ArrayList<>();
+        List<List<MailLog>> transactions = new ArrayList<>();
+        for (List<MailLog> recipients : groupIdenticalMails(mailLogs)) {
             try {
-                retryDelayMinutes = mailSettingService.getSettingValueAsInt(mailLog.getGroupKey(), "retry_delay_minutes", 5);
-            } catch (Exception ignored) {
+                submissions.add(createSubmission(recipients));
+                transactions.add(recipients);
+            } catch (Exception e) {
+                for (MailLog mailLog : recipients) {
+                    if (!handleMailError(mailLog.getId(), mailLog, e)) {
+                        unsettled.add(mailLog.getId());
+                    }
+                }
             }
         }
-        long delaySeconds = retryDelayMinutes * 60L;
+        if (submissions.isEmpty()) {
+            return;
+        }
 
-        // 재시도 정보를 Redis에 저장
-        String retryKey = MAIL_RETRY_KEY + ":" + mailLogId;
-        redisTemplate.opsForValue().set(retryKey, retryCount, delaySeconds, TimeUnit.SECONDS);
+        List<Exception> failures;
+        try {
+            // 이벤트 루프 엔진은 캐리어를 점유하지 않으므로 호출 스레드에서 바로 전송
+            failures = smtpTransportPool.isBlocking()
+                ? virtualThreadPinningGuard.call(() -> smtpTransportPool.sendAll(groupKey, submissions))
+                : smtpTransportPool.sendAll(groupKey, submissions);
+        } catch (Exception e) {
+            failures = Collections.nCopies(submissions.size(), e);
+        }
 
-        // 지연 후 다시 큐에 추가하는 스케줄 등록
-        redisTemplate.opsForZSet().add(MAIL_RETRY_KEY + ":scheduled", mailLogId, System.currentTimeMillis() + (delaySeconds * 1000));
+        for (int i = 0; i < transactions.size(); i++) {
+            applyResult(transactions.get(i), failures.get(i), unsettled);
+        }
+        log.debug("SMTP 세션 일괄 전송: groupKey = {}, 메일 {}건, DATA {}회", groupKey, mailLogs.size(), submissions.size());
     }
 
     /**
-     * 재시도 큐 처리
+     * 제목, 내용, 첨부 파일이 같은 메일끼리 묶음 (수신자 수 제한 단위로 나눔, 묶지 않으면 메일마다 하나)
      */
-    @Scheduled(cron = "0/10 0 * * * *") // 10초
-    public void processRetryQueue() {
-        try {
-            long currentTime = System.currentTimeMillis();
+    private List<List<MailLog>> groupIdenticalMails(List<MailLog> mailLogs) {
+        if (!smtpBatchProperties.isMultiRecipient() || !smtpTransportPool.isPooled()) {
+            return mailLogs.stream().map(List::of).toList();
+        }
 
-            // 재시도 시간이 된 메일들을 조회
-            var retryMails = redisTemplate.opsForZSet().rangeByScore(MAIL_RETRY_KEY + ":scheduled", 0, currentTime);
+        Map<String, List<MailLog>> identical = new LinkedHashMap<>();
+        for (MailLog mailLog : mailLogs) {
+            identical.computeIfAbsent(mailLog.getSubject() + "\u0000" + mailLog.getContent() + "\u0000" + mailLog.getAttachmentIds(), key -> new ArrayList<>()).add(mailLog);
+        }
 
-            if (retryMails != null && !retryMails.isEmpty()) {
-                for (Object mailLogId : retryMails) {
-                    Long id = parseLongSafely(mailLogId.toString());
-                    if (id == null) {
-                        log.warn("재시도 큐에서 잘못된 메일 ID 형식: {}", mailLogId);
-                        continue;
-                    }
+        int maxRecipients = Math.max(1, smtpBatchProperties.getMaxRecipientsPerMessage());
+        List<List<MailLog>> transactions = new ArrayList<>();
+        for (List<MailLog> mails : identical.values()) {
+            for (int from = 0; from < mails.size(); from += maxRecipients) {
+                transactions.add(mails.subList(from, Math.min(from + maxRecipients, mails.size())));
+            }
+        }
+        return transactions;
+    }
 
-                    // 다시 메인 큐에 추가
-                    enqueueMailForSending(id);
+    /**
+     * DATA 트랜잭션 생성 (수신자가 여럿이면 봉투에만 수신자를 넣고 To 헤더는 공개하지 않음)
+     */
+    private SmtpSubmission createSubmission(List<MailLog> recipients) throws MessagingException, UnsupportedEncodingException {
+        MimeMessage message = createMessage(recipients.get(0));
+        if (recipients.size() == 1) {
+            return new SmtpSubmission(message, message.getAllRecipients());
+        }
 
-                    // 재시도 스케줄에서 제거
-                    redisTemplate.opsForZSet().remove(MAIL_RETRY_KEY + ":scheduled", id);
+        Address[] envelope = new Address[recipients.size()];
+        for (int i = 0; i < envelope.length; i++) {
+            envelope[i] = new InternetAddress(recipients.get(i).getRecipient());
+        }
+        message.setHeader("To", "undisclosed-recipients:;");
+        return new SmtpSubmission(message, envelope);
+    }
 
-                    log.info("메일 재시도 큐에서 메인 큐로 이동: ID = {}", id);
+    /**
+     * 트랜잭션 결과를 수신자별 메일 로그에 반영
+     */
+    private void applyResult(List<MailLog> recipients, Exception failure, List<Long> unsettled) {
+        Set<String> delivered = failure != null ? deliveredAddresses(failure) : Set.of();
+        for (MailLog mailLog : recipients) {
+            if (failure == null || delivered.contains(mailLog.getRecipient().toLowerCase(Locale.ROOT))) {
+                recipientDomainThrottle.recordSuccess(mailLog.getRecipient());
+                mailLogService.updateMailLogStatus(mailLog, MailLog.MailStatus.SENT, null);
+                log.info("메일 전송 성공: {} -> {}", mailLog.getSubject(), mailLog.getRecipient());
+            } else {
+                log.error("메일 전송 실패: ID = {}, 오류 = {}", mailLog.getId(), failure.getMessage());
+                if (!handleMailError(mailLog.getId(), mailLog, failure)) {
+                    unsettled.add(mailLog.getId());
                 }
             }
-        } catch (Exception e) {
-            log.error("재시도 큐 처리 중 오류 발생: {}", e.getMessage());
         }
     }
 
     /**
-     * 현재 재시도 횟수 조회
+     * 부분 전송에서 실제로 전송된 수신자 주소
      */
-    private int getCurrentRetryCount(Long mailLogId) {
-        try {
-            String retryKey = MAIL_RETRY_KEY + ":" + mailLogId;
-            Object retryCount = redisTemplate.opsForValue().get(retryKey);
-            if (retryCount != null) {
-                Integer count = parseIntSafely(retryCount.toString());
-                return count != null ? count : 0;
-            }
-
-            return 0;
-        } catch (Exception e) {
-            log.warn("재시도 횟수 조회 중 오류 발생: {}", e.getMessage());
-            return 0;
+    private Set<String> deliveredAddresses(Exception failure) {
+        Throwable cause = failure;
+        while (cause != null && !(cause instanceof SendFailedException)) {
+            cause = cause.getCause();
+        }
+        if (!(cause instanceof SendFailedException sendFailed) || sendFailed.getValidSentAddresses() == null) {
+            return Set.of();
         }
+
+        return Arrays.stream(sendFailed.getValidSentAddresses())
+            .map(address -> address instanceof InternetAddress internetAddress ? internetAddress.getAddress() : address.toString())
+            .map(address -> address.toLowerCase(Locale.ROOT))
+            .collect(Collectors.toSet());
     }
 
     /**
-     * 큐 상태 조회
+     * 실제 메일 전송
      */
-    public QueueStatus getQueueStatus() {
-        long pendingCount = getSafeSize(() -> redisTemplate.opsForList().size(MAIL_QUEUE_KEY));
-        long processingCount = getSafeSize(() -> redisTemplate.opsForSet().size(MAIL_PROCESSING_KEY));
-        long retryCount = getSafeSize(() -> redisTemplate.opsForZSet().size(MAIL_RETRY_KEY + ":scheduled"));
+    private void sendMail(MailLog mailLog) throws MessagingException, UnsupportedEncodingException {
+        MimeMessage message = createMessage(mailLog);
+        if (smtpTransportPool.isBlocking()) {
+            virtualThreadPinningGuard.send(() -> smtpTransportPool.send(mailLog.getGroupKey(), message));
+        } else {
+            smtpTransportPool.send(mailLog.getGroupKey(), message);
+        }
+    }
+
+    private MimeMessage createMessage(MailLog mailLog) throws MessagingException, UnsupportedEncodingException {
+        MimeMessage message = mailSender.createMimeMessage();
+
+        String sender = mailSettingService.getSettingValue(mailLog.getGroupKey(), "from_address");
+        String senderName = mailSettingService.getSettingValue(mailLog.getGroupKey(), "from_name");
+        message.setFrom(new InternetAddress(sender, senderName, "UTF-8"));
+        message.setRecipients(MimeMessage.RecipientType.TO, mailLog.getRecipient());
+        message.setSubject(mailLog.getSubject());
+        if (!StringUtils.hasText(mailLog.getAttachmentIds())) {
+            message.setText(mailLog.getContent(), "UTF-8", "html");
+            return message;
+        }
 
-        return new QueueStatus(pendingCount, processingCount, retryCount);
+        // 첨부 파일은 본문을 쓸 때 파일에서 읽어 base64 로 인코딩하며 바로 내보냄
+        MimeMultipart multipart = new MimeMultipart("mixed");
+        MimeBodyPart body = new MimeBodyPart();
+        body.setText(mailLog.getContent(), "UTF-8", "html");
+        multipart.addBodyPart(body);
+        for (MimeBodyPart attachment : mailAttachmentStore.createBodyParts(mailLog.getAttachmentIds())) {
+            multipart.addBodyPart(attachment);
+        }
+        message.setContent(multipart);
+        return message;
     }
 
     /**
-     * Redis 연산에서 null 안전하게 처리
+     * 메일 전송 실패 처리
+     * <p>
+     * 실패를 분류해 처리한다: 영구 실패(5xx, 잘못된 주소)는 재시도 없이 실패 처리, 속도 제한(421 / 451 / 452)은 수신 도메인 속도를 낮추고 재시도, 릴레이 장애는 재시도 횟수를 쓰지 않고 릴레이 cooldown 뒤로 미룸(릴레이는 전송 시점에 이미 후순위로 밀림), 나머지는 지수 백오프로 재시도.
+     *
+     * @return 재시도 예약 / 실패 처리를 기록했으면 true - Redis 장애 등으로 기록하지 못하면 false
      */
-    private long getSafeSize(java.util.function.Supplier<Long> sizeSupplier) {
+    private boolean handleMailError(Long mailLogId, MailLog mailLog, Exception cause) {
         try {
-            Long size = sizeSupplier.get();
-            return size != null ? size : 0L;
+            if (mailLog == null) {
+                return true;
+            }
+
+            SmtpFailureClass failureClass = smtpFailureClassifier.classify(cause, mailLog.getRecipient());
+            meterRegistry.counter("hermes.mail.failure", "class", failureClass.name().toLowerCase(Locale.ROOT)).increment();
+
+            switch (failureClass) {
+                case PERMANENT -> {
+                    failPermanently(mailLog, cause, mailRetryScheduler.recordFailure(mailLog));
+                    return true;
+                }
+                case RELAY_DOWN -> {
+                    // 메일 문제가 아니므로 재시도 횟수를 늘리지 않고, 복구 시점에 한꺼번에 몰리지 않도록 분산
+                    long cooldownMillis = Math.max(1_000, relayProperties.getFailoverCooldownMillis());
+                    long delayMillis = cooldownMillis + ThreadLocalRandom.current().nextLong(cooldownMillis + 1);
+                    mailRetryScheduler.defer(mailLog, delayMillis);
+                    log.warn("SMTP 릴레이 장애로 메일 전송 연기: ID = {}, 지연 = {}ms", mailLogId, delayMillis);
+                    return true;
+                }
+                case THROTTLED -> recipientDomainThrottle.recordThrottled(mailLog.getRecipient());
+                case TRANSIENT -> {
+                }
+            }
+
+            // 재시도 횟수 확인
+            int maxRetryCount = mailSettingService.getSettingValueAsInt(mailLog.getGroupKey(), "max_retry_count", 3);
+            long attempt = mailRetryScheduler.recordFailure(mailLog);
+
+            if (attempt <= maxRetryCount) {
+                // 재시도 큐에 추가 (지수 백오프 + jitter)
+                long delayMillis = mailRetryScheduler.schedule(mailLog, attempt);
+                log.info("메일 재시도 예약: ID = {}, 분류 = {}, 시도 횟수 = {}, 지연 = {}ms", mailLogId, failureClass, attempt, delayMillis);
+            } else {
+                // 최대 재시도 횟수 초과 시 실패 처리
+                failPermanently(mailLog, cause, attempt);
+            }
+            return true;
         } catch (Exception e) {
-            log.warn("Redis 크기 조회 중 오류 발생: {}", e.getMessage());
-            return 0L;
+            // 처리 완료로 확인하면 재시도 예약도 큐 항목도 없이 사라지므로 디스패처가 큐로 되돌리게 함
+            log.error("메일 오류 처리 중 예외 발생 (큐로 되돌림): ID = {}, 오류 = {}", mailLogId, e.getMessage());
+            return false;
         }
     }
 
     /**
-     * 문자열을 Long으로 안전하게 파싱
+     * 최종 실패 처리 (실패 상태 + 데드 레터 큐)
+     */
+    private void failPermanently(MailLog mailLog, Exception cause, long attempt) {
+        mailLogService.updateMailLogStatus(mailLog, MailLog.MailStatus.FAILED, cause.getMessage());
+        mailDeadLetterQueue.add(mailLog, cause, attempt);
+        mailRetryScheduler.clearFailures(mailLog.getId());
+        log.error("메일 전송 최종 실패: ID = {}, 시도 횟수 = {}, 오류 = {}", mailLog.getId(), attempt, cause.getMessage());
+    }
+
+    /**
+     * 큐 상태 조회
+     */
+    public QueueStatus getQueueStatus() {
+        long pendingCount = getSafeSize(mailQueueBackend::getPendingCount);
+        long processingCount = getSafeSize(mailQueueBackend::getProcessingCount);
+        long retryCount = getSafeSize(mailRetryScheduler::getScheduledCount);
+        long scheduledCount = getSafeSize(mailDelayQueue::getScheduledCount);
+
+        return new QueueStatus(pendingCount, processingCount, retryCount, scheduledCount);
+    }
+
+    /**
+     * 큐 소비자별 처리 현황 조회
      */
-    private Long parseLongSafely(String value) {
+    public List<MailQueueBackend.ConsumerStatus> getConsumerStatuses() {
         try {
-            return Long.valueOf(value);
-        } catch (NumberFormatException e) {
-            log.warn("Long 파싱 실패: {}", value);
-            return null;
+            return mailQueueBackend.getConsumerStatuses();
+        } catch (Exception e) {
+            log.warn("큐 소비자 현황 조회 중 오류 발생: {}", e.getMessage());
+            return List.of();
         }
     }
 
     /**
-     * 문자열을 Integer로 안전하게 파싱
+     * Redis 연산에서 null 안전하게 처리
      */
-    private Integer parseIntSafely(String value) {
+    private long getSafeSize(java.util.function.Supplier<Long> sizeSupplier) {
         try {
-            return Integer.valueOf(value);
-        } catch (NumberFormatException e) {
-            log.warn("Integer 파싱 실패: {}", value);
-            return null;
+            Long size = sizeSupplier.get();
+            return size != null ? size : 0L;
+        } catch (Exception e) {
+            log.warn("Redis 크기 조회 중 오류 발생: {}", e.getMessage());
+            return 0L;
         }
     }
 
     /**
      * 큐 상태 정보 클래스
      */
-    public record QueueStatus(long pendingCount, long processingCount, long retryCount) {
+    public record QueueStatus(long pendingCount, long processingCount, long retryCount, long scheduledCount) {
 
     }
 }
\ No newline at end of file
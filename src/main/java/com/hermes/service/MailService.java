@@ -13,14 +13,25 @@ import com.hermes.dto.MailTemplateResponse;
 import com.hermes.dto.TemplateMailRequest;
 import com.hermes.entity.BulkMailBatch;
 import com.hermes.entity.MailLog;
+import com.hermes.exception.DuplicateResourceException;
 import com.hermes.exception.HermesException;
 import com.hermes.exception.ResourceNotFoundException;
 import com.hermes.repository.BulkMailBatchRepository;
 import com.hermes.repository.MailLogRepository;
+import com.hermes.service.attachment.MailAttachmentStore;
+import com.hermes.service.idempotency.MailIdempotencyStore;
+import com.hermes.service.queue.MailQueueBackend;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -37,18 +48,36 @@ public class MailService {
     private final MailTemplateService mailTemplateService;
     private final MailSettingService mailSettingService;
     private final MailQueueService mailQueueService;
+    private final MailIdempotencyStore mailIdempotencyStore;
+    private final MailAttachmentStore mailAttachmentStore;
 
     @Transactional
-    public MailResponse sendMail(MailRequest request) {
+    public MailResponse sendMail(MailRequest request, String idempotencyKey) {
+        // 첨부 파일 확인은 멱등성 키 선점 전에 (잘못된 요청으로 키가 묶이지 않도록)
+        String attachmentIds = mailAttachmentStore.reference(request.groupKey(), request.attachmentIds());
+
+        MailResponse original = findDuplicateRequest(request.groupKey(), idempotencyKey);
+        if (original != null) {
+            return original;
+        }
+
         checkDailyLimit(request.groupKey());
 
         log.info("일반 메일 전송 요청: {} -> {}", request.subject(), request.to());
 
-        return processAndSendMail(request.groupKey(), request.to(), request.subject(), request.content());
+        return processAndSendMail(request.groupKey(), request.to(), request.subject(), request.content(), request.priority(), request.sendAt(),
+            attachmentIds, idempotencyKey);
     }
 
     @Transactional
-    public MailResponse sendTemplatedMail(TemplateMailRequest request) {
+    public MailResponse sendTemplatedMail(TemplateMailRequest request, String idempotencyKey) {
+        String attachmentIds = mailAttachmentStore.reference(request.groupKey(), request.attachmentIds());
+
+        MailResponse original = findDuplicateRequest(request.groupKey(), idempotencyKey);
+        if (original != null) {
+            return original;
+        }
+
         checkDailyLimit(request.groupKey());
 
         // 템플릿 조회 및 변수 치환
@@ -58,24 +87,45 @@ public class MailService {
 
         log.info("템플릿 메일 전송 요청: {} -> {} (템플릿: {})", processedSubject, request.to(), request.templateName());
 
-        return processAndSendMail(request.groupKey(), request.to(), processedSubject, processedContent);
+        return processAndSendMail(request.groupKey(), request.to(), processedSubject, processedContent, request.priority(), request.sendAt(),
+            attachmentIds, idempotencyKey);
     }
 
-    private MailResponse processAndSendMail(String groupKey, String to, String subject, String content) {
-        // 메일 로그 생성
+    private MailResponse processAndSendMail(String groupKey, String to, String subject, String content, MailLog.MailPriority priority,
+        LocalDateTime sendAt, String attachmentIds, String idempotencyKey) {
+        // 메일 로그 생성 (단건 메일은 기본적으로 우선 처리) - 큐 등록은 커밋 후에 이루어지므로 INSERT 는 커밋 시점에 보내도 됨
         MailLog savedMailLog = mailLogRepository.save(MailLog.builder()
             .groupKey(groupKey)
             .recipient(to)
             .subject(subject)
             .content(content)
+            .priority(priority != null ? priority : MailLog.MailPriority.HIGH)
+            .scheduledAt(sendAt)
+            .attachmentIds(attachmentIds)
+            .idempotencyKey(idempotencyKey)
             .build());
 
-        // 메일 큐에 추가 (실제 전송은 MailQueueService에서 처리)
-        mailQueueService.enqueueMailForSending(savedMailLog.getId());
+        // 메일 큐에 추가 (실제 전송은 MailQueueService에서 처리, 예약 시각이 있으면 그 시각에 큐로 이동)
+        mailQueueService.enqueueMailForSending(savedMailLog);
 
         return MailResponse.from(savedMailLog);
     }
 
+    /**
+     * 멱등성 키 선점 (같은 키로 이미 요청된 경우 원래 메일 응답 반환, 처음 보는 키면 null)
+     */
+    private MailResponse findDuplicateRequest(String groupKey, String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isBlank() || mailIdempotencyStore.reserve(groupKey, idempotencyKey)) {
+            return null;
+        }
+
+        MailLog original = mailLogRepository.findFirstByGroupKeyAndIdempotencyKeyOrderByIdDesc(groupKey, idempotencyKey)
+            .orElseThrow(() -> new DuplicateResourceException("처리 중인 발송 요청", idempotencyKey));
+
+        log.info("중복 발송 요청으로 원래 메일 반환: ID = {}, 멱등성 키 = {}", original.getId(), idempotencyKey);
+        return MailResponse.from(original);
+    }
+
     private void checkDailyLimit(String groupKey) {
         try {
             int dailyLimit = mailSettingService.getSettingValueAsInt(groupKey, "daily_limit", 10000);
@@ -100,6 +150,13 @@ public class MailService {
         return mailQueueService.getQueueStatus();
     }
 
+    /**
+     * 큐 소비자별 처리 현황 조회
+     */
+    public List<MailQueueBackend.ConsumerStatus> getQueueConsumers() {
+        return mailQueueService.getConsumerStatuses();
+    }
+
     @Transactional(readOnly = true)
     public HermesPageResponse<MailResponse> getMailLogs(HermesPageRequest hermesPageRequest, String groupKey) {
         Page<MailLog> page = mailLogRepository.findByGroupKey(groupKey, hermesPageRequest.toPageable());
@@ -123,41 +180,61 @@ public class MailService {
      * 대량 메일 발송
      */
     @Transactional
-    public BulkMailResponse sendBulkMail(BulkMailRequest request) {
+    public BulkMailResponse sendBulkMail(BulkMailRequest request, String idempotencyKey) {
         String batchId = generateBatchId();
         log.info("대량 메일 발송 시작: batchId={}, 수신자 수={}, groupKey={}", batchId, request.recipients().size(), request.groupKey());
 
         // 일일 제한 체크 (대량 발송 고려)
         checkBulkDailyLimit(request.groupKey(), request.recipients().size());
 
+        // 첨부 파일은 한 번만 확인하고 모든 수신자의 메일 로그에 같은 ID 목록을 남김
+        String attachmentIds = mailAttachmentStore.reference(request.groupKey(), request.attachmentIds());
+
+        // 수신자별 멱등성 키 선점 (이미 요청된 수신자는 원래 메일 ID 로 응답)
+        List<String> idempotencyKeys = request.recipients().stream()
+            .map(recipient -> resolveIdempotencyKey(recipient.idempotencyKey(), idempotencyKey, recipient.to()))
+            .toList();
+        Map<String, Long> duplicates = reserveBulkIdempotencyKeys(request.groupKey(), idempotencyKeys);
+        Set<String> requestedKeys = new HashSet<>();
+
         List<BulkMailResult> results = new ArrayList<>();
+        List<BulkMailEntry> entries = new ArrayList<>();
+
+        for (int i = 0; i < request.recipients().size(); i++) {
+            var recipient = request.recipients().get(i);
+            String recipientKey = idempotencyKeys.get(i);
+            if (recipientKey != null && (duplicates.containsKey(recipientKey) || !requestedKeys.add(recipientKey))) {
+                results.add(duplicateResult(recipient.to(), recipientKey, duplicates.get(recipientKey)));
+                continue;
+            }
 
-        for (var recipient : request.recipients()) {
             try {
                 // 개인화된 제목과 내용 생성 (이름이 있는 경우)
                 String personalizedSubject = personalize(request.subject(), recipient.name());
                 String personalizedContent = personalize(request.content(), recipient.name());
 
-                // 메일 로그 생성 및 큐에 추가
-                MailLog savedMailLog = mailLogRepository.save(
-                    MailLog.builder()
-                        .groupKey(request.groupKey())
-                        .recipient(recipient.to())
-                        .subject(personalizedSubject)
-                        .content(personalizedContent)
-                        .build()
-                );
-
-                mailQueueService.enqueueMailForSending(savedMailLog.getId());
-
-                results.add(BulkMailResult.success(recipient.to(), savedMailLog.getId()));
+                // 메일 로그는 모아서 한 번에 저장 (결과 자리는 저장 후 채움)
+                entries.add(new BulkMailEntry(results.size(), recipientKey, MailLog.builder()
+                    .groupKey(request.groupKey())
+                    .recipient(recipient.to())
+                    .subject(personalizedSubject)
+                    .content(personalizedContent)
+                    .priority(MailLog.MailPriority.LOW)
+                    .scheduledAt(request.sendAt())
+                    .attachmentIds(attachmentIds)
+                    .idempotencyKey(recipientKey)
+                    .build()));
+                results.add(null);
 
             } catch (Exception e) {
                 log.error("대량 메일 발송 중 개별 실패: to={}, error={}", recipient.to(), e.getMessage());
+                releaseIdempotencyKey(request.groupKey(), recipientKey);
                 results.add(BulkMailResult.failure(recipient.to(), e.getMessage()));
             }
         }
 
+        saveAndEnqueue(request.groupKey(), entries, results);
+
         // 배치 정보 저장
         int successCount = results.stream().mapToInt(r -> r.success() ? 1 : 0).sum();
         int failedCount = results.size() - successCount;
@@ -173,7 +250,7 @@ public class MailService {
      * 대량 템플릿 메일 발송
      */
     @Transactional
-    public BulkMailResponse sendBulkTemplatedMail(BulkTemplateMailRequest request) {
+    public BulkMailResponse sendBulkTemplatedMail(BulkTemplateMailRequest request, String idempotencyKey) {
         String batchId = generateBatchId();
         log.info("대량 템플릿 메일 발송 시작: batchId={}, 템플릿={}, 수신자 수={}, groupKey={}", batchId, request.templateName(), request.recipients().size(), request.groupKey());
 
@@ -189,34 +266,54 @@ public class MailService {
             throw new HermesException("템플릿을 찾을 수 없습니다: " + request.templateName());
         }
 
+        // 첨부 파일은 한 번만 확인하고 모든 수신자의 메일 로그에 같은 ID 목록을 남김
+        String attachmentIds = mailAttachmentStore.reference(request.groupKey(), request.attachmentIds());
+
+        // 수신자별 멱등성 키 선점 (이미 요청된 수신자는 원래 메일 ID 로 응답)
+        List<String> idempotencyKeys = request.recipients().stream()
+            .map(recipient -> resolveIdempotencyKey(recipient.idempotencyKey(), idempotencyKey, recipient.to()))
+            .toList();
+        Map<String, Long> duplicates = reserveBulkIdempotencyKeys(request.groupKey(), idempotencyKeys);
+        Set<String> requestedKeys = new HashSet<>();
+
         List<BulkMailResult> results = new ArrayList<>();
+        List<BulkMailEntry> entries = new ArrayList<>();
+
+        for (int i = 0; i < request.recipients().size(); i++) {
+            var recipient = request.recipients().get(i);
+            String recipientKey = idempotencyKeys.get(i);
+            if (recipientKey != null && (duplicates.containsKey(recipientKey) || !requestedKeys.add(recipientKey))) {
+                results.add(duplicateResult(recipient.to(), recipientKey, duplicates.get(recipientKey)));
+                continue;
+            }
 
-        for (var recipient : request.recipients()) {
             try {
                 // 개별 변수 치환
                 String processedSubject = mailTemplateService.processTemplate(template.subject(), recipient.variables());
                 String processedContent = mailTemplateService.processTemplate(template.content(), recipient.variables());
 
-                // 메일 로그 생성 및 큐에 추가
-                MailLog savedMailLog = mailLogRepository.save(
-                    MailLog.builder()
-                        .groupKey(request.groupKey())
-                        .recipient(recipient.to())
-                        .subject(processedSubject)
-                        .content(processedContent)
-                        .build()
-                );
-
-                mailQueueService.enqueueMailForSending(savedMailLog.getId());
-
-                results.add(BulkMailResult.success(recipient.to(), savedMailLog.getId()));
+                // 메일 로그는 모아서 한 번에 저장 (결과 자리는 저장 후 채움)
+                entries.add(new BulkMailEntry(results.size(), recipientKey, MailLog.builder()
+                    .groupKey(request.groupKey())
+                    .recipient(recipient.to())
+                    .subject(processedSubject)
+                    .content(processedContent)
+                    .priority(MailLog.MailPriority.LOW)
+                    .scheduledAt(request.sendAt())
+                    .attachmentIds(attachmentIds)
+                    .idempotencyKey(recipientKey)
+                    .build()));
+                results.add(null);
 
             } catch (Exception e) {
                 log.error("대량 템플릿 메일 발송 중 개별 실패: to={}, error={}", recipient.to(), e.getMessage());
+                releaseIdempotencyKey(request.groupKey(), recipientKey);
                 results.add(BulkMailResult.failure(recipient.to(), e.getMessage()));
             }
         }
 
+        saveAndEnqueue(request.groupKey(), entries, results);
+
         // 배치 정보 저장
         int successCount = results.stream().mapToInt(r -> r.success() ? 1 : 0).sum();
         int failedCount = results.size() - successCount;
@@ -228,6 +325,40 @@ public class MailService {
         return BulkMailResponse.of(batchId, results);
     }
 
+    /**
+     * 대량 발송 메일 로그를 JDBC 배치로 저장한 뒤 큐에 등록하고 결과 자리를 채움
+     * <p>
+     * ID 를 시퀀스에서 미리 받아 두므로 saveAll 은 INSERT 를 hibernate.jdbc.batch_size 단위로 묶어 보낸다 (reWriteBatchedInserts 로 다중 행 INSERT). 큐 등록은 커밋 후에 이루어진다.
+     */
+    private void saveAndEnqueue(String groupKey, List<BulkMailEntry> entries, List<BulkMailResult> results) {
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        try {
+            mailLogRepository.saveAll(entries.stream().map(BulkMailEntry::mailLog).toList());
+            mailLogRepository.flush();
+        } catch (RuntimeException e) {
+            // 요청 전체가 롤백되므로 선점한 멱등성 키도 모두 반환
+            entries.forEach(entry -> releaseIdempotencyKey(groupKey, entry.idempotencyKey()));
+            throw e;
+        }
+
+        // 큐 등록은 커밋 후에 이루어지므로 저장된 메일은 모두 접수 성공 (등록에 실패한 메일은 미등록 메일 회수가 다시 등록)
+        mailQueueService.enqueueMailsForSending(entries.stream().map(BulkMailEntry::mailLog).toList());
+        for (BulkMailEntry entry : entries) {
+            MailLog mailLog = entry.mailLog();
+            results.set(entry.resultIndex(), BulkMailResult.success(mailLog.getRecipient(), mailLog.getId()));
+        }
+    }
+
+    /**
+     * 저장 대기 중인 대량 발송 메일 (resultIndex: 응답 결과 목록에서의 위치)
+     */
+    private record BulkMailEntry(int resultIndex, String idempotencyKey, MailLog mailLog) {
+
+    }
+
     /**
      * 대량 발송을 위한 일일 제한 체크
      */
@@ -249,6 +380,55 @@ public class MailService {
         }
     }
 
+    /**
+     * 수신자 멱등성 키 (수신자별 키가 없으면 요청 헤더의 키에 수신자를 붙여 사용)
+     */
+    private String resolveIdempotencyKey(String recipientKey, String requestKey, String to) {
+        if (recipientKey != null && !recipientKey.isBlank()) {
+            return recipientKey;
+        }
+        if (requestKey != null && !requestKey.isBlank()) {
+            return requestKey + ":" + to;
+        }
+        return null;
+    }
+
+    /**
+     * 수신자별 멱등성 키를 한 번에 선점하고 이미 요청된 키와 원래 메일 ID 반환 (처리 중이면 ID 는 null)
+     */
+    private Map<String, Long> reserveBulkIdempotencyKeys(String groupKey, List<String> idempotencyKeys) {
+        Set<String> distinctKeys = idempotencyKeys.stream()
+            .filter(Objects::nonNull)
+            .collect(Collectors.toCollection(LinkedHashSet::new));
+
+        Set<String> duplicateKeys = mailIdempotencyStore.reserveAll(groupKey, distinctKeys);
+        if (duplicateKeys.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<String, Long> duplicates = new HashMap<>();
+        duplicateKeys.forEach(key -> duplicates.put(key, null));
+        for (MailLog original : mailLogRepository.findByGroupKeyAndIdempotencyKeyIn(groupKey, duplicateKeys)) {
+            duplicates.merge(original.getIdempotencyKey(), original.getId(), Math::max);
+        }
+
+        log.info("대량 발송 중 이미 요청된 수신자: {}건, groupKey={}", duplicateKeys.size(), groupKey);
+        return duplicates;
+    }
+
+    private BulkMailResult duplicateResult(String to, String idempotencyKey, Long originalId) {
+        if (originalId != null) {
+            return BulkMailResult.success(to, originalId);
+        }
+        return BulkMailResult.failure(to, "같은 멱등성 키의 요청이 처리 중입니다: " + idempotencyKey);
+    }
+
+    private void releaseIdempotencyKey(String groupKey, String idempotencyKey) {
+        if (idempotencyKey != null) {
+            mailIdempotencyStore.release(groupKey, idempotencyKey);
+        }
+    }
+
     /**
      * 배치 ID 생성
      */
@@ -0,0 +1,48 @@
+package com.hermes.service.attachment;
+
+import jakarta.activation.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 저장된 첨부 파일을 FileChannel 로 읽는 DataSource
+ * <p>
+ * MIME 본문을 쓸 때마다 채널을 새로 열고, JavaMail 이 청크 단위로 읽으면서 base64 로 인코딩해 바로 내보낸다. 파일 전체를 힙에 올리지 않으며, 같은 파일을 여러 메일이 동시에 읽어도 서로 영향이 없다.
+ */
+final class FileChannelDataSource implements DataSource {
+
+    private final Path path;
+    private final String name;
+    private final String contentType;
+
+    FileChannelDataSource(Path path, String name, String contentType) {
+        this.path = path;
+        this.name = name;
+        this.contentType = contentType;
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return Channels.newInputStream(FileChannel.open(path, StandardOpenOption.READ));
+    }
+
+    @Override
+    public OutputStream getOutputStream() throws IOException {
+        throw new IOException("읽기 전용 첨부 파일입니다: " + name);
+    }
+
+    @Override
+    public String getContentType() {
+        return contentType;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+}
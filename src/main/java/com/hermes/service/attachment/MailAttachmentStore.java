@@ -0,0 +1,201 @@
+package com.hermes.service.attachment;
+
+import com.hermes.config.properties.MailAttachmentProperties;
+import com.hermes.entity.MailAttachment;
+import com.hermes.exception.HermesException;
+import com.hermes.exception.ResourceNotFoundException;
+import com.hermes.repository.MailAttachmentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.activation.DataHandler;
+import jakarta.annotation.PostConstruct;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Part;
+import jakarta.mail.internet.MimeBodyPart;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * 내용 해시 기반 첨부 파일 저장소
+ * <p>
+ * 업로드된 파일을 SHA-256 을 계산하면서 임시 파일로 흘려 쓴 뒤 {directory}/{해시 앞 2자리}/{해시} 로 옮긴다. 같은 내용이 이미 있으면 임시 파일만 지우므로 같은 파일을 여러 번 올려도 디스크에는 한 번만 저장된다. 메일 로그에는 첨부 파일 ID 목록만 남기고, 전송할 때 {@link FileChannelDataSource} 로 파일을 읽어 MIME 파트를 만든다. 10MB 파일을 1000명에게 보내도 저장은 한 번이고, 본문은 전송 중에 청크 단위로 base64 인코딩된다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MailAttachmentStore {
+
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+    private static final String DEFAULT_FILE_NAME = "attachment";
+    private static final String ID_SEPARATOR = ",";
+
+    private final MailAttachmentProperties attachmentProperties;
+    private final MailAttachmentRepository mailAttachmentRepository;
+    private final MeterRegistry meterRegistry;
+
+    private Path directory;
+
+    @PostConstruct
+    void init() throws IOException {
+        directory = Path.of(attachmentProperties.getDirectory()).toAbsolutePath().normalize();
+        Files.createDirectories(directory);
+        log.info("첨부 파일 저장소: {}", directory);
+    }
+
+    /**
+     * 첨부 파일 저장 (업로드 스트림을 그대로 디스크에 쓰며 해시 계산)
+     */
+    public MailAttachment store(String groupKey, MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            throw new HermesException("첨부 파일이 비어 있습니다");
+        }
+
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(directory, "upload-", ".tmp");
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            long size;
+            try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+                size = Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            String contentHash = HexFormat.of().formatHex(digest.digest());
+            Path blob = blobPath(contentHash);
+            if (Files.exists(blob)) {
+                meterRegistry.counter("hermes.mail.attachment.deduplicated").increment();
+            } else {
+                // 같은 내용이 동시에 올라와도 내용이 같으므로 어느 쪽이 남아도 무방
+                Files.createDirectories(blob.getParent());
+                Files.move(temp, blob, StandardCopyOption.ATOMIC_MOVE);
+                temp = null;
+            }
+
+            MailAttachment saved = mailAttachmentRepository.save(MailAttachment.builder()
+                .groupKey(groupKey)
+                .fileName(fileNameOf(file))
+                .contentType(StringUtils.hasText(file.getContentType()) ? file.getContentType() : DEFAULT_CONTENT_TYPE)
+                .size(size)
+                .contentHash(contentHash)
+                .build());
+            log.info("첨부 파일 저장: ID = {}, 이름 = {}, 크기 = {}, 해시 = {}", saved.getId(), saved.getFileName(), size, contentHash);
+            return saved;
+        } catch (IOException e) {
+            throw new HermesException("첨부 파일 저장 실패: " + e.getMessage(), e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            deleteQuietly(temp);
+        }
+    }
+
+    public MailAttachment getAttachment(Long id, String groupKey) {
+        return mailAttachmentRepository.findById(id)
+            .filter(attachment -> attachment.getGroupKey().equals(groupKey))
+            .orElseThrow(() -> new ResourceNotFoundException("첨부 파일", String.valueOf(id)));
+    }
+
+    /**
+     * 발송 요청의 첨부 파일 ID 검증 후 메일 로그에 남길 참조 문자열 (첨부가 없으면 null)
+     */
+    public String reference(String groupKey, List<Long> attachmentIds) {
+        if (attachmentIds == null || attachmentIds.isEmpty()) {
+            return null;
+        }
+
+        List<Long> ids = attachmentIds.stream().filter(Objects::nonNull).distinct().toList();
+        if (ids.size() > attachmentProperties.getMaxAttachmentsPerMail()) {
+            throw new HermesException("메일 하나에 첨부 파일은 최대 " + attachmentProperties.getMaxAttachmentsPerMail() + "개까지 가능합니다");
+        }
+
+        Map<Long, MailAttachment> found = findAll(ids);
+        for (Long id : ids) {
+            MailAttachment attachment = found.get(id);
+            if (attachment == null || !attachment.getGroupKey().equals(groupKey)) {
+                throw new ResourceNotFoundException("첨부 파일", String.valueOf(id));
+            }
+        }
+        return ids.stream().map(String::valueOf).collect(Collectors.joining(ID_SEPARATOR));
+    }
+
+    /**
+     * 메일 로그의 첨부 파일 참조로 MIME 파트 생성 (파일 내용은 메일을 쓸 때 읽음)
+     * <p>
+     * 첨부 파일이 없어졌으면 다시 보내도 실패하므로 메일 생성 실패(MailPreparationException)로 알린다.
+     */
+    public List<MimeBodyPart> createBodyParts(String reference) throws MessagingException {
+        List<Long> ids = parse(reference);
+        Map<Long, MailAttachment> found = findAll(ids);
+
+        List<MimeBodyPart> parts = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            MailAttachment attachment = found.get(id);
+            if (attachment == null) {
+                throw new MailPreparationException("첨부 파일을 찾을 수 없습니다: " + id);
+            }
+            Path blob = blobPath(attachment.getContentHash());
+            if (!Files.isReadable(blob)) {
+                throw new MailPreparationException("첨부 파일 내용이 없습니다: " + id + " (" + blob + ")");
+            }
+
+            MimeBodyPart part = new MimeBodyPart();
+            part.setDataHandler(new DataHandler(new FileChannelDataSource(blob, attachment.getFileName(), attachment.getContentType())));
+            part.setDisposition(Part.ATTACHMENT);
+            part.setFileName(attachment.getFileName());
+            // 정해 두지 않으면 JavaMail 이 인코딩을 고르려고 파일을 한 번 더 읽음
+            part.setHeader("Content-Transfer-Encoding", "base64");
+            parts.add(part);
+        }
+        return parts;
+    }
+
+    private Map<Long, MailAttachment> findAll(List<Long> ids) {
+        return mailAttachmentRepository.findAllById(ids).stream()
+            .collect(Collectors.toMap(MailAttachment::getId, Function.identity()));
+    }
+
+    private static List<Long> parse(String reference) {
+        if (!StringUtils.hasText(reference)) {
+            return List.of();
+        }
+        return Arrays.stream(reference.split(ID_SEPARATOR)).map(String::trim).filter(StringUtils::hasText).map(Long::valueOf).toList();
+    }
+
+    private Path blobPath(String contentHash) {
+        return directory.resolve(contentHash.substring(0, 2)).resolve(contentHash);
+    }
+
+    private static String fileNameOf(MultipartFile file) {
+        String fileName = StringUtils.getFilename(StringUtils.cleanPath(Objects.requireNonNullElse(file.getOriginalFilename(), "")));
+        return StringUtils.hasText(fileName) ? fileName : DEFAULT_FILE_NAME;
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("임시 첨부 파일 삭제 실패: {}, 오류 = {}", path, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package com.hermes.service.deadletter;
+
+import com.hermes.config.properties.MailRetryProperties;
+import com.hermes.dto.DeadLetterEntry;
+import com.hermes.dto.DeadLetterReplayRequest;
+import com.hermes.dto.DeadLetterReplayResponse;
+import com.hermes.dto.DeadLetterSummaryResponse;
+import com.hermes.entity.MailLog;
+import com.hermes.service.MailLogService;
+import com.hermes.service.queue.MailQueueBackend;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 최종 실패 메일 보관소 (Dead Letter Queue)
+ * <p>
+ * 재시도를 모두 소진한 메일을 실패 시각 순 인덱스(mail:{dlq}, mail:{dlq}:group:{groupKey})와 항목별 해시(mail:{dlq}:entry:{id})에 실패 사유와 함께 보관한다. 재처리는 조건에 맞는 항목을 청크 단위로 Lua 스크립트가 원자적으로 꺼내고, 청크마다 상태 변경과 큐 등록을 마치므로 대량 재처리에도 힙 사용량과 DB 잠금 범위는 청크 크기로 제한된다.
+ * <p>
+ * 꺼낸 항목은 바로 지우지 않고 기한을 점수로 mail:{dlq}:claimed 에 옮겨 두며, 큐 등록에 성공한 항목만 삭제한다. 재처리하던 노드가 중단되거나 큐 등록에 실패한 항목은 claimTimeout 이후 원래 인덱스로 돌아간다. 그룹 없는 메일은 전체 인덱스에만 보관한다.
+ * <p>
+ * 재처리 스크립트는 항목 해시에서 읽은 그룹으로 그룹 인덱스 키를 만들므로, 모든 키를 {dlq} 해시 태그로 같은 슬롯에 두어 Redis Cluster 에서도 한 노드에서 실행되게 한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MailDeadLetterQueue {
+
+    // 그룹 인덱스와 항목 키를 스크립트 안에서 만들므로 모든 키가 같은 해시 태그여야 함
+    private static final String MAIL_DLQ_KEY = "mail:{dlq}";
+    private static final String MAIL_DLQ_GROUP_PREFIX = MAIL_DLQ_KEY + ":group:";
+    private static final String MAIL_DLQ_ENTRY_PREFIX = MAIL_DLQ_KEY + ":entry:";
+    private static final String MAIL_DLQ_COUNTS_KEY = MAIL_DLQ_KEY + ":counts";
+    private static final String MAIL_DLQ_CLAIMED_KEY = MAIL_DLQ_KEY + ":claimed";
+
+    // 보관하는 오류 메시지 최대 길이
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    /**
+     * 보관 (재처리 중인 항목이 다시 실패한 경우 claimed 에서 빼서 재처리 완료 시 지워지지 않게 함)
+     * KEYS: all, group(그룹 없으면 all), entry, counts, claimed / ARGV: id, failedAt, groupKey, priority, errorClass, errorMessage, attempts
+     */
+    private static final RedisScript<Long> ADD_SCRIPT = new DefaultRedisScript<>("""
+        local previous = redis.call('HGET', KEYS[3], 'errorClass')
+        if previous then
+            redis.call('HINCRBY', KEYS[4], previous, -1)
+        end
+        redis.call('ZREM', KEYS[5], ARGV[1])
+        redis.call('ZADD', KEYS[1], ARGV[2], ARGV[1])
+        redis.call('ZADD', KEYS[2], ARGV[2], ARGV[1])
+        redis.call('HSET', KEYS[3], 'groupKey', ARGV[3], 'priority', ARGV[4], 'errorClass', ARGV[5],
+            'errorMessage', ARGV[6], 'attempts', ARGV[7], 'failedAt', ARGV[2])
+        redis.call('HINCRBY', KEYS[4], ARGV[5], 1)
+        return 1
+        """, Long.class);
+
+    /**
+     * 재처리 대상 청크를 인덱스에서 claimed 로 옮김 (항목 해시는 큐 등록 후 삭제) - 조건에 맞지 않는 항목은 남겨 두고 건너뛴 수를 반환 (다음 청크의 offset)
+     * KEYS: index, all, claimed / ARGV: min, max, offset, count, errorClass, entryPrefix, groupPrefix, claimDeadline
+     * 반환: [조회 수, 건너뛴 수, (id, groupKey, priority)...]
+     */
+    private static final RedisScript<List> TAKE_SCRIPT = new DefaultRedisScript<>("""
+        local ids = redis.call('ZRANGEBYSCORE', KEYS[1], ARGV[1], ARGV[2], 'LIMIT', tonumber(ARGV[3]), tonumber(ARGV[4]))
+        local result = {tostring(#ids), '0'}
+        local skipped = 0
+        for _, id in ipairs(ids) do
+            local entryKey = ARGV[6] .. id
+            local fields = redis.call('HMGET', entryKey, 'groupKey', 'priority', 'errorClass')
+            if ARGV[5] ~= '' and fields[3] ~= ARGV[5] then
+                skipped = skipped + 1
+            else
+                redis.call('ZREM', KEYS[2], id)
+                if fields[1] and fields[1] ~= '' then
+                    redis.call('ZREM', ARGV[7] .. fields[1], id)
+                end
+                redis.call('ZADD', KEYS[3], ARGV[8], id)
+                result[#result + 1] = id
+                result[#result + 1] = fields[1] or ''
+                result[#result + 1] = fields[2] or ''
+            end
+        end
+        result[2] = tostring(skipped)
+        return result
+        """, List.class);
+
+    /**
+     * 큐에 다시 넣은 항목 삭제 (claimed 에 남아 있는 항목만, 그 사이 다시 보관된 항목은 유지)
+     * KEYS: claimed, counts / ARGV: entryPrefix, ids...
+     */
+    private static final RedisScript<Long> COMPLETE_SCRIPT = new DefaultRedisScript<>("""
+        local completed = 0
+        for i = 2, #ARGV do
+            local id = ARGV[i]
+            if redis.call('ZREM', KEYS[1], id) == 1 then
+                local entryKey = ARGV[1] .. id
+                local errorClass = redis.call('HGET', entryKey, 'errorClass')
+                if errorClass then
+                    redis.call('HINCRBY', KEYS[2], errorClass, -1)
+                end
+                redis.call('DEL', entryKey)
+                completed = completed + 1
+            end
+        end
+        return completed
+        """, Long.class);
+
+    /**
+     * 기한이 지난 claimed 항목을 원래 실패 시각으로 인덱스에 되돌림
+     * KEYS: claimed, all / ARGV: now, batchSize, entryPrefix, groupPrefix
+     */
+    private static final RedisScript<Long> RECOVER_SCRIPT = new DefaultRedisScript<>("""
+        local expired = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, tonumber(ARGV[2]))
+        for _, id in ipairs(expired) do
+            redis.call('ZREM', KEYS[1], id)
+            local fields = redis.call('HMGET', ARGV[3] .. id, 'groupKey', 'failedAt')
+            if fields[2] then
+                redis.call('ZADD', KEYS[2], fields[2], id)
+                if fields[1] and fields[1] ~= '' then
+                    redis.call('ZADD', ARGV[4] .. fields[1], fields[2], id)
+                end
+            end
+        end
+        return #expired
+        """, Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final MailQueueBackend mailQueueBackend;
+    private final MailLogService mailLogService;
+    private final MailRetryProperties retryProperties;
+
+    /**
+     * 최종 실패 메일 보관
+     */
+    public void add(MailLog mailLog, Exception cause, long attempts) {
+        String groupKey = mailLog.getGroupKey() != null && !mailLog.getGroupKey().isBlank() ? mailLog.getGroupKey() : "";
+        String priority = mailLog.getPriority() != null ? mailLog.getPriority().name() : "";
+        String errorMessage = cause.getMessage() != null ? cause.getMessage() : "";
+        if (errorMessage.length() > MAX_ERROR_LENGTH) {
+            errorMessage = errorMessage.substring(0, MAX_ERROR_LENGTH);
+        }
+
+        String id = String.valueOf(mailLog.getId());
+        stringRedisTemplate.execute(ADD_SCRIPT,
+            List.of(MAIL_DLQ_KEY, indexKey(groupKey), MAIL_DLQ_ENTRY_PREFIX + id, MAIL_DLQ_COUNTS_KEY, MAIL_DLQ_CLAIMED_KEY),
+            id, String.valueOf(System.currentTimeMillis()), groupKey, priority, errorClassOf(cause), errorMessage, String.valueOf(attempts));
+    }
+
+    /**
+     * 보관 현황 (전체 수, 오류 분류별 수 - 재처리 중인 항목 포함)
+     */
+    public DeadLetterSummaryResponse getSummary() {
+        Long indexed = stringRedisTemplate.opsForZSet().size(MAIL_DLQ_KEY);
+        Long claimed = stringRedisTemplate.opsForZSet().size(MAIL_DLQ_CLAIMED_KEY);
+        long total = (indexed != null ? indexed : 0L) + (claimed != null ? claimed : 0L);
+        Map<Object, Object> counts = stringRedisTemplate.opsForHash().entries(MAIL_DLQ_COUNTS_KEY);
+
+        Map<String, Long> countByErrorClass = new LinkedHashMap<>();
+        counts.forEach((errorClass, count) -> {
+            long value = Long.parseLong(count.toString());
+            if (value > 0) {
+                countByErrorClass.put(errorClass.toString(), value);
+            }
+        });
+        return new DeadLetterSummaryResponse(total, countByErrorClass);
+    }
+
+    /**
+     * 보관 항목 조회 (실패 시각 순, offset/size 단위) - 항목 해시는 파이프라인으로 한 번에 조회
+     */
+    @SuppressWarnings("unchecked")
+    public List<DeadLetterEntry> getEntries(String groupKey, LocalDateTime from, LocalDateTime to, String errorClass, long offset, int size) {
+        Set<String> ids = stringRedisTemplate.opsForZSet().rangeByScore(indexKey(groupKey), toMillis(from, Double.NEGATIVE_INFINITY),
+            toMillis(to, Double.POSITIVE_INFINITY), offset, size);
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+
+        List<String> idList = new ArrayList<>(ids);
+        List<Object> hashes = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            idList.forEach(id -> connection.hashCommands().hGetAll((MAIL_DLQ_ENTRY_PREFIX + id).getBytes()));
+            return null;
+        });
+
+        List<DeadLetterEntry> entries = new ArrayList<>(idList.size());
+        for (int i = 0; i < idList.size(); i++) {
+            Map<String, String> hash = (Map<String, String>) hashes.get(i);
+            if (hash == null || hash.isEmpty()) {
+                continue;
+            }
+            if (errorClass != null && !errorClass.isBlank() && !errorClass.equals(hash.get("errorClass"))) {
+                continue;
+            }
+            entries.add(toEntry(Long.valueOf(idList.get(i)), hash));
+        }
+        return entries;
+    }
+
+    /**
+     * 조건에 맞는 보관 메일을 청크 단위로 다시 큐에 넣음
+     */
+    @SuppressWarnings("unchecked")
+    public DeadLetterReplayResponse replay(DeadLetterReplayRequest request) {
+        int chunkSize = Math.max(1, retryProperties.getDeadLetterChunkSize());
+        long limit = request.limit() != null ? request.limit() : Long.MAX_VALUE;
+        String errorClass = request.errorClass() != null ? request.errorClass() : "";
+        String min = scoreBound(request.from(), "-inf");
+        String max = scoreBound(request.to(), "+inf");
+
+        long replayed = 0;
+        long offset = 0;
+        int chunks = 0;
+
+        while (replayed < limit) {
+            int count = (int) Math.min(chunkSize, limit - replayed);
+            long claimDeadline = System.currentTimeMillis() + retryProperties.getClaimTimeoutSeconds() * 1000;
+            List<String> result = stringRedisTemplate.execute(TAKE_SCRIPT, List.of(indexKey(request.groupKey()), MAIL_DLQ_KEY, MAIL_DLQ_CLAIMED_KEY),
+                min, max, String.valueOf(offset), String.valueOf(count), errorClass, MAIL_DLQ_ENTRY_PREFIX, MAIL_DLQ_GROUP_PREFIX,
+                String.valueOf(claimDeadline));
+            if (result == null || result.isEmpty()) {
+                break;
+            }
+
+            int scanned = Integer.parseInt(result.get(0));
+            offset += Integer.parseInt(result.get(1));
+
+            List<String> taken = result.subList(2, result.size());
+            if (!taken.isEmpty()) {
+                replayed += requeue(taken);
+                chunks++;
+            }
+
+            if (scanned < count) {
+                break;
+            }
+        }
+
+        log.info("DLQ 재처리 완료: {}건 ({} 청크), 조건 = {}", replayed, chunks, request);
+        return new DeadLetterReplayResponse(replayed, offset, chunks);
+    }
+
+    /**
+     * 옮기던 노드가 중단되었거나 큐 등록에 실패해 claimed 에 남은 항목을 보관 인덱스로 회수
+     */
+    @Scheduled(fixedDelayString = "${hermes.mail.queue.reaper-interval-millis:5000}", initialDelay = 10000)
+    public void recoverExpiredClaims() {
+        try {
+            Long recovered = stringRedisTemplate.execute(RECOVER_SCRIPT, List.of(MAIL_DLQ_CLAIMED_KEY, MAIL_DLQ_KEY),
+                String.valueOf(System.currentTimeMillis()), String.valueOf(Math.max(1, retryProperties.getDeadLetterChunkSize())),
+                MAIL_DLQ_ENTRY_PREFIX, MAIL_DLQ_GROUP_PREFIX);
+            if (recovered != null && recovered > 0) {
+                log.warn("재처리 중 멈춘 DLQ 항목 회수: {}건", recovered);
+            }
+        } catch (Exception e) {
+            log.error("멈춘 DLQ 재처리 회수 중 오류 발생: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 꺼낸 청크 재등록 - FAILED 상태인 메일만 PENDING 으로 되돌린 뒤 원래 그룹/레인 큐에 넣고, 되돌린 항목을 보관소에서 삭제
+     * <p>
+     * 상태 변경에 실패한 청크와 그 사이 전송되었거나 이미 대기 중인 메일의 항목은 큐에 넣지 않고 claimed 에 남아 claimTimeout 이후 보관 인덱스로 돌아간다. 되돌린 뒤 큐 등록에 실패한 메일은 미등록으로 남아 미등록 메일 회수가 다시 등록하므로 보관소에서는 삭제한다.
+     */
+    private int requeue(List<String> taken) {
+        List<Long> ids = new ArrayList<>(taken.size() / 3);
+        for (int i = 0; i < taken.size(); i += 3) {
+            ids.add(Long.valueOf(taken.get(i)));
+        }
+
+        Set<Long> pending;
+        try {
+            pending = new HashSet<>(mailLogService.markPending(ids));
+        } catch (Exception e) {
+            log.error("DLQ 재처리 상태 변경 실패 ({}건은 보관소로 복귀 예정): {}", ids.size(), e.getMessage());
+            return 0;
+        }
+        if (pending.size() < ids.size()) {
+            log.warn("FAILED 상태가 아닌 DLQ 항목은 재처리하지 않음 (보관소로 복귀 예정): {}건", ids.size() - pending.size());
+        }
+
+        List<String> completed = new ArrayList<>(pending.size());
+        List<Long> enqueued = new ArrayList<>(pending.size());
+        for (int i = 0; i < taken.size(); i += 3) {
+            Long id = Long.valueOf(taken.get(i));
+            if (!pending.contains(id)) {
+                continue;
+            }
+
+            String groupKey = taken.get(i + 1).isEmpty() ? null : taken.get(i + 1);
+            MailLog.MailPriority priority = taken.get(i + 2).isEmpty() ? null : MailLog.MailPriority.valueOf(taken.get(i + 2));
+            completed.add(taken.get(i));
+            try {
+                mailQueueBackend.enqueue(id, groupKey, priority);
+                enqueued.add(id);
+            } catch (Exception e) {
+                log.error("DLQ 재처리 큐 등록 실패 (미등록 메일 회수에서 다시 등록): ID = {}, 오류 = {}", id, e.getMessage());
+            }
+        }
+
+        try {
+            mailLogService.markEnqueued(enqueued, true);
+        } catch (Exception e) {
+            // 표시하지 못한 메일은 미등록 메일 회수가 한 번 더 넣을 수 있음 (처리 시 이미 전송된 메일은 건너뜀)
+            log.warn("DLQ 재처리 큐 등록 표시 실패: {}건, 오류 = {}", enqueued.size(), e.getMessage());
+        }
+
+        if (!completed.isEmpty()) {
+            List<String> args = new ArrayList<>(completed.size() + 1);
+            args.add(MAIL_DLQ_ENTRY_PREFIX);
+            args.addAll(completed);
+            stringRedisTemplate.execute(COMPLETE_SCRIPT, List.of(MAIL_DLQ_CLAIMED_KEY, MAIL_DLQ_COUNTS_KEY), args.toArray());
+        }
+        return completed.size();
+    }
+
+    private DeadLetterEntry toEntry(Long mailLogId, Map<String, String> hash) {
+        String priority = hash.get("priority");
+        String failedAt = hash.get("failedAt");
+        return new DeadLetterEntry(
+            mailLogId,
+            hash.get("groupKey"),
+            priority == null || priority.isEmpty() ? null : MailLog.MailPriority.valueOf(priority),
+            hash.get("errorClass"),
+            hash.get("errorMessage"),
+            Integer.parseInt(hash.getOrDefault("attempts", "0")),
+            failedAt == null ? null : LocalDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(failedAt)), ZoneId.systemDefault())
+        );
+    }
+
+    /**
+     * 오류 분류 - 최상위 원인 예외의 클래스 이름
+     */
+    static String errorClassOf(Throwable cause) {
+        Throwable root = cause;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getClass().getSimpleName();
+    }
+
+    private static String indexKey(String groupKey) {
+        return groupKey == null || groupKey.isBlank() ? MAIL_DLQ_KEY : MAIL_DLQ_GROUP_PREFIX + groupKey;
+    }
+
+    private static double toMillis(LocalDateTime time, double defaultValue) {
+        return time == null ? defaultValue : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static String scoreBound(LocalDateTime time, String defaultValue) {
+        return time == null ? defaultValue : String.valueOf(time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+}
@@ -0,0 +1,54 @@
+package com.hermes.service.dispatch;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * groupKey -> 노드 일관 해싱 링
+ * <p>
+ * 노드마다 virtualNodes 개의 지점을 링에 배치하고, groupKey 의 해시 이후 처음 만나는 지점의 노드가 담당한다. 노드가 추가되거나 빠져도 그 노드와 맞닿은 구간의 그룹만 담당이 바뀐다. 불변 객체이며, 노드 목록이 바뀌면 새로 만든다.
+ */
+class ConsistentHashRing {
+
+    private final TreeMap<Long, String> points = new TreeMap<>();
+
+    ConsistentHashRing(Collection<String> members, int virtualNodes) {
+        for (String member : members) {
+            for (int i = 0; i < Math.max(1, virtualNodes); i++) {
+                points.put(hash(member + "#" + i), member);
+            }
+        }
+    }
+
+    /**
+     * 담당 노드 (링이 비어 있으면 null)
+     */
+    String ownerOf(String key) {
+        if (points.isEmpty()) {
+            return null;
+        }
+
+        Map.Entry<Long, String> entry = points.ceilingEntry(hash(key));
+        return entry != null ? entry.getValue() : points.firstEntry().getValue();
+    }
+
+    /**
+     * MD5 앞 8바이트 (노드/그룹 이름이 비슷해도 링 위에 고르게 흩어지도록)
+     */
+    private static long hash(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(key.getBytes(StandardCharsets.UTF_8));
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (digest[i] & 0xFF);
+            }
+            return value;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
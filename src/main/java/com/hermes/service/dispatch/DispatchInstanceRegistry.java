@@ -0,0 +1,134 @@
+package com.hermes.service.dispatch;
+
+import com.hermes.config.properties.MailShardProperties;
+import jakarta.annotation.PreDestroy;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 디스패처 노드 목록과 groupKey 담당 노드
+ * <p>
+ * 디스패처가 동작 중인 노드는 mail:instances 에 heartbeat(점수 = 마지막 갱신 시각)를 남기고, 모든 노드는 주기적으로 살아 있는 노드 목록을 읽어 일관 해싱 링을 만든다. 샤딩이 켜져 있으면 각 노드는 자기가 담당하는 그룹 큐만 가져가므로, 그룹별 설정 캐시와 SMTP 세션이 한 노드에 모인다. 노드가 추가되거나 heartbeat 가 instanceTimeoutMillis 이상 끊기면 다음 갱신에서 담당이 다시 나뉜다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DispatchInstanceRegistry {
+
+    private static final String MAIL_INSTANCES_KEY = "mail:instances";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final MailShardProperties shardProperties;
+
+    // 이 노드를 식별하는 ID (소비자 ID 접두사, 해시 링 구성원 이름)
+    @Getter
+    private final String instanceId = createInstanceId();
+
+    private volatile boolean registered;
+    private volatile Set<String> members = Set.of();
+    private volatile ConsistentHashRing ring;
+
+    public boolean isShardingEnabled() {
+        return shardProperties.isEnabled();
+    }
+
+    /**
+     * 디스패처 시작 시 해시 링에 참여 (샤딩이 꺼져 있으면 무시)
+     */
+    public void register() {
+        if (!isShardingEnabled()) {
+            return;
+        }
+
+        registered = true;
+        heartbeat();
+        log.info("디스패처 노드 등록: {}", instanceId);
+    }
+
+    /**
+     * 해시 링에서 즉시 빠짐 (다른 노드는 다음 갱신에서 담당 그룹을 넘겨받음)
+     */
+    @PreDestroy
+    public void unregister() {
+        if (!registered) {
+            return;
+        }
+
+        registered = false;
+        try {
+            stringRedisTemplate.opsForZSet().remove(MAIL_INSTANCES_KEY, instanceId);
+        } catch (Exception e) {
+            log.warn("디스패처 노드 등록 해제 실패: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * heartbeat 갱신 + 살아 있는 노드 목록을 다시 읽어 해시 링 갱신
+     */
+    @Scheduled(fixedDelayString = "${hermes.mail.shard.heartbeat-interval-millis:1000}")
+    public void heartbeat() {
+        if (!isShardingEnabled()) {
+            return;
+        }
+
+        try {
+            long now = System.currentTimeMillis();
+            if (registered) {
+                stringRedisTemplate.opsForZSet().add(MAIL_INSTANCES_KEY, instanceId, now);
+            }
+
+            long threshold = now - shardProperties.getInstanceTimeoutMillis();
+            stringRedisTemplate.opsForZSet().removeRangeByScore(MAIL_INSTANCES_KEY, Double.NEGATIVE_INFINITY, threshold);
+
+            Set<String> alive = stringRedisTemplate.opsForZSet().rangeByScore(MAIL_INSTANCES_KEY, threshold, Double.POSITIVE_INFINITY);
+            refreshRing(alive != null ? new TreeSet<>(alive) : Set.of());
+        } catch (Exception e) {
+            // 갱신에 실패하면 마지막으로 읽은 링을 계속 사용
+            log.warn("디스패처 노드 목록 갱신 실패: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * groupKey 를 담당하는 노드 ID (샤딩이 꺼져 있거나 살아 있는 노드가 없으면 null)
+     */
+    public String ownerOf(String groupKey) {
+        ConsistentHashRing current = ring;
+        if (!isShardingEnabled() || current == null) {
+            return null;
+        }
+        return current.ownerOf(groupKey);
+    }
+
+    /**
+     * 이 노드가 groupKey 를 가져가야 하는지 여부 (담당 노드를 알 수 없으면 모든 노드가 가져감)
+     */
+    public boolean owns(String groupKey) {
+        String owner = ownerOf(groupKey);
+        return owner == null || owner.equals(instanceId);
+    }
+
+    private void refreshRing(Set<String> alive) {
+        if (alive.equals(members)) {
+            return;
+        }
+
+        ring = alive.isEmpty() ? null : new ConsistentHashRing(alive, shardProperties.getVirtualNodes());
+        log.info("디스패처 노드 목록 변경으로 담당 그룹 재배치: {} -> {}", members, alive);
+        members = alive;
+    }
+
+    private static String createInstanceId() {
+        String hostname = System.getenv("HOSTNAME");
+        if (hostname == null || hostname.isBlank()) {
+            hostname = "hermes";
+        }
+        return hostname + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
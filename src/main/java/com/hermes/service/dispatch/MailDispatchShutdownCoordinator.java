@@ -0,0 +1,43 @@
+package com.hermes.service.dispatch;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * 애플리케이션 종료 시 디스패처 정상 종료
+ * <p>
+ * 가장 늦은 phase 의 SmartLifecycle 이므로 웹 서버 graceful shutdown 보다 먼저, 그리고 전송 스레드 풀과 Redis/DB 커넥션 빈이 정리되기 전에 {@link MailDispatcher#drain()} 을 실행한다. 롤링 배포 중에 가져간 메일이 처리 목록에 남아 임대 만료까지 지연되지 않도록 한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class MailDispatchShutdownCoordinator implements SmartLifecycle {
+
+    private final MailDispatcher mailDispatcher;
+
+    private volatile boolean running;
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        try {
+            mailDispatcher.drain();
+        } finally {
+            running = false;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE;
+    }
+}
@@ -0,0 +1,399 @@
+package com.hermes.service.dispatch;
+
+import com.hermes.config.properties.MailDispatchProperties;
+import com.hermes.config.properties.MailSmtpBatchProperties;
+import com.hermes.entity.MailLog;
+import com.hermes.service.MailQueueService;
+import com.hermes.service.queue.MailQueueConsumer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * 메일 큐 디스패처
+ * <p>
+ * N개의 워커가 큐에서 메일을 배치 단위로 가져오고 (큐가 비면 블로킹 명령으로 대기), 배치의 메일 로그를 한 번의 쿼리로 조회한 뒤 수신 도메인별 제한({@link RecipientDomainThrottle})을 넘는 메일은 미루고, 나머지를 같은 그룹 메일끼리 묶어 실제 전송은 mailTaskExecutor 에서 한 SMTP 세션으로 수행한다. 모든 워커는 하나의 in-flight 한도(세마포어)를 공유하므로 워커 수와 관계없이 동시 전송 수는 maxInFlight 를 넘지 않는다.
+ * <p>
+ * 종료 시({@link #drain()})에는 새 메일을 가져오지 않고, 전송 스레드 풀에 넘겼지만 시작하지 않은 메일은 소비자별로 한 번에 큐로 되돌린 뒤, 전송 중인 메일이 끝나기를 shutdownTimeoutMillis 까지 기다린다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MailDispatcher {
+
+    private final MailQueueService mailQueueService;
+    private final MailDispatchProperties dispatchProperties;
+    private final Executor mailTaskExecutor;
+    private final Executor mailDispatchExecutor;
+    private final MeterRegistry meterRegistry;
+    private final DispatchInstanceRegistry dispatchInstanceRegistry;
+    private final MailSmtpBatchProperties smtpBatchProperties;
+    private final RecipientDomainThrottle recipientDomainThrottle;
+
+    // 전송 스레드 풀에 넘겼지만 아직 시작하지 않은 작업 (종료 시 큐로 되돌릴 대상)
+    private final Set<DispatchTask> queuedTasks = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger activeSends = new AtomicInteger();
+
+    private volatile boolean running;
+    private Semaphore inFlight;
+    private CountDownLatch workersStopped;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!dispatchProperties.isEnabled()) {
+            log.info("메일 디스패처가 비활성화되어 있습니다.");
+            return;
+        }
+
+        int workerCount = Math.max(1, dispatchProperties.getWorkerCount());
+        inFlight = new Semaphore(Math.max(1, dispatchProperties.getMaxInFlight()));
+        workersStopped = new CountDownLatch(workerCount);
+        running = true;
+
+        // 샤딩이 켜져 있으면 해시 링에 참여한 뒤 담당 그룹만 가져감
+        dispatchInstanceRegistry.register();
+
+        for (int i = 0; i < workerCount; i++) {
+            int workerIndex = i;
+            mailDispatchExecutor.execute(() -> runWorker(workerIndex));
+        }
+
+        log.info("메일 디스패처 시작: 워커 수 = {}, 최대 동시 전송 = {}", workerCount, dispatchProperties.getMaxInFlight());
+    }
+
+    @PreDestroy
+    public void stop() {
+        drain();
+    }
+
+    /**
+     * 정상 종료 - 새 메일 가져오기 중단, 시작하지 않은 메일 반환, 전송 중인 메일 완료 대기 (제한 시간 초과 시 남은 메일은 임대 만료 / 소비자 회수로 복구)
+     */
+    public synchronized void drain() {
+        if (!running) {
+            return;
+        }
+
+        long deadline = System.currentTimeMillis() + dispatchProperties.getShutdownTimeoutMillis();
+        running = false;
+        dispatchInstanceRegistry.unregister();
+        log.info("메일 디스패처 종료 시작: 전송 중 = {}, 전송 대기 = {}", activeSends.get(), queuedTasks.size());
+
+        releaseQueuedTasks(null);
+
+        // 워커는 대기(block-timeout) 중이던 명령이 끝나면 루프를 빠져나온다
+        try {
+            workersStopped.await(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            while (activeSends.get() > 0 && System.currentTimeMillis() < deadline) {
+                TimeUnit.MILLISECONDS.sleep(50);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (activeSends.get() > 0) {
+            log.warn("종료 제한 시간 안에 끝나지 않은 전송: {}건 (임대 만료 후 회수됨)", activeSends.get());
+        } else {
+            log.info("메일 디스패처 종료 완료");
+        }
+    }
+
+    /**
+     * 워커 루프 - in-flight 여유분만큼 큐에서 가져와 전송 스레드 풀에 넘긴다
+     */
+    private void runWorker(int workerIndex) {
+        log.debug("디스패처 워커 시작: {}", workerIndex);
+
+        try (MailQueueConsumer consumer = mailQueueService.createConsumer(workerIndex)) {
+            while (running) {
+                try {
+                    dispatchOnce(consumer);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                } catch (Exception e) {
+                    log.error("디스패처 워커 오류: worker = {}, 오류 = {}", workerIndex, e.getMessage(), e);
+                    sleepQuietly(dispatchProperties.getIdleWaitMillis());
+                }
+            }
+
+            // 종료 중에 넘긴 작업이 남아 있으면 소비자를 닫기 전에 반환
+            releaseQueuedTasks(consumer);
+        } finally {
+            workersStopped.countDown();
+        }
+
+        log.debug("디스패처 워커 종료: {}", workerIndex);
+    }
+
+    private void dispatchOnce(MailQueueConsumer consumer) throws InterruptedException {
+        int permits = acquirePermits();
+        List<Long> mailLogIds = List.of();
+
+        try {
+            mailLogIds = consumer.poll(permits);
+
+            if (mailLogIds.isEmpty()) {
+                // 큐가 비어 있으면 슬롯 1개만 남기고 반환한 뒤 새 메일을 기다린다
+                inFlight.release(permits - 1);
+                permits = 1;
+                mailLogIds = consumer.awaitNext();
+            }
+        } finally {
+            // 가져오지 못한 만큼 반환
+            if (mailLogIds.size() < permits) {
+                inFlight.release(permits - mailLogIds.size());
+            }
+        }
+
+        if (mailLogIds.isEmpty()) {
+            return;
+        }
+
+        // 가져오는 사이에 종료가 시작되었으면 전송하지 않고 바로 반환
+        if (!running) {
+            consumer.release(mailLogIds);
+            inFlight.release(mailLogIds.size());
+            return;
+        }
+
+        // 배치 전체를 한 번에 조회 (실패하거나 누락된 메일은 전송 작업에서 개별 조회)
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Map<Long, MailLog> mailLogs = mailQueueService.loadMailLogs(mailLogIds);
+        sample.stop(meterRegistry.timer("hermes.mail.dispatch.load"));
+        meterRegistry.summary("hermes.mail.dispatch.batch.size").record(mailLogIds.size());
+
+        mailLogIds = throttleByDomain(consumer, mailLogIds, mailLogs);
+
+        for (List<Long> session : groupBySession(mailLogIds, mailLogs)) {
+            dispatch(consumer, session, mailLogs);
+        }
+    }
+
+    /**
+     * 수신 도메인 허가를 받은 메일만 남기고, 제한을 넘는 메일은 재시도 횟수를 늘리지 않고 미룬 뒤 처리 완료 확인 (조회되지 않은 메일은 그대로 전송)
+     */
+    private List<Long> throttleByDomain(MailQueueConsumer consumer, List<Long> mailLogIds, Map<Long, MailLog> mailLogs) {
+        if (!recipientDomainThrottle.isEnabled()) {
+            return mailLogIds;
+        }
+
+        List<Long> permitted = new ArrayList<>(mailLogIds.size());
+        List<Long> deferred = new ArrayList<>();
+        for (Long mailLogId : mailLogIds) {
+            MailLog mailLog = mailLogs.get(mailLogId);
+            long waitMillis = mailLog != null ? recipientDomainThrottle.tryAcquire(mailLog.getRecipient()) : 0;
+            if (waitMillis == 0) {
+                permitted.add(mailLogId);
+                continue;
+            }
+
+            try {
+                mailQueueService.deferMail(mailLog, waitMillis);
+                deferred.add(mailLogId);
+            } catch (Exception e) {
+                // 미루지 못하면 큐에 그대로 두어 다시 가져가게 함
+                log.warn("메일 전송 연기 실패: ID = {}, 오류 = {}", mailLogId, e.getMessage());
+                consumer.release(List.of(mailLogId));
+            }
+            inFlight.release();
+        }
+
+        if (!deferred.isEmpty()) {
+            consumer.acknowledge(deferred);
+        }
+        return permitted;
+    }
+
+    /**
+     * 수신 도메인 동시 전송 슬롯 반환 (허가를 받은 메일만)
+     */
+    private void releaseDomainPermits(List<Long> mailLogIds, Map<Long, MailLog> mailLogs) {
+        if (!recipientDomainThrottle.isEnabled()) {
+            return;
+        }
+        for (Long mailLogId : mailLogIds) {
+            MailLog mailLog = mailLogs.get(mailLogId);
+            if (mailLog != null) {
+                recipientDomainThrottle.release(mailLog.getRecipient());
+            }
+        }
+    }
+
+    /**
+     * 같은 그룹(발신자 / 릴레이) 메일을 한 SMTP 세션으로 보낼 단위로 묶음 (조회되지 않은 메일과 묶음 전송이 꺼진 경우는 한 건씩)
+     */
+    private List<List<Long>> groupBySession(List<Long> mailLogIds, Map<Long, MailLog> mailLogs) {
+        if (!smtpBatchProperties.isEnabled()) {
+            return mailLogIds.stream().map(List::of).toList();
+        }
+
+        List<List<Long>> sessions = new ArrayList<>();
+        Map<String, List<Long>> byGroup = new LinkedHashMap<>();
+        for (Long mailLogId : mailLogIds) {
+            MailLog mailLog = mailLogs.get(mailLogId);
+            if (mailLog == null) {
+                sessions.add(List.of(mailLogId));
+            } else {
+                byGroup.computeIfAbsent(mailLog.getGroupKey(), key -> new ArrayList<>()).add(mailLogId);
+            }
+        }
+
+        int maxMessages = Math.max(1, smtpBatchProperties.getMaxMessagesPerSession());
+        for (List<Long> group : byGroup.values()) {
+            for (int from = 0; from < group.size(); from += maxMessages) {
+                sessions.add(group.subList(from, Math.min(from + maxMessages, group.size())));
+            }
+        }
+        return sessions;
+    }
+
+    /**
+     * 최소 1개의 전송 슬롯을 기다린 뒤 배치 크기까지 추가로 확보
+     */
+    private int acquirePermits() throws InterruptedException {
+        inFlight.acquire();
+
+        int permits = 1;
+        int batchSize = Math.max(1, dispatchProperties.getBatchSize());
+        while (permits < batchSize && inFlight.tryAcquire()) {
+            permits++;
+        }
+        return permits;
+    }
+
+    /**
+     * 전송 작업 제출 (작업 완료 시 처리 완료 확인 후 슬롯 반환)
+     */
+    private void dispatch(MailQueueConsumer consumer, List<Long> mailLogIds, Map<Long, MailLog> mailLogs) {
+        DispatchTask task = new DispatchTask(consumer, mailLogIds, mailLogs);
+        queuedTasks.add(task);
+
+        try {
+            mailTaskExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            log.warn("전송 스레드 풀이 가득 차 워커 스레드에서 직접 처리합니다: ID = {}", mailLogIds);
+            task.run();
+        }
+    }
+
+    /**
+     * 시작하지 않은 작업을 취소하고 소비자별로 한 번에 큐로 반환 (consumer 가 null 이면 모든 소비자)
+     */
+    private void releaseQueuedTasks(MailQueueConsumer consumer) {
+        Map<MailQueueConsumer, List<Long>> released = new LinkedHashMap<>();
+        for (DispatchTask task : queuedTasks) {
+            if ((consumer == null || task.consumer == consumer) && task.cancel()) {
+                releaseDomainPermits(task.mailLogIds, task.mailLogs);
+                released.computeIfAbsent(task.consumer, key -> new ArrayList<>()).addAll(task.mailLogIds);
+            }
+        }
+
+        released.forEach((owner, mailLogIds) -> {
+            owner.release(mailLogIds);
+            inFlight.release(mailLogIds.size());
+        });
+    }
+
+    /**
+     * 전송 작업 (한 SMTP 세션으로 보낼 메일 묶음) - 시작 전에 종료로 취소되면 실행하지 않는다
+     */
+    private final class DispatchTask implements Runnable {
+
+        private final MailQueueConsumer consumer;
+        private final List<Long> mailLogIds;
+        private final Map<Long, MailLog> mailLogs;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        private DispatchTask(MailQueueConsumer consumer, List<Long> mailLogIds, Map<Long, MailLog> mailLogs) {
+            this.consumer = consumer;
+            this.mailLogIds = mailLogIds;
+            this.mailLogs = mailLogs;
+        }
+
+        /**
+         * 시작 전이면 취소 (true 면 호출자가 큐 반환과 슬롯 반환을 맡음)
+         */
+        boolean cancel() {
+            if (!claimed.compareAndSet(false, true)) {
+                return false;
+            }
+            queuedTasks.remove(this);
+            return true;
+        }
+
+        @Override
+        public void run() {
+            if (!claimed.compareAndSet(false, true)) {
+                return;
+            }
+            queuedTasks.remove(this);
+            activeSends.addAndGet(mailLogIds.size());
+
+            List<Long> unsettled = List.of();
+            try {
+                if (mailLogIds.size() == 1) {
+                    if (!mailQueueService.processMailSending(mailLogIds.get(0), mailLogs.get(mailLogIds.get(0)))) {
+                        unsettled = mailLogIds;
+                    }
+                } else {
+                    unsettled = mailQueueService.processMailSendingBatch(mailLogIds, mailLogs);
+                }
+            } finally {
+                releaseDomainPermits(mailLogIds, mailLogs);
+                settle(consumer, mailLogIds, unsettled);
+                inFlight.release(mailLogIds.size());
+                activeSends.addAndGet(-mailLogIds.size());
+            }
+        }
+    }
+
+    /**
+     * 처리 결과를 기록한 메일은 처리 완료 확인, 기록하지 못한 메일(Redis 장애로 재시도 예약 실패 등)은 큐로 되돌림
+     * <p>
+     * 되돌린 메일은 곧바로 다시 가져가 전송되므로, 장애 중에 같은 메일을 쉬지 않고 반복하지 않도록 idleWaitMillis 만큼 기다린 뒤 되돌린다.
+     */
+    private void settle(MailQueueConsumer consumer, List<Long> mailLogIds, List<Long> unsettled) {
+        if (unsettled.isEmpty()) {
+            consumer.acknowledge(mailLogIds);
+            return;
+        }
+
+        Set<Long> unsettledIds = new HashSet<>(unsettled);
+        List<Long> settled = mailLogIds.stream().filter(mailLogId -> !unsettledIds.contains(mailLogId)).toList();
+        if (!settled.isEmpty()) {
+            consumer.acknowledge(settled);
+        }
+
+        log.warn("처리 결과를 기록하지 못한 메일을 큐로 되돌림: {}건", unsettled.size());
+        sleepQuietly(dispatchProperties.getIdleWaitMillis());
+        consumer.release(unsettled);
+    }
+
+    private void sleepQuietly(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
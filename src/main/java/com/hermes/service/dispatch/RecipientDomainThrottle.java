@@ -0,0 +1,210 @@
+package com.hermes.service.dispatch;
+
+import com.hermes.config.properties.MailDomainThrottleProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 수신 도메인별 동시 전송 수 / 전송 속도 제한
+ * <p>
+ * gmail.com, naver.com 같은 대형 수신 서버는 연결이 많거나 너무 빠르면 421 / 451 로 전송을 미룬다. 디스패처는 메일을 넘기기 전에 수신 도메인 버킷에서 허가를 받고, 허가받지 못한 메일은 재시도 횟수를 늘리지 않고 기다릴 시간만큼 미룬다. 버킷마다 동시 전송 수 상한과 토큰 버킷 속도가 있으며, 속도는 421 / 451 / 452 같은 속도 제한 응답({@link com.hermes.service.smtp.SmtpFailureClassifier} 의 THROTTLED)에 곱하기로 줄이고 정상 전송이 이어지면 더하기로 설정값까지 되돌린다 (AIMD).
+ * <p>
+ * 제한은 노드 단위이며, 지표 태그에는 설정에 적힌 도메인만 쓰고 나머지는 other 로 묶는다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RecipientDomainThrottle {
+
+    private static final String OTHER_DOMAIN = "other";
+    private static final long IDLE_BUCKET_MILLIS = 600_000;
+
+    private final MailDomainThrottleProperties throttleProperties;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, DomainBucket> buckets = new ConcurrentHashMap<>();
+
+    public boolean isEnabled() {
+        return throttleProperties.isEnabled();
+    }
+
+    /**
+     * 전송 허가 (허가되면 0, 아니면 다시 시도할 때까지 미룰 시간 밀리초)
+     */
+    public long tryAcquire(String recipient) {
+        DomainBucket bucket = bucketOf(domainOf(recipient));
+        long waitMillis = bucket.tryAcquire();
+        if (waitMillis > 0) {
+            meterRegistry.counter("hermes.mail.domain.throttled", "domain", bucket.tag).increment();
+            // 같은 순간에 미뤄진 메일이 한꺼번에 돌아오지 않도록 분산
+            waitMillis += ThreadLocalRandom.current().nextLong(waitMillis + 1);
+        }
+        return waitMillis;
+    }
+
+    /**
+     * 전송 완료 후 동시 전송 슬롯 반환
+     */
+    public void release(String recipient) {
+        DomainBucket bucket = buckets.get(domainOf(recipient));
+        if (bucket != null) {
+            bucket.release();
+        }
+    }
+
+    /**
+     * 정상 전송 - 속도를 설정값까지 조금씩 회복
+     */
+    public void recordSuccess(String recipient) {
+        DomainBucket bucket = buckets.get(domainOf(recipient));
+        if (bucket != null) {
+            bucket.increase();
+        }
+    }
+
+    /**
+     * 수신 서버의 전송 속도 제한 응답 (SmtpFailureClass.THROTTLED) - 속도를 낮춤
+     */
+    public void recordThrottled(String recipient) {
+        DomainBucket bucket = buckets.get(domainOf(recipient));
+        if (bucket != null) {
+            meterRegistry.counter("hermes.mail.domain.deferred", "domain", bucket.tag).increment();
+            bucket.decrease();
+        }
+    }
+
+    /**
+     * 오래 쓰이지 않았고 속도가 회복된 도메인 버킷 정리 (지표가 연결된 설정 도메인은 유지)
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void evictIdleBuckets() {
+        long now = System.currentTimeMillis();
+        buckets.values().removeIf(bucket -> OTHER_DOMAIN.equals(bucket.tag) && bucket.isIdle(now));
+    }
+
+    static String domainOf(String recipient) {
+        int at = recipient != null ? recipient.lastIndexOf('@') : -1;
+        return at >= 0 ? recipient.substring(at + 1).trim().toLowerCase(Locale.ROOT) : "";
+    }
+
+    private DomainBucket bucketOf(String domain) {
+        return buckets.computeIfAbsent(domain, key -> {
+            MailDomainThrottleProperties.Limit limit = throttleProperties.getDomains().get(key);
+            if (limit == null) {
+                return new DomainBucket(OTHER_DOMAIN, throttleProperties.getDefaultMaxConcurrency(), throttleProperties.getDefaultRatePerSecond());
+            }
+
+            DomainBucket bucket = new DomainBucket(key, limit.getMaxConcurrency(), limit.getRatePerSecond());
+            Gauge.builder("hermes.mail.domain.rate", bucket, DomainBucket::currentRate).tag("domain", key).register(meterRegistry);
+            return bucket;
+        });
+    }
+
+    /**
+     * 도메인 하나의 동시 전송 수 + 토큰 버킷 (가상 스레드에서도 캐리어를 점유하지 않도록 ReentrantLock 사용)
+     */
+    private final class DomainBucket {
+
+        private final String tag;
+        private final int maxConcurrency;
+        private final double maxRate;
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private int inFlight;
+        private double rate;
+        private double tokens;
+        private long refilledAt = System.currentTimeMillis();
+        private long adjustedAt;
+        private long usedAt = refilledAt;
+
+        private DomainBucket(String tag, int maxConcurrency, double maxRate) {
+            this.tag = tag;
+            this.maxConcurrency = Math.max(1, maxConcurrency);
+            this.maxRate = Math.max(throttleProperties.getMinRatePerSecond(), maxRate);
+            this.rate = this.maxRate;
+            this.tokens = Math.max(1, this.rate);
+        }
+
+        long tryAcquire() {
+            lock.lock();
+            try {
+                long now = System.currentTimeMillis();
+                usedAt = now;
+                tokens = Math.min(Math.max(1, rate), tokens + (now - refilledAt) * rate / 1000);
+                refilledAt = now;
+
+                if (inFlight >= maxConcurrency) {
+                    return Math.max(1, throttleProperties.getConcurrencyDeferMillis());
+                }
+                if (tokens < 1) {
+                    return (long) Math.ceil((1 - tokens) * 1000 / rate);
+                }
+
+                tokens -= 1;
+                inFlight++;
+                return 0;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void release() {
+            lock.lock();
+            try {
+                inFlight = Math.max(0, inFlight - 1);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void increase() {
+            lock.lock();
+            try {
+                long now = System.currentTimeMillis();
+                if (rate < maxRate && now - adjustedAt >= throttleProperties.getAdjustIntervalMillis()) {
+                    rate = Math.min(maxRate, rate + throttleProperties.getIncreaseStep());
+                    adjustedAt = now;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void decrease() {
+            lock.lock();
+            try {
+                long now = System.currentTimeMillis();
+                if (now - adjustedAt >= throttleProperties.getAdjustIntervalMillis()) {
+                    rate = Math.max(throttleProperties.getMinRatePerSecond(), rate * throttleProperties.getDecreaseFactor());
+                    tokens = Math.min(tokens, 0);
+                    adjustedAt = now;
+                    log.warn("수신 서버 전송 지연 응답으로 속도 조정: domain = {}, 초당 {}건", tag, String.format("%.1f", rate));
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        double currentRate() {
+            return rate;
+        }
+
+        boolean isIdle(long now) {
+            lock.lock();
+            try {
+                return inFlight == 0 && rate >= maxRate && now - usedAt >= IDLE_BUCKET_MILLIS;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.hermes.service.dispatch;
+
+import com.hermes.config.properties.MailDispatchProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.mail.MailSendException;
+import org.springframework.stereotype.Component;
+
+/**
+ * 가상 스레드 모드에서 캐리어 스레드 점유(pinning) 대응
+ * <p>
+ * JavaMail 은 synchronized 안에서 소켓 I/O 를 하므로, Java 21 에서는 SMTP 응답을 기다리는 동안 가상 스레드가 캐리어 스레드를 붙잡는다. 캐리어 수(CPU 수)만큼의 전송이 동시에 멈추면 다른 가상 스레드도 실행되지 못하므로, smtpPlatformThreads 가 설정되어 있으면 전송만 플랫폼 스레드 풀에서 실행하고 가상 스레드는 결과를 기다린다 (Future 대기는 캐리어를 점유하지 않음). 또한 JFR 의 jdk.VirtualThreadPinned 이벤트를 구독해 점유 시간을 hermes.mail.virtual.pinned 지표로 남긴다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class VirtualThreadPinningGuard {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final Duration PINNED_THRESHOLD = Duration.ofMillis(20);
+    private static final long WARN_INTERVAL_MILLIS = 60_000;
+
+    private final MailDispatchProperties dispatchProperties;
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicLong lastWarnAt = new AtomicLong();
+
+    private ExecutorService smtpExecutor;
+    private RecordingStream pinnedEvents;
+
+    @PostConstruct
+    void start() {
+        if (!Threading.VIRTUAL.isActive(environment)) {
+            return;
+        }
+
+        int smtpPlatformThreads = dispatchProperties.getSmtpPlatformThreads();
+        if (smtpPlatformThreads > 0) {
+            smtpExecutor = Executors.newFixedThreadPool(smtpPlatformThreads, Thread.ofPlatform().name("Hermes-Smtp-", 0).daemon(true).factory());
+            log.info("SMTP 전송을 플랫폼 스레드에서 실행합니다: 스레드 수 = {}", smtpPlatformThreads);
+        }
+
+        startPinningMonitor();
+    }
+
+    @PreDestroy
+    void stop() {
+        if (pinnedEvents != null) {
+            pinnedEvents.close();
+        }
+        if (smtpExecutor != null) {
+            smtpExecutor.shutdown();
+        }
+    }
+
+    /**
+     * SMTP 전송 실행 (가상 스레드에서 호출되었고 플랫폼 스레드 풀이 있으면 그쪽에서 실행)
+     */
+    public void send(Runnable smtpSend) {
+        call(() -> {
+            smtpSend.run();
+            return null;
+        });
+    }
+
+    /**
+     * 결과가 있는 SMTP 전송 실행 (여러 메일을 한 세션으로 보내는 경우)
+     */
+    public <T> T call(Supplier<T> smtpCall) {
+        if (smtpExecutor == null || !Thread.currentThread().isVirtual()) {
+            return smtpCall.get();
+        }
+
+        Future<T> result = smtpExecutor.submit(smtpCall::get);
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new MailSendException("SMTP 전송 실패", cause);
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new MailSendException("SMTP 전송 대기 중 중단되었습니다", e);
+        }
+    }
+
+    /**
+     * 캐리어 점유 이벤트 구독 (지표는 매번, 경고 로그는 1분에 한 번 가장 안쪽 호출 위치와 함께)
+     */
+    private void startPinningMonitor() {
+        try {
+            Timer pinned = meterRegistry.timer("hermes.mail.virtual.pinned");
+
+            RecordingStream stream = new RecordingStream();
+            stream.enable(PINNED_EVENT).withThreshold(PINNED_THRESHOLD).withStackTrace();
+            stream.onEvent(PINNED_EVENT, event -> {
+                pinned.record(event.getDuration());
+
+                long now = System.currentTimeMillis();
+                long last = lastWarnAt.get();
+                if (now - last >= WARN_INTERVAL_MILLIS && lastWarnAt.compareAndSet(last, now)) {
+                    List<RecordedFrame> frames = event.getStackTrace() != null ? event.getStackTrace().getFrames() : List.of();
+                    String location = frames.isEmpty() ? "알 수 없음"
+                        : frames.get(0).getMethod().getType().getName() + "." + frames.get(0).getMethod().getName();
+                    log.warn("가상 스레드 캐리어 점유 감지: {}ms, 위치 = {} (smtp-platform-threads 설정 검토)", event.getDuration().toMillis(), location);
+                }
+            });
+            stream.startAsync();
+            pinnedEvents = stream;
+        } catch (Exception e) {
+            log.warn("가상 스레드 점유 감시를 시작하지 못했습니다: {}", e.getMessage());
+        }
+    }
+}
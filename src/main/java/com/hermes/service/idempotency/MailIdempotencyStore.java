@@ -0,0 +1,141 @@
+package com.hermes.service.idempotency;
+
+import com.hermes.config.properties.MailIdempotencyProperties;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 발송 요청 멱등성 키 저장소
+ * <p>
+ * 키는 mail:idempotency:{groupKey}:{key} 에 SET NX + TTL 로 선점한다. 선점은 요청당 Redis 왕복 한 번(대량 발송은 수신자 전체를 스크립트 한 번)이며, 선점에 실패한 키만 메일 로그의 idempotency_key 로 원래 메일을 찾는다. 선점한 트랜잭션이 롤백되면 키를 지워 같은 키로 다시 요청할 수 있게 한다. Redis 에 접근할 수 없으면 멱등성 검사 없이 발송한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MailIdempotencyStore {
+
+    private static final String MAIL_IDEMPOTENCY_KEY = "mail:idempotency";
+
+    /**
+     * 여러 키 선점 후 이미 있던 키 목록 반환 - KEYS: 멱등성 키 / ARGV: 값, ttlMillis
+     */
+    private static final RedisScript<List> RESERVE_ALL_SCRIPT = new DefaultRedisScript<>("""
+        local duplicates = {}
+        for i, key in ipairs(KEYS) do
+            if not redis.call('SET', key, ARGV[1], 'NX', 'PX', ARGV[2]) then
+                duplicates[#duplicates + 1] = i
+            end
+        end
+        return duplicates
+        """, List.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final MailIdempotencyProperties idempotencyProperties;
+
+    /**
+     * 키 선점 (처음 보는 키면 true, 같은 키의 요청이 이미 있었으면 false)
+     */
+    public boolean reserve(String groupKey, String idempotencyKey) {
+        String key = redisKey(groupKey, idempotencyKey);
+        try {
+            Boolean reserved = stringRedisTemplate.opsForValue()
+                .setIfAbsent(key, reservedAt(), Duration.ofSeconds(idempotencyProperties.getTtlSeconds()));
+            if (!Boolean.TRUE.equals(reserved)) {
+                return false;
+            }
+        } catch (Exception e) {
+            log.warn("멱등성 키 확인 실패로 검사 없이 발송: key = {}, 오류 = {}", idempotencyKey, e.getMessage());
+            return true;
+        }
+
+        releaseOnRollback(List.of(key));
+        return true;
+    }
+
+    /**
+     * 여러 키를 한 번에 선점하고 이미 있던 키 반환 (대량 발송 수신자별 키)
+     */
+    @SuppressWarnings("unchecked")
+    public Set<String> reserveAll(String groupKey, Collection<String> idempotencyKeys) {
+        List<String> keys = new ArrayList<>(idempotencyKeys);
+        if (keys.isEmpty()) {
+            return Set.of();
+        }
+
+        List<String> redisKeys = keys.stream().map(key -> redisKey(groupKey, key)).toList();
+        List<Long> duplicateIndexes;
+        try {
+            duplicateIndexes = stringRedisTemplate.execute(RESERVE_ALL_SCRIPT, redisKeys,
+                reservedAt(), String.valueOf(idempotencyProperties.getTtlSeconds() * 1000));
+        } catch (Exception e) {
+            log.warn("멱등성 키 확인 실패로 검사 없이 발송: {}건, 오류 = {}", keys.size(), e.getMessage());
+            return Set.of();
+        }
+
+        Set<String> duplicates = new LinkedHashSet<>();
+        List<String> reservedKeys = new ArrayList<>(redisKeys);
+        if (duplicateIndexes != null) {
+            for (Long index : duplicateIndexes) {
+                duplicates.add(keys.get(index.intValue() - 1));
+                reservedKeys.set(index.intValue() - 1, null);
+            }
+        }
+
+        releaseOnRollback(reservedKeys.stream().filter(Objects::nonNull).toList());
+        return duplicates;
+    }
+
+    /**
+     * 선점한 키 해제 (발송 요청을 저장하지 못한 경우 같은 키로 다시 요청할 수 있도록)
+     */
+    public void release(String groupKey, String idempotencyKey) {
+        delete(List.of(redisKey(groupKey, idempotencyKey)));
+    }
+
+    private void releaseOnRollback(List<String> keys) {
+        if (keys.isEmpty() || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    delete(keys);
+                }
+            }
+        });
+    }
+
+    private void delete(List<String> keys) {
+        try {
+            stringRedisTemplate.delete(keys);
+        } catch (Exception e) {
+            log.warn("멱등성 키 해제 실패: {}건, 오류 = {}", keys.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * 그룹 단위 해시 태그로 묶어 Redis Cluster 에서도 대량 선점을 스크립트 한 번으로 처리
+     */
+    private String redisKey(String groupKey, String idempotencyKey) {
+        return MAIL_IDEMPOTENCY_KEY + ":{" + groupKey + "}:" + idempotencyKey;
+    }
+
+    private String reservedAt() {
+        return String.valueOf(System.currentTimeMillis());
+    }
+}
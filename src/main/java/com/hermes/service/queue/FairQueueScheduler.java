@@ -0,0 +1,87 @@
+package com.hermes.service.queue;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * groupKey 별 하위 큐에 대한 가중 DRR(Deficit Round Robin) 스케줄러
+ * <p>
+ * 활성 그룹을 원형으로 돌면서 방문할 때마다 quantum x 가중치 만큼 deficit 을 적립하고, 적립된 만큼만 해당 그룹 큐에서 가져가도록 배분한다. 대량 발송 중인 그룹이 있어도 다른 그룹은 매 라운드 자기 몫을 받으므로 소규모 그룹의 대기 시간이 늘어나지 않는다. 회차 예산이 모자라거나 가져오는 사이 큐가 줄어 몫을 다 쓰지 못한 그룹은 남은 deficit 을 다음 라운드로 이월해 가중치 비율을 지키며, 오래 밀린 그룹이 한 번에 몰아 받지 않도록 두 라운드 분량까지만 적립한다. 큐가 빈 그룹은 원형에서 빠지면서 deficit 도 버린다. 노드별로 독립적으로 동작하며, 같은 노드의 워커들이 공유한다.
+ */
+class FairQueueScheduler {
+
+    // deficit 적립 상한 (라운드 분량의 배수)
+    private static final int MAX_DEFICIT_ROUNDS = 2;
+
+    private final int quantum;
+    private final ToIntFunction<String> weightResolver;
+
+    private final Deque<String> ring = new ArrayDeque<>();
+    private final Map<String, Integer> deficits = new HashMap<>();
+
+    FairQueueScheduler(int quantum, ToIntFunction<String> weightResolver) {
+        this.quantum = Math.max(1, quantum);
+        this.weightResolver = weightResolver;
+    }
+
+    /**
+     * 활성 그룹 목록 갱신 (새 그룹은 원형 끝에 추가, 사라진 그룹은 제거)
+     */
+    synchronized void refresh(Collection<String> activeGroups) {
+        ring.removeIf(group -> !activeGroups.contains(group));
+        deficits.keySet().retainAll(activeGroups);
+
+        for (String group : activeGroups) {
+            if (!deficits.containsKey(group)) {
+                deficits.put(group, 0);
+                ring.addLast(group);
+            }
+        }
+    }
+
+    synchronized boolean isEmpty() {
+        return ring.isEmpty();
+    }
+
+    /**
+     * 이번 회차에 그룹별로 가져갈 수를 배분 (최대 maxCount 개)
+     */
+    synchronized Map<String, Integer> plan(int maxCount) {
+        Map<String, Integer> allocations = new LinkedHashMap<>();
+        int budget = maxCount;
+
+        for (int visited = 0, size = ring.size(); visited < size && budget > 0; visited++) {
+            String group = ring.pollFirst();
+            ring.addLast(group);
+
+            int credit = quantum * Math.max(1, weightResolver.applyAsInt(group));
+            // 쓰지 못한 몫은 이월하되 한 번에 너무 많이 쌓이지 않도록 두 라운드 분량으로 제한
+            int deficit = Math.min(deficits.getOrDefault(group, 0) + credit, credit * MAX_DEFICIT_ROUNDS);
+            deficits.put(group, deficit);
+
+            int take = Math.min(deficit, budget);
+            allocations.put(group, take);
+            budget -= take;
+        }
+
+        return allocations;
+    }
+
+    /**
+     * 실제로 가져간 수 반영 - 그룹 큐가 비었다면 원형에서 제거
+     */
+    synchronized void complete(String group, int taken, boolean drained) {
+        if (drained) {
+            deficits.remove(group);
+            ring.remove(group);
+            return;
+        }
+
+        deficits.computeIfPresent(group, (key, deficit) -> Math.max(0, deficit - taken));
+    }
+}
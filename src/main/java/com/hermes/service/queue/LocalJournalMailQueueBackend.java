@@ -0,0 +1,271 @@
+package com.hermes.service.queue;
+
+import com.hermes.config.properties.MailDispatchProperties;
+import com.hermes.config.properties.MailQueueProperties;
+import com.hermes.entity.MailLog;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 로컬 디스크 저널 기반 메일 큐 (큐를 Redis 없이 단일 노드로 운영하는 경우)
+ * <p>
+ * 큐 추가와 처리 완료를 {@link MailJournal} 에 기록하고, 대기 중인 메일은 메모리의 HIGH / LOW 레인에 보관한다. 프로세스가 중단되면 기동 시 저널에서 처리 완료되지 않은 메일을 복구한다. 여러 노드가 큐를 공유할 수 없으므로 그룹별 공정 배분은 적용되지 않는다.
+ * <p>
+ * 처리 중인 메일이 다시 추가되면(도메인 속도 제한으로 미룬 뒤 처리 완료, 재시도 등록과 처리 완료가 겹치는 경우) 처리 완료 시점에 다시 기록해 레인에 넣는다. 재시도 예약, 지연 큐, DLQ, 멱등성 키는 이 저장소와 무관하게 Redis 를 사용한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "hermes.mail.queue", name = "backend", havingValue = "local-journal")
+public class LocalJournalMailQueueBackend implements MailQueueBackend {
+
+    static final byte PRIORITY_LOW = 0;
+    static final byte PRIORITY_HIGH = 1;
+
+    private final MailDispatchProperties dispatchProperties;
+    private final MailQueueProperties queueProperties;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Deque<Long> highLane = new ArrayDeque<>();
+    private final Deque<Long> lowLane = new ArrayDeque<>();
+
+    // 처리 중인 메일 -> 소비자
+    private final Map<Long, String> inFlight = new HashMap<>();
+
+    // 처리 중에 다시 추가된 메일 -> 우선순위 (처리 완료 시 다시 큐에 넣음)
+    private final Map<Long, Byte> requeueOnAck = new HashMap<>();
+
+    private MailJournal journal;
+    private PriorityLaneBalancer laneBalancer;
+
+    @PostConstruct
+    void open() throws IOException {
+        Map<Long, Byte> recovered = new LinkedHashMap<>();
+        journal = MailJournal.open(Path.of(queueProperties.getJournalDirectory()), queueProperties.getJournalSegmentBytes(), recovered);
+        laneBalancer = new PriorityLaneBalancer(queueProperties.getBulkShare(), queueProperties.getBulkAgingMillis());
+
+        recovered.forEach((mailLogId, priority) -> (priority == PRIORITY_HIGH ? highLane : lowLane).addLast(mailLogId));
+    }
+
+    @PreDestroy
+    void close() {
+        journal.close();
+    }
+
+    @Override
+    public void enqueue(Long mailLogId, String groupKey, MailLog.MailPriority priority) {
+        boolean high = priority == MailLog.MailPriority.HIGH;
+
+        lock.lock();
+        try {
+            // 처리 중인 메일은 처리 완료 후 다시 넣도록 기록 (저널에는 아직 처리 완료되지 않은 기록이 남아 있으므로 그 사이 중단되어도 복구됨)
+            if (inFlight.containsKey(mailLogId)) {
+                requeueOnAck.merge(mailLogId, high ? PRIORITY_HIGH : PRIORITY_LOW, (a, b) -> (byte) Math.max(a, b));
+                return;
+            }
+
+            // 이미 대기 중인 메일은 다시 넣지 않음
+            if (!journal.appendEnqueue(mailLogId, high ? PRIORITY_HIGH : PRIORITY_LOW)) {
+                return;
+            }
+            (high ? highLane : lowLane).addLast(mailLogId);
+            notEmpty.signal();
+        } catch (IOException e) {
+            throw new UncheckedIOException("메일 저널 기록 실패: " + mailLogId, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public MailQueueConsumer createConsumer(String consumerId) {
+        return new LocalJournalMailQueueConsumer(this, consumerId, dispatchProperties.getBlockTimeoutMillis());
+    }
+
+    @Override
+    public long getPendingCount() {
+        lock.lock();
+        try {
+            return highLane.size() + lowLane.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long getProcessingCount() {
+        lock.lock();
+        try {
+            return inFlight.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<ConsumerStatus> getConsumerStatuses() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            inFlight.values().forEach(consumerId -> counts.merge(consumerId, 1L, Long::sum));
+        } finally {
+            lock.unlock();
+        }
+
+        List<ConsumerStatus> statuses = new ArrayList<>(counts.size());
+        counts.forEach((consumerId, count) -> statuses.add(new ConsumerStatus(consumerId, count, 0L)));
+        return statuses;
+    }
+
+    /**
+     * 같은 프로세스의 워커만 소비하므로 멈춘 메일은 기동 시 저널 복구로만 발생한다
+     */
+    @Override
+    public void recoverStuckMails() {
+    }
+
+    /**
+     * 최대 maxCount 개를 레인 배분에 따라 가져옴
+     */
+    List<Long> take(String consumerId, int maxCount) {
+        lock.lock();
+        try {
+            return takeLocked(consumerId, maxCount);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 대기 중인 메일이 생길 때까지 최대 timeoutMillis 동안 기다린 뒤 한 건을 가져옴
+     */
+    List<Long> awaitAndTake(String consumerId, long timeoutMillis) throws InterruptedException {
+        lock.lock();
+        try {
+            long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            while (highLane.isEmpty() && lowLane.isEmpty()) {
+                if (remaining <= 0) {
+                    return List.of();
+                }
+                remaining = notEmpty.awaitNanos(remaining);
+            }
+            return takeLocked(consumerId, 1);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 처리 완료 기록 - 처리 중에 다시 추가된 메일은 처리 완료 뒤 새로 기록해 레인 끝에 넣음
+     */
+    void acknowledge(Long mailLogId) {
+        lock.lock();
+        try {
+            acknowledgeLocked(mailLogId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 여러 메일 처리 완료 기록 (잠금 한 번)
+     */
+    void acknowledge(Collection<Long> mailLogIds) {
+        lock.lock();
+        try {
+            mailLogIds.forEach(this::acknowledgeLocked);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void acknowledgeLocked(Long mailLogId) {
+        inFlight.remove(mailLogId);
+        Byte requeuePriority = requeueOnAck.remove(mailLogId);
+        try {
+            journal.appendAck(mailLogId);
+            if (requeuePriority != null) {
+                journal.appendEnqueue(mailLogId, requeuePriority);
+            }
+        } catch (IOException e) {
+            // 기록하지 못한 처리 완료는 재기동 시 다시 전송되며, 이미 전송된 메일은 스킵된다
+            log.warn("메일 저널 처리 완료 기록 실패: ID = {}, 오류 = {}", mailLogId, e.getMessage());
+        }
+
+        if (requeuePriority != null) {
+            (requeuePriority == PRIORITY_HIGH ? highLane : lowLane).addLast(mailLogId);
+            notEmpty.signal();
+        }
+    }
+
+    /**
+     * 전송을 시작하지 않은 메일을 HIGH 레인 앞쪽으로 되돌림 (저널에는 처리 완료가 기록되지 않았으므로 그대로 둔다)
+     */
+    void release(List<Long> mailLogIds) {
+        lock.lock();
+        try {
+            for (int i = mailLogIds.size() - 1; i >= 0; i--) {
+                Long mailLogId = mailLogIds.get(i);
+                // 처리 중에 다시 추가된 기록은 레인으로 되돌리면서 함께 해소됨
+                requeueOnAck.remove(mailLogId);
+                if (inFlight.remove(mailLogId) != null) {
+                    highLane.addFirst(mailLogId);
+                }
+            }
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 저널 디스크 동기화
+     */
+    @Scheduled(fixedDelayString = "${hermes.mail.queue.journal-fsync-interval-millis:100}")
+    public void sync() {
+        journal.force();
+    }
+
+    private List<Long> takeLocked(String consumerId, int maxCount) {
+        int lowAvailable = Math.min(maxCount, lowLane.size());
+        int lowReserved = Math.min(laneBalancer.reserveLow(maxCount), lowAvailable);
+
+        List<Long> mailLogIds = new ArrayList<>(maxCount);
+        int lowTaken = drain(lowLane, lowReserved, mailLogIds);
+        drain(highLane, maxCount - mailLogIds.size(), mailLogIds);
+        lowTaken += drain(lowLane, maxCount - mailLogIds.size(), mailLogIds);
+
+        laneBalancer.complete(lowAvailable, lowTaken);
+        mailLogIds.forEach(mailLogId -> inFlight.put(mailLogId, consumerId));
+        return mailLogIds;
+    }
+
+    private int drain(Deque<Long> lane, int count, List<Long> target) {
+        int taken = 0;
+        while (taken < count && !lane.isEmpty()) {
+            target.add(lane.pollFirst());
+            taken++;
+        }
+        return taken;
+    }
+}
@@ -0,0 +1,54 @@
+package com.hermes.service.queue;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 로컬 저널 큐 소비자 - 같은 프로세스의 메모리 레인에서 가져오고, 큐가 비어 있으면 새 메일이 추가될 때까지 조건 변수로 대기한다.
+ */
+class LocalJournalMailQueueConsumer implements MailQueueConsumer {
+
+    private final LocalJournalMailQueueBackend backend;
+    private final String consumerId;
+    private final long blockTimeoutMillis;
+
+    LocalJournalMailQueueConsumer(LocalJournalMailQueueBackend backend, String consumerId, long blockTimeoutMillis) {
+        this.backend = backend;
+        this.consumerId = consumerId;
+        this.blockTimeoutMillis = blockTimeoutMillis;
+    }
+
+    @Override
+    public String getConsumerId() {
+        return consumerId;
+    }
+
+    @Override
+    public List<Long> poll(int maxCount) {
+        return backend.take(consumerId, maxCount);
+    }
+
+    @Override
+    public List<Long> awaitNext() throws InterruptedException {
+        return backend.awaitAndTake(consumerId, blockTimeoutMillis);
+    }
+
+    @Override
+    public void acknowledge(Long mailLogId) {
+        backend.acknowledge(mailLogId);
+    }
+
+    @Override
+    public void acknowledge(Collection<Long> mailLogIds) {
+        backend.acknowledge(mailLogIds);
+    }
+
+    @Override
+    public void release(List<Long> mailLogIds) {
+        backend.release(mailLogIds);
+    }
+
+    @Override
+    public void close() {
+    }
+}
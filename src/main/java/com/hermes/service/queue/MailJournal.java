@@ -0,0 +1,269 @@
+package com.hermes.service.queue;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 메모리 맵 기반 추가 전용(append-only) 메일 큐 저널
+ * <p>
+ * 큐 추가(ENQUEUE)와 처리 완료(ACK)를 16바이트 고정 길이 레코드로 세그먼트 파일에 순서대로 기록한다. 세그먼트가 가득 차면 다음 세그먼트로 넘어가고, 가장 오래된 세그먼트부터 추가한 메일이 모두 처리 완료되면 파일을 삭제한다. 기동 시 모든 세그먼트를 다시 읽어 처리 완료되지 않은 메일을 복구하며, 체크섬이 맞지 않는 레코드(기록 도중 중단)에서 읽기를 멈춘다.
+ * <p>
+ * 레코드: [종류 1][우선순위 1][예약 2][체크섬 4][메일 로그 ID 8]
+ */
+@Slf4j
+class MailJournal implements Closeable {
+
+    static final int RECORD_SIZE = 16;
+
+    private static final byte ENQUEUE = 1;
+    private static final byte ACK = 2;
+    private static final int CHECKSUM_SEED = 0x4845524D; // "HERM"
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private final Path directory;
+    private final int segmentRecords;
+
+    // 오래된 순서의 세그먼트 목록 (마지막이 기록 중인 세그먼트)
+    private final Deque<Segment> segments = new ArrayDeque<>();
+
+    // 처리 완료되지 않은 메일 -> 기록된 세그먼트
+    private final Map<Long, Segment> outstanding = new HashMap<>();
+
+    private MailJournal(Path directory, int segmentBytes) {
+        this.directory = directory;
+        this.segmentRecords = Math.max(1, segmentBytes / RECORD_SIZE);
+    }
+
+    /**
+     * 저널 열기 - 기존 세그먼트를 읽어 처리 완료되지 않은 메일(ID -> 우선순위)을 기록 순서대로 recovered 에 채움
+     */
+    static MailJournal open(Path directory, int segmentBytes, Map<Long, Byte> recovered) throws IOException {
+        Files.createDirectories(directory);
+
+        MailJournal journal = new MailJournal(directory, segmentBytes);
+        Map<Long, Byte> pending = new LinkedHashMap<>();
+
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(directory)) {
+            files = stream.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX)).sorted().toList();
+        }
+
+        for (Path file : files) {
+            Segment segment = journal.mapSegment(file, parseIndex(file));
+            journal.segments.addLast(segment);
+            journal.replay(segment, pending);
+        }
+
+        journal.releaseCompletedSegments();
+        if (journal.segments.isEmpty() || journal.active().isFull()) {
+            journal.rollover();
+        }
+
+        recovered.putAll(pending);
+        log.info("메일 저널 복구: 디렉터리 = {}, 세그먼트 = {}개, 미처리 메일 = {}건", directory, journal.segments.size(), pending.size());
+        return journal;
+    }
+
+    /**
+     * 큐 추가 기록 - 이미 처리 대기 중인 메일이면 기록하지 않고 false
+     */
+    synchronized boolean appendEnqueue(long mailLogId, byte priority) throws IOException {
+        if (outstanding.containsKey(mailLogId)) {
+            return false;
+        }
+
+        Segment segment = write(ENQUEUE, priority, mailLogId);
+        segment.outstanding++;
+        outstanding.put(mailLogId, segment);
+        return true;
+    }
+
+    /**
+     * 처리 완료 기록
+     */
+    synchronized void appendAck(long mailLogId) throws IOException {
+        Segment segment = outstanding.remove(mailLogId);
+        if (segment == null) {
+            return;
+        }
+
+        write(ACK, (byte) 0, mailLogId);
+        segment.outstanding--;
+        releaseCompletedSegments();
+    }
+
+    /**
+     * 디스크 동기화 (운영체제 장애 대비) - 동기화하는 동안에도 기록은 계속할 수 있도록 잠금 밖에서 수행
+     */
+    void force() {
+        MappedByteBuffer buffer;
+        synchronized (this) {
+            Segment active = segments.peekLast();
+            if (active == null) {
+                return;
+            }
+            buffer = active.buffer;
+        }
+        buffer.force();
+    }
+
+    synchronized int getOutstandingCount() {
+        return outstanding.size();
+    }
+
+    @Override
+    public synchronized void close() {
+        force();
+        for (Segment segment : segments) {
+            flushQuietly(segment);
+        }
+        segments.clear();
+    }
+
+    private Segment write(byte type, byte priority, long mailLogId) throws IOException {
+        Segment segment = active();
+        if (segment.isFull()) {
+            flushQuietly(segment);
+            segment = rollover();
+        }
+
+        MappedByteBuffer buffer = segment.buffer;
+        int offset = segment.position * RECORD_SIZE;
+        buffer.put(offset + 1, priority);
+        buffer.putInt(offset + 4, checksum(type, priority, mailLogId));
+        buffer.putLong(offset + 8, mailLogId);
+        // 종류를 마지막에 기록해 중간까지만 기록된 레코드가 유효하게 읽히지 않도록 함
+        buffer.put(offset, type);
+        segment.position++;
+        return segment;
+    }
+
+    private void replay(Segment segment, Map<Long, Byte> pending) {
+        MappedByteBuffer buffer = segment.buffer;
+        int position = 0;
+
+        while (position < segmentRecords) {
+            int offset = position * RECORD_SIZE;
+            byte type = buffer.get(offset);
+            byte priority = buffer.get(offset + 1);
+            long mailLogId = buffer.getLong(offset + 8);
+
+            if (type == 0) {
+                break;
+            }
+            if ((type != ENQUEUE && type != ACK) || buffer.getInt(offset + 4) != checksum(type, priority, mailLogId)) {
+                // 기록 도중 중단된 레코드 - 이후 영역을 비워 다음 기동 때 남은 데이터가 다시 읽히지 않도록 함
+                log.warn("메일 저널 손상 레코드 발견, 이후 기록을 버립니다: {}, 위치 = {}", segment.path, position);
+                for (int clear = offset; clear < segmentRecords * RECORD_SIZE; clear += Long.BYTES) {
+                    buffer.putLong(clear, 0L);
+                }
+                break;
+            }
+
+            if (type == ENQUEUE) {
+                if (!outstanding.containsKey(mailLogId)) {
+                    outstanding.put(mailLogId, segment);
+                    segment.outstanding++;
+                    pending.put(mailLogId, priority);
+                }
+            } else {
+                Segment enqueued = outstanding.remove(mailLogId);
+                if (enqueued != null) {
+                    enqueued.outstanding--;
+                    pending.remove(mailLogId);
+                }
+            }
+            position++;
+        }
+
+        segment.position = position;
+    }
+
+    /**
+     * 가장 오래된 세그먼트부터 모두 처리 완료된 세그먼트 삭제 (순서대로 지워야 남은 세그먼트의 ACK 가 사라지지 않음)
+     */
+    private void releaseCompletedSegments() {
+        while (segments.size() > 1 && segments.peekFirst().outstanding == 0) {
+            Segment segment = segments.pollFirst();
+            flushQuietly(segment);
+            try {
+                Files.deleteIfExists(segment.path);
+            } catch (IOException e) {
+                log.warn("메일 저널 세그먼트 삭제 실패: {}, 오류 = {}", segment.path, e.getMessage());
+            }
+        }
+    }
+
+    private Segment rollover() throws IOException {
+        long index = segments.isEmpty() ? 0 : segments.peekLast().index + 1;
+        Segment segment = mapSegment(directory.resolve(String.format("%020d%s", index, SEGMENT_SUFFIX)), index);
+        segments.addLast(segment);
+        return segment;
+    }
+
+    private Segment active() {
+        return segments.peekLast();
+    }
+
+    private Segment mapSegment(Path path, long index) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // 매핑은 채널을 닫아도 유지됨
+            MappedByteBuffer buffer = channel.map(MapMode.READ_WRITE, 0, (long) segmentRecords * RECORD_SIZE);
+            return new Segment(index, path, buffer);
+        }
+    }
+
+    private void flushQuietly(Segment segment) {
+        try {
+            segment.buffer.force();
+        } catch (Exception e) {
+            log.warn("메일 저널 세그먼트 동기화 실패: {}, 오류 = {}", segment.path, e.getMessage());
+        }
+    }
+
+    private static long parseIndex(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static int checksum(byte type, byte priority, long mailLogId) {
+        int hash = CHECKSUM_SEED;
+        hash = hash * 31 + type;
+        hash = hash * 31 + priority;
+        hash = hash * 31 + Long.hashCode(mailLogId);
+        return hash;
+    }
+
+    private final class Segment {
+
+        private final long index;
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        private int position;
+        private int outstanding;
+
+        private Segment(long index, Path path, MappedByteBuffer buffer) {
+            this.index = index;
+            this.path = path;
+            this.buffer = buffer;
+        }
+
+        private boolean isFull() {
+            return position >= segmentRecords;
+        }
+    }
+}
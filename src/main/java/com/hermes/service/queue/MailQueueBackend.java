@@ -0,0 +1,70 @@
+package com.hermes.service.queue;
+
+import com.hermes.entity.MailLog;
+import java.util.List;
+
+/**
+ * 메일 큐 저장소
+ * <p>
+ * hermes.mail.queue.backend 설정으로 구현체를 선택한다. 큐에는 메일 로그 ID만 저장하며, 모든 구현체는 처리 완료 확인 전까지 메일을 보관하는 at-least-once 방식이다.
+ */
+public interface MailQueueBackend {
+
+    /**
+     * 메일을 큐에 추가
+     *
+     * @param groupKey 공정 배분 단위 (null 이면 공용 큐)
+     * @param priority 우선순위 레인 (null 이면 LOW)
+     */
+    void enqueue(Long mailLogId, String groupKey, MailLog.MailPriority priority);
+
+    /**
+     * dueAtMillis 이후에 처리되도록 메일을 큐에 추가 (저장소가 지연 처리를 지원하지 않으면 false 를 반환하고, 호출자가 시간이 될 때까지 보관한다)
+     */
+    default boolean enqueueAt(Long mailLogId, String groupKey, MailLog.MailPriority priority, long dueAtMillis) {
+        return false;
+    }
+
+    /**
+     * 디스패처 워커 하나가 사용할 소비자 생성
+     */
+    MailQueueConsumer createConsumer(String consumerId);
+
+    /**
+     * 대기 중인 메일 수
+     */
+    long getPendingCount();
+
+    /**
+     * 처리 중(확인 대기)인 메일 수
+     */
+    long getProcessingCount();
+
+    /**
+     * 저장소가 직접 보관 중인 지연 메일 수 (enqueueAt 을 지원하는 저장소만 해당)
+     */
+    default long getDelayedCount() {
+        return 0L;
+    }
+
+    /**
+     * 소비자별 처리 현황
+     */
+    List<ConsumerStatus> getConsumerStatuses();
+
+    /**
+     * 처리 도중 멈춘 메일을 다시 큐에 넣음 (주기적으로 호출)
+     */
+    void recoverStuckMails();
+
+    /**
+     * 소비자별 처리 현황
+     *
+     * @param consumerId   소비자 ID
+     * @param pendingCount 가져갔지만 아직 처리 완료를 확인하지 않은 메일 수
+     * @param idleMillis   마지막 활동 이후 경과 시간 (밀리초)
+     */
+    record ConsumerStatus(String consumerId, long pendingCount, long idleMillis) {
+
+    }
+}
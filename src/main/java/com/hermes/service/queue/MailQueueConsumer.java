@@ -0,0 +1,42 @@
+package com.hermes.service.queue;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 디스패처 워커 하나가 사용하는 큐 소비자
+ * <p>
+ * 가져온 메일은 acknowledge 를 호출하기 전까지 소비자 몫으로 보관되며, 워커가 비정상 종료되면 큐 저장소의 회수 작업이 다시 큐에 넣는다.
+ */
+public interface MailQueueConsumer extends AutoCloseable {
+
+    String getConsumerId();
+
+    /**
+     * 큐에 쌓여 있는 메일을 최대 maxCount 개까지 즉시 가져옴 (대기하지 않음)
+     */
+    List<Long> poll(int maxCount);
+
+    /**
+     * 큐가 비어 있을 때 다음 메일을 기다림 (블로킹 모드면 새 메일이 들어오는 즉시 반환)
+     */
+    List<Long> awaitNext() throws InterruptedException;
+
+    /**
+     * 처리 완료 확인 (성공/실패와 무관하게 전송 처리가 끝나면 호출)
+     */
+    void acknowledge(Long mailLogId);
+
+    /**
+     * 여러 메일 처리 완료 확인 (한 번의 왕복으로 처리)
+     */
+    void acknowledge(Collection<Long> mailLogIds);
+
+    /**
+     * 가져왔지만 전송을 시작하지 않은 메일을 큐로 되돌림 (종료 시 호출, 가능하면 큐 앞쪽으로)
+     */
+    void release(List<Long> mailLogIds);
+
+    @Override
+    void close();
+}
@@ -0,0 +1,126 @@
+package com.hermes.service.queue;
+
+import com.hermes.config.properties.MailQueueProperties;
+import com.hermes.entity.MailLog;
+import com.hermes.repository.MailLogRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 큐 저장소(Redis)에 넣지 못한 메일을 로컬 저널에 임시 보관했다가, 저장소가 복구되면 다시 넣는 보조 버퍼
+ * <p>
+ * 보관 중인 메일은 {@link MailJournal} 에 기록되므로 프로세스가 재기동되어도 사라지지 않는다. 다시 넣을 때는 메일 로그를 한 번에 조회해 원래 그룹과 우선순위 레인으로 보낸다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "hermes.mail.queue", name = "spillover-enabled", havingValue = "true")
+public class MailQueueSpillover {
+
+    private static final int DRAIN_BATCH_SIZE = 500;
+
+    private final MailQueueBackend mailQueueBackend;
+    private final MailLogRepository mailLogRepository;
+    private final MailQueueProperties queueProperties;
+
+    private final Deque<Long> pending = new ArrayDeque<>();
+    private MailJournal journal;
+
+    @PostConstruct
+    void open() throws IOException {
+        Map<Long, Byte> recovered = new LinkedHashMap<>();
+        journal = MailJournal.open(Path.of(queueProperties.getJournalDirectory(), "spillover"), queueProperties.getJournalSegmentBytes(), recovered);
+        pending.addAll(recovered.keySet());
+    }
+
+    @PreDestroy
+    void close() {
+        journal.close();
+    }
+
+    /**
+     * 로컬 저널에 보관
+     */
+    public synchronized void spill(Long mailLogId) {
+        try {
+            if (journal.appendEnqueue(mailLogId, LocalJournalMailQueueBackend.PRIORITY_LOW)) {
+                pending.addLast(mailLogId);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("메일 임시 보관 실패: " + mailLogId, e);
+        }
+    }
+
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * 보관 중인 메일을 큐 저장소로 다시 넣음 (실패하면 다음 주기에 재시도)
+     */
+    @Scheduled(fixedDelayString = "${hermes.mail.queue.spillover-drain-interval-millis:1000}")
+    public void drain() {
+        List<Long> batch = nextBatch();
+        while (!batch.isEmpty()) {
+            int moved = 0;
+            try {
+                Map<Long, MailLog> mailLogs = mailLogRepository.findAllById(batch).stream()
+                    .collect(Collectors.toMap(MailLog::getId, Function.identity()));
+
+                for (Long mailLogId : batch) {
+                    MailLog mailLog = mailLogs.get(mailLogId);
+                    if (mailLog != null) {
+                        mailQueueBackend.enqueue(mailLogId, mailLog.getGroupKey(), mailLog.getPriority());
+                    }
+                    complete(mailLogId);
+                    moved++;
+                }
+            } catch (Exception e) {
+                log.warn("임시 보관 메일 재등록 실패, 다음 주기에 재시도합니다: {}", e.getMessage());
+                restore(batch.subList(moved, batch.size()));
+                return;
+            }
+
+            log.info("임시 보관 메일 재등록: {}건", moved);
+            batch = nextBatch();
+        }
+    }
+
+    private synchronized List<Long> nextBatch() {
+        List<Long> batch = new ArrayList<>(Math.min(DRAIN_BATCH_SIZE, pending.size()));
+        while (batch.size() < DRAIN_BATCH_SIZE && !pending.isEmpty()) {
+            batch.add(pending.pollFirst());
+        }
+        return batch;
+    }
+
+    private synchronized void restore(List<Long> mailLogIds) {
+        for (int i = mailLogIds.size() - 1; i >= 0; i--) {
+            pending.addFirst(mailLogIds.get(i));
+        }
+    }
+
+    private synchronized void complete(Long mailLogId) {
+        try {
+            journal.appendAck(mailLogId);
+        } catch (IOException e) {
+            log.warn("임시 보관 메일 완료 기록 실패: ID = {}, 오류 = {}", mailLogId, e.getMessage());
+        }
+    }
+}
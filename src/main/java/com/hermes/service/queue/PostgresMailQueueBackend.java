@@ -0,0 +1,324 @@
+package com.hermes.service.queue;
+
+import com.hermes.config.properties.MailDispatchProperties;
+import com.hermes.config.properties.MailQueueProperties;
+import com.hermes.entity.MailLog;
+import com.zaxxer.hikari.HikariConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * PostgreSQL mail_log 테이블 자체를 큐로 사용하는 저장소
+ * <p>
+ * 별도의 큐 없이 PENDING 상태의 메일 로그를 SELECT ... FOR UPDATE SKIP LOCKED 로 배치 단위로 가져가므로, 큐와 메일 로그가 어긋나는 일이 없다. 가져간 메일은 available_at 을 임대 기한으로 옮겨 두며, 처리가 끝나면 상태가 바뀌어 대상에서 빠지고, 워커가 중단되면 임대 기한이 지난 뒤 다른 워커가 다시 가져간다. 재시도 역시 available_at 을 재시도 시각으로 옮겨 처리한다.
+ * <p>
+ * 새 메일은 트랜잭션 커밋 시점에 NOTIFY 로 알리고, 노드마다 하나의 전용 커넥션이 LISTEN 하다가 대기 중인 워커를 깨운다. 우선순위 레인은 적용되지만 그룹별 공정 배분은 적용되지 않는다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "hermes.mail.queue", name = "backend", havingValue = "postgres")
+public class PostgresMailQueueBackend implements MailQueueBackend {
+
+    /**
+     * 대기 상태로 되돌리고 커밋 시 알림 - 새 메일은 이미 available_at = now() 로 저장되어 있지만 DLQ 재처리, 재시도 메일은 이전 임대 기한이 남아 있을 수 있다
+     * ARGV: id, channel
+     */
+    private static final String ENQUEUE_SQL = """
+        WITH queued AS (
+            UPDATE mail_log SET available_at = now(), lease_owner = NULL
+            WHERE id = ? AND status = 'PENDING'
+            RETURNING id
+        )
+        SELECT pg_notify(?, '') FROM queued
+        """;
+
+    /**
+     * 지정 시각 이후에 다시 가져가도록 예약 - ARGV: dueAt, id
+     */
+    private static final String ENQUEUE_AT_SQL = """
+        UPDATE mail_log SET available_at = ?, lease_owner = NULL
+        WHERE id = ? AND status = 'PENDING'
+        """;
+
+    /**
+     * 이 소비자가 가져간 메일의 임대를 풀어 즉시 다시 가져갈 수 있게 하고 알림 - ARGV: ids, consumerId, channel
+     */
+    private static final String RELEASE_SQL = """
+        WITH released AS (
+            UPDATE mail_log SET available_at = now(), lease_owner = NULL
+            WHERE id = ANY(?) AND lease_owner = ? AND status = 'PENDING'
+            RETURNING id
+        )
+        SELECT count(*), pg_notify(?, '') FROM released
+        """;
+
+    /**
+     * LOW 레인 예약분을 먼저 확보하고 남은 한도를 HIGH -> LOW 순으로 채운 뒤 임대 기록 (하나의 문장으로 처리)
+     * LOW 레인 조건은 정렬과 같은 식으로 써서 부분 인덱스(정렬 식, available_at, id)의 첫 열을 고정하고 나머지 순서대로 읽게 한다 (priority = 'LOW' 로 쓰면 인덱스 순서를 쓰지 못해 PENDING 전체를 정렬).
+     * 예약 시각은 INSERT 때 available_at 에도 기록되지만, 그 전에 저장된 행이나 available_at 을 앞당기는 갱신(ENQUEUE_SQL)이 있어도 예약 시각 전에는 가져가지 않도록 함께 확인한다.
+     * ARGV: lowReserved, maxCount, leaseSeconds, consumerId
+     * 반환: 가져온 메일 ID, 우선순위, LOW 예약분으로 가져왔는지 여부
+     */
+    private static final String CLAIM_SQL = """
+        WITH reserved AS (
+            SELECT id FROM mail_log
+            WHERE status = 'PENDING' AND (CASE priority WHEN 'HIGH' THEN 0 ELSE 1 END) = 1 AND available_at <= now()
+                AND (scheduled_at IS NULL OR scheduled_at <= now())
+            ORDER BY available_at, id
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED
+        ), remaining AS (
+            SELECT id FROM mail_log
+            WHERE status = 'PENDING' AND available_at <= now() AND id NOT IN (SELECT id FROM reserved)
+                AND (scheduled_at IS NULL OR scheduled_at <= now())
+            ORDER BY CASE priority WHEN 'HIGH' THEN 0 ELSE 1 END, available_at, id
+            LIMIT (? - (SELECT count(*) FROM reserved))
+            FOR UPDATE SKIP LOCKED
+        )
+        UPDATE mail_log m SET available_at = now() + ? * interval '1 second', lease_owner = ?
+        WHERE m.id IN (SELECT id FROM reserved UNION ALL SELECT id FROM remaining)
+        RETURNING m.id, m.priority, m.id IN (SELECT id FROM reserved) AS reserved
+        """;
+
+    private static final String PENDING_COUNT_SQL = """
+        SELECT count(*) FROM mail_log WHERE status = 'PENDING' AND available_at <= now()
+        """;
+
+    private static final String PROCESSING_COUNT_SQL = """
+        SELECT count(*) FROM mail_log WHERE status = 'PENDING' AND available_at > now() AND lease_owner IS NOT NULL
+        """;
+
+    private static final String DELAYED_COUNT_SQL = """
+        SELECT count(*) FROM mail_log WHERE status = 'PENDING' AND available_at > now() AND lease_owner IS NULL
+        """;
+
+    private static final String CONSUMER_STATUS_SQL = """
+        SELECT lease_owner, count(*) FROM mail_log
+        WHERE status = 'PENDING' AND available_at > now() AND lease_owner IS NOT NULL
+        GROUP BY lease_owner
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final HikariConfig hikariConfig;
+    private final MailDispatchProperties dispatchProperties;
+    private final MailQueueProperties queueProperties;
+
+    // 알림을 받을 때마다 증가 (소비자는 마지막으로 본 값과 비교해 놓친 알림이 없는지 확인)
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notified = lock.newCondition();
+    private long notifyVersion;
+
+    private PriorityLaneBalancer laneBalancer;
+    private volatile Thread listenerThread;
+    private volatile boolean listening;
+
+    @PostConstruct
+    void initBalancer() {
+        laneBalancer = new PriorityLaneBalancer(queueProperties.getBulkShare(), queueProperties.getBulkAgingMillis());
+    }
+
+    @PreDestroy
+    void stopListener() {
+        listening = false;
+        Thread thread = listenerThread;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    @Override
+    public void enqueue(Long mailLogId, String groupKey, MailLog.MailPriority priority) {
+        jdbcTemplate.queryForList(ENQUEUE_SQL, mailLogId, queueProperties.getPostgresNotifyChannel());
+    }
+
+    /**
+     * 재시도 시각을 available_at 에 기록 (별도 예약 저장소 없이 시각이 지나면 claim 대상이 됨)
+     * <p>
+     * 갱신된 행이 없으면(아직 보이지 않는 행) false 를 돌려 호출자가 별도 예약 저장소에 보관하게 한다.
+     */
+    @Override
+    public boolean enqueueAt(Long mailLogId, String groupKey, MailLog.MailPriority priority, long dueAtMillis) {
+        return jdbcTemplate.update(ENQUEUE_AT_SQL, new Timestamp(dueAtMillis), mailLogId) > 0;
+    }
+
+    @Override
+    public MailQueueConsumer createConsumer(String consumerId) {
+        if (dispatchProperties.isBlockingPop()) {
+            startListener();
+        }
+        return new PostgresMailQueueConsumer(this, consumerId, dispatchProperties.isBlockingPop(), dispatchProperties.getBlockTimeoutMillis(),
+            dispatchProperties.getIdleWaitMillis());
+    }
+
+    @Override
+    public long getPendingCount() {
+        Long count = jdbcTemplate.queryForObject(PENDING_COUNT_SQL, Long.class);
+        return count != null ? count : 0L;
+    }
+
+    @Override
+    public long getProcessingCount() {
+        Long count = jdbcTemplate.queryForObject(PROCESSING_COUNT_SQL, Long.class);
+        return count != null ? count : 0L;
+    }
+
+    @Override
+    public long getDelayedCount() {
+        Long count = jdbcTemplate.queryForObject(DELAYED_COUNT_SQL, Long.class);
+        return count != null ? count : 0L;
+    }
+
+    @Override
+    public List<ConsumerStatus> getConsumerStatuses() {
+        return jdbcTemplate.query(CONSUMER_STATUS_SQL, (rs, rowNum) -> new ConsumerStatus(rs.getString(1), rs.getLong(2), 0L));
+    }
+
+    /**
+     * 임대 기한이 지난 메일은 claim 조건(available_at <= now())에 다시 걸리므로 따로 회수하지 않는다
+     */
+    @Override
+    public void recoverStuckMails() {
+    }
+
+    /**
+     * 최대 maxCount 개를 레인 배분에 따라 가져와 임대 기록
+     */
+    List<Long> claim(String consumerId, int maxCount) {
+        int lowReserved = laneBalancer.reserveLow(maxCount);
+        int[] lowCounts = new int[2];
+
+        List<Long> mailLogIds = jdbcTemplate.query(CLAIM_SQL, (rs, rowNum) -> {
+            if (MailLog.MailPriority.LOW.name().equals(rs.getString(2))) {
+                lowCounts[0]++;
+                if (rs.getBoolean(3)) {
+                    lowCounts[1]++;
+                }
+            }
+            return rs.getLong(1);
+        }, lowReserved, maxCount, queueProperties.getLeaseSeconds(), consumerId);
+
+        // 예약분을 다 채우지 못했다면 LOW 레인에 그만큼만 있었던 것이고, 채웠다면 적어도 예약분만큼은 대기 중이었다
+        int lowTaken = lowCounts[0];
+        int lowAvailable = lowCounts[1] < lowReserved ? lowTaken : Math.max(lowTaken, Math.max(1, lowReserved));
+        laneBalancer.complete(lowAvailable, lowTaken);
+        return mailLogIds;
+    }
+
+    /**
+     * 전송을 시작하지 않은 메일 반환 (하나의 문장으로 처리)
+     */
+    long release(String consumerId, List<Long> mailLogIds) {
+        Long released = jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(RELEASE_SQL);
+            statement.setArray(1, connection.createArrayOf("bigint", mailLogIds.toArray()));
+            statement.setString(2, consumerId);
+            statement.setString(3, queueProperties.getPostgresNotifyChannel());
+            return statement;
+        }, rs -> rs.next() ? rs.getLong(1) : 0L);
+        return released != null ? released : 0L;
+    }
+
+    long getNotifyVersion() {
+        lock.lock();
+        try {
+            return notifyVersion;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * seenVersion 이후 새 메일 알림이 올 때까지 최대 timeoutMillis 동안 대기
+     */
+    void awaitNotification(long seenVersion, long timeoutMillis) throws InterruptedException {
+        lock.lock();
+        try {
+            long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            while (notifyVersion == seenVersion && remaining > 0) {
+                remaining = notified.awaitNanos(remaining);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * LISTEN 전용 스레드 시작 (노드당 하나, 첫 소비자 생성 시)
+     */
+    private synchronized void startListener() {
+        if (listenerThread != null) {
+            return;
+        }
+
+        listening = true;
+        Thread thread = new Thread(this::listen, "Hermes-Queue-Listener");
+        thread.setDaemon(true);
+        listenerThread = thread;
+        thread.start();
+    }
+
+    /**
+     * 커넥션 풀과 별개의 전용 커넥션으로 LISTEN 하다가 알림을 받으면 대기 중인 워커를 모두 깨운다 (연결이 끊기면 다시 연결)
+     */
+    private void listen() {
+        while (listening) {
+            try (Connection connection = DriverManager.getConnection(hikariConfig.getJdbcUrl(), hikariConfig.getUsername(), hikariConfig.getPassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + queueProperties.getPostgresNotifyChannel());
+                }
+                log.info("메일 큐 알림 수신 시작: channel = {}", queueProperties.getPostgresNotifyChannel());
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (listening) {
+                    PGNotification[] notifications = pgConnection.getNotifications((int) dispatchProperties.getBlockTimeoutMillis());
+                    if (notifications != null && notifications.length > 0) {
+                        signalAll();
+                    }
+                }
+            } catch (SQLException e) {
+                if (!listening) {
+                    break;
+                }
+                log.warn("메일 큐 알림 수신 오류, 다시 연결합니다: {}", e.getMessage());
+                sleepQuietly(dispatchProperties.getIdleWaitMillis());
+            }
+        }
+    }
+
+    private void signalAll() {
+        lock.lock();
+        try {
+            notifyVersion++;
+            notified.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void sleepQuietly(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            listening = false;
+        }
+    }
+}
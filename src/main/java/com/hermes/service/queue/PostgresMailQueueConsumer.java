@@ -0,0 +1,83 @@
+package com.hermes.service.queue;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * PostgreSQL 큐 소비자
+ * <p>
+ * poll 할 때마다 한 번의 claim 문장으로 배치를 가져온다. 블로킹 모드에서는 큐가 비어 있는 동안 노드의 LISTEN 스레드가 보내는 신호를 기다리며, 알림이 없더라도 대기 시간이 지나면 한 번 더 가져와 본다 (재시도 시각이 되었거나 임대가 만료된 메일은 알림 없이 대상이 되기 때문).
+ */
+@Slf4j
+class PostgresMailQueueConsumer implements MailQueueConsumer {
+
+    private final PostgresMailQueueBackend backend;
+    private final String consumerId;
+    private final boolean blocking;
+    private final long blockTimeoutMillis;
+    private final long idleWaitMillis;
+
+    // 마지막 poll 시점의 알림 번호 (poll 과 대기 사이에 도착한 알림을 놓치지 않도록)
+    private long seenVersion;
+
+    PostgresMailQueueConsumer(PostgresMailQueueBackend backend, String consumerId, boolean blocking, long blockTimeoutMillis, long idleWaitMillis) {
+        this.backend = backend;
+        this.consumerId = consumerId;
+        this.blocking = blocking;
+        this.blockTimeoutMillis = blockTimeoutMillis;
+        this.idleWaitMillis = idleWaitMillis;
+    }
+
+    @Override
+    public String getConsumerId() {
+        return consumerId;
+    }
+
+    @Override
+    public List<Long> poll(int maxCount) {
+        seenVersion = backend.getNotifyVersion();
+        return backend.claim(consumerId, maxCount);
+    }
+
+    @Override
+    public List<Long> awaitNext() throws InterruptedException {
+        if (!blocking) {
+            TimeUnit.MILLISECONDS.sleep(idleWaitMillis);
+            return List.of();
+        }
+
+        backend.awaitNotification(seenVersion, blockTimeoutMillis);
+        return poll(1);
+    }
+
+    /**
+     * 처리 결과(SENT, FAILED, 재시도 예약)가 mail_log 에 바로 기록되므로 따로 확인할 것이 없다
+     */
+    @Override
+    public void acknowledge(Long mailLogId) {
+    }
+
+    @Override
+    public void acknowledge(Collection<Long> mailLogIds) {
+    }
+
+    @Override
+    public void release(List<Long> mailLogIds) {
+        if (mailLogIds.isEmpty()) {
+            return;
+        }
+
+        try {
+            log.info("전송 전 메일 큐로 반환: consumer = {}, {}건", consumerId, backend.release(consumerId, mailLogIds));
+        } catch (Exception e) {
+            // 반환하지 못한 메일은 임대 기한이 지난 뒤 다시 가져간다
+            log.warn("전송 전 메일 반환 실패: consumer = {}, {}건, 오류 = {}", consumerId, mailLogIds.size(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+}
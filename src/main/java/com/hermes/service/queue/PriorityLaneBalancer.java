@@ -0,0 +1,54 @@
+package com.hermes.service.queue;
+
+/**
+ * HIGH / LOW 우선순위 레인 사이의 처리량 배분
+ * <p>
+ * 기본적으로 HIGH 레인을 먼저 비우되, 가져갈 때마다 bulkShare 비율만큼 LOW 레인 몫을 적립해 두고 LOW 레인에 메일이 있으면 그만큼은 HIGH 보다 먼저 확보한다. LOW 레인에 메일이 있는데도 agingMillis 동안 한 건도 가져가지 못했다면 다음 회차는 LOW 레인에 전부 배정하므로 대량 발송이 무한정 밀리지 않는다.
+ */
+class PriorityLaneBalancer {
+
+    private final double bulkShare;
+    private final long agingMillis;
+
+    private double lowCredit;
+    private long lowWaitingSince;
+
+    PriorityLaneBalancer(double bulkShare, long agingMillis) {
+        this.bulkShare = Math.min(1.0, Math.max(0.0, bulkShare));
+        this.agingMillis = agingMillis;
+    }
+
+    /**
+     * 이번 회차에 LOW 레인에 우선 배정할 수 (LOW 레인에 그만큼 메일이 없으면 남는 몫은 HIGH 레인이 사용)
+     */
+    synchronized int reserveLow(int maxCount) {
+        if (lowWaitingSince > 0 && System.currentTimeMillis() - lowWaitingSince >= agingMillis) {
+            return maxCount;
+        }
+
+        lowCredit = Math.min(lowCredit + maxCount * bulkShare, maxCount);
+        return (int) lowCredit;
+    }
+
+    /**
+     * 회차 결과 반영
+     *
+     * @param lowAvailable 이번 회차에 LOW 레인에서 가져갈 수 있었던 수
+     * @param lowTaken     실제로 LOW 레인에서 가져간 수
+     */
+    synchronized void complete(int lowAvailable, int lowTaken) {
+        if (lowAvailable == 0) {
+            // 대기 중인 대량 메일이 없으면 몫을 쌓아 두지 않는다
+            lowCredit = 0;
+            lowWaitingSince = 0;
+            return;
+        }
+
+        lowCredit = Math.max(0, lowCredit - lowTaken);
+        if (lowTaken > 0) {
+            lowWaitingSince = 0;
+        } else if (lowWaitingSince == 0) {
+            lowWaitingSince = System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,599 @@
+package com.hermes.service.queue;
+
+import com.hermes.config.properties.MailDispatchProperties;
+import com.hermes.config.properties.MailQueueProperties;
+import com.hermes.entity.MailLog;
+import com.hermes.service.MailSettingService;
+import com.hermes.service.dispatch.DispatchInstanceRegistry;
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Redis List 기반 메일 큐 (기본값)
+ * <p>
+ * 메일은 우선순위 레인(HIGH: mail:{queue}:high, LOW: mail:{queue})마다 groupKey 별 하위 큐({레인}:group:{groupKey})에 쌓이고, 레인별 DRR 스케줄러가 그룹 가중치(queue_weight 설정)에 따라 번갈아 가져간다. 그룹이 없는 메일은 레인의 공용 큐에 쌓이며 하나의 그룹처럼 취급된다. 레인 사이의 배분은 {@link PriorityLaneBalancer} 가 정한다.
+ * <p>
+ * 샤딩(hermes.mail.shard.enabled)이 켜져 있으면 각 노드는 {@link DispatchInstanceRegistry} 의 해시 링에서 자기가 담당하는 그룹 큐만 가져가고, 새 메일 신호도 담당 노드의 신호 목록(mail:{queue}:signal:{instanceId})으로 보낸다. 공용 큐는 모든 노드가 가져간다.
+ * <p>
+ * 가져온 메일은 소비자 전용 처리 목록(mail:{queue}:processing:{consumerId})으로 원자적으로 옮기고, 메일마다 임대 기한을 mail:{queue}:lease 에 기록한다. 회수 작업은 임대가 만료된 메일과 heartbeat 가 끊긴 소비자의 처리 목록을 다시 큐에 넣는다.
+ * <p>
+ * 스크립트가 함께 다루는 키는 모두 {queue} 해시 태그로 같은 슬롯에 두고 KEYS 로 전달하므로 Redis Cluster 에서도 동작한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "hermes.mail.queue", name = "backend", havingValue = "redis-list", matchIfMissing = true)
+public class RedisListMailQueueBackend implements MailQueueBackend {
+
+    // 큐 키는 모두 같은 해시 태그 - 스크립트가 여러 그룹 큐와 처리 목록을 한 번에 다루므로 Redis Cluster 에서도 한 슬롯에 있어야 함
+    private static final String MAIL_QUEUE_KEY = "mail:{queue}";
+    private static final String MAIL_HIGH_QUEUE_KEY = MAIL_QUEUE_KEY + ":high";
+    private static final String MAIL_SIGNAL_KEY = MAIL_QUEUE_KEY + ":signal";
+    private static final String MAIL_PROCESSING_KEY = MAIL_QUEUE_KEY + ":processing";
+    private static final String MAIL_LEASE_KEY = MAIL_QUEUE_KEY + ":lease";
+    private static final String MAIL_CONSUMERS_KEY = MAIL_QUEUE_KEY + ":consumers";
+    private static final String LEASE_SEPARATOR = "|";
+    private static final String QUEUE_WEIGHT_SETTING = "queue_weight";
+
+    // 공용 큐를 나타내는 그룹 이름 (groupKey 는 빈 값일 수 없으므로 충돌하지 않음)
+    private static final String SHARED_GROUP = "";
+
+    // 대기 중인 워커를 깨우는 신호 목록의 최대 길이
+    private static final int SIGNAL_LIMIT = 64;
+
+    // 신호 목록 보관 시간 - 빠진 노드의 신호 목록이 남지 않도록 (밀리초)
+    private static final long SIGNAL_TTL_MILLIS = 60_000;
+
+    /**
+     * 그룹 큐에 추가 + 활성 그룹 등록 + 대기 중인 워커에 신호 (groupKey 가 비어 있으면 공용 큐)
+     * KEYS: queue, activeGroups, signal / ARGV: id, groupKey, signalLimit, signalTtlMillis
+     */
+    private static final RedisScript<Long> ENQUEUE_SCRIPT = new DefaultRedisScript<>("""
+        redis.call('RPUSH', KEYS[1], ARGV[1])
+        if ARGV[2] ~= '' then
+            redis.call('SADD', KEYS[2], ARGV[2])
+        end
+        redis.call('LPUSH', KEYS[3], '1')
+        redis.call('LTRIM', KEYS[3], 0, tonumber(ARGV[3]) - 1)
+        redis.call('PEXPIRE', KEYS[3], ARGV[4])
+        return 1
+        """, Long.class);
+
+    /**
+     * 레인/그룹별 배분에 따라 그룹 큐 -> 소비자 처리 목록 이동 + 임대 기록 (비워진 그룹은 활성 목록에서 제거)
+     * <p>
+     * HIGH 레인 항목을 먼저 가져오되 LOW 레인 예약분(실제로 LOW 레인에 있는 만큼)은 남겨 두고, 남은 한도는 LOW 레인 항목이 채운다.
+     * KEYS: processing, lease, (queue, activeGroups)... / ARGV: deadline, consumerId, maxCount, lowReserved, highEntryCount, (groupKey, count)...
+     * 반환: [LOW 레인 가용 수] + 항목마다 [가져온 수, 큐 비었는지(1/0), id...]
+     */
+    private static final RedisScript<List> LEASE_SCRIPT = new DefaultRedisScript<>("""
+        local maxCount = tonumber(ARGV[3])
+        local lowStart = 6 + tonumber(ARGV[5]) * 2
+        local lowAvailable = 0
+        for i = lowStart, #ARGV, 2 do
+            lowAvailable = lowAvailable + math.min(tonumber(ARGV[i + 1]), redis.call('LLEN', KEYS[i - 3]))
+        end
+        local reserved = math.min(tonumber(ARGV[4]), lowAvailable)
+
+        local result = {tostring(lowAvailable)}
+        local total = 0
+        for i = 6, #ARGV, 2 do
+            local limit = maxCount - total
+            if i < lowStart then
+                limit = limit - reserved
+            end
+            local queue = KEYS[i - 3]
+            local ids = {}
+            for n = 1, math.min(tonumber(ARGV[i + 1]), limit) do
+                local id = redis.call('LMOVE', queue, KEYS[1], 'LEFT', 'RIGHT')
+                if not id then
+                    break
+                end
+                redis.call('ZADD', KEYS[2], ARGV[1], ARGV[2] .. '|' .. id)
+                ids[#ids + 1] = id
+            end
+            total = total + #ids
+
+            local drained = '0'
+            if redis.call('LLEN', queue) == 0 then
+                drained = '1'
+                if ARGV[i] ~= '' then
+                    redis.call('SREM', KEYS[i - 2], ARGV[i])
+                end
+            end
+            result[#result + 1] = tostring(#ids)
+            result[#result + 1] = drained
+            for _, id in ipairs(ids) do
+                result[#result + 1] = id
+            end
+        end
+        return result
+        """, List.class);
+
+    /**
+     * 전체 대기 메일 수 (레인별 공용 큐 + 모든 활성 그룹 큐) - KEYS: 큐...
+     */
+    private static final RedisScript<Long> PENDING_COUNT_SCRIPT = new DefaultRedisScript<>("""
+        local total = 0
+        for _, queue in ipairs(KEYS) do
+            total = total + redis.call('LLEN', queue)
+        end
+        return total
+        """, Long.class);
+
+    /**
+     * 처리 완료 - KEYS: processing, lease / ARGV: id, leaseMember
+     */
+    private static final RedisScript<Long> ACK_SCRIPT = new DefaultRedisScript<>("""
+        redis.call('ZREM', KEYS[2], ARGV[2])
+        return redis.call('LREM', KEYS[1], 1, ARGV[1])
+        """, Long.class);
+
+    /**
+     * 여러 메일 처리 완료 - KEYS: processing, lease / ARGV: leaseMemberPrefix, id...
+     */
+    private static final RedisScript<Long> ACK_ALL_SCRIPT = new DefaultRedisScript<>("""
+        local acknowledged = 0
+        for i = 2, #ARGV do
+            redis.call('ZREM', KEYS[2], ARGV[1] .. ARGV[i])
+            acknowledged = acknowledged + redis.call('LREM', KEYS[1], 1, ARGV[i])
+        end
+        return acknowledged
+        """, Long.class);
+
+    /**
+     * 전송을 시작하지 않은 메일을 HIGH 레인 공용 큐 앞쪽으로 되돌리고 대기 중인 워커에 신호 (처리 목록에 남아 있는 경우에만)
+     * KEYS: processing, lease, queue, signal / ARGV: leaseMemberPrefix, signalLimit, id...
+     */
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>("""
+        local released = 0
+        for i = #ARGV, 3, -1 do
+            if redis.call('LREM', KEYS[1], 1, ARGV[i]) > 0 then
+                redis.call('ZREM', KEYS[2], ARGV[1] .. ARGV[i])
+                redis.call('LPUSH', KEYS[3], ARGV[i])
+                released = released + 1
+            end
+        end
+        if released > 0 then
+            redis.call('LPUSH', KEYS[4], '1')
+            redis.call('LTRIM', KEYS[4], 0, tonumber(ARGV[2]) - 1)
+        end
+        return released
+        """, Long.class);
+
+    /**
+     * 임대 만료 메일 회수 - 미리 조회한 만료 임대 중 그 사이 처리 완료되거나 다시 임대되지 않은 것만 처리하고, 처리 목록에 남아 있는 경우에만 재등록하므로 중복 회수되지 않음
+     * KEYS: lease, queue, (processing)... / ARGV: now, (leaseMember, id)...
+     */
+    private static final RedisScript<Long> REAP_LEASES_SCRIPT = new DefaultRedisScript<>("""
+        local requeued = 0
+        for i = 2, #ARGV, 2 do
+            local member = ARGV[i]
+            local deadline = redis.call('ZSCORE', KEYS[1], member)
+            if deadline and tonumber(deadline) <= tonumber(ARGV[1]) then
+                if redis.call('LREM', KEYS[i / 2 + 2], 1, ARGV[i + 1]) > 0 then
+                    redis.call('LPUSH', KEYS[2], ARGV[i + 1])
+                    requeued = requeued + 1
+                end
+                redis.call('ZREM', KEYS[1], member)
+            end
+        end
+        return requeued
+        """, Long.class);
+
+    /**
+     * 중단된 소비자의 처리 목록 회수 (목록이 비면 소비자 등록 해제)
+     * KEYS: processing, queue, consumers / ARGV: batchSize, consumerId
+     */
+    private static final RedisScript<Long> REAP_CONSUMER_SCRIPT = new DefaultRedisScript<>("""
+        local moved = 0
+        for i = 1, tonumber(ARGV[1]) do
+            if not redis.call('LMOVE', KEYS[1], KEYS[2], 'RIGHT', 'LEFT') then
+                break
+            end
+            moved = moved + 1
+        end
+        if redis.call('LLEN', KEYS[1]) == 0 then
+            redis.call('ZREM', KEYS[3], ARGV[2])
+        end
+        return moved
+        """, Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisQueueConnectionFactory redisQueueConnectionFactory;
+    private final MailDispatchProperties dispatchProperties;
+    private final MailQueueProperties queueProperties;
+    private final MailSettingService mailSettingService;
+    private final DispatchInstanceRegistry dispatchInstanceRegistry;
+
+    // 이 노드에서 동작 중인 소비자 목록 (heartbeat 대상)
+    private final Set<String> localConsumers = ConcurrentHashMap.newKeySet();
+
+    // 그룹별 가중치 (설정 조회 비용을 줄이기 위해 로컬에 잠시 보관)
+    private final Map<String, CachedWeight> weights = new ConcurrentHashMap<>();
+
+    private Lane highLane;
+    private Lane lowLane;
+    private PriorityLaneBalancer laneBalancer;
+    private volatile long nextGroupRefreshAt;
+
+    @PostConstruct
+    void initScheduler() {
+        highLane = new Lane(MAIL_HIGH_QUEUE_KEY, new FairQueueScheduler(queueProperties.getFairQuantum(), this::resolveWeight));
+        lowLane = new Lane(MAIL_QUEUE_KEY, new FairQueueScheduler(queueProperties.getFairQuantum(), this::resolveWeight));
+        laneBalancer = new PriorityLaneBalancer(queueProperties.getBulkShare(), queueProperties.getBulkAgingMillis());
+    }
+
+    @Override
+    public void enqueue(Long mailLogId, String groupKey, MailLog.MailPriority priority) {
+        Lane lane = priority == MailLog.MailPriority.HIGH ? highLane : lowLane;
+        String group = groupKey == null || groupKey.isBlank() ? SHARED_GROUP : groupKey;
+
+        stringRedisTemplate.execute(ENQUEUE_SCRIPT, List.of(lane.queueKey(group), lane.activeGroupsKey(), signalKey(group)),
+            String.valueOf(mailLogId), group, String.valueOf(SIGNAL_LIMIT), String.valueOf(SIGNAL_TTL_MILLIS));
+    }
+
+    @Override
+    public MailQueueConsumer createConsumer(String consumerId) {
+        Duration blockTimeout = Duration.ofMillis(dispatchProperties.getBlockTimeoutMillis());
+        RedisQueueConnectionFactory.QueueConnection blockingConnection = null;
+        if (dispatchProperties.isBlockingPop()) {
+            blockingConnection = redisQueueConnectionFactory.connect(blockTimeout);
+        }
+
+        localConsumers.add(consumerId);
+        sendHeartbeat();
+
+        return new RedisListMailQueueConsumer(this, consumerId, blockingConnection, blockTimeout, dispatchProperties.getIdleWaitMillis());
+    }
+
+    /**
+     * 활성 그룹 목록을 읽은 뒤 모든 큐 길이를 스크립트 한 번으로 합산 (큐 키를 KEYS 로 넘기기 위해 두 번 왕복)
+     */
+    @Override
+    public long getPendingCount() {
+        List<String> queueKeys = new ArrayList<>();
+        for (Lane lane : List.of(highLane, lowLane)) {
+            queueKeys.add(lane.sharedQueueKey());
+            Set<String> activeGroups = stringRedisTemplate.opsForSet().members(lane.activeGroupsKey());
+            if (activeGroups != null) {
+                activeGroups.forEach(group -> queueKeys.add(lane.queueKey(group)));
+            }
+        }
+
+        Long size = stringRedisTemplate.execute(PENDING_COUNT_SCRIPT, queueKeys);
+        return size != null ? size : 0L;
+    }
+
+    @Override
+    public long getProcessingCount() {
+        Long size = stringRedisTemplate.opsForZSet().size(MAIL_LEASE_KEY);
+        return size != null ? size : 0L;
+    }
+
+    @Override
+    public List<ConsumerStatus> getConsumerStatuses() {
+        Set<TypedTuple<String>> consumers = stringRedisTemplate.opsForZSet().rangeWithScores(MAIL_CONSUMERS_KEY, 0, -1);
+        if (consumers == null) {
+            return List.of();
+        }
+
+        long now = System.currentTimeMillis();
+        List<ConsumerStatus> statuses = new ArrayList<>(consumers.size());
+        for (TypedTuple<String> consumer : consumers) {
+            Long pending = stringRedisTemplate.opsForList().size(processingKey(consumer.getValue()));
+            long lastHeartbeat = consumer.getScore() != null ? consumer.getScore().longValue() : now;
+            statuses.add(new ConsumerStatus(consumer.getValue(), pending != null ? pending : 0L, now - lastHeartbeat));
+        }
+        return statuses;
+    }
+
+    /**
+     * 레인/그룹 배분에 따라 최대 maxCount 개의 메일을 소비자 전용 처리 목록으로 옮기고 임대를 기록 (하나의 Lua 스크립트로 원자적으로 처리)
+     *
+     * @param refreshGroups true 면 활성 그룹 목록을 즉시 다시 읽음 (새 메일 신호를 받은 경우)
+     */
+    @SuppressWarnings("unchecked")
+    List<String> lease(String consumerId, int maxCount, boolean refreshGroups) {
+        refreshActiveGroups(refreshGroups);
+
+        int lowReserved = laneBalancer.reserveLow(maxCount);
+        Map<String, Integer> highAllocations = highLane.scheduler().plan(maxCount);
+        Map<String, Integer> lowAllocations = lowLane.scheduler().plan(maxCount);
+
+        int entryCount = highAllocations.size() + lowAllocations.size();
+        List<String> keys = new ArrayList<>(2 + entryCount * 2);
+        keys.add(processingKey(consumerId));
+        keys.add(MAIL_LEASE_KEY);
+        List<String> args = new ArrayList<>(5 + entryCount * 2);
+        args.add(String.valueOf(leaseDeadline()));
+        args.add(consumerId);
+        args.add(String.valueOf(maxCount));
+        args.add(String.valueOf(lowReserved));
+        args.add(String.valueOf(highAllocations.size()));
+        addLeaseEntries(keys, args, highLane, highAllocations);
+        addLeaseEntries(keys, args, lowLane, lowAllocations);
+
+        List<String> result = stringRedisTemplate.execute(LEASE_SCRIPT, keys, args.toArray());
+        if (result == null || result.isEmpty()) {
+            return List.of();
+        }
+
+        // [LOW 가용 수] + [가져온 수, 비었는지, id...] 를 레인/그룹 순서대로 해석
+        List<String> rawIds = new ArrayList<>(maxCount);
+        int[] position = {1};
+        collectLeased(result, position, highLane, highAllocations, rawIds);
+        int lowTaken = collectLeased(result, position, lowLane, lowAllocations, rawIds);
+
+        laneBalancer.complete(Integer.parseInt(result.get(0)), lowTaken);
+        return rawIds;
+    }
+
+    private void addLeaseEntries(List<String> keys, List<String> args, Lane lane, Map<String, Integer> allocations) {
+        allocations.forEach((group, count) -> {
+            keys.add(lane.queueKey(group));
+            keys.add(lane.activeGroupsKey());
+            args.add(group);
+            args.add(String.valueOf(count));
+        });
+    }
+
+    private int collectLeased(List<String> result, int[] position, Lane lane, Map<String, Integer> allocations, List<String> rawIds) {
+        int takenTotal = 0;
+        for (String group : allocations.keySet()) {
+            int taken = Integer.parseInt(result.get(position[0]++));
+            boolean drained = "1".equals(result.get(position[0]++));
+            rawIds.addAll(result.subList(position[0], position[0] + taken));
+            position[0] += taken;
+
+            lane.scheduler().complete(group, taken, drained);
+            takenTotal += taken;
+        }
+        return takenTotal;
+    }
+
+    /**
+     * 새 메일 신호 대기 (BLPOP, 샤딩 중이면 이 노드 전용 신호 목록도 함께) - 신호를 받으면 true
+     */
+    boolean awaitSignal(RedisQueueConnectionFactory.QueueConnection blockingConnection, double timeoutSeconds) {
+        if (dispatchInstanceRegistry.isShardingEnabled()) {
+            return blockingConnection.sync().blpop(timeoutSeconds, instanceSignalKey(dispatchInstanceRegistry.getInstanceId()), MAIL_SIGNAL_KEY) != null;
+        }
+        return blockingConnection.sync().blpop(timeoutSeconds, MAIL_SIGNAL_KEY) != null;
+    }
+
+    /**
+     * 그룹 담당 노드의 신호 목록 (담당 노드가 없거나 공용 큐면 모든 노드가 기다리는 공용 신호 목록)
+     */
+    private String signalKey(String group) {
+        String owner = SHARED_GROUP.equals(group) ? null : dispatchInstanceRegistry.ownerOf(group);
+        return owner != null ? instanceSignalKey(owner) : MAIL_SIGNAL_KEY;
+    }
+
+    private static String instanceSignalKey(String instanceId) {
+        return MAIL_SIGNAL_KEY + ":" + instanceId;
+    }
+
+    /**
+     * 활성 그룹 목록 갱신 (공용 큐는 항상 포함, 샤딩 중이면 이 노드가 담당하는 그룹만)
+     */
+    private void refreshActiveGroups(boolean force) {
+        long now = System.currentTimeMillis();
+        if (!force && now < nextGroupRefreshAt && !highLane.scheduler().isEmpty() && !lowLane.scheduler().isEmpty()) {
+            return;
+        }
+        nextGroupRefreshAt = now + queueProperties.getGroupRefreshMillis();
+
+        for (Lane lane : List.of(highLane, lowLane)) {
+            Set<String> activeGroups = stringRedisTemplate.opsForSet().members(lane.activeGroupsKey());
+            Set<String> groups = new HashSet<>(activeGroups != null ? activeGroups : Set.of());
+            groups.removeIf(group -> !dispatchInstanceRegistry.owns(group));
+            groups.add(SHARED_GROUP);
+            lane.scheduler().refresh(groups);
+        }
+    }
+
+    /**
+     * 그룹 가중치 조회 (queue_weight 설정, 기본값 1)
+     */
+    private int resolveWeight(String groupKey) {
+        if (SHARED_GROUP.equals(groupKey)) {
+            return 1;
+        }
+
+        long now = System.currentTimeMillis();
+        CachedWeight cached = weights.get(groupKey);
+        if (cached != null && cached.expiresAt() > now) {
+            return cached.weight();
+        }
+
+        int weight = 1;
+        try {
+            weight = Math.max(1, mailSettingService.getSettingValueAsInt(groupKey, QUEUE_WEIGHT_SETTING, 1));
+        } catch (Exception e) {
+            log.debug("큐 가중치 조회 실패, 기본값 사용: group = {}, 오류 = {}", groupKey, e.getMessage());
+        }
+        weights.put(groupKey, new CachedWeight(weight, now + queueProperties.getWeightCacheSeconds() * 1000));
+        return weight;
+    }
+
+    /**
+     * 처리 완료 확인 - 처리 목록과 임대에서 제거
+     */
+    void acknowledge(String consumerId, String rawMailLogId) {
+        stringRedisTemplate.execute(ACK_SCRIPT, List.of(processingKey(consumerId), MAIL_LEASE_KEY), rawMailLogId,
+            leaseMember(consumerId, rawMailLogId));
+    }
+
+    /**
+     * 여러 메일 처리 완료 확인 (하나의 Lua 스크립트로 처리)
+     */
+    void acknowledge(String consumerId, List<String> rawMailLogIds) {
+        List<String> args = new ArrayList<>(rawMailLogIds.size() + 1);
+        args.add(consumerId + LEASE_SEPARATOR);
+        args.addAll(rawMailLogIds);
+
+        stringRedisTemplate.execute(ACK_ALL_SCRIPT, List.of(processingKey(consumerId), MAIL_LEASE_KEY), args.toArray());
+    }
+
+    /**
+     * 전송을 시작하지 않은 메일 반환 (하나의 Lua 스크립트로 처리, 순서 유지)
+     */
+    long release(String consumerId, List<String> rawMailLogIds) {
+        List<String> args = new ArrayList<>(rawMailLogIds.size() + 2);
+        args.add(consumerId + LEASE_SEPARATOR);
+        args.add(String.valueOf(SIGNAL_LIMIT));
+        args.addAll(rawMailLogIds);
+
+        Long released = stringRedisTemplate.execute(RELEASE_SCRIPT, List.of(processingKey(consumerId), MAIL_LEASE_KEY, MAIL_HIGH_QUEUE_KEY, MAIL_SIGNAL_KEY),
+            args.toArray());
+        return released != null ? released : 0L;
+    }
+
+    /**
+     * 소비자 종료 - 처리 목록이 비어 있을 때만 등록을 해제 (남아 있으면 회수 대상으로 둔다)
+     */
+    void unregisterConsumer(String consumerId) {
+        localConsumers.remove(consumerId);
+
+        Long remaining = stringRedisTemplate.opsForList().size(processingKey(consumerId));
+        if (remaining == null || remaining == 0) {
+            stringRedisTemplate.opsForZSet().remove(MAIL_CONSUMERS_KEY, consumerId);
+        }
+    }
+
+    static String processingKey(String consumerId) {
+        return MAIL_PROCESSING_KEY + ":" + consumerId;
+    }
+
+    private String leaseMember(String consumerId, String rawMailLogId) {
+        return consumerId + LEASE_SEPARATOR + rawMailLogId;
+    }
+
+    private long leaseDeadline() {
+        return System.currentTimeMillis() + queueProperties.getLeaseSeconds() * 1000;
+    }
+
+    private record CachedWeight(int weight, long expiresAt) {
+
+    }
+
+    /**
+     * 우선순위 레인 - 공용 큐, 그룹 큐 접두사, 활성 그룹 목록과 레인 전용 DRR 스케줄러
+     */
+    private record Lane(String sharedQueueKey, FairQueueScheduler scheduler) {
+
+        String groupQueuePrefix() {
+            return sharedQueueKey + ":group:";
+        }
+
+        String activeGroupsKey() {
+            return sharedQueueKey + ":groups";
+        }
+
+        String queueKey(String group) {
+            return SHARED_GROUP.equals(group) ? sharedQueueKey : groupQueuePrefix() + group;
+        }
+    }
+
+    /**
+     * 이 노드에서 동작 중인 소비자의 heartbeat 갱신
+     */
+    @Scheduled(fixedDelayString = "${hermes.mail.queue.heartbeat-interval-millis:10000}")
+    public void sendHeartbeat() {
+        if (localConsumers.isEmpty()) {
+            return;
+        }
+
+        try {
+            long now = System.currentTimeMillis();
+            Set<TypedTuple<String>> tuples = new HashSet<>();
+            localConsumers.forEach(consumerId -> tuples.add(TypedTuple.of(consumerId, (double) now)));
+            stringRedisTemplate.opsForZSet().add(MAIL_CONSUMERS_KEY, tuples);
+        } catch (Exception e) {
+            log.warn("큐 소비자 heartbeat 갱신 실패: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 만료된 임대를 먼저 조회한 뒤 처리 목록 키를 KEYS 로 넘겨 회수 (조회와 회수 사이에 처리 완료되거나 다시 임대된 항목은 스크립트가 건너뜀)
+     */
+    private void reapExpiredLeases(long now, int batchSize) {
+        Set<String> expired = stringRedisTemplate.opsForZSet().rangeByScore(MAIL_LEASE_KEY, Double.NEGATIVE_INFINITY, now, 0, batchSize);
+        if (expired == null || expired.isEmpty()) {
+            return;
+        }
+
+        List<String> keys = new ArrayList<>(expired.size() + 2);
+        keys.add(MAIL_LEASE_KEY);
+        keys.add(MAIL_HIGH_QUEUE_KEY);
+        List<String> args = new ArrayList<>(expired.size() * 2 + 1);
+        args.add(String.valueOf(now));
+        List<String> malformed = new ArrayList<>();
+        for (String member : expired) {
+            int separator = member.indexOf(LEASE_SEPARATOR);
+            if (separator < 0) {
+                malformed.add(member);
+                continue;
+            }
+            keys.add(processingKey(member.substring(0, separator)));
+            args.add(member);
+            args.add(member.substring(separator + 1));
+        }
+
+        if (!malformed.isEmpty()) {
+            stringRedisTemplate.opsForZSet().remove(MAIL_LEASE_KEY, malformed.toArray());
+        }
+        if (args.size() == 1) {
+            return;
+        }
+
+        Long requeued = stringRedisTemplate.execute(REAP_LEASES_SCRIPT, keys, args.toArray());
+        if (requeued != null && requeued > 0) {
+            log.warn("임대 만료 메일 재등록: {}건", requeued);
+        }
+    }
+
+    /**
+     * 멈춘 메일 회수
+     * <p>
+     * 1) 임대 시간이 지난 메일을 다시 큐 앞쪽에 넣는다 (이미 한 번 지연된 메일이므로 HIGH 레인 공용 큐로). 2) heartbeat 가 끊긴 소비자의 처리 목록을 통째로 되돌린다. 두 작업 모두 만료된 항목만 점수 범위로 조회하고 배치 크기로 제한하므로, 비용은 큐 길이가 아니라 멈춘 메일 수에 비례한다.
+     */
+    @Override
+    public void recoverStuckMails() {
+        long now = System.currentTimeMillis();
+        int batchSize = Math.max(1, queueProperties.getReaperBatchSize());
+
+        reapExpiredLeases(now, batchSize);
+
+        long deadConsumerThreshold = now - queueProperties.getConsumerTimeoutSeconds() * 1000;
+        Set<String> deadConsumers = stringRedisTemplate.opsForZSet()
+            .rangeByScore(MAIL_CONSUMERS_KEY, Double.NEGATIVE_INFINITY, deadConsumerThreshold, 0, batchSize);
+        if (deadConsumers == null) {
+            return;
+        }
+
+        for (String consumerId : deadConsumers) {
+            Long moved = stringRedisTemplate.execute(REAP_CONSUMER_SCRIPT, List.of(processingKey(consumerId), MAIL_HIGH_QUEUE_KEY, MAIL_CONSUMERS_KEY),
+                String.valueOf(batchSize), consumerId);
+            if (moved != null && moved > 0) {
+                log.warn("중단된 소비자의 처리 중 메일 재등록: consumer = {}, {}건", consumerId, moved);
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.hermes.service.queue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Redis List 큐 소비자
+ * <p>
+ * 가져온 메일은 큐에서 삭제되지 않고 소비자 전용 처리 목록으로 원자적으로 옮겨지며, 처리 완료를 확인할 때까지 임대 기한이 기록된다. 블로킹 모드에서는 워커 전용 커넥션으로 신호 목록(mail:{queue}:signal)에 BLPOP 을 걸어 두므로, 큐가 비어 있는 동안 Redis 를 반복 조회하지 않고 메일이 추가되는 즉시 깨어난다. 그룹 큐가 여러 개라 BLMOVE 로 직접 기다릴 수 없어, 깨어난 뒤에는 공정 배분 규칙에 따라 한 건을 가져온다.
+ */
+@Slf4j
+class RedisListMailQueueConsumer implements MailQueueConsumer {
+
+    private final RedisListMailQueueBackend backend;
+    private final String consumerId;
+    private final RedisQueueConnectionFactory.QueueConnection blockingConnection;
+    private final Duration blockTimeout;
+    private final long idleWaitMillis;
+
+    RedisListMailQueueConsumer(RedisListMailQueueBackend backend, String consumerId, RedisQueueConnectionFactory.QueueConnection blockingConnection,
+        Duration blockTimeout, long idleWaitMillis) {
+        this.backend = backend;
+        this.consumerId = consumerId;
+        this.blockingConnection = blockingConnection;
+        this.blockTimeout = blockTimeout;
+        this.idleWaitMillis = idleWaitMillis;
+    }
+
+    @Override
+    public String getConsumerId() {
+        return consumerId;
+    }
+
+    @Override
+    public List<Long> poll(int maxCount) {
+        return toMailLogIds(backend.lease(consumerId, maxCount, false));
+    }
+
+    @Override
+    public List<Long> awaitNext() throws InterruptedException {
+        if (blockingConnection == null) {
+            TimeUnit.MILLISECONDS.sleep(idleWaitMillis);
+            return List.of();
+        }
+
+        double timeoutSeconds = blockTimeout.toMillis() / 1000.0;
+        if (!backend.awaitSignal(blockingConnection, timeoutSeconds)) {
+            return List.of();
+        }
+
+        // 신호를 받으면 새 그룹이 생겼을 수 있으므로 활성 그룹 목록을 다시 읽는다
+        return toMailLogIds(backend.lease(consumerId, 1, true));
+    }
+
+    @Override
+    public void acknowledge(Long mailLogId) {
+        try {
+            backend.acknowledge(consumerId, String.valueOf(mailLogId));
+        } catch (Exception e) {
+            // 확인에 실패해도 임대 만료 후 회수되며, 이미 전송된 메일은 재처리 시 스킵된다
+            log.warn("메일 처리 완료 확인 실패: ID = {}, 오류 = {}", mailLogId, e.getMessage());
+        }
+    }
+
+    @Override
+    public void acknowledge(Collection<Long> mailLogIds) {
+        if (mailLogIds.isEmpty()) {
+            return;
+        }
+
+        try {
+            backend.acknowledge(consumerId, mailLogIds.stream().map(String::valueOf).toList());
+        } catch (Exception e) {
+            // 확인에 실패해도 임대 만료 후 회수되며, 이미 전송된 메일은 재처리 시 스킵된다
+            log.warn("메일 처리 완료 확인 실패: consumer = {}, {}건, 오류 = {}", consumerId, mailLogIds.size(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void release(List<Long> mailLogIds) {
+        if (mailLogIds.isEmpty()) {
+            return;
+        }
+
+        try {
+            long released = backend.release(consumerId, mailLogIds.stream().map(String::valueOf).toList());
+            log.info("전송 전 메일 큐로 반환: consumer = {}, {}건", consumerId, released);
+        } catch (Exception e) {
+            // 반환하지 못한 메일은 소비자 heartbeat 가 끊긴 뒤 회수된다
+            log.warn("전송 전 메일 반환 실패: consumer = {}, {}건, 오류 = {}", consumerId, mailLogIds.size(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            backend.unregisterConsumer(consumerId);
+        } catch (Exception e) {
+            log.warn("큐 소비자 등록 해제 중 오류: {}", e.getMessage());
+        }
+
+        if (blockingConnection != null) {
+            try {
+                blockingConnection.close();
+            } catch (Exception e) {
+                log.warn("블로킹 큐 커넥션 종료 중 오류: {}", e.getMessage());
+            }
+        }
+    }
+
+    private List<Long> toMailLogIds(List<String> rawIds) {
+        List<Long> mailLogIds = new ArrayList<>(rawIds.size());
+        for (String rawId : rawIds) {
+            Long id = parseQueuedId(rawId);
+            if (id != null) {
+                mailLogIds.add(id);
+            }
+        }
+        return mailLogIds;
+    }
+
+    /**
+     * 큐에서 꺼낸 값 파싱 (잘못된 값은 처리 목록에서 바로 제거)
+     */
+    private Long parseQueuedId(String rawMailLogId) {
+        try {
+            return Long.valueOf(rawMailLogId);
+        } catch (NumberFormatException e) {
+            log.warn("잘못된 메일 ID 형식: {}", rawMailLogId);
+            backend.acknowledge(consumerId, rawMailLogId);
+            return null;
+        }
+    }
+}
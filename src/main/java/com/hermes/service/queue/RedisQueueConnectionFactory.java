@@ -0,0 +1,62 @@
+package com.hermes.service.queue;
+
+import io.lettuce.core.AbstractRedisClient;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.api.StatefulConnection;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.cluster.RedisClusterClient;
+import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
+import io.lettuce.core.cluster.api.sync.RedisClusterCommands;
+import io.lettuce.core.codec.StringCodec;
+import java.time.Duration;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * 큐 소비자 전용 Lettuce 커넥션 생성
+ * <p>
+ * 블로킹 명령(BLPOP, XREADGROUP BLOCK)은 실행 중 커넥션을 점유하므로 RedisTemplate 의 공유 커넥션이나 풀을 쓰지 않고 워커별로 커넥션을 따로 연다. 단일 Redis 는 RedisClient, Redis Cluster 는 RedisClusterClient 로 연결하며, 명령은 키 슬롯의 노드로 전달된다 (함께 기다리는 신호 목록은 같은 해시 태그로 같은 슬롯).
+ */
+@Component
+@RequiredArgsConstructor
+public class RedisQueueConnectionFactory {
+
+    private final LettuceConnectionFactory lettuceConnectionFactory;
+
+    /**
+     * 전용 커넥션 생성 (블로킹 대기가 명령 타임아웃보다 먼저 끝나도록 여유를 둔다)
+     */
+    public QueueConnection connect(Duration blockTimeout) {
+        AbstractRedisClient nativeClient = lettuceConnectionFactory.getRequiredNativeClient();
+
+        QueueConnection connection;
+        if (nativeClient instanceof RedisClusterClient clusterClient) {
+            StatefulRedisClusterConnection<String, String> clusterConnection = clusterClient.connect(StringCodec.UTF8);
+            connection = new QueueConnection(clusterConnection, clusterConnection.sync());
+        } else if (nativeClient instanceof RedisClient redisClient) {
+            StatefulRedisConnection<String, String> standaloneConnection = redisClient.connect(StringCodec.UTF8);
+            connection = new QueueConnection(standaloneConnection, standaloneConnection.sync());
+        } else {
+            throw new IllegalStateException("지원하지 않는 Redis 클라이언트: " + nativeClient.getClass().getName());
+        }
+
+        connection.connection().setTimeout(blockTimeout.plusSeconds(1));
+        return connection;
+    }
+
+    /**
+     * 전용 커넥션과 동기 명령 (단일 Redis / Redis Cluster 공통)
+     */
+    public record QueueConnection(StatefulConnection<String, String> connection, RedisClusterCommands<String, String> sync) implements AutoCloseable {
+
+        public boolean isOpen() {
+            return connection.isOpen();
+        }
+
+        @Override
+        public void close() {
+            connection.close();
+        }
+    }
+}
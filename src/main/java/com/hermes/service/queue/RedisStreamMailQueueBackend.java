@@ -0,0 +1,349 @@
+package com.hermes.service.queue;
+
+import com.hermes.config.properties.MailDispatchProperties;
+import com.hermes.config.properties.MailQueueProperties;
+import com.hermes.entity.MailLog;
+import io.lettuce.core.ClaimedMessages;
+import io.lettuce.core.StreamMessage;
+import io.lettuce.core.XAutoClaimArgs;
+import jakarta.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessagesSummary;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.StreamInfo.XInfoConsumers;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+/**
+ * Redis Streams 컨슈머 그룹 기반 메일 큐
+ * <p>
+ * 모든 Hermes 노드의 워커가 하나의 컨슈머 그룹에 참여하므로, 노드를 추가하는 것만으로 전송 처리량이 늘어난다. 가져간 메일은 XACK 전까지 PEL(pending entry list)에 남고, 소비자가 멈추면 다른 소비자가 XAUTOCLAIM 으로 가져간다. 처리된 항목도 보관 한도까지 스트림에 남아 있으므로 XRANGE 로 재생할 수 있다.
+ * <p>
+ * 보관 한도는 XADD MAXLEN 대신 회수 주기마다 XTRIM MINID 로 맞춘다. MAXLEN 은 아직 전달되지 않았거나 PEL 에 남은 항목까지 지울 수 있으므로, 그룹의 마지막 전달 ID 와 가장 오래된 PEL 항목 ID 중 작은 값보다 앞선(처리가 끝난) 항목만 지운다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "hermes.mail.queue", name = "backend", havingValue = "redis-stream")
+public class RedisStreamMailQueueBackend implements MailQueueBackend {
+
+    static final String MAIL_STREAM_KEY = "mail:stream";
+    static final String MAIL_ID_FIELD = "id";
+
+    /**
+     * 메일 추가 - KEYS: stream / ARGV: mailLogId
+     */
+    private static final RedisScript<String> ADD_SCRIPT = new DefaultRedisScript<>("""
+        return redis.call('XADD', KEYS[1], '*', 'id', ARGV[1])
+        """, String.class);
+
+    /**
+     * 컨슈머 그룹 lag (아직 어떤 소비자에게도 전달되지 않은 메일 수, Redis 7 이상) - KEYS: stream / ARGV: group
+     */
+    private static final RedisScript<Long> GROUP_LAG_SCRIPT = new DefaultRedisScript<>("""
+        for _, group in ipairs(redis.call('XINFO', 'GROUPS', KEYS[1])) do
+            local name, lag
+            for i = 1, #group, 2 do
+                if group[i] == 'name' then
+                    name = group[i + 1]
+                elseif group[i] == 'lag' then
+                    lag = group[i + 1]
+                end
+            end
+            if name == ARGV[1] then
+                if not lag then
+                    return -1
+                end
+                return lag
+            end
+        end
+        return 0
+        """, Long.class);
+
+    /**
+     * 처리 완료 확인 후 스트림 끝에 다시 추가 (스트림은 앞쪽에 넣을 수 없음)
+     * KEYS: stream / ARGV: group, (recordId, mailLogId)...
+     */
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>("""
+        local released = 0
+        for i = 2, #ARGV, 2 do
+            if redis.call('XACK', KEYS[1], ARGV[1], ARGV[i]) > 0 then
+                redis.call('XADD', KEYS[1], '*', 'id', ARGV[i + 1])
+                released = released + 1
+            end
+        end
+        return released
+        """, Long.class);
+
+    /**
+     * 보관 한도를 넘은 항목 중 처리가 끝난 항목만 삭제 (한 번에 한도를 넘은 수까지, 마지막 전달 ID / 가장 오래된 PEL 항목은 남김)
+     * KEYS: stream / ARGV: group, maxLength
+     */
+    private static final RedisScript<Long> TRIM_SCRIPT = new DefaultRedisScript<>("""
+        local excess = redis.call('XLEN', KEYS[1]) - tonumber(ARGV[2])
+        if excess <= 0 then
+            return 0
+        end
+
+        local safeId
+        for _, group in ipairs(redis.call('XINFO', 'GROUPS', KEYS[1])) do
+            local name, delivered
+            for i = 1, #group, 2 do
+                if group[i] == 'name' then
+                    name = group[i + 1]
+                elseif group[i] == 'last-delivered-id' then
+                    delivered = group[i + 1]
+                end
+            end
+            if name == ARGV[1] then
+                safeId = delivered
+            end
+        end
+        if not safeId then
+            return 0
+        end
+
+        local pending = redis.call('XPENDING', KEYS[1], ARGV[1])
+        if pending[1] > 0 then
+            local pms, pseq = string.match(pending[2], '(%d+)-(%d+)')
+            local sms, sseq = string.match(safeId, '(%d+)-(%d+)')
+            pms, pseq, sms, sseq = tonumber(pms), tonumber(pseq), tonumber(sms), tonumber(sseq)
+            if pms < sms or (pms == sms and pseq < sseq) then
+                safeId = pending[2]
+            end
+        end
+
+        return redis.call('XTRIM', KEYS[1], 'MINID', '~', safeId, 'LIMIT', excess)
+        """, Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisQueueConnectionFactory redisQueueConnectionFactory;
+    private final MailDispatchProperties dispatchProperties;
+    private final MailQueueProperties queueProperties;
+
+    // 이 노드에서 동작 중인 소비자 목록 (정리 대상에서 제외)
+    private final Set<String> localConsumers = ConcurrentHashMap.newKeySet();
+
+    // XAUTOCLAIM 전용 커넥션 (Spring Data Redis 에 해당 명령이 없어 Lettuce 를 직접 사용)
+    private volatile RedisQueueConnectionFactory.QueueConnection claimConnection;
+    private volatile boolean groupReady;
+
+    /**
+     * 스트림은 하나의 컨슈머 그룹이 도착 순서대로 나눠 가지므로 groupKey 별 공정 배분과 우선순위 레인은 적용되지 않는다 (redis-list 저장소에서만 지원)
+     */
+    @Override
+    public void enqueue(Long mailLogId, String groupKey, MailLog.MailPriority priority) {
+        stringRedisTemplate.execute(ADD_SCRIPT, List.of(MAIL_STREAM_KEY), String.valueOf(mailLogId));
+    }
+
+    @Override
+    public MailQueueConsumer createConsumer(String consumerId) {
+        ensureGroup();
+
+        Duration blockTimeout = Duration.ofMillis(dispatchProperties.getBlockTimeoutMillis());
+        RedisQueueConnectionFactory.QueueConnection blockingConnection = null;
+        if (dispatchProperties.isBlockingPop()) {
+            blockingConnection = redisQueueConnectionFactory.connect(blockTimeout);
+        }
+
+        localConsumers.add(consumerId);
+        return new RedisStreamMailQueueConsumer(this, consumerId, blockingConnection, blockTimeout, dispatchProperties.getIdleWaitMillis(),
+            queueProperties.getReaperIntervalMillis());
+    }
+
+    @Override
+    public long getPendingCount() {
+        Long lag = stringRedisTemplate.execute(GROUP_LAG_SCRIPT, List.of(MAIL_STREAM_KEY), queueProperties.getStreamGroup());
+        return lag != null ? lag : 0L;
+    }
+
+    @Override
+    public long getProcessingCount() {
+        PendingMessagesSummary summary = stringRedisTemplate.opsForStream().pending(MAIL_STREAM_KEY, queueProperties.getStreamGroup());
+        return summary != null ? summary.getTotalPendingMessages() : 0L;
+    }
+
+    @Override
+    public List<ConsumerStatus> getConsumerStatuses() {
+        XInfoConsumers consumers = stringRedisTemplate.opsForStream().consumers(MAIL_STREAM_KEY, queueProperties.getStreamGroup());
+
+        if (consumers == null) {
+            return List.of();
+        }
+
+        return consumers.stream()
+            .map(consumer -> new ConsumerStatus(consumer.consumerName(), consumer.pendingCount(), consumer.idleTimeMs()))
+            .toList();
+    }
+
+    /**
+     * 종료된 소비자 정리와 보관 한도 정리
+     * <p>
+     * 멈춘 메일의 회수는 살아 있는 소비자가 poll 시 XAUTOCLAIM 으로 직접 가져가므로, 여기서는 PEL 이 비었고 오래 유휴 상태인 소비자를 그룹에서 제거하고 처리가 끝난 오래된 항목을 지운다.
+     */
+    @Override
+    public void recoverStuckMails() {
+        ensureGroup();
+
+        long timeoutMillis = queueProperties.getConsumerTimeoutSeconds() * 1000;
+        for (ConsumerStatus consumer : getConsumerStatuses()) {
+            if (consumer.pendingCount() == 0 && consumer.idleMillis() > timeoutMillis && !localConsumers.contains(consumer.consumerId())) {
+                stringRedisTemplate.opsForStream().deleteConsumer(MAIL_STREAM_KEY, Consumer.from(queueProperties.getStreamGroup(), consumer.consumerId()));
+                log.info("유휴 스트림 소비자 제거: {}", consumer.consumerId());
+            }
+        }
+
+        Long trimmed = stringRedisTemplate.execute(TRIM_SCRIPT, List.of(MAIL_STREAM_KEY), queueProperties.getStreamGroup(),
+            String.valueOf(queueProperties.getStreamMaxLength()));
+        if (trimmed != null && trimmed > 0) {
+            log.debug("처리 완료된 스트림 항목 정리: {}건", trimmed);
+        }
+    }
+
+    /**
+     * 새 메일 읽기 (XREADGROUP, 대기하지 않음)
+     */
+    List<StreamEntry> read(String consumerId, int maxCount) {
+        List<MapRecord<String, Object, Object>> records = stringRedisTemplate.opsForStream().read(
+            Consumer.from(queueProperties.getStreamGroup(), consumerId),
+            StreamReadOptions.empty().count(maxCount),
+            StreamOffset.create(MAIL_STREAM_KEY, ReadOffset.lastConsumed()));
+        if (records == null) {
+            return List.of();
+        }
+
+        List<StreamEntry> entries = new ArrayList<>(records.size());
+        for (MapRecord<String, Object, Object> record : records) {
+            Object mailLogId = record.getValue().get(MAIL_ID_FIELD);
+            entries.add(new StreamEntry(record.getId().getValue(), mailLogId != null ? mailLogId.toString() : null));
+        }
+        return entries;
+    }
+
+    /**
+     * 임대 시간 이상 확인되지 않은 메일을 이 소비자로 가져옴 (XAUTOCLAIM)
+     */
+    List<StreamEntry> claimStale(String consumerId, int maxCount) {
+        XAutoClaimArgs<String> args = XAutoClaimArgs.Builder
+            .xautoclaim(io.lettuce.core.Consumer.from(queueProperties.getStreamGroup(), consumerId), Duration.ofSeconds(queueProperties.getLeaseSeconds()), "0-0")
+            .count(maxCount);
+
+        ClaimedMessages<String, String> claimed = claimConnection().sync().xautoclaim(MAIL_STREAM_KEY, args);
+        if (claimed == null || claimed.getMessages().isEmpty()) {
+            return List.of();
+        }
+
+        log.warn("확인되지 않은 스트림 메일 회수: consumer = {}, {}건", consumerId, claimed.getMessages().size());
+        return toEntries(claimed.getMessages());
+    }
+
+    String getGroup() {
+        return queueProperties.getStreamGroup();
+    }
+
+    /**
+     * 처리 완료 확인 (XACK)
+     */
+    void acknowledge(String... recordIds) {
+        stringRedisTemplate.opsForStream().acknowledge(MAIL_STREAM_KEY, queueProperties.getStreamGroup(), recordIds);
+    }
+
+    /**
+     * 전송을 시작하지 않은 메일을 다른 소비자가 바로 가져가도록 다시 추가 (하나의 Lua 스크립트로 처리)
+     */
+    long release(Map<Long, String> recordIdsByMailLogId) {
+        List<String> args = new ArrayList<>(recordIdsByMailLogId.size() * 2 + 1);
+        args.add(queueProperties.getStreamGroup());
+        recordIdsByMailLogId.forEach((mailLogId, recordId) -> {
+            args.add(recordId);
+            args.add(String.valueOf(mailLogId));
+        });
+
+        Long released = stringRedisTemplate.execute(RELEASE_SCRIPT, List.of(MAIL_STREAM_KEY), args.toArray());
+        return released != null ? released : 0L;
+    }
+
+    void unregisterConsumer(String consumerId) {
+        localConsumers.remove(consumerId);
+    }
+
+    static List<StreamEntry> toEntries(List<StreamMessage<String, String>> messages) {
+        List<StreamEntry> entries = new ArrayList<>(messages.size());
+        for (StreamMessage<String, String> message : messages) {
+            Map<String, String> body = message.getBody();
+            entries.add(new StreamEntry(message.getId(), body != null ? body.get(MAIL_ID_FIELD) : null));
+        }
+        return entries;
+    }
+
+    /**
+     * 컨슈머 그룹 생성 (이미 있으면 무시)
+     */
+    private void ensureGroup() {
+        if (groupReady) {
+            return;
+        }
+
+        try {
+            stringRedisTemplate.execute((RedisCallback<Object>) connection -> {
+                connection.streamCommands().xGroupCreate(MAIL_STREAM_KEY.getBytes(StandardCharsets.UTF_8), queueProperties.getStreamGroup(),
+                    ReadOffset.from("0"), true);
+                return null;
+            });
+            log.info("메일 스트림 컨슈머 그룹 생성: {}", queueProperties.getStreamGroup());
+        } catch (Exception e) {
+            String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            if (message == null || !message.contains("BUSYGROUP")) {
+                throw e;
+            }
+        }
+        groupReady = true;
+    }
+
+    @PreDestroy
+    void closeClaimConnection() {
+        RedisQueueConnectionFactory.QueueConnection connection = claimConnection;
+        if (connection != null) {
+            connection.close();
+            claimConnection = null;
+        }
+    }
+
+    private RedisQueueConnectionFactory.QueueConnection claimConnection() {
+        RedisQueueConnectionFactory.QueueConnection connection = claimConnection;
+        if (connection == null || !connection.isOpen()) {
+            synchronized (this) {
+                connection = claimConnection;
+                if (connection == null || !connection.isOpen()) {
+                    connection = redisQueueConnectionFactory.connect(Duration.ZERO);
+                    claimConnection = connection;
+                }
+            }
+        }
+        return connection;
+    }
+
+    /**
+     * 스트림 항목 (레코드 ID, 메일 로그 ID)
+     */
+    record StreamEntry(String recordId, String rawMailLogId) {
+
+    }
+}
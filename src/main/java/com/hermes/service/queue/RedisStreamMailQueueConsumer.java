@@ -0,0 +1,182 @@
+package com.hermes.service.queue;
+
+import io.lettuce.core.Consumer;
+import io.lettuce.core.StreamMessage;
+import io.lettuce.core.XReadArgs;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Redis Streams 큐 소비자
+ * <p>
+ * 소비자 이름은 워커 ID 이며, 가져간 메일의 레코드 ID 를 보관해 두었다가 acknowledge 시 XACK 한다. reclaimIntervalMillis 마다 한 번씩 poll 에서 XAUTOCLAIM 을 먼저 수행해, 멈춘 소비자의 메일을 가져온다.
+ */
+@Slf4j
+class RedisStreamMailQueueConsumer implements MailQueueConsumer {
+
+    private final RedisStreamMailQueueBackend backend;
+    private final String consumerId;
+    private final RedisQueueConnectionFactory.QueueConnection blockingConnection;
+    private final Duration blockTimeout;
+    private final long idleWaitMillis;
+    private final long reclaimIntervalMillis;
+
+    // 처리 중인 메일 ID -> 스트림 레코드 ID
+    private final Map<Long, String> recordIds = new ConcurrentHashMap<>();
+    private long nextReclaimAt;
+
+    RedisStreamMailQueueConsumer(RedisStreamMailQueueBackend backend, String consumerId, RedisQueueConnectionFactory.QueueConnection blockingConnection,
+        Duration blockTimeout, long idleWaitMillis, long reclaimIntervalMillis) {
+        this.backend = backend;
+        this.consumerId = consumerId;
+        this.blockingConnection = blockingConnection;
+        this.blockTimeout = blockTimeout;
+        this.idleWaitMillis = idleWaitMillis;
+        this.reclaimIntervalMillis = reclaimIntervalMillis;
+    }
+
+    @Override
+    public String getConsumerId() {
+        return consumerId;
+    }
+
+    @Override
+    public List<Long> poll(int maxCount) {
+        List<Long> mailLogIds = new ArrayList<>(maxCount);
+
+        long now = System.currentTimeMillis();
+        if (now >= nextReclaimAt) {
+            nextReclaimAt = now + reclaimIntervalMillis;
+            register(backend.claimStale(consumerId, maxCount), mailLogIds);
+        }
+
+        if (mailLogIds.size() < maxCount) {
+            register(backend.read(consumerId, maxCount - mailLogIds.size()), mailLogIds);
+        }
+        return mailLogIds;
+    }
+
+    @Override
+    public List<Long> awaitNext() throws InterruptedException {
+        if (blockingConnection == null) {
+            TimeUnit.MILLISECONDS.sleep(idleWaitMillis);
+            return List.of();
+        }
+
+        List<StreamMessage<String, String>> messages = blockingConnection.sync().xreadgroup(
+            Consumer.from(backend.getGroup(), consumerId),
+            XReadArgs.Builder.block(blockTimeout).count(1),
+            XReadArgs.StreamOffset.lastConsumed(RedisStreamMailQueueBackend.MAIL_STREAM_KEY));
+        if (messages == null || messages.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> mailLogIds = new ArrayList<>(messages.size());
+        register(RedisStreamMailQueueBackend.toEntries(messages), mailLogIds);
+        return mailLogIds;
+    }
+
+    @Override
+    public void acknowledge(Long mailLogId) {
+        String recordId = recordIds.remove(mailLogId);
+        if (recordId == null) {
+            return;
+        }
+
+        try {
+            backend.acknowledge(recordId);
+        } catch (Exception e) {
+            // 확인에 실패해도 다른 소비자가 XAUTOCLAIM 으로 가져가며, 이미 전송된 메일은 재처리 시 스킵된다
+            log.warn("스트림 메일 처리 완료 확인 실패: ID = {}, 오류 = {}", mailLogId, e.getMessage());
+        }
+    }
+
+    @Override
+    public void acknowledge(Collection<Long> mailLogIds) {
+        List<String> acknowledged = new ArrayList<>(mailLogIds.size());
+        for (Long mailLogId : mailLogIds) {
+            String recordId = recordIds.remove(mailLogId);
+            if (recordId != null) {
+                acknowledged.add(recordId);
+            }
+        }
+        if (acknowledged.isEmpty()) {
+            return;
+        }
+
+        try {
+            backend.acknowledge(acknowledged.toArray(String[]::new));
+        } catch (Exception e) {
+            // 확인에 실패해도 다른 소비자가 XAUTOCLAIM 으로 가져가며, 이미 전송된 메일은 재처리 시 스킵된다
+            log.warn("스트림 메일 처리 완료 확인 실패: consumer = {}, {}건, 오류 = {}", consumerId, acknowledged.size(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void release(List<Long> mailLogIds) {
+        Map<Long, String> released = new LinkedHashMap<>();
+        for (Long mailLogId : mailLogIds) {
+            String recordId = recordIds.remove(mailLogId);
+            if (recordId != null) {
+                released.put(mailLogId, recordId);
+            }
+        }
+        if (released.isEmpty()) {
+            return;
+        }
+
+        try {
+            log.info("전송 전 스트림 메일 반환: consumer = {}, {}건", consumerId, backend.release(released));
+        } catch (Exception e) {
+            // 반환하지 못한 메일은 PEL 에 남아 있다가 다른 소비자가 XAUTOCLAIM 으로 가져간다
+            log.warn("전송 전 스트림 메일 반환 실패: consumer = {}, {}건, 오류 = {}", consumerId, released.size(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        backend.unregisterConsumer(consumerId);
+
+        if (blockingConnection != null) {
+            try {
+                blockingConnection.close();
+            } catch (Exception e) {
+                log.warn("블로킹 스트림 커넥션 종료 중 오류: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void register(List<RedisStreamMailQueueBackend.StreamEntry> entries, List<Long> mailLogIds) {
+        for (RedisStreamMailQueueBackend.StreamEntry entry : entries) {
+            Long id = parseMailLogId(entry.rawMailLogId());
+            if (id == null) {
+                // 잘못된 항목이나 이미 삭제된 항목은 바로 확인 처리
+                log.warn("잘못된 스트림 메일 항목: recordId = {}, 값 = {}", entry.recordId(), entry.rawMailLogId());
+                backend.acknowledge(entry.recordId());
+                continue;
+            }
+
+            recordIds.put(id, entry.recordId());
+            mailLogIds.add(id);
+        }
+    }
+
+    private Long parseMailLogId(String rawMailLogId) {
+        if (rawMailLogId == null) {
+            return null;
+        }
+
+        try {
+            return Long.valueOf(rawMailLogId);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
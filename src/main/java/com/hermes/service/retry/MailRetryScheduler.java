@@ -0,0 +1,272 @@
+package com.hermes.service.retry;
+
+import com.hermes.config.properties.MailRetryProperties;
+import com.hermes.entity.MailLog;
+import com.hermes.repository.MailLogRepository;
+import com.hermes.service.MailSettingService;
+import com.hermes.service.queue.MailQueueBackend;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 지연 재시도 스케줄러
+ * <p>
+ * 재시도할 메일은 실행 시각(밀리초)을 점수로 mail:{retry}:scheduled 에 예약한다. 짧은 주기로 시간이 된 메일을 배치 크기만큼 Lua 스크립트로 원자적으로 꺼내 mail:{retry}:claimed 로 옮긴 뒤 메인 큐에 넣으므로, 여러 노드가 동시에 돌아도 같은 메일을 두 번 옮기지 않는다. 옮기던 노드가 중단되면 claimed 에 남은 메일은 claimTimeout 이후 다시 예약된다.
+ * <p>
+ * 큐 저장소가 지연 처리를 직접 지원하면(postgres) 예약은 저장소에 맡기고 Redis 에는 보관하지 않는다.
+ * <p>
+ * 지연 시간은 그룹 설정(retry_base_delay_millis 또는 retry_delay_minutes, retry_multiplier, retry_max_delay_millis)에 따른 지수 백오프에 jitter 를 더해 계산한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MailRetryScheduler {
+
+    private static final String MAIL_RETRY_KEY = "mail:retry";
+
+    // 두 키를 한 스크립트에서 옮기므로 Redis Cluster 에서도 같은 슬롯에 있도록 해시 태그로 묶음
+    private static final String MAIL_RETRY_SCHEDULED_KEY = "mail:{retry}:scheduled";
+    private static final String MAIL_RETRY_CLAIMED_KEY = "mail:{retry}:claimed";
+
+    /**
+     * 시간이 된 재시도를 claimed 로 이동 - KEYS: scheduled, claimed / ARGV: now, batchSize, claimDeadline
+     */
+    private static final RedisScript<List> CLAIM_SCRIPT = new DefaultRedisScript<>("""
+        local due = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, tonumber(ARGV[2]))
+        for _, id in ipairs(due) do
+            redis.call('ZREM', KEYS[1], id)
+            redis.call('ZADD', KEYS[2], ARGV[3], id)
+        end
+        return due
+        """, List.class);
+
+    /**
+     * 옮기다 멈춘 재시도를 즉시 실행되도록 다시 예약 - KEYS: claimed, scheduled / ARGV: now, batchSize
+     */
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>("""
+        local expired = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, tonumber(ARGV[2]))
+        for _, id in ipairs(expired) do
+            redis.call('ZREM', KEYS[1], id)
+            redis.call('ZADD', KEYS[2], ARGV[1], id)
+        end
+        return #expired
+        """, Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final MailLogRepository mailLogRepository;
+    private final MailSettingService mailSettingService;
+    private final MailQueueBackend mailQueueBackend;
+    private final MailRetryProperties retryProperties;
+
+    /**
+     * 실패 횟수 1 증가 후 반환 (이번 실패가 몇 번째인지)
+     */
+    public long recordFailure(MailLog mailLog) {
+        String attemptKey = attemptKey(mailLog.getId());
+        Long attempts = stringRedisTemplate.opsForValue().increment(attemptKey);
+
+        // 다음 재시도가 끝날 때까지는 남아 있도록 최대 지연 시간보다 넉넉하게 보관
+        Duration ttl = Duration.ofMillis(maxDelayMillis(mailLog.getGroupKey())).multipliedBy(2).plusDays(1);
+        stringRedisTemplate.expire(attemptKey, ttl);
+
+        return attempts != null ? attempts : 1L;
+    }
+
+    /**
+     * 실패 횟수 초기화 (최종 실패 처리 후)
+     */
+    public void clearFailures(Long mailLogId) {
+        stringRedisTemplate.delete(attemptKey(mailLogId));
+    }
+
+    /**
+     * 재시도 예약
+     *
+     * @param attempt 몇 번째 재시도인지 (1부터)
+     * @return 실제 적용된 지연 시간 (밀리초)
+     */
+    public long schedule(MailLog mailLog, long attempt) {
+        long delayMillis = computeDelayMillis(mailLog.getGroupKey(), attempt);
+        scheduleAt(mailLog, System.currentTimeMillis() + delayMillis);
+        return delayMillis;
+    }
+
+    /**
+     * 실패가 아닌 이유(수신 도메인 전송 속도 제한 등)로 전송을 미룸 - 실패 횟수는 늘리지 않음
+     */
+    public void defer(MailLog mailLog, long delayMillis) {
+        scheduleAt(mailLog, System.currentTimeMillis() + Math.max(0, delayMillis));
+    }
+
+    /**
+     * 큐에서 가져왔지만 메일 로그를 조회하지 못한 메일을 잠시 뒤 다시 큐에 넣도록 예약 (실패 횟수는 늘리지 않음)
+     * <p>
+     * 그룹과 우선순위를 모르므로 큐 저장소가 아니라 재시도 예약에 보관하고, 옮길 때 다시 조회한다. 그때도 없으면 버린다.
+     */
+    public void deferUnloaded(Long mailLogId, long delayMillis) {
+        stringRedisTemplate.opsForZSet().add(MAIL_RETRY_SCHEDULED_KEY, String.valueOf(mailLogId), System.currentTimeMillis() + Math.max(0, delayMillis));
+    }
+
+    /**
+     * 예약 또는 이동 중인 재시도 수 (큐 저장소가 직접 보관 중인 지연 메일 포함)
+     */
+    public long getScheduledCount() {
+        Long scheduled = stringRedisTemplate.opsForZSet().size(MAIL_RETRY_SCHEDULED_KEY);
+        Long claimed = stringRedisTemplate.opsForZSet().size(MAIL_RETRY_CLAIMED_KEY);
+        return (scheduled != null ? scheduled : 0L) + (claimed != null ? claimed : 0L) + mailQueueBackend.getDelayedCount();
+    }
+
+    /**
+     * 시간이 된 재시도를 메인 큐로 이동 (배치 단위, 주기당 최대 maxBatchesPerPoll 배치)
+     */
+    @Scheduled(fixedDelayString = "${hermes.mail.retry.poll-interval-millis:100}", initialDelay = 5000)
+    public void moveDueRetries() {
+        int batchSize = Math.max(1, retryProperties.getBatchSize());
+
+        try {
+            for (int batch = 0; batch < Math.max(1, retryProperties.getMaxBatchesPerPoll()); batch++) {
+                List<String> due = claimDue(batchSize);
+                if (due.isEmpty()) {
+                    return;
+                }
+
+                requeue(due);
+
+                if (due.size() < batchSize) {
+                    return;
+                }
+            }
+        } catch (Exception e) {
+            log.error("재시도 큐 처리 중 오류 발생: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 옮기던 노드가 중단되어 claimed 에 남은 재시도 회수
+     */
+    @Scheduled(fixedDelayString = "${hermes.mail.queue.reaper-interval-millis:5000}", initialDelay = 10000)
+    public void recoverExpiredClaims() {
+        try {
+            Long released = stringRedisTemplate.execute(RELEASE_SCRIPT, List.of(MAIL_RETRY_CLAIMED_KEY, MAIL_RETRY_SCHEDULED_KEY),
+                String.valueOf(System.currentTimeMillis()), String.valueOf(Math.max(1, retryProperties.getBatchSize())));
+            if (released != null && released > 0) {
+                log.warn("이동 중 멈춘 재시도 재예약: {}건", released);
+            }
+        } catch (Exception e) {
+            log.error("멈춘 재시도 회수 중 오류 발생: {}", e.getMessage());
+        }
+    }
+
+    private void scheduleAt(MailLog mailLog, long dueAtMillis) {
+        if (!mailQueueBackend.enqueueAt(mailLog.getId(), mailLog.getGroupKey(), mailLog.getPriority(), dueAtMillis)) {
+            stringRedisTemplate.opsForZSet().add(MAIL_RETRY_SCHEDULED_KEY, String.valueOf(mailLog.getId()), dueAtMillis);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> claimDue(int batchSize) {
+        long now = System.currentTimeMillis();
+        long claimDeadline = now + retryProperties.getClaimTimeoutSeconds() * 1000;
+
+        List<String> due = stringRedisTemplate.execute(CLAIM_SCRIPT, List.of(MAIL_RETRY_SCHEDULED_KEY, MAIL_RETRY_CLAIMED_KEY),
+            String.valueOf(now), String.valueOf(batchSize), String.valueOf(claimDeadline));
+        return due != null ? due : List.of();
+    }
+
+    /**
+     * 원래 그룹과 우선순위 레인으로 다시 큐에 넣고 claimed 에서 제거
+     * <p>
+     * 메일마다 큐 등록에 성공한 직후 claimed 에서 제거하므로, 도중에 실패한 메일만 claimed 에 남아 claimTimeout 이후 다시 예약된다 (이미 큐에 들어간 메일이 다시 옮겨져 중복 전송되지 않음).
+     */
+    private void requeue(List<String> due) {
+        List<Long> ids = new ArrayList<>(due.size());
+        for (String rawId : due) {
+            try {
+                ids.add(Long.valueOf(rawId));
+            } catch (NumberFormatException e) {
+                log.warn("재시도 큐에서 잘못된 메일 ID 형식: {}", rawId);
+                removeClaimed(rawId);
+            }
+        }
+
+        Map<Long, MailLog> mailLogs = mailLogRepository.findAllById(ids).stream()
+            .collect(Collectors.toMap(MailLog::getId, Function.identity()));
+
+        int moved = 0;
+        for (Long id : ids) {
+            MailLog mailLog = mailLogs.get(id);
+            if (mailLog == null) {
+                log.warn("메일 로그가 없어 재시도 큐에서 제거: ID = {}", id);
+            } else {
+                try {
+                    mailQueueBackend.enqueue(id, mailLog.getGroupKey(), mailLog.getPriority());
+                    moved++;
+                } catch (Exception e) {
+                    log.error("재시도 메일 큐 등록 실패 (claimTimeout 이후 다시 예약): ID = {}, 오류 = {}", id, e.getMessage());
+                    continue;
+                }
+            }
+            removeClaimed(String.valueOf(id));
+        }
+
+        log.info("메일 재시도 큐에서 메인 큐로 이동: {}건", moved);
+    }
+
+    private void removeClaimed(String rawId) {
+        stringRedisTemplate.opsForZSet().remove(MAIL_RETRY_CLAIMED_KEY, rawId);
+    }
+
+    /**
+     * 지수 백오프 + jitter 지연 시간 계산
+     * <p>
+     * base x multiplier^(attempt-1) 을 상한으로 자른 뒤, 그 중 jitterRatio 비율만큼을 무작위로 분산한다.
+     */
+    long computeDelayMillis(String groupKey, long attempt) {
+        long baseMillis = getSettingAsLong(groupKey, "retry_base_delay_millis",
+            mailSettingService.getSettingValueAsInt(groupKey, "retry_delay_minutes", 5) * 60_000L);
+        double multiplier = getSettingAsDouble(groupKey, "retry_multiplier", retryProperties.getMultiplier());
+
+        double exponential = baseMillis * Math.pow(Math.max(1.0, multiplier), Math.max(0, attempt - 1));
+        long capped = (long) Math.min(maxDelayMillis(groupKey), exponential);
+
+        double jitterRatio = Math.min(1.0, Math.max(0.0, retryProperties.getJitterRatio()));
+        long fixed = (long) (capped * (1.0 - jitterRatio));
+        return fixed + ThreadLocalRandom.current().nextLong(capped - fixed + 1);
+    }
+
+    private long maxDelayMillis(String groupKey) {
+        return getSettingAsLong(groupKey, "retry_max_delay_millis", retryProperties.getMaxDelayMillis());
+    }
+
+    private long getSettingAsLong(String groupKey, String key, long defaultValue) {
+        try {
+            return Long.parseLong(mailSettingService.getSettingValue(groupKey, key, String.valueOf(defaultValue)));
+        } catch (Exception e) {
+            return defaultValue;
+        }
+    }
+
+    private double getSettingAsDouble(String groupKey, String key, double defaultValue) {
+        try {
+            return Double.parseDouble(mailSettingService.getSettingValue(groupKey, key, String.valueOf(defaultValue)));
+        } catch (Exception e) {
+            return defaultValue;
+        }
+    }
+
+    private static String attemptKey(Long mailLogId) {
+        return MAIL_RETRY_KEY + ":" + mailLogId;
+    }
+}
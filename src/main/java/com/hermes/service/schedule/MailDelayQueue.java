@@ -0,0 +1,271 @@
+package com.hermes.service.schedule;
+
+import com.hermes.config.properties.MailScheduleProperties;
+import com.hermes.entity.MailLog;
+import com.hermes.repository.MailLogRepository;
+import com.hermes.service.queue.MailQueueBackend;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 예약 발송(sendAt) 지연 큐 - Redis 에 저장하는 2단계 타이밍 휠
+ * <p>
+ * 예약 메일은 먼저 시간 단위 칸(mail:{delay}:hour:{epochHour}, 점수 = 예약 시각)에 쌓인다. 해당 시간이 cascadeLeadMillis 안으로 다가오면 그 칸의 메일을 초 단위 칸(mail:{delay}:second:{epochSecond}, List)으로 나눠 옮기고, 매 tick 에는 커서(mail:{delay}:cursor) 다음의 초 단위 칸만 꺼낸다. 칸 이름은 시각에서 바로 계산되므로 예약된 메일이 수백만 건이어도 tick 비용은 그 시각에 꺼낼 메일 수에만 비례하고, 각 메일은 시간 칸 -> 초 칸 -> 큐로 한 번씩만 옮겨진다.
+ * <p>
+ * 꺼내는 속도는 모든 노드가 공유하는 토큰 버킷(releaseRatePerSecond)으로 제한하므로, 같은 시각에 예약된 캠페인도 일정한 속도로 풀려난다. 꺼낸 메일은 mail:{delay}:claimed 에 기한과 함께 보관했다가 큐에 넣은 뒤 제거하며, 옮기던 노드가 중단되면 claimTimeout 이후 다시 큐에 넣는다. 큐 저장소가 지연 처리를 직접 지원하면(postgres) 휠을 거치지 않는다.
+ * <p>
+ * 칸 키는 커서에 따라 스크립트 안에서 정해지므로 KEYS 로 미리 넘길 수 없다. 대신 모든 키를 {delay} 해시 태그로 같은 슬롯에 두어 Redis Cluster 에서도 스크립트가 한 노드에서 실행된다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MailDelayQueue {
+
+    // 칸 키를 스크립트 안에서 만들므로 모든 키가 같은 해시 태그여야 함
+    private static final String MAIL_DELAY_KEY = "mail:{delay}";
+    private static final String HOUR_SLOT_PREFIX = MAIL_DELAY_KEY + ":hour:";
+    private static final String SECOND_SLOT_PREFIX = MAIL_DELAY_KEY + ":second:";
+    private static final String CASCADED_KEY = MAIL_DELAY_KEY + ":cascaded";
+    private static final String CURSOR_KEY = MAIL_DELAY_KEY + ":cursor";
+    private static final String TOKENS_KEY = MAIL_DELAY_KEY + ":tokens";
+    private static final String CLAIMED_KEY = MAIL_DELAY_KEY + ":claimed";
+    private static final String COUNT_KEY = MAIL_DELAY_KEY + ":count";
+
+    /**
+     * 커서 초기화 (처음 사용하는 경우 현재 시각 직전부터 시작) - KEYS: cascaded, cursor / ARGV: now
+     */
+    private static final String INIT_CURSORS = """
+        local nowSecond = math.floor(tonumber(ARGV[1]) / 1000)
+        redis.call('SETNX', KEYS[1], math.floor(nowSecond / 3600) - 1)
+        redis.call('SETNX', KEYS[2], nowSecond - 1)
+        """;
+
+    /**
+     * 예약 등록 - 아직 나누지 않은 시간이면 시간 칸, 이미 나눈 시간이면 초 칸 (커서가 지난 초는 다음 칸)
+     * KEYS: cascaded, cursor, count / ARGV: now, id, sendAt, hourPrefix, secondPrefix
+     */
+    private static final RedisScript<Long> SCHEDULE_SCRIPT = new DefaultRedisScript<>(INIT_CURSORS + """
+        local sendAt = tonumber(ARGV[3])
+        local second = math.floor(sendAt / 1000)
+        local hour = math.floor(second / 3600)
+        redis.call('INCR', KEYS[3])
+        if hour > tonumber(redis.call('GET', KEYS[1])) then
+            redis.call('ZADD', ARGV[4] .. hour, sendAt, ARGV[2])
+            return 0
+        end
+        local cursor = tonumber(redis.call('GET', KEYS[2]))
+        if second <= cursor then
+            second = cursor + 1
+        end
+        redis.call('RPUSH', ARGV[5] .. second, ARGV[2])
+        return 1
+        """, Long.class);
+
+    /**
+     * tick - 1) 다가온 시간 칸을 초 칸으로 나누고 2) 지난 초 칸을 토큰 버킷 한도만큼 꺼내 claimed 로 이동
+     * 커서는 칸이 완전히 비었을 때만 다음 초로 넘어가므로 한도에 걸린 메일은 다음 tick 에 이어서 꺼낸다.
+     * KEYS: cascaded, cursor, tokens, claimed, count
+     * ARGV: now, hourPrefix, secondPrefix, cascadeLeadMillis, maxCascadePerTick, maxSlotsPerTick, ratePerSecond, burst, claimDeadline
+     */
+    private static final RedisScript<List> TICK_SCRIPT = new DefaultRedisScript<>(INIT_CURSORS + """
+        local now = tonumber(ARGV[1])
+        local nowSecond = math.floor(now / 1000)
+        local cursor = tonumber(redis.call('GET', KEYS[2]))
+
+        local cascaded = tonumber(redis.call('GET', KEYS[1]))
+        local horizon = math.floor((now + tonumber(ARGV[4])) / 3600000)
+        local budget = tonumber(ARGV[5])
+        while cascaded < horizon and budget > 0 do
+            local hourKey = ARGV[2] .. (cascaded + 1)
+            local entries = redis.call('ZRANGE', hourKey, 0, budget - 1, 'WITHSCORES')
+            local moved = #entries / 2
+            for i = 1, #entries, 2 do
+                local second = math.floor(tonumber(entries[i + 1]) / 1000)
+                if second <= cursor then
+                    second = cursor + 1
+                end
+                redis.call('RPUSH', ARGV[3] .. second, entries[i])
+            end
+            if moved > 0 then
+                redis.call('ZREMRANGEBYRANK', hourKey, 0, moved - 1)
+            end
+            budget = budget - moved
+            if redis.call('EXISTS', hourKey) == 0 then
+                cascaded = cascaded + 1
+                redis.call('SET', KEYS[1], cascaded)
+            end
+        end
+
+        local burst = tonumber(ARGV[8])
+        local tokens = tonumber(redis.call('HGET', KEYS[3], 'tokens') or burst)
+        local refilledAt = tonumber(redis.call('HGET', KEYS[3], 'at') or now)
+        tokens = math.min(burst, tokens + math.max(0, now - refilledAt) * tonumber(ARGV[7]) / 1000)
+
+        local released = {}
+        local slots = 0
+        while cursor + 1 < nowSecond and slots < tonumber(ARGV[6]) and tokens >= 1 do
+            local slotKey = ARGV[3] .. (cursor + 1)
+            while tokens >= 1 do
+                local id = redis.call('LPOP', slotKey)
+                if not id then
+                    break
+                end
+                redis.call('ZADD', KEYS[4], ARGV[9], id)
+                released[#released + 1] = id
+                tokens = tokens - 1
+            end
+            if redis.call('LLEN', slotKey) > 0 then
+                break
+            end
+            cursor = cursor + 1
+            slots = slots + 1
+        end
+
+        redis.call('SET', KEYS[2], cursor)
+        redis.call('HSET', KEYS[3], 'tokens', tostring(tokens), 'at', tostring(now))
+        if #released > 0 then
+            redis.call('DECRBY', KEYS[5], #released)
+        end
+        return released
+        """, List.class);
+
+    /**
+     * 옮기다 멈춘 메일의 기한 연장 후 반환 - KEYS: claimed / ARGV: now, batchSize, claimDeadline
+     */
+    private static final RedisScript<List> RECLAIM_SCRIPT = new DefaultRedisScript<>("""
+        local expired = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, tonumber(ARGV[2]))
+        for _, id in ipairs(expired) do
+            redis.call('ZADD', KEYS[1], ARGV[3], id)
+        end
+        return expired
+        """, List.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final MailLogRepository mailLogRepository;
+    private final MailQueueBackend mailQueueBackend;
+    private final MailScheduleProperties scheduleProperties;
+
+    /**
+     * 예약 등록 (큐 저장소가 지연 처리를 지원하면 저장소에 맡김)
+     */
+    public void schedule(Long mailLogId, String groupKey, MailLog.MailPriority priority, long sendAtMillis) {
+        if (mailQueueBackend.enqueueAt(mailLogId, groupKey, priority, sendAtMillis)) {
+            return;
+        }
+
+        stringRedisTemplate.execute(SCHEDULE_SCRIPT, List.of(CASCADED_KEY, CURSOR_KEY, COUNT_KEY),
+            String.valueOf(System.currentTimeMillis()), String.valueOf(mailLogId), String.valueOf(sendAtMillis), HOUR_SLOT_PREFIX, SECOND_SLOT_PREFIX);
+    }
+
+    /**
+     * 예약 대기 중인 메일 수
+     */
+    public long getScheduledCount() {
+        String count = stringRedisTemplate.opsForValue().get(COUNT_KEY);
+        return count != null ? Math.max(0L, Long.parseLong(count)) : 0L;
+    }
+
+    /**
+     * 타이밍 휠 tick - 시각이 된 메일을 큐로 이동
+     */
+    @Scheduled(fixedDelayString = "${hermes.mail.schedule.tick-millis:100}", initialDelay = 5000)
+    @SuppressWarnings("unchecked")
+    public void tick() {
+        try {
+            long now = System.currentTimeMillis();
+            List<String> released = stringRedisTemplate.execute(TICK_SCRIPT,
+                List.of(CASCADED_KEY, CURSOR_KEY, TOKENS_KEY, CLAIMED_KEY, COUNT_KEY),
+                String.valueOf(now), HOUR_SLOT_PREFIX, SECOND_SLOT_PREFIX,
+                String.valueOf(scheduleProperties.getCascadeLeadMillis()),
+                String.valueOf(Math.max(1, scheduleProperties.getMaxCascadePerTick())),
+                String.valueOf(Math.max(1, scheduleProperties.getMaxSlotsPerTick())),
+                String.valueOf(Math.max(1, scheduleProperties.getReleaseRatePerSecond())),
+                String.valueOf(Math.max(1, scheduleProperties.getReleaseBurst())),
+                String.valueOf(claimDeadline(now)));
+
+            if (released != null && !released.isEmpty()) {
+                requeue(released);
+            }
+        } catch (Exception e) {
+            log.error("예약 발송 tick 처리 중 오류 발생: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 옮기던 노드가 중단되어 claimed 에 남은 예약 메일 회수
+     */
+    @Scheduled(fixedDelayString = "${hermes.mail.queue.reaper-interval-millis:5000}", initialDelay = 10000)
+    @SuppressWarnings("unchecked")
+    public void recoverExpiredClaims() {
+        try {
+            long now = System.currentTimeMillis();
+            List<String> expired = stringRedisTemplate.execute(RECLAIM_SCRIPT, List.of(CLAIMED_KEY),
+                String.valueOf(now), String.valueOf(Math.max(1, scheduleProperties.getReleaseBurst())), String.valueOf(claimDeadline(now)));
+
+            if (expired != null && !expired.isEmpty()) {
+                log.warn("이동 중 멈춘 예약 메일 재등록: {}건", expired.size());
+                requeue(expired);
+            }
+        } catch (Exception e) {
+            log.error("멈춘 예약 메일 회수 중 오류 발생: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 원래 그룹과 우선순위 레인으로 큐에 넣고 claimed 에서 제거
+     * <p>
+     * 메일마다 큐 등록에 성공한 직후 claimed 에서 제거하므로, 도중에 실패한 메일만 claimed 에 남아 claimTimeout 이후 다시 옮겨진다. 이미 전송되었거나 삭제된 메일은 큐에 넣지 않고 제거만 한다.
+     */
+    private void requeue(List<String> released) {
+        List<Long> ids = new ArrayList<>(released.size());
+        for (String rawId : released) {
+            try {
+                ids.add(Long.valueOf(rawId));
+            } catch (NumberFormatException e) {
+                log.warn("예약 큐에서 잘못된 메일 ID 형식: {}", rawId);
+                removeClaimed(rawId);
+            }
+        }
+
+        Map<Long, MailLog> mailLogs = mailLogRepository.findAllById(ids).stream()
+            .collect(Collectors.toMap(MailLog::getId, Function.identity()));
+
+        int moved = 0;
+        int skipped = 0;
+        for (Long id : ids) {
+            MailLog mailLog = mailLogs.get(id);
+            if (mailLog == null || mailLog.getStatus() != MailLog.MailStatus.PENDING) {
+                skipped++;
+            } else {
+                try {
+                    mailQueueBackend.enqueue(id, mailLog.getGroupKey(), mailLog.getPriority());
+                    moved++;
+                } catch (Exception e) {
+                    log.error("예약 메일 큐 등록 실패 (claimTimeout 이후 다시 옮김): ID = {}, 오류 = {}", id, e.getMessage());
+                    continue;
+                }
+            }
+            removeClaimed(String.valueOf(id));
+        }
+
+        log.info("예약 메일 큐로 이동: {}건 (대기 상태가 아니어서 제외 {}건)", moved, skipped);
+    }
+
+    private void removeClaimed(String rawId) {
+        stringRedisTemplate.opsForZSet().remove(CLAIMED_KEY, rawId);
+    }
+
+    private long claimDeadline(long now) {
+        return now + scheduleProperties.getClaimTimeoutSeconds() * 1000;
+    }
+}
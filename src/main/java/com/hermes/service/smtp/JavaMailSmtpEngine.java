@@ -0,0 +1,79 @@
+package com.hermes.service.smtp;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.angus.mail.smtp.SMTPTransport;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+
+/**
+ * JavaMail(Angus) SMTPTransport 기반 전송 엔진 - 메일 세션 설정(spring.mail.properties)은 JavaMailSenderImpl 의 Session 을 그대로 사용
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "hermes.mail.smtp", name = "engine", havingValue = "javamail", matchIfMissing = true)
+class JavaMailSmtpEngine implements SmtpEngine {
+
+    private final JavaMailSender mailSender;
+
+    @Override
+    public SmtpConnection connect(SmtpRelay relay) throws MessagingException {
+        JavaMailSenderImpl sender = (JavaMailSenderImpl) mailSender;
+        Transport transport = sender.getSession().getTransport(sender.getProtocol());
+        transport.connect(relay.host(), relay.port(), relay.username(), relay.password());
+        return new TransportConnection(relay, transport);
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return mailSender instanceof JavaMailSenderImpl;
+    }
+
+    @Override
+    public boolean isBlocking() {
+        return true;
+    }
+
+    private record TransportConnection(SmtpRelay relay, Transport transport) implements SmtpConnection {
+
+        @Override
+        public void send(SmtpSubmission submission) throws MessagingException {
+            if (transport instanceof SMTPTransport smtpTransport) {
+                smtpTransport.setSendPartial(submission.recipients().length > 1);
+            }
+            transport.sendMessage(submission.message(), submission.recipients());
+        }
+
+        @Override
+        public boolean isConnected() {
+            return transport.isConnected();
+        }
+
+        @Override
+        public boolean reset() {
+            if (!(transport instanceof SMTPTransport smtpTransport)) {
+                return false;
+            }
+            try {
+                smtpTransport.issueCommand("RSET", 250);
+                return true;
+            } catch (MessagingException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                log.debug("SMTP 연결 종료 중 오류: {}, {}", relay.name(), e.getMessage());
+            }
+        }
+    }
+}
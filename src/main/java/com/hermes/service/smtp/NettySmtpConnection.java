@@ -0,0 +1,529 @@
+package com.hermes.service.smtp;
+
+import com.hermes.config.properties.MailSmtpNettyProperties;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslHandler;
+import jakarta.mail.Address;
+import jakarta.mail.AuthenticationFailedException;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.angus.mail.smtp.SMTPAddressFailedException;
+import org.eclipse.angus.mail.smtp.SMTPMessage;
+import org.eclipse.angus.mail.smtp.SMTPOutputStream;
+import org.eclipse.angus.mail.smtp.SMTPSendFailedException;
+
+/**
+ * Netty 이벤트 루프 기반 SMTP 연결
+ * <p>
+ * 명령을 쓰기 전에 응답 future 를 순서대로 등록해 두고, 이벤트 루프가 응답을 받을 때마다 등록 순서대로 완료한다. 그래서 PIPELINING 을 지원하는 서버에는 MAIL FROM, RCPT TO, DATA 를 한 번에 보내고 응답을 모아서 확인한다. 응답을 기다리는 동안 소켓을 붙잡는 스레드가 없으므로(호출한 가상 스레드는 future 를 기다리며 캐리어를 내려놓음) 이벤트 루프 스레드 몇 개로 수천 개의 연결을 처리할 수 있다.
+ * <p>
+ * 응답 코드별 예외(SMTPAddressFailedException, SMTPSendFailedException, SendFailedException)와 부분 전송 처리는 JavaMail 과 같게 맞춰, 릴레이 장애 판단 / 수신자별 결과 반영 / 도메인 속도 조정이 엔진과 관계없이 동작한다.
+ */
+@Slf4j
+class NettySmtpConnection extends SimpleChannelInboundHandler<SmtpReply> implements SmtpConnection {
+
+    private static final String[] IGNORED_HEADERS = {"Bcc", "Content-Length"};
+    private static final byte[] CRLF = {'\r', '\n'};
+    private static final byte[] DATA_END = {'.', '\r', '\n'};
+
+    private final SmtpRelay relay;
+    private final MailSmtpNettyProperties nettyProperties;
+    private final SslContext sslContext;
+    private final String localHost;
+
+    // 보낸 명령 순서대로 기다리는 응답
+    private final Deque<CompletableFuture<SmtpReply>> pendingReplies = new ConcurrentLinkedDeque<>();
+    private final CompletableFuture<SmtpReply> greeting;
+
+    private volatile Channel channel;
+    private volatile boolean broken;
+    private volatile Set<String> extensions = Set.of();
+    private volatile Set<String> authMechanisms = Set.of();
+
+    NettySmtpConnection(SmtpRelay relay, MailSmtpNettyProperties nettyProperties, SslContext sslContext, String localHost) {
+        this.relay = relay;
+        this.nettyProperties = nettyProperties;
+        this.sslContext = sslContext;
+        this.localHost = localHost;
+        this.greeting = expectReply(nettyProperties.getConnectTimeoutMillis() + nettyProperties.getCommandTimeoutMillis());
+    }
+
+    /**
+     * 연결 완료 후 인사 응답, EHLO, STARTTLS, AUTH 까지 수행
+     */
+    void handshake(ChannelFuture connected) throws MessagingException {
+        await(handshakeAsync(connected));
+    }
+
+    CompletableFuture<Void> handshakeAsync(ChannelFuture connected) {
+        return completable(connected)
+            .thenCompose(ignored -> greeting)
+            .thenAccept(reply -> require(reply, 220, "CONNECT"))
+            .thenCompose(ignored -> ehlo())
+            .thenCompose(ignored -> startTls())
+            .thenCompose(ignored -> authenticate());
+    }
+
+    @Override
+    public void send(SmtpSubmission submission) throws MessagingException {
+        await(sendAsync(submission));
+    }
+
+    /**
+     * DATA 트랜잭션 하나 전송 (본문은 명령을 보내기 전에 미리 만들어 두고, 서버가 354 로 받을 준비가 되면 한 번에 씀)
+     */
+    CompletableFuture<Void> sendAsync(SmtpSubmission submission) {
+        Address[] recipients = submission.recipients();
+        ByteBuf data;
+        String from;
+        try {
+            from = envelopeFrom(submission.message());
+            data = render(submission.message());
+        } catch (IOException | MessagingException e) {
+            return CompletableFuture.failedFuture(e instanceof MessagingException messagingException ? messagingException
+                : new MessagingException("메일 본문 생성 실패", e));
+        }
+
+        List<String> commands = new ArrayList<>(recipients.length + 2);
+        commands.add("MAIL FROM:<" + from + ">" + (extensions.contains("SIZE") ? " SIZE=" + data.readableBytes() : ""));
+        for (Address recipient : recipients) {
+            commands.add("RCPT TO:<" + ((InternetAddress) recipient).getAddress() + ">");
+        }
+        commands.add("DATA");
+
+        return commands(commands, nettyProperties.isPipelining() && extensions.contains("PIPELINING"))
+            .handle((replies, failure) -> {
+                if (failure != null) {
+                    data.release();
+                    throw failure instanceof CompletionException completion ? completion : new CompletionException(failure);
+                }
+                return replies;
+            })
+            .thenCompose(replies -> transfer(recipients, replies, data));
+    }
+
+    @Override
+    public boolean isConnected() {
+        return isUsable() && replies("NOOP");
+    }
+
+    @Override
+    public boolean reset() {
+        return isUsable() && replies("RSET");
+    }
+
+    @Override
+    public void close() {
+        Channel current = channel;
+        broken = true;
+        if (current == null) {
+            return;
+        }
+
+        if (current.isActive()) {
+            current.writeAndFlush(line("QUIT")).addListener(ChannelFutureListener.CLOSE);
+        } else {
+            current.close();
+        }
+    }
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) {
+        channel = ctx.channel();
+    }
+
+    @Override
+    protected void channelRead0(ChannelHandlerContext ctx, SmtpReply reply) {
+        // 시간 초과 등으로 버린 연결에 늦게 도착한 응답은 어느 명령의 응답인지 알 수 없으므로 버림
+        if (broken) {
+            return;
+        }
+
+        CompletableFuture<SmtpReply> pending = pendingReplies.poll();
+        if (pending != null) {
+            pending.complete(reply);
+            return;
+        }
+
+        // 요청하지 않은 응답 (서버의 421 종료 알림 등) - 이후 응답 순서를 믿을 수 없으므로 연결을 버림
+        if (!broken) {
+            log.debug("요청하지 않은 SMTP 응답으로 연결 종료: {}, {}", relay.name(), reply.message());
+        }
+        broken = true;
+        ctx.close();
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) {
+        broken = true;
+        failPending(new ClosedChannelException());
+        ctx.fireChannelInactive();
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+        broken = true;
+        failPending(cause);
+        ctx.close();
+    }
+
+    private CompletableFuture<Void> ehlo() {
+        return command("EHLO " + localHost).thenCompose(reply -> {
+            if (reply.code() == 250) {
+                readExtensions(reply);
+                return CompletableFuture.completedFuture(null);
+            }
+
+            return command("HELO " + localHost).thenAccept(helo -> {
+                require(helo, 250, "HELO");
+                extensions = Set.of();
+                authMechanisms = Set.of();
+            });
+        });
+    }
+
+    private CompletableFuture<Void> startTls() {
+        if (channel.pipeline().get(SslHandler.class) != null || !nettyProperties.isStarttlsEnable()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (!extensions.contains("STARTTLS")) {
+            return nettyProperties.isStarttlsRequired()
+                ? CompletableFuture.failedFuture(new MessagingException("STARTTLS 를 지원하지 않는 SMTP 서버입니다: " + relay.name()))
+                : CompletableFuture.completedFuture(null);
+        }
+
+        return command("STARTTLS").thenCompose(reply -> {
+            require(reply, 220, "STARTTLS");
+            SslHandler sslHandler = NettySmtpEngine.sslHandler(sslContext, channel.alloc(), relay);
+            channel.pipeline().addFirst(sslHandler);
+            return completable(sslHandler.handshakeFuture());
+        }).thenCompose(ignored -> ehlo());
+    }
+
+    private CompletableFuture<Void> authenticate() {
+        String username = relay.username();
+        if (username == null || username.isBlank()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        String password = relay.password() != null ? relay.password() : "";
+
+        if (authMechanisms.contains("PLAIN")) {
+            return command("AUTH PLAIN " + base64("\0" + username + "\0" + password)).thenAccept(this::requireAuthenticated);
+        }
+        if (authMechanisms.contains("LOGIN")) {
+            return command("AUTH LOGIN")
+                .thenCompose(reply -> command(base64(requireChallenge(reply, username))))
+                .thenCompose(reply -> command(base64(requireChallenge(reply, password))))
+                .thenAccept(this::requireAuthenticated);
+        }
+        return CompletableFuture.failedFuture(new AuthenticationFailedException("지원하는 SMTP 인증 방식이 없습니다: " + relay.name() + " " + authMechanisms));
+    }
+
+    /**
+     * RCPT TO 응답에 따라 본문을 보내거나 중단 (수신자가 여럿이면 거부된 수신자를 빼고 전송)
+     */
+    private CompletableFuture<Void> transfer(Address[] recipients, List<SmtpReply> replies, ByteBuf data) {
+        SmtpReply mailFrom = replies.get(0);
+        SmtpReply dataReply = replies.get(replies.size() - 1);
+
+        List<Address> valid = new ArrayList<>();
+        List<Address> validUnsent = new ArrayList<>();
+        List<Address> invalid = new ArrayList<>();
+        MessagingException rejected = null;
+        SmtpReply lastRejection = null;
+        for (int i = 0; i < recipients.length; i++) {
+            SmtpReply reply = replies.get(i + 1);
+            if (reply.code() == 250 || reply.code() == 251) {
+                valid.add(recipients[i]);
+                continue;
+            }
+
+            // 5xx 는 잘못된 주소, 4xx 는 나중에 다시 보낼 수 있는 주소 (JavaMail 과 같은 분류)
+            (reply.code() >= 500 ? invalid : validUnsent).add(recipients[i]);
+            SMTPAddressFailedException failure = new SMTPAddressFailedException((InternetAddress) recipients[i], "RCPT TO", reply.code(), reply.message());
+            if (rejected == null) {
+                rejected = failure;
+            } else {
+                rejected.setNextException(failure);
+            }
+            lastRejection = reply;
+        }
+
+        if (mailFrom.code() != 250) {
+            abort(data, dataReply);
+            return CompletableFuture.failedFuture(new SMTPSendFailedException("MAIL FROM", mailFrom.code(), mailFrom.message(), null, null, recipients, null));
+        }
+        if (valid.isEmpty()) {
+            abort(data, dataReply);
+            return CompletableFuture.failedFuture(new SendFailedException("Invalid Addresses", rejected, null, addresses(validUnsent), addresses(invalid)));
+        }
+        if (dataReply.code() != 354) {
+            data.release();
+            return CompletableFuture.failedFuture(new SMTPSendFailedException("DATA", dataReply.code(), dataReply.message(), rejected, null,
+                addresses(valid, validUnsent), addresses(invalid)));
+        }
+
+        MessagingException partialFailure = rejected;
+        SmtpReply partialReply = lastRejection;
+        CompletableFuture<SmtpReply> accepted = expectReply(nettyProperties.getDataTimeoutMillis());
+        channel.writeAndFlush(data).addListener(written -> {
+            if (!written.isSuccess()) {
+                accepted.completeExceptionally(written.cause());
+            }
+        });
+
+        return accepted.thenAccept(reply -> {
+            if (reply.code() != 250) {
+                throw new CompletionException(new SMTPSendFailedException(".", reply.code(), reply.message(), partialFailure, null,
+                    addresses(valid, validUnsent), addresses(invalid)));
+            }
+            if (partialFailure != null) {
+                throw new CompletionException(new SMTPSendFailedException(".", partialReply.code(), partialReply.message(), partialFailure,
+                    addresses(valid), addresses(validUnsent), addresses(invalid)));
+            }
+        });
+    }
+
+    /**
+     * 본문을 보내지 않고 트랜잭션 중단 (서버가 이미 354 로 본문을 기다리면 정상 종료할 방법이 없으므로 연결을 버림)
+     */
+    private void abort(ByteBuf data, SmtpReply dataReply) {
+        data.release();
+        if (dataReply.code() == 354) {
+            broken = true;
+            channel.close();
+        }
+    }
+
+    /**
+     * 명령 여러 개 전송 후 응답 목록 (pipelined 면 한 번에 쓰고, 아니면 응답을 받은 뒤 다음 명령)
+     */
+    private CompletableFuture<List<SmtpReply>> commands(List<String> commands, boolean pipelined) {
+        if (pipelined) {
+            List<CompletableFuture<SmtpReply>> replies = new ArrayList<>(commands.size());
+            for (String command : commands) {
+                CompletableFuture<SmtpReply> reply = expectReply(nettyProperties.getCommandTimeoutMillis());
+                write(command, reply);
+                replies.add(reply);
+            }
+            channel.flush();
+            return CompletableFuture.allOf(replies.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> replies.stream().map(CompletableFuture::join).toList());
+        }
+
+        CompletableFuture<List<SmtpReply>> chain = CompletableFuture.completedFuture(new ArrayList<>(commands.size()));
+        for (String command : commands) {
+            chain = chain.thenCompose(replies -> command(command).thenApply(reply -> {
+                replies.add(reply);
+                return replies;
+            }));
+        }
+        return chain;
+    }
+
+    private CompletableFuture<SmtpReply> command(String command) {
+        CompletableFuture<SmtpReply> reply = expectReply(nettyProperties.getCommandTimeoutMillis());
+        write(command, reply);
+        channel.flush();
+        return reply;
+    }
+
+    private void write(String command, CompletableFuture<SmtpReply> reply) {
+        channel.write(line(command)).addListener(written -> {
+            if (!written.isSuccess()) {
+                reply.completeExceptionally(written.cause());
+            }
+        });
+    }
+
+    /**
+     * 다음 응답 대기 등록
+     * <p>
+     * 제한 시간이 지나거나 명령을 쓰지 못하면 응답 순서를 믿을 수 없으므로, 대기 목록에서 빼고 남은 대기도 모두 실패시킨 뒤 연결을 버린다. 대기 목록에 남겨 두면 늦게 온 응답이 이 future 를 소비해 이후 명령이 모두 한 칸씩 밀린 응답을 받는다.
+     */
+    private CompletableFuture<SmtpReply> expectReply(long timeoutMillis) {
+        CompletableFuture<SmtpReply> reply = new CompletableFuture<>();
+        pendingReplies.add(reply);
+        reply.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS).whenComplete((ignored, failure) -> {
+            if (failure == null) {
+                return;
+            }
+
+            broken = true;
+            pendingReplies.remove(reply);
+            failPending(failure);
+            Channel current = channel;
+            if (current != null) {
+                current.close();
+            }
+        });
+        return reply;
+    }
+
+    private void failPending(Throwable cause) {
+        CompletableFuture<SmtpReply> pending;
+        while ((pending = pendingReplies.poll()) != null) {
+            pending.completeExceptionally(cause);
+        }
+    }
+
+    private void readExtensions(SmtpReply reply) {
+        Set<String> keywords = new HashSet<>();
+        Set<String> mechanisms = new HashSet<>();
+        for (String line : reply.lines().subList(1, reply.lines().size())) {
+            String[] tokens = line.toUpperCase(Locale.ROOT).trim().split("[\\s=]+");
+            keywords.add(tokens[0]);
+            if ("AUTH".equals(tokens[0])) {
+                mechanisms.addAll(List.of(tokens).subList(1, tokens.length));
+            }
+        }
+        extensions = keywords;
+        authMechanisms = mechanisms;
+    }
+
+    private boolean isUsable() {
+        Channel current = channel;
+        return !broken && current != null && current.isActive();
+    }
+
+    private boolean replies(String command) {
+        try {
+            return await(command(command)).code() == 250;
+        } catch (MessagingException e) {
+            return false;
+        }
+    }
+
+    private <T> T await(CompletableFuture<T> future) throws MessagingException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new MessagingException("SMTP 응답 대기 중 중단되었습니다: " + relay.name(), e);
+        } catch (ExecutionException e) {
+            throw toMessagingException(e.getCause());
+        }
+    }
+
+    /**
+     * 이벤트 루프 예외를 JavaMail 과 같은 형태로 변환 (연결 / 시간 초과 오류는 IOException 원인을 유지해 릴레이 장애로 판단되게 함)
+     */
+    private MessagingException toMessagingException(Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+        if (cause instanceof MessagingException messagingException) {
+            return messagingException;
+        }
+        if (cause instanceof TimeoutException) {
+            return new MessagingException("SMTP 응답 시간 초과: " + relay.name(), new SocketTimeoutException(cause.getMessage()));
+        }
+        if (cause instanceof Exception exception) {
+            return new MessagingException("SMTP 연결 오류: " + relay.name() + ", " + exception.getMessage(), exception);
+        }
+        throw (Error) cause;
+    }
+
+    private ByteBuf render(MimeMessage message) throws IOException, MessagingException {
+        ByteBuf data = channel.alloc().buffer();
+        try {
+            SMTPOutputStream out = new SMTPOutputStream(new ByteBufOutputStream(data));
+            message.writeTo(out, IGNORED_HEADERS);
+            out.ensureAtBOL();
+            data.writeBytes(DATA_END);
+            return data;
+        } catch (IOException | MessagingException | RuntimeException e) {
+            data.release();
+            throw e;
+        }
+    }
+
+    private String envelopeFrom(MimeMessage message) throws MessagingException {
+        if (message instanceof SMTPMessage smtpMessage && smtpMessage.getEnvelopeFrom() != null) {
+            return smtpMessage.getEnvelopeFrom();
+        }
+
+        Address[] from = message.getFrom();
+        if (from == null || from.length == 0 || !(from[0] instanceof InternetAddress sender)) {
+            throw new MessagingException("발신자 주소가 없습니다");
+        }
+        return sender.getAddress();
+    }
+
+    private ByteBuf line(String command) {
+        ByteBuf buffer = channel.alloc().buffer(command.length() + 2);
+        buffer.writeCharSequence(command, StandardCharsets.UTF_8);
+        buffer.writeBytes(CRLF);
+        return buffer;
+    }
+
+    private static void require(SmtpReply reply, int expected, String command) {
+        if (reply.code() != expected) {
+            throw new CompletionException(new SMTPSendFailedException(command, reply.code(), reply.message(), null, null, null, null));
+        }
+    }
+
+    private String requireChallenge(SmtpReply reply, String answer) {
+        if (reply.code() != 334) {
+            throw new CompletionException(new AuthenticationFailedException(reply.message()));
+        }
+        return answer;
+    }
+
+    private void requireAuthenticated(SmtpReply reply) {
+        if (reply.code() != 235) {
+            throw new CompletionException(new AuthenticationFailedException(reply.message()));
+        }
+    }
+
+    private static String base64(String value) {
+        return Base64.getEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @SafeVarargs
+    private static Address[] addresses(List<Address>... lists) {
+        List<Address> merged = new ArrayList<>();
+        for (List<Address> list : lists) {
+            merged.addAll(list);
+        }
+        return merged.isEmpty() ? null : merged.toArray(Address[]::new);
+    }
+
+    private static CompletableFuture<Void> completable(io.netty.util.concurrent.Future<?> future) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        future.addListener(done -> {
+            if (done.isSuccess()) {
+                result.complete(null);
+            } else {
+                result.completeExceptionally(done.cause());
+            }
+        });
+        return result;
+    }
+}
@@ -0,0 +1,130 @@
+package com.hermes.service.smtp;
+
+import com.hermes.config.properties.MailSmtpNettyProperties;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.LineBasedFrameDecoder;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.handler.ssl.SslHandler;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.TimeUnit;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLParameters;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Netty 이벤트 루프 기반 SMTP 전송 엔진
+ * <p>
+ * JavaMail 은 SMTP 대화마다 스레드 하나가 응답을 기다리므로(가상 스레드에서는 캐리어까지 점유) 노드당 동시 전송 수가 스레드 수에 묶인다. 이 엔진은 모든 연결의 I/O 를 eventLoopThreads 개의 이벤트 루프에서 처리하고, 전송을 요청한 스레드는 결과 future 만 기다린다. STARTTLS, AUTH PLAIN / LOGIN, PIPELINING 을 지원하며, 연결 풀 / 릴레이 라우팅 / 속도 제한은 JavaMail 엔진과 같은 {@link SmtpConnectionPool} 을 쓴다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "hermes.mail.smtp", name = "engine", havingValue = "netty")
+class NettySmtpEngine implements SmtpEngine {
+
+    // RFC 5321 응답 줄 한도(512)보다 넉넉하게
+    private static final int MAX_REPLY_LINE_LENGTH = 8192;
+
+    private final MailSmtpNettyProperties nettyProperties;
+
+    private EventLoopGroup eventLoopGroup;
+    private Bootstrap bootstrap;
+    private SslContext sslContext;
+    private String localHost;
+
+    @PostConstruct
+    void start() throws SSLException {
+        int threads = nettyProperties.getEventLoopThreads() > 0 ? nettyProperties.getEventLoopThreads() : Runtime.getRuntime().availableProcessors();
+        eventLoopGroup = new NioEventLoopGroup(threads, Thread.ofPlatform().name("Hermes-Smtp-Io-", 0).daemon(true).factory());
+        bootstrap = new Bootstrap()
+            .group(eventLoopGroup)
+            .channel(NioSocketChannel.class)
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) nettyProperties.getConnectTimeoutMillis())
+            .option(ChannelOption.TCP_NODELAY, true)
+            .option(ChannelOption.SO_KEEPALIVE, true);
+        sslContext = SslContextBuilder.forClient().build();
+        localHost = resolveLocalHost();
+
+        log.info("Netty SMTP 엔진 시작: 이벤트 루프 스레드 수 = {}, EHLO = {}", threads, localHost);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (eventLoopGroup != null) {
+            eventLoopGroup.shutdownGracefully(0, 5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Override
+    public SmtpConnection connect(SmtpRelay relay) throws MessagingException {
+        NettySmtpConnection connection = new NettySmtpConnection(relay, nettyProperties, sslContext, localHost);
+        ChannelFuture connected = bootstrap.clone()
+            .handler(new ChannelInitializer<SocketChannel>() {
+                @Override
+                protected void initChannel(SocketChannel channel) {
+                    if (nettyProperties.isSsl()) {
+                        channel.pipeline().addLast(sslHandler(sslContext, channel.alloc(), relay));
+                    }
+                    channel.pipeline().addLast(new LineBasedFrameDecoder(MAX_REPLY_LINE_LENGTH), new SmtpReplyDecoder(), connection);
+                }
+            })
+            .connect(relay.host(), relay.port());
+
+        try {
+            connection.handshake(connected);
+            return connection;
+        } catch (MessagingException | RuntimeException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return true;
+    }
+
+    @Override
+    public boolean isBlocking() {
+        return false;
+    }
+
+    /**
+     * 릴레이 호스트 이름을 검증하는 TLS 핸들러 (SMTPS 연결 / STARTTLS)
+     */
+    static SslHandler sslHandler(SslContext sslContext, ByteBufAllocator allocator, SmtpRelay relay) {
+        SSLEngine engine = sslContext.newEngine(allocator, relay.host(), relay.port());
+        SSLParameters parameters = engine.getSSLParameters();
+        parameters.setEndpointIdentificationAlgorithm("HTTPS");
+        engine.setSSLParameters(parameters);
+        return new SslHandler(engine);
+    }
+
+    private String resolveLocalHost() {
+        if (nettyProperties.getLocalHost() != null && !nettyProperties.getLocalHost().isBlank()) {
+            return nettyProperties.getLocalHost();
+        }
+        try {
+            return InetAddress.getLocalHost().getCanonicalHostName();
+        } catch (UnknownHostException e) {
+            return "localhost";
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.hermes.service.smtp;
+
+import jakarta.mail.MessagingException;
+
+/**
+ * 인증까지 마친 SMTP 연결 하나 (한 번에 한 스레드만 사용)
+ */
+interface SmtpConnection {
+
+    /**
+     * DATA 트랜잭션 하나 전송 (봉투 수신자가 여럿이면 일부 거부되어도 나머지에게 전송)
+     */
+    void send(SmtpSubmission submission) throws MessagingException;
+
+    /**
+     * 서버와 연결이 살아 있는지 확인 (NOOP)
+     */
+    boolean isConnected();
+
+    /**
+     * 진행 중인 트랜잭션 초기화 (RSET, 실패하면 연결을 더 쓰지 않음)
+     */
+    boolean reset();
+
+    void close();
+}
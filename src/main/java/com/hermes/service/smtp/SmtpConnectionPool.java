@@ -0,0 +1,249 @@
+package com.hermes.service.smtp;
+
+import com.hermes.config.properties.MailSmtpPoolProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.mail.MessagingException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * SMTP 릴레이 하나의 인증된 연결 풀
+ * <p>
+ * 연결은 {@link SmtpEngine}(JavaMail 또는 Netty)이 만든다. 최근에 반납된 연결부터 다시 빌려주므로(LIFO) 부하가 줄면 안 쓰이는 연결이 자연스럽게 유휴 시간을 넘겨 정리된다. 빌려줄 때 수명과 유휴 시간을 확인하고, 오래 쉬었던 연결은 NOOP 으로 살아 있는지 확인한다. 실패한 메일 뒤에는 RSET 으로 트랜잭션을 초기화하고, RSET 이 실패하면 연결을 버린다.
+ */
+@Slf4j
+class SmtpConnectionPool {
+
+    private final SmtpRelay relay;
+    private final SmtpEngine engine;
+    private final MailSmtpPoolProperties poolProperties;
+    private final MeterRegistry meterRegistry;
+
+    private final int maxConnections;
+    private final Semaphore permits;
+    private final SmtpRateLimiter rateLimiter;
+    private final BlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final Counter created;
+    private final Timer borrowTimer;
+
+    private volatile boolean closed;
+
+    SmtpConnectionPool(SmtpRelay relay, SmtpEngine engine, MailSmtpPoolProperties poolProperties, MeterRegistry meterRegistry) {
+        this.relay = relay;
+        this.engine = engine;
+        this.poolProperties = poolProperties;
+        this.meterRegistry = meterRegistry;
+        this.maxConnections = Math.max(1, relay.maxConnections() > 0 ? relay.maxConnections() : poolProperties.getMaxConnections());
+        this.permits = new Semaphore(maxConnections, true);
+        this.rateLimiter = relay.maxRatePerSecond() > 0 ? new SmtpRateLimiter(relay.maxRatePerSecond()) : null;
+
+        Tags tags = Tags.of("relay", relay.name());
+        Gauge.builder("hermes.mail.smtp.pool.active", active, AtomicInteger::get).tags(tags).register(meterRegistry);
+        Gauge.builder("hermes.mail.smtp.pool.idle", idle, BlockingDeque::size).tags(tags).register(meterRegistry);
+        Gauge.builder("hermes.mail.smtp.pool.pending", waiting, AtomicInteger::get).tags(tags).register(meterRegistry);
+        Gauge.builder("hermes.mail.smtp.pool.max", () -> maxConnections).tags(tags).register(meterRegistry);
+        this.created = meterRegistry.counter("hermes.mail.smtp.pool.created", tags);
+        this.borrowTimer = meterRegistry.timer("hermes.mail.smtp.pool.borrow", tags);
+    }
+
+    /**
+     * 풀의 연결 하나로 여러 메일을 차례로 전송하고 메일별 실패 반환 (성공은 null)
+     * <p>
+     * 메일이 거부되어도 RSET 이 성공하면 같은 연결로 계속 보내고, 연결이 끊겼거나 연결당 최대 메일 수에 도달하면 새 연결로 이어서 보낸다.
+     */
+    List<MessagingException> sendAll(List<SmtpSubmission> submissions) {
+        List<MessagingException> failures = new ArrayList<>(Collections.nCopies(submissions.size(), null));
+        PooledConnection connection = null;
+        try {
+            for (int i = 0; i < submissions.size(); i++) {
+                if (connection == null) {
+                    try {
+                        connection = borrow();
+                    } catch (MessagingException e) {
+                        Collections.fill(failures.subList(i, failures.size()), e);
+                        break;
+                    }
+                }
+
+                if (!send(connection, submissions.get(i), failures, i)) {
+                    giveBack(connection, false);
+                    connection = null;
+                } else if (connection.messageCount >= poolProperties.getMaxMessagesPerConnection()) {
+                    giveBack(connection, true);
+                    connection = null;
+                }
+            }
+        } finally {
+            if (connection != null) {
+                giveBack(connection, true);
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * 유휴 시간 / 수명을 넘긴 연결 정리
+     */
+    void evictExpired() {
+        long now = System.currentTimeMillis();
+        for (PooledConnection connection : List.copyOf(idle)) {
+            String reason = expiredReason(connection, now);
+            if (reason != null && idle.remove(connection)) {
+                evict(connection, reason);
+            }
+        }
+    }
+
+    void close() {
+        closed = true;
+        PooledConnection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            evict(connection, "shutdown");
+        }
+    }
+
+    /**
+     * 메일 하나 전송 (연결을 계속 쓸 수 있으면 true)
+     */
+    private boolean send(PooledConnection connection, SmtpSubmission submission, List<MessagingException> failures, int index) {
+        try {
+            if (rateLimiter != null && !rateLimiter.acquire(poolProperties.getBorrowTimeoutMillis())) {
+                failures.set(index, new SmtpRelayUnavailableException("SMTP 릴레이 전송 속도 제한 대기 시간 초과: " + relay.name()));
+                return true;
+            }
+
+            connection.messageCount++;
+            connection.connection.send(submission);
+            return !poolProperties.isResetAfterEachMessage() || reset(connection);
+        } catch (MessagingException e) {
+            // 서버가 메일을 거부한 경우 연결은 살아 있으므로 트랜잭션만 초기화해 재사용
+            failures.set(index, e);
+            return reset(connection);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failures.set(index, new MessagingException("SMTP 전송 대기 중 중단되었습니다: " + relay.name(), e));
+            return true;
+        } catch (RuntimeException e) {
+            failures.set(index, new MessagingException("SMTP 전송 실패: " + relay.name(), e));
+            return false;
+        }
+    }
+
+    private PooledConnection borrow() throws MessagingException {
+        long startedAt = System.nanoTime();
+        waiting.incrementAndGet();
+        try {
+            if (!permits.tryAcquire(poolProperties.getBorrowTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                throw new SmtpRelayUnavailableException("SMTP 연결 대기 시간 초과: " + relay.name());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MessagingException("SMTP 연결 대기 중 중단되었습니다: " + relay.name(), e);
+        } finally {
+            waiting.decrementAndGet();
+        }
+
+        try {
+            PooledConnection connection = idle.pollFirst();
+            while (connection != null && !validate(connection)) {
+                connection = idle.pollFirst();
+            }
+            if (connection == null) {
+                connection = connect();
+            }
+
+            active.incrementAndGet();
+            borrowTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            return connection;
+        } catch (MessagingException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void giveBack(PooledConnection connection, boolean reusable) {
+        active.decrementAndGet();
+        try {
+            if (closed) {
+                evict(connection, "shutdown");
+            } else if (!reusable) {
+                evict(connection, "error");
+            } else if (connection.messageCount >= poolProperties.getMaxMessagesPerConnection()) {
+                evict(connection, "max-messages");
+            } else {
+                connection.lastUsedAt = System.currentTimeMillis();
+                idle.offerFirst(connection);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private PooledConnection connect() throws MessagingException {
+        SmtpConnection connection = engine.connect(relay);
+        created.increment();
+        log.debug("SMTP 연결 생성: {}", relay.name());
+        return new PooledConnection(connection);
+    }
+
+    /**
+     * 빌려주기 전 확인 (사용할 수 없으면 닫고 false)
+     */
+    private boolean validate(PooledConnection connection) {
+        long now = System.currentTimeMillis();
+        String reason = expiredReason(connection, now);
+        if (reason == null && now - connection.lastUsedAt >= poolProperties.getValidateAfterIdleMillis() && !connection.connection.isConnected()) {
+            reason = "broken";
+        }
+        if (reason == null) {
+            return true;
+        }
+
+        evict(connection, reason);
+        return false;
+    }
+
+    private String expiredReason(PooledConnection connection, long now) {
+        if (now - connection.createdAt >= poolProperties.getMaxLifetimeMillis()) {
+            return "lifetime";
+        }
+        if (now - connection.lastUsedAt >= poolProperties.getIdleTimeoutMillis()) {
+            return "idle";
+        }
+        return null;
+    }
+
+    private boolean reset(PooledConnection connection) {
+        return connection.connection.reset();
+    }
+
+    private void evict(PooledConnection connection, String reason) {
+        meterRegistry.counter("hermes.mail.smtp.pool.evicted", "relay", relay.name(), "reason", reason).increment();
+        connection.connection.close();
+    }
+
+    private static final class PooledConnection {
+
+        private final SmtpConnection connection;
+        private final long createdAt = System.currentTimeMillis();
+        private volatile long lastUsedAt = createdAt;
+        private int messageCount;
+
+        private PooledConnection(SmtpConnection connection) {
+            this.connection = connection;
+        }
+    }
+}
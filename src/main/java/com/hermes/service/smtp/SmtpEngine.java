@@ -0,0 +1,24 @@
+package com.hermes.service.smtp;
+
+import jakarta.mail.MessagingException;
+
+/**
+ * SMTP 연결을 만드는 전송 엔진 (hermes.mail.smtp.engine: javamail | netty)
+ */
+interface SmtpEngine {
+
+    /**
+     * 릴레이에 연결하고 STARTTLS, AUTH 까지 수행
+     */
+    SmtpConnection connect(SmtpRelay relay) throws MessagingException;
+
+    /**
+     * 엔진을 사용할 수 있는지 여부 (false 면 JavaMailSender 로 메일마다 전송)
+     */
+    boolean isAvailable();
+
+    /**
+     * 응답을 기다리는 동안 호출 스레드가 캐리어를 점유하는지 여부 (JavaMail 은 synchronized 안에서 소켓 I/O)
+     */
+    boolean isBlocking();
+}
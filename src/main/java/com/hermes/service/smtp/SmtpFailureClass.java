@@ -0,0 +1,27 @@
+package com.hermes.service.smtp;
+
+/**
+ * 전송 실패 분류 - 분류마다 처리가 다름
+ */
+public enum SmtpFailureClass {
+
+    /**
+     * 다시 보내도 성공할 수 없음 (5xx, 잘못된 주소, 메일 생성 실패) - 재시도 없이 실패 처리
+     */
+    PERMANENT,
+
+    /**
+     * 일시적인 실패 (그 밖의 4xx, 알 수 없는 오류) - 지수 백오프로 재시도
+     */
+    TRANSIENT,
+
+    /**
+     * 수신 측의 전송 속도 제한 (421, 451, 452, 4.7.x) - 수신 도메인 속도를 낮추고 재시도
+     */
+    THROTTLED,
+
+    /**
+     * 릴레이 장애 (연결 실패, 시간 초과, 인증 실패, 연결 / 속도 제한 대기 초과) - 릴레이를 후순위로 미루고, 재시도 횟수를 쓰지 않고 다시 보냄
+     */
+    RELAY_DOWN
+}
@@ -0,0 +1,122 @@
+package com.hermes.service.smtp;
+
+import jakarta.mail.AuthenticationFailedException;
+import jakarta.mail.internet.AddressException;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.ParseException;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.regex.Pattern;
+import org.eclipse.angus.mail.smtp.SMTPAddressFailedException;
+import org.eclipse.angus.mail.smtp.SMTPSendFailedException;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.MailSendException;
+import org.springframework.stereotype.Component;
+
+/**
+ * SMTP 응답 코드 / 예외로 전송 실패 분류
+ * <p>
+ * 수신자를 지정하면 그 수신자에 대한 RCPT TO 응답(SMTPAddressFailedException)을 먼저 보고, 없으면 트랜잭션 응답(SMTPSendFailedException), 그다음 예외 종류로 판단한다. 예외 체인(MessagingException 의 next exception, MailSendException 의 메일별 예외 포함)을 모두 확인한다.
+ */
+@Component
+public class SmtpFailureClassifier {
+
+    // RFC 3463 확장 상태 코드 (예: 4.7.1)
+    private static final Pattern THROTTLING_STATUS = Pattern.compile("\\b4\\.7\\.\\d{1,3}\\b");
+    private static final Set<Integer> THROTTLING_CODES = Set.of(421, 451, 452);
+    // 인증 필요 / 임시 인증 실패 / 인증 실패 / 암호화 필요
+    private static final Set<Integer> RELAY_CODES = Set.of(454, 530, 534, 535, 538);
+
+    /**
+     * 트랜잭션 단위 분류 (릴레이 장애 판단)
+     */
+    public SmtpFailureClass classify(Exception failure) {
+        return classify(failure, null);
+    }
+
+    /**
+     * 수신자 단위 분류
+     */
+    public SmtpFailureClass classify(Exception failure, String recipient) {
+        Integer transactionCode = null;
+        String transactionMessage = null;
+
+        for (Throwable cause : causes(failure)) {
+            if (cause instanceof SMTPAddressFailedException addressFailed && recipient != null && matches(addressFailed.getAddress(), recipient)) {
+                return classify(addressFailed.getReturnCode(), addressFailed.getMessage());
+            }
+            if (cause instanceof SMTPSendFailedException sendFailed && transactionCode == null) {
+                transactionCode = sendFailed.getReturnCode();
+                transactionMessage = sendFailed.getMessage();
+            }
+        }
+        if (transactionCode != null) {
+            return classify(transactionCode, transactionMessage);
+        }
+
+        for (Throwable cause : causes(failure)) {
+            // 메일 생성 실패는 IOException(UnsupportedEncodingException)이어도 릴레이와 무관
+            if (cause instanceof AddressException || cause instanceof ParseException || cause instanceof UnsupportedEncodingException
+                || cause instanceof MailPreparationException || cause instanceof MailParseException) {
+                return SmtpFailureClass.PERMANENT;
+            }
+        }
+        for (Throwable cause : causes(failure)) {
+            if (cause instanceof SmtpRelayUnavailableException || cause instanceof AuthenticationFailedException || cause instanceof IOException) {
+                return SmtpFailureClass.RELAY_DOWN;
+            }
+        }
+        return SmtpFailureClass.TRANSIENT;
+    }
+
+    /**
+     * 응답 코드 분류
+     */
+    SmtpFailureClass classify(int returnCode, String message) {
+        if (RELAY_CODES.contains(returnCode)) {
+            return SmtpFailureClass.RELAY_DOWN;
+        }
+        if (returnCode >= 500) {
+            return SmtpFailureClass.PERMANENT;
+        }
+        if (THROTTLING_CODES.contains(returnCode) || (returnCode >= 400 && message != null && THROTTLING_STATUS.matcher(message).find())) {
+            return SmtpFailureClass.THROTTLED;
+        }
+        return SmtpFailureClass.TRANSIENT;
+    }
+
+    private boolean matches(InternetAddress address, String recipient) {
+        return address != null && recipient.equalsIgnoreCase(address.getAddress());
+    }
+
+    /**
+     * 예외 자신과 모든 원인 (순환 방지)
+     */
+    private Iterable<Throwable> causes(Throwable failure) {
+        Set<Throwable> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Throwable> pending = new ArrayDeque<>();
+        if (failure != null) {
+            pending.add(failure);
+        }
+
+        while (!pending.isEmpty()) {
+            Throwable cause = pending.poll();
+            if (!visited.add(cause)) {
+                continue;
+            }
+            if (cause.getCause() != null) {
+                pending.add(cause.getCause());
+            }
+            if (cause instanceof MailSendException sendException) {
+                pending.addAll(sendException.getFailedMessages().values());
+            }
+        }
+        return visited;
+    }
+}
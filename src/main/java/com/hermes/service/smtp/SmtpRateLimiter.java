@@ -0,0 +1,51 @@
+package com.hermes.service.smtp;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 릴레이별 전송 속도 제한 (노드 로컬 토큰 버킷, 버킷 크기 = 초당 전송 수)
+ * <p>
+ * 토큰을 미리 예약하고 부족한 만큼만 잠금 밖에서 기다리므로 대기 중인 전송이 다른 전송을 막지 않는다. 가상 스레드에서도 캐리어를 점유하지 않도록 synchronized 대신 ReentrantLock 을 사용한다.
+ */
+class SmtpRateLimiter {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final double permitsPerMillis;
+    private final double burst;
+
+    private double tokens;
+    private long refilledAt = System.currentTimeMillis();
+
+    SmtpRateLimiter(int permitsPerSecond) {
+        this.permitsPerMillis = permitsPerSecond / 1000.0;
+        this.burst = permitsPerSecond;
+        this.tokens = burst;
+    }
+
+    /**
+     * 전송 한 건 허가 (timeoutMillis 안에 허가받을 수 없으면 기다리지 않고 false)
+     */
+    boolean acquire(long timeoutMillis) throws InterruptedException {
+        long waitMillis;
+        lock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            tokens = Math.min(burst, tokens + (now - refilledAt) * permitsPerMillis);
+            refilledAt = now;
+
+            waitMillis = tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / permitsPerMillis);
+            if (waitMillis > timeoutMillis) {
+                return false;
+            }
+            tokens -= 1;
+        } finally {
+            lock.unlock();
+        }
+
+        if (waitMillis > 0) {
+            TimeUnit.MILLISECONDS.sleep(waitMillis);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,16 @@
+package com.hermes.service.smtp;
+
+/**
+ * SMTP 릴레이 접속 정보 (연결 풀은 이 값 단위로 나뉨)
+ *
+ * @param name             릴레이 이름 (지표 태그, 그룹 라우팅 규칙에서 사용)
+ * @param maxConnections   최대 동시 연결 수 (0 이면 풀 기본값)
+ * @param maxRatePerSecond 노드당 초당 최대 전송 수 (0 이면 제한 없음)
+ */
+public record SmtpRelay(String name, String host, int port, String username, String password, int maxConnections, int maxRatePerSecond) {
+
+    @Override
+    public String toString() {
+        return name + "(" + host + ":" + port + ")";
+    }
+}
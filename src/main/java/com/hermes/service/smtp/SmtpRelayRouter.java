@@ -0,0 +1,182 @@
+package com.hermes.service.smtp;
+
+import com.hermes.config.properties.MailRelayProperties;
+import com.hermes.service.MailSettingService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.mail.SendFailedException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.angus.mail.smtp.SMTPSendFailedException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+
+/**
+ * groupKey 별 SMTP 릴레이 선택 + 장애 릴레이 우회
+ * <p>
+ * 그룹 설정 smtp_relays(예: "ses-a:3,ses-b:1")에 적힌 릴레이 중 하나를 가중치 비율로 무작위로 골라 먼저 시도하고, 나머지는 가중치 순으로 대체 후보가 된다. 설정이 없으면 hermes.mail.smtp.relays 전체를 각 릴레이의 weight 로 나누고, 릴레이 정의가 없으면 spring.mail 릴레이 하나를 사용한다. 4xx 응답, 연결 실패, 시간 초과가 난 릴레이는 failoverCooldownMillis 동안 후순위로 밀려나므로 장애 중에는 다른 릴레이가 트래픽을 받는다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SmtpRelayRouter {
+
+    private static final String RELAY_SETTING_KEY = "smtp_relays";
+    private static final String DEFAULT_RELAY_NAME = "default";
+
+    private final JavaMailSender mailSender;
+    private final MailRelayProperties relayProperties;
+    private final MailSettingService mailSettingService;
+    private final MeterRegistry meterRegistry;
+    private final SmtpFailureClassifier failureClassifier;
+
+    // 릴레이 이름 -> 후순위 해제 시각
+    private final Map<String, Long> cooldownUntil = new ConcurrentHashMap<>();
+
+    private Map<String, SmtpRelay> relays = Map.of();
+    private List<WeightedRelay> defaultRoute = List.of();
+
+    @PostConstruct
+    void init() {
+        Map<String, SmtpRelay> defined = new LinkedHashMap<>();
+        List<WeightedRelay> route = new ArrayList<>();
+
+        relayProperties.getRelays().forEach((name, relay) -> {
+            SmtpRelay smtpRelay = new SmtpRelay(name, relay.getHost(), relay.getPort(), relay.getUsername(), relay.getPassword(),
+                relay.getMaxConnections(), relay.getMaxRatePerSecond());
+            defined.put(name, smtpRelay);
+            route.add(new WeightedRelay(smtpRelay, Math.max(1, relay.getWeight())));
+        });
+
+        if (defined.isEmpty() && mailSender instanceof JavaMailSenderImpl sender) {
+            int port = sender.getPort() > 0 ? sender.getPort() : ("smtps".equals(sender.getProtocol()) ? 465 : 25);
+            SmtpRelay smtpRelay = new SmtpRelay(DEFAULT_RELAY_NAME, sender.getHost(), port, sender.getUsername(), sender.getPassword(), 0, 0);
+            defined.put(DEFAULT_RELAY_NAME, smtpRelay);
+            route.add(new WeightedRelay(smtpRelay, 1));
+        }
+
+        relays = defined;
+        defaultRoute = route;
+        log.info("SMTP 릴레이: {}", defined.values());
+    }
+
+    /**
+     * groupKey 의 전송 후보 릴레이 (가중치로 고른 릴레이가 처음, 나머지는 가중치 순이며 후순위로 밀린 릴레이는 맨 뒤)
+     */
+    public List<SmtpRelay> route(String groupKey) {
+        long now = System.currentTimeMillis();
+        List<WeightedRelay> healthy = new ArrayList<>();
+        List<WeightedRelay> coolingDown = new ArrayList<>();
+        for (WeightedRelay candidate : routeOf(groupKey)) {
+            Long until = cooldownUntil.get(candidate.relay().name());
+            (until != null && until > now ? coolingDown : healthy).add(candidate);
+        }
+
+        List<SmtpRelay> ordered = new ArrayList<>(healthy.size() + coolingDown.size());
+        if (!healthy.isEmpty()) {
+            WeightedRelay first = pickWeighted(healthy);
+            ordered.add(first.relay());
+            healthy.remove(first);
+        }
+        healthy.stream().sorted(Comparator.comparingInt(WeightedRelay::weight).reversed()).forEach(candidate -> ordered.add(candidate.relay()));
+        coolingDown.stream().sorted(Comparator.comparingLong(candidate -> cooldownUntil.getOrDefault(candidate.relay().name(), 0L)))
+            .forEach(candidate -> ordered.add(candidate.relay()));
+        return ordered;
+    }
+
+    /**
+     * 릴레이 자체의 문제로 실패했는지 여부 (다른 릴레이로 넘길 대상)
+     * <p>
+     * 연결 실패 / 시간 초과, 인증 실패, 연결 / 속도 제한 대기 초과, 메일 단위 4xx 응답(421, 451 등)이 해당한다. 수신자 주소 거부나 일부 수신자에게 이미 전송된 경우는 릴레이를 바꿔도 달라지지 않거나 중복 전송이 되므로 제외한다.
+     */
+    public boolean isRelayFailure(Exception failure) {
+        if (failure instanceof SendFailedException sendFailed && (hasAny(sendFailed.getValidSentAddresses()) || hasAny(sendFailed.getInvalidAddresses()))) {
+            return false;
+        }
+
+        return switch (failureClassifier.classify(failure)) {
+            case RELAY_DOWN, THROTTLED -> true;
+            // 그 밖의 메일 단위 4xx 응답도 다른 릴레이로 시도
+            case TRANSIENT -> failure instanceof SMTPSendFailedException;
+            case PERMANENT -> false;
+        };
+    }
+
+    /**
+     * 릴레이 장애 기록 (cooldown 동안 후순위)
+     */
+    public void reportFailure(SmtpRelay relay, Exception failure) {
+        long until = System.currentTimeMillis() + relayProperties.getFailoverCooldownMillis();
+        if (cooldownUntil.put(relay.name(), until) == null) {
+            log.warn("SMTP 릴레이 장애로 다른 릴레이 우선 사용: {}, 오류 = {}", relay, failure.getMessage());
+        }
+        meterRegistry.counter("hermes.mail.smtp.relay.failover", "relay", relay.name()).increment();
+    }
+
+    /**
+     * 릴레이 정상 응답 기록 (후순위 해제)
+     */
+    public void reportSuccess(SmtpRelay relay) {
+        if (cooldownUntil.remove(relay.name()) != null) {
+            log.info("SMTP 릴레이 복구: {}", relay);
+        }
+    }
+
+    /**
+     * 그룹 라우팅 규칙 (형식: 이름[:가중치],이름[:가중치] - 알 수 없는 이름은 무시, 규칙이 없거나 비면 기본 경로)
+     */
+    private List<WeightedRelay> routeOf(String groupKey) {
+        String rule = groupKey != null ? mailSettingService.getSettingValue(groupKey, RELAY_SETTING_KEY, "") : "";
+        if (rule == null || rule.isBlank()) {
+            return defaultRoute;
+        }
+
+        List<WeightedRelay> route = new ArrayList<>();
+        for (String entry : rule.split(",")) {
+            String[] parts = entry.trim().split(":");
+            SmtpRelay relay = relays.get(parts[0].trim());
+            if (relay == null) {
+                log.warn("알 수 없는 SMTP 릴레이 이름: {} (group={})", parts[0], groupKey);
+                continue;
+            }
+            route.add(new WeightedRelay(relay, parts.length > 1 ? parseWeight(parts[1]) : 1));
+        }
+        return route.isEmpty() ? defaultRoute : route;
+    }
+
+    private WeightedRelay pickWeighted(List<WeightedRelay> candidates) {
+        int total = candidates.stream().mapToInt(WeightedRelay::weight).sum();
+        int point = ThreadLocalRandom.current().nextInt(total);
+        for (WeightedRelay candidate : candidates) {
+            point -= candidate.weight();
+            if (point < 0) {
+                return candidate;
+            }
+        }
+        return candidates.get(candidates.size() - 1);
+    }
+
+    private int parseWeight(String weight) {
+        try {
+            return Math.max(1, Integer.parseInt(weight.trim()));
+        } catch (NumberFormatException e) {
+            return 1;
+        }
+    }
+
+    private boolean hasAny(Object[] addresses) {
+        return addresses != null && addresses.length > 0;
+    }
+
+    private record WeightedRelay(SmtpRelay relay, int weight) {
+
+    }
+}
@@ -0,0 +1,13 @@
+package com.hermes.service.smtp;
+
+import jakarta.mail.MessagingException;
+
+/**
+ * 릴레이 연결 / 전송 허가를 제한 시간 안에 얻지 못함 (다른 릴레이로 넘길 대상)
+ */
+class SmtpRelayUnavailableException extends MessagingException {
+
+    SmtpRelayUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package com.hermes.service.smtp;
+
+import java.util.List;
+
+/**
+ * SMTP 응답 (여러 줄 응답은 줄마다 코드 뒤의 내용)
+ */
+record SmtpReply(int code, List<String> lines) {
+
+    /**
+     * JavaMail 의 마지막 서버 응답과 같은 형식 (예: "550 5.1.1 User unknown")
+     */
+    String message() {
+        return code + " " + String.join(" ", lines);
+    }
+}
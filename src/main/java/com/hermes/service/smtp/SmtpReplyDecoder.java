@@ -0,0 +1,33 @@
+package com.hermes.service.smtp;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.DecoderException;
+import io.netty.handler.codec.MessageToMessageDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 줄 단위로 나뉜 SMTP 응답을 {@link SmtpReply} 로 조립 ("250-" 로 시작하는 줄은 다음 줄과 이어지는 응답)
+ */
+class SmtpReplyDecoder extends MessageToMessageDecoder<ByteBuf> {
+
+    private final List<String> lines = new ArrayList<>();
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf line, List<Object> out) {
+        String text = line.toString(StandardCharsets.UTF_8);
+        if (text.length() < 3 || !Character.isDigit(text.charAt(0)) || !Character.isDigit(text.charAt(1)) || !Character.isDigit(text.charAt(2))) {
+            throw new DecoderException("잘못된 SMTP 응답: " + text);
+        }
+
+        lines.add(text.length() > 4 ? text.substring(4) : "");
+        if (text.length() > 3 && text.charAt(3) == '-') {
+            return;
+        }
+
+        out.add(new SmtpReply(Integer.parseInt(text.substring(0, 3)), List.copyOf(lines)));
+        lines.clear();
+    }
+}
@@ -0,0 +1,13 @@
+package com.hermes.service.smtp;
+
+import jakarta.mail.Address;
+import jakarta.mail.internet.MimeMessage;
+
+/**
+ * 한 번의 DATA 트랜잭션으로 보낼 메일과 봉투 수신자 (RCPT TO)
+ * <p>
+ * 봉투 수신자가 여러 명이면 수신자별 거부가 있어도 나머지에게는 전송한다 (부분 전송).
+ */
+public record SmtpSubmission(MimeMessage message, Address[] recipients) {
+
+}
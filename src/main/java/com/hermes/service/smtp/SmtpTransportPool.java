@@ -0,0 +1,178 @@
+package com.hermes.service.smtp;
+
+import com.hermes.config.properties.MailSmtpPoolProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.AuthenticationFailedException;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * SMTP 연결 재사용 전송 계층
+ * <p>
+ * JavaMailSender.send 는 메일마다 TCP 연결, STARTTLS, AUTH 를 새로 수행하므로 메일당 지연의 대부분이 연결 수립에 쓰인다. 이 클래스는 릴레이(호스트 + 계정)별로 인증된 연결을 풀에 보관해 재사용하며, 연결은 설정된 전송 엔진({@link SmtpEngine} - JavaMail 또는 Netty 이벤트 루프)이 만든다. 릴레이는 {@link SmtpRelayRouter} 가 groupKey 별로 고른다. 풀이 꺼져 있거나 엔진을 쓸 수 없으면 JavaMailSender(spring.mail 릴레이)로 전송한다.
+ * <p>
+ * 지표: hermes.mail.smtp.pool.active / idle / pending / max (연결 수), hermes.mail.smtp.pool.borrow (대기 시간), hermes.mail.smtp.pool.created / evicted (생성 / 정리 사유별)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SmtpTransportPool {
+
+    private final JavaMailSender mailSender;
+    private final MailSmtpPoolProperties poolProperties;
+    private final MeterRegistry meterRegistry;
+    private final SmtpRelayRouter relayRouter;
+    private final SmtpEngine smtpEngine;
+
+    private final Map<SmtpRelay, SmtpConnectionPool> pools = new ConcurrentHashMap<>();
+
+    /**
+     * 연결 풀 사용 여부 (false 면 JavaMailSender 로 메일마다 전송하므로 봉투 수신자를 따로 지정할 수 없음)
+     */
+    public boolean isPooled() {
+        return poolProperties.isEnabled() && smtpEngine.isAvailable();
+    }
+
+    /**
+     * 전송 중 호출 스레드가 캐리어를 점유하는지 여부 (true 면 가상 스레드 점유 대응 대상)
+     */
+    public boolean isBlocking() {
+        return !isPooled() || smtpEngine.isBlocking();
+    }
+
+    /**
+     * groupKey 의 릴레이로 전송 (Spring 메일 예외로 변환)
+     */
+    public void send(String groupKey, MimeMessage message) {
+        if (!isPooled()) {
+            mailSender.send(message);
+            return;
+        }
+
+        List<Exception> failures;
+        try {
+            failures = sendAll(groupKey, List.of(new SmtpSubmission(message, message.getAllRecipients())));
+        } catch (MessagingException e) {
+            throw new MailPreparationException(e);
+        }
+
+        Exception failure = failures.get(0);
+        if (failure instanceof AuthenticationFailedException) {
+            throw new MailAuthenticationException(failure);
+        }
+        if (failure != null) {
+            throw new MailSendException("SMTP 전송 실패: " + failure.getMessage(), failure);
+        }
+    }
+
+    /**
+     * groupKey 의 릴레이로 여러 메일을 한 세션에서 전송하고 메일별 실패 반환 (성공은 null)
+     * <p>
+     * 릴레이 장애로 실패한 메일만 다음 후보 릴레이로 이어서 보내고, 후보를 모두 시도하면 마지막 실패를 반환한다.
+     */
+    public List<Exception> sendAll(String groupKey, List<SmtpSubmission> submissions) {
+        if (!isPooled()) {
+            return sendEach(submissions);
+        }
+
+        List<Exception> failures = new ArrayList<>(Collections.nCopies(submissions.size(), null));
+        List<Integer> remaining = new ArrayList<>(submissions.size());
+        for (int i = 0; i < submissions.size(); i++) {
+            try {
+                prepare(submissions.get(i).message());
+                remaining.add(i);
+            } catch (MessagingException e) {
+                failures.set(i, e);
+            }
+        }
+
+        for (SmtpRelay relay : relayRouter.route(groupKey)) {
+            if (remaining.isEmpty()) {
+                break;
+            }
+
+            List<MessagingException> results = poolOf(relay).sendAll(remaining.stream().map(submissions::get).toList());
+            List<Integer> failedOver = new ArrayList<>();
+            MessagingException relayFailure = null;
+            for (int i = 0; i < results.size(); i++) {
+                MessagingException result = results.get(i);
+                failures.set(remaining.get(i), result);
+                if (result != null && relayRouter.isRelayFailure(result)) {
+                    failedOver.add(remaining.get(i));
+                    relayFailure = result;
+                }
+            }
+
+            if (relayFailure != null) {
+                relayRouter.reportFailure(relay, relayFailure);
+            } else {
+                relayRouter.reportSuccess(relay);
+            }
+            remaining = failedOver;
+        }
+        return failures;
+    }
+
+    /**
+     * 유휴 시간 / 수명을 넘긴 연결 정리
+     */
+    @Scheduled(fixedDelayString = "${hermes.mail.smtp.pool.eviction-interval-millis:10000}")
+    public void evictExpiredConnections() {
+        pools.values().forEach(SmtpConnectionPool::evictExpired);
+    }
+
+    @PreDestroy
+    public void close() {
+        pools.values().forEach(SmtpConnectionPool::close);
+    }
+
+    /**
+     * JavaMailSenderImpl.doSend 와 같은 방식으로 발송 시각과 헤더 확정
+     */
+    private void prepare(MimeMessage message) throws MessagingException {
+        if (message.getSentDate() == null) {
+            message.setSentDate(new Date());
+        }
+        String messageId = message.getMessageID();
+        message.saveChanges();
+        if (messageId != null) {
+            message.setHeader("Message-ID", messageId);
+        }
+    }
+
+    /**
+     * 연결 풀 없이 JavaMailSender 로 한 건씩 전송 (봉투 수신자는 메일 헤더의 수신자)
+     */
+    private List<Exception> sendEach(List<SmtpSubmission> submissions) {
+        List<Exception> failures = new ArrayList<>(submissions.size());
+        for (SmtpSubmission submission : submissions) {
+            try {
+                mailSender.send(submission.message());
+                failures.add(null);
+            } catch (MailException e) {
+                failures.add(e);
+            }
+        }
+        return failures;
+    }
+
+    private SmtpConnectionPool poolOf(SmtpRelay relay) {
+        return pools.computeIfAbsent(relay, key -> new SmtpConnectionPool(key, smtpEngine, poolProperties, meterRegistry));
+    }
+}
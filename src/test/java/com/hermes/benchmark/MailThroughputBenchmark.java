@@ -0,0 +1,386 @@
+package com.hermes.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hermes.dto.BulkMailRecipient;
+import com.hermes.dto.BulkMailRequest;
+import com.hermes.dto.BulkTemplateMailRecipient;
+import com.hermes.dto.BulkTemplateMailRequest;
+import com.hermes.dto.MailRequest;
+import com.hermes.dto.MailSettingRequest;
+import com.hermes.dto.MailTemplateRequest;
+import com.hermes.entity.MailLog;
+import com.hermes.repository.MailLogRepository;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * 전송 경로 전체 처리량 측정 (./gradlew benchmark -Dbenchmark.messages=20000 -Dhermes.mail.smtp.engine=netty ...)
+ * <p>
+ * Postgres / Redis 는 Testcontainers(Docker 필요)로, SMTP 릴레이는 내장 {@link SmtpSink} 로 대신하고, API(/mail/send, /mail/send/bulk, /mail/send/bulk/template)를 동시에 호출해 요청부터 sink 수신까지를 측정한다. ingestBulk 는 대량 발송 메일 로그 저장만 행 단위 INSERT 와 JDBC 배치 INSERT 로 나눠 잰다. 처리량(msgs/s), 큐 등록부터 전달까지의 지연 백분위, 힙 / CPU / 스레드 / GC 사용량을 로그로 남긴다.
+ * <p>
+ * 수신자는 모두 같은 도메인이므로 수신 도메인 제한은 끈다. hermes.* / spring.* 시스템 속성으로 애플리케이션 설정을, benchmark.* 로 부하와 sink 동작을 바꿀 수 있다.
+ */
+@Slf4j
+@Tag("benchmark")
+@ActiveProfiles("local")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class MailThroughputBenchmark {
+
+    private static final String GROUP_KEY = "benchmark";
+    private static final String TEMPLATE_NAME = "benchmark-welcome";
+    private static final String RECIPIENT_DOMAIN = "@bench.hermes.test";
+    private static final String REDIS_PASSWORD = "benchmark";
+
+    private static final int MESSAGES = Integer.getInteger("benchmark.messages", 5_000);
+    private static final int BULK_SIZE = Integer.getInteger("benchmark.bulk-size", 500);
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 100);
+    private static final long DELIVERY_TIMEOUT_MILLIS = Long.getLong("benchmark.delivery-timeout-millis", 300_000);
+
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+    private static final GenericContainer<?> REDIS = new GenericContainer<>("redis:7-alpine")
+        .withCommand("redis-server", "--requirepass", REDIS_PASSWORD)
+        .withExposedPorts(6379);
+    private static final SmtpSink SMTP_SINK;
+
+    static {
+        POSTGRES.start();
+        REDIS.start();
+        try {
+            SMTP_SINK = new SmtpSink(SmtpSink.Settings.fromSystemProperties());
+        } catch (IOException e) {
+            throw new IllegalStateException("SMTP sink 를 시작하지 못했습니다", e);
+        }
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MailLogRepository mailLogRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private HttpClient httpClient;
+    private ExecutorService requestExecutor;
+
+    @DynamicPropertySource
+    static void benchmarkProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.hikari.jdbc-url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.hikari.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.hikari.password", POSTGRES::getPassword);
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+
+        registry.add("spring.data.redis.host", REDIS::getHost);
+        registry.add("spring.data.redis.port", () -> REDIS.getMappedPort(6379));
+        registry.add("spring.data.redis.username", () -> "default");
+        registry.add("spring.data.redis.password", () -> REDIS_PASSWORD);
+
+        registry.add("spring.mail.host", () -> "localhost");
+        registry.add("spring.mail.port", SMTP_SINK::port);
+        registry.add("spring.mail.username", () -> "benchmark");
+        registry.add("spring.mail.password", () -> "benchmark");
+        registry.add("spring.mail.properties.mail.smtp.starttls.enable", () -> "false");
+        registry.add("spring.mail.properties.mail.smtp.starttls.required", () -> "false");
+        registry.add("hermes.mail.smtp.netty.starttls-enable", () -> "false");
+        registry.add("hermes.mail.smtp.netty.starttls-required", () -> "false");
+        registry.add("hermes.mail.domain-throttle.enabled", () -> "false");
+    }
+
+    @BeforeAll
+    void setUp() {
+        httpClient = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).connectTimeout(Duration.ofSeconds(5)).build();
+        requestExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+        post("/mail/setting", new MailSettingRequest("from_address", "sender@bench.hermes.test", "벤치마크 발신자", GROUP_KEY));
+        post("/mail/setting", new MailSettingRequest("from_name", "Hermes Benchmark", "벤치마크 발신자 이름", GROUP_KEY));
+        // 451 주입 시 재시도가 측정 시간 안에 끝나도록
+        post("/mail/setting", new MailSettingRequest("retry_base_delay_millis", "200", "벤치마크 재시도 지연", GROUP_KEY));
+        post("/mail/template", new MailTemplateRequest(TEMPLATE_NAME, "{{name}} 님 환영합니다", "<p>{{name}} 님, Hermes 벤치마크 메일입니다.</p>", true, GROUP_KEY));
+    }
+
+    @AfterAll
+    void tearDown() throws IOException {
+        requestExecutor.close();
+        httpClient.close();
+        SMTP_SINK.close();
+    }
+
+    @Test
+    void sendSingle() throws Exception {
+        run("send", MESSAGES, 1, "/mail/send",
+            index -> new MailRequest(recipient("send", index), "벤치마크 " + index, "<p>단건 전송 " + index + "</p>", true, GROUP_KEY, null, null, null));
+    }
+
+    @Test
+    void sendBulk() throws Exception {
+        run("bulk", Math.max(1, MESSAGES / BULK_SIZE), BULK_SIZE, "/mail/send/bulk",
+            request -> new BulkMailRequest(IntStream.range(0, BULK_SIZE)
+                .mapToObj(offset -> new BulkMailRecipient(recipient("bulk", request * BULK_SIZE + offset), null, null))
+                .toList(), "벤치마크 대량 발송", "<p>대량 발송 본문</p>", true, GROUP_KEY, null, null));
+    }
+
+    @Test
+    void sendBulkTemplate() throws Exception {
+        run("template-bulk", Math.max(1, MESSAGES / BULK_SIZE), BULK_SIZE, "/mail/send/bulk/template",
+            request -> new BulkTemplateMailRequest(IntStream.range(0, BULK_SIZE)
+                .mapToObj(offset -> new BulkTemplateMailRecipient(recipient("template-bulk", request * BULK_SIZE + offset),
+                    Map.of("name", "수신자" + (request * BULK_SIZE + offset)), null))
+                .toList(), TEMPLATE_NAME, GROUP_KEY, null, null));
+    }
+
+    /**
+     * 대량 발송 메일 로그 저장 비교 - 메일마다 INSERT 하던 기존 경로(save + flush)와 시퀀스 ID 사전 할당 + JDBC 배치(saveAll + flush)
+     * <p>
+     * 요청 하나의 트랜잭션 안에서 bulk-size 건을 저장하는 시간만 잰다. 디스패처가 가져가지 않도록 SENT 상태로 저장한다.
+     */
+    @Test
+    void ingestBulk() {
+        int rounds = Math.max(1, MESSAGES / BULK_SIZE);
+        double rowByRow = measureIngestion("행 단위 INSERT", rounds, mailLogs -> mailLogs.forEach(mailLogRepository::saveAndFlush));
+        double batched = measureIngestion("JDBC 배치 INSERT", rounds, mailLogs -> {
+            mailLogRepository.saveAll(mailLogs);
+            mailLogRepository.flush();
+        });
+        log.info("[ingest] 요청당 저장 시간 {}ms -> {}ms ({}배)", format(rowByRow), format(batched), format(rowByRow / batched));
+    }
+
+    /**
+     * 저장 방식별 요청당 평균 저장 시간 (밀리초, 첫 회는 워밍업으로 제외)
+     */
+    private double measureIngestion(String name, int rounds, Consumer<List<MailLog>> writer) {
+        transactionTemplate.executeWithoutResult(status -> writer.accept(ingestMailLogs(-1)));
+
+        long totalNanos = 0;
+        for (int round = 0; round < rounds; round++) {
+            List<MailLog> mailLogs = ingestMailLogs(round);
+            long startedAt = System.nanoTime();
+            transactionTemplate.executeWithoutResult(status -> writer.accept(mailLogs));
+            totalNanos += System.nanoTime() - startedAt;
+        }
+
+        double millisPerRequest = totalNanos / 1_000_000.0 / rounds;
+        log.info("[ingest] {}: 요청 {}회 x {}건, 요청당 {}ms = {} rows/s", name, rounds, BULK_SIZE, format(millisPerRequest),
+            format(BULK_SIZE * 1000.0 / millisPerRequest));
+        return millisPerRequest;
+    }
+
+    private static List<MailLog> ingestMailLogs(int round) {
+        return IntStream.range(0, BULK_SIZE)
+            .mapToObj(offset -> MailLog.builder()
+                .groupKey(GROUP_KEY)
+                .recipient(recipient("ingest", round * BULK_SIZE + offset))
+                .subject("벤치마크 저장")
+                .content("<p>대량 발송 본문</p>")
+                .priority(MailLog.MailPriority.LOW)
+                .status(MailLog.MailStatus.SENT)
+                .build())
+            .toList();
+    }
+
+    /**
+     * 요청 requests 건을 CONCURRENCY 개씩 동시에 보내고 모든 수신자가 sink 에 도착할 때까지 측정
+     */
+    private void run(String scenario, int requests, int recipientsPerRequest, String path, IntFunction<Object> body) throws Exception {
+        int expected = requests * recipientsPerRequest;
+        Map<String, Long> submittedAt = new ConcurrentHashMap<>(expected);
+        AtomicInteger rejected = new AtomicInteger();
+        Semaphore concurrency = new Semaphore(CONCURRENCY);
+
+        try (ResourceSampler resources = new ResourceSampler()) {
+            long startedAt = System.nanoTime();
+            for (int request = 0; request < requests; request++) {
+                int index = request;
+                concurrency.acquire();
+                requestExecutor.execute(() -> {
+                    try {
+                        long now = System.nanoTime();
+                        for (int offset = 0; offset < recipientsPerRequest; offset++) {
+                            submittedAt.put(recipient(scenario, index * recipientsPerRequest + offset), now);
+                        }
+                        if (post(path, body.apply(index)) != 200) {
+                            rejected.incrementAndGet();
+                        }
+                    } finally {
+                        concurrency.release();
+                    }
+                });
+            }
+            concurrency.acquire(CONCURRENCY);
+            concurrency.release(CONCURRENCY);
+            long acceptedAt = System.nanoTime();
+
+            long deadline = System.currentTimeMillis() + DELIVERY_TIMEOUT_MILLIS;
+            String prefix = scenario + "-";
+            while (SMTP_SINK.deliveredCount(prefix) < expected && System.currentTimeMillis() < deadline) {
+                TimeUnit.MILLISECONDS.sleep(100);
+            }
+
+            List<Long> latencies = new ArrayList<>(expected);
+            long lastDeliveredAt = startedAt;
+            for (Map.Entry<String, Long> entry : submittedAt.entrySet()) {
+                Long deliveredAt = SMTP_SINK.deliveredAt(entry.getKey());
+                if (deliveredAt != null) {
+                    latencies.add(deliveredAt - entry.getValue());
+                    lastDeliveredAt = Math.max(lastDeliveredAt, deliveredAt);
+                }
+            }
+            Collections.sort(latencies);
+
+            double acceptSeconds = (acceptedAt - startedAt) / 1_000_000_000.0;
+            double deliverSeconds = (lastDeliveredAt - startedAt) / 1_000_000_000.0;
+            log.info("[{}] 요청 {}건 (수신자 {}명, 거부 {}건) / 접수 {}초 = {} msgs/s", scenario, requests, expected, rejected.get(),
+                format(acceptSeconds), format(expected / acceptSeconds));
+            log.info("[{}] 전달 {}건 / {}초 = {} msgs/s, 지연 p50 = {}ms, p95 = {}ms, p99 = {}ms, max = {}ms", scenario, latencies.size(),
+                format(deliverSeconds), format(latencies.size() / deliverSeconds), percentile(latencies, 0.50), percentile(latencies, 0.95),
+                percentile(latencies, 0.99), percentile(latencies, 1.0));
+            log.info("[{}] SMTP 연결 {}개 (최대 동시 {}개), DATA {}회, 451 주입 {}건, {}", scenario, SMTP_SINK.connections(),
+                SMTP_SINK.maxOpenConnections(), SMTP_SINK.transactions(), SMTP_SINK.deferred(), resources.summary());
+
+            assertThat(rejected.get()).isZero();
+            assertThat(latencies).hasSize(expected);
+        }
+    }
+
+    private int post(String path, Object body) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                log.warn("요청 실패: {} {}, {}", path, response.statusCode(), response.body());
+            }
+            return response.statusCode();
+        } catch (IOException e) {
+            log.warn("요청 실패: {}, {}", path, e.getMessage());
+            return -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+    }
+
+    private static String recipient(String scenario, int index) {
+        return scenario + "-" + index + RECIPIENT_DOMAIN;
+    }
+
+    private static long percentile(List<Long> sortedNanos, double ratio) {
+        if (sortedNanos.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.ceil(ratio * sortedNanos.size()) - 1;
+        return TimeUnit.NANOSECONDS.toMillis(sortedNanos.get(Math.max(0, Math.min(index, sortedNanos.size() - 1))));
+    }
+
+    private static String format(double value) {
+        return String.format("%.2f", value);
+    }
+
+    /**
+     * 측정 중 자원 사용량 표본 수집 (200ms 주기) - 최대 힙, 평균 / 최대 프로세스 CPU, 최대 스레드 수, GC 횟수 / 시간
+     */
+    private static final class ResourceSampler implements AutoCloseable {
+
+        private final com.sun.management.OperatingSystemMXBean os =
+            (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+        private final long gcCountBefore = gcCount();
+        private final long gcMillisBefore = gcMillis();
+        private final Thread sampler;
+
+        private volatile boolean running = true;
+        private long maxHeapBytes;
+        private double maxCpu;
+        private double cpuSum;
+        private int samples;
+        private int maxThreads;
+
+        private ResourceSampler() {
+            sampler = Thread.ofPlatform().daemon(true).name("benchmark-resource-sampler").start(() -> {
+                while (running) {
+                    sample();
+                    try {
+                        TimeUnit.MILLISECONDS.sleep(200);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            });
+        }
+
+        private synchronized void sample() {
+            Runtime runtime = Runtime.getRuntime();
+            maxHeapBytes = Math.max(maxHeapBytes, runtime.totalMemory() - runtime.freeMemory());
+            double cpu = os.getProcessCpuLoad();
+            if (cpu >= 0) {
+                cpuSum += cpu;
+                maxCpu = Math.max(maxCpu, cpu);
+                samples++;
+            }
+            maxThreads = Math.max(maxThreads, ManagementFactory.getThreadMXBean().getThreadCount());
+        }
+
+        synchronized String summary() {
+            return String.format("힙 최대 %dMB, CPU 평균 %.0f%% / 최대 %.0f%% (%d코어), 스레드 최대 %d개, GC %d회 / %dms",
+                maxHeapBytes / (1024 * 1024), samples > 0 ? cpuSum / samples * 100 : 0, maxCpu * 100, os.getAvailableProcessors(), maxThreads,
+                gcCount() - gcCountBefore, gcMillis() - gcMillisBefore);
+        }
+
+        @Override
+        public void close() throws InterruptedException {
+            running = false;
+            sampler.interrupt();
+            sampler.join();
+        }
+
+        private static long gcCount() {
+            return ManagementFactory.getGarbageCollectorMXBeans().stream().mapToLong(GarbageCollectorMXBean::getCollectionCount).sum();
+        }
+
+        private static long gcMillis() {
+            return ManagementFactory.getGarbageCollectorMXBeans().stream().mapToLong(GarbageCollectorMXBean::getCollectionTime).sum();
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.hermes.benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 벤치마크용 내장 SMTP 서버 (메일을 저장하지 않고 수신 시각만 기록)
+ * <p>
+ * 실제 릴레이 없이 전송 경로 전체를 측정할 수 있도록 EHLO(PIPELINING, SIZE, AUTH PLAIN / LOGIN), MAIL, RCPT, DATA, RSET, NOOP, QUIT 을 처리한다. 연결마다 가상 스레드 하나로 처리하며, 명령 / 본문 응답 지연과 4xx 응답 비율을 설정해 느린 릴레이나 수신 측 지연(421 / 451)을 흉내 낼 수 있다. AUTH 는 계정과 관계없이 성공한다.
+ */
+@Slf4j
+class SmtpSink implements AutoCloseable {
+
+    /**
+     * @param commandLatencyMillis MAIL / RCPT / DATA 응답마다 더하는 지연
+     * @param dataLatencyMillis    본문 수신 후 250 응답까지의 지연
+     * @param rcptDeferRatio       RCPT TO 에 451 로 응답할 비율 (0 ~ 1)
+     * @param dataDeferRatio       본문 수신 후 451 로 응답할 비율 (0 ~ 1)
+     */
+    record Settings(long commandLatencyMillis, long dataLatencyMillis, double rcptDeferRatio, double dataDeferRatio) {
+
+        static Settings fromSystemProperties() {
+            return new Settings(Long.getLong("benchmark.smtp.command-latency-millis", 0), Long.getLong("benchmark.smtp.data-latency-millis", 5),
+                Double.parseDouble(System.getProperty("benchmark.smtp.rcpt-defer-ratio", "0")),
+                Double.parseDouble(System.getProperty("benchmark.smtp.data-defer-ratio", "0")));
+        }
+    }
+
+    private final Settings settings;
+    private final ServerSocket serverSocket;
+
+    // 수신자 -> 처음 전달된 시각 (System.nanoTime)
+    private final Map<String, Long> deliveredAt = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private final AtomicInteger maxOpenConnections = new AtomicInteger();
+    private final AtomicLong transactions = new AtomicLong();
+    private final AtomicLong deferred = new AtomicLong();
+
+    private volatile boolean running = true;
+
+    SmtpSink(Settings settings) throws IOException {
+        this.settings = settings;
+        this.serverSocket = new ServerSocket(0);
+        Thread.ofVirtual().name("smtp-sink-accept").start(this::acceptLoop);
+        log.info("SMTP sink 시작: port = {}, {}", serverSocket.getLocalPort(), settings);
+    }
+
+    int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    Long deliveredAt(String recipient) {
+        return deliveredAt.get(recipient.toLowerCase(Locale.ROOT));
+    }
+
+    long deliveredCount(String recipientPrefix) {
+        return deliveredAt.keySet().stream().filter(recipient -> recipient.startsWith(recipientPrefix)).count();
+    }
+
+    int connections() {
+        return connections.get();
+    }
+
+    int maxOpenConnections() {
+        return maxOpenConnections.get();
+    }
+
+    long transactions() {
+        return transactions.get();
+    }
+
+    long deferred() {
+        return deferred.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        serverSocket.close();
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.incrementAndGet();
+                maxOpenConnections.accumulateAndGet(openConnections.incrementAndGet(), Math::max);
+                Thread.ofVirtual().start(() -> handle(socket));
+            } catch (IOException e) {
+                if (running) {
+                    log.warn("SMTP sink 연결 수락 실패: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void handle(Socket socket) {
+        try (socket) {
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            OutputStream out = socket.getOutputStream();
+            List<String> recipients = new ArrayList<>();
+
+            reply(out, "220 hermes-sink ESMTP");
+            String line;
+            while ((line = in.readLine()) != null) {
+                String verb = line.length() >= 4 ? line.substring(0, 4).toUpperCase(Locale.ROOT) : line.toUpperCase(Locale.ROOT);
+                switch (verb) {
+                    case "EHLO" -> reply(out, "250-hermes-sink\r\n250-PIPELINING\r\n250-8BITMIME\r\n250-SIZE 52428800\r\n250 AUTH PLAIN LOGIN");
+                    case "HELO" -> reply(out, "250 hermes-sink");
+                    case "AUTH" -> authenticate(line, in, out);
+                    case "MAIL" -> {
+                        recipients.clear();
+                        delayedReply(out, "250 2.1.0 Ok");
+                    }
+                    case "RCPT" -> {
+                        if (chance(settings.rcptDeferRatio())) {
+                            deferred.incrementAndGet();
+                            delayedReply(out, "451 4.7.1 Try again later");
+                        } else {
+                            recipients.add(address(line));
+                            delayedReply(out, "250 2.1.5 Ok");
+                        }
+                    }
+                    case "DATA" -> receiveData(in, out, recipients);
+                    case "RSET" -> {
+                        recipients.clear();
+                        reply(out, "250 2.0.0 Ok");
+                    }
+                    case "NOOP" -> reply(out, "250 2.0.0 Ok");
+                    case "QUIT" -> {
+                        reply(out, "221 2.0.0 Bye");
+                        return;
+                    }
+                    default -> reply(out, "502 5.5.2 Command not recognized");
+                }
+            }
+        } catch (IOException e) {
+            log.debug("SMTP sink 연결 종료: {}", e.getMessage());
+        } finally {
+            openConnections.decrementAndGet();
+        }
+    }
+
+    private void authenticate(String line, BufferedReader in, OutputStream out) throws IOException {
+        String[] tokens = line.split(" ");
+        String mechanism = tokens.length > 1 ? tokens[1].toUpperCase(Locale.ROOT) : "";
+        if ("LOGIN".equals(mechanism)) {
+            reply(out, "334 VXNlcm5hbWU6");
+            in.readLine();
+            reply(out, "334 UGFzc3dvcmQ6");
+            in.readLine();
+        } else if (tokens.length < 3) {
+            reply(out, "334 ");
+            in.readLine();
+        }
+        reply(out, "235 2.7.0 Authentication successful");
+    }
+
+    private void receiveData(BufferedReader in, OutputStream out, List<String> recipients) throws IOException {
+        if (recipients.isEmpty()) {
+            delayedReply(out, "503 5.5.1 No valid recipients");
+            return;
+        }
+
+        delayedReply(out, "354 End data with <CR><LF>.<CR><LF>");
+        String line;
+        while ((line = in.readLine()) != null && !".".equals(line)) {
+            // 본문은 버림
+        }
+
+        sleep(settings.dataLatencyMillis());
+        transactions.incrementAndGet();
+        if (chance(settings.dataDeferRatio())) {
+            deferred.incrementAndGet();
+            reply(out, "451 4.3.0 Temporary failure");
+        } else {
+            long now = System.nanoTime();
+            recipients.forEach(recipient -> deliveredAt.putIfAbsent(recipient, now));
+            reply(out, "250 2.0.0 Ok: queued");
+        }
+        recipients.clear();
+    }
+
+    private void delayedReply(OutputStream out, String reply) throws IOException {
+        sleep(settings.commandLatencyMillis());
+        reply(out, reply);
+    }
+
+    private void reply(OutputStream out, String reply) throws IOException {
+        out.write((reply + "\r\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private static String address(String line) {
+        int start = line.indexOf('<');
+        int end = line.indexOf('>', start + 1);
+        String address = start >= 0 && end > start ? line.substring(start + 1, end) : line.substring(line.indexOf(':') + 1).trim();
+        return address.toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean chance(double ratio) {
+        return ratio > 0 && ThreadLocalRandom.current().nextDouble() < ratio;
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
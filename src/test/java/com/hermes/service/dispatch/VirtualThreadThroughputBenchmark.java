@@ -0,0 +1,115 @@
+package com.hermes.service.dispatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.hermes.config.properties.MailDispatchProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+/**
+ * 플랫폼 스레드 / 가상 스레드 전송 처리량 비교 (./gradlew benchmark)
+ * <p>
+ * 디스패처와 같은 방식(in-flight 세마포어 + 전송 실행기)으로 SMTP 응답 지연을 모사한 전송을 1,000건 동시에 유지하며 처리한다. JavaMail 처럼 synchronized 안에서 대기하는 경우 가상 스레드가 캐리어를 점유해 처리량이 캐리어 수로 제한되는 것과, {@link VirtualThreadPinningGuard} 로 전송을 플랫폼 스레드에 위임했을 때를 함께 측정한다.
+ */
+@Slf4j
+@Tag("benchmark")
+class VirtualThreadThroughputBenchmark {
+
+    private static final int SENDS = 10_000;
+    private static final int MAX_IN_FLIGHT = 1_000;
+    private static final long SMTP_LATENCY_MILLIS = 20;
+
+    @Test
+    void platformThreadPool() throws Exception {
+        try (ExecutorService executor = Executors.newFixedThreadPool(MAX_IN_FLIGHT)) {
+            run("platform-threads", executor, this::unpinnedSend);
+        }
+    }
+
+    @Test
+    void virtualThreads() throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            run("virtual-threads", executor, this::unpinnedSend);
+        }
+    }
+
+    @Test
+    void virtualThreadsPinnedBySynchronizedSend() throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            run("virtual-threads-pinned", executor, this::pinnedSend);
+        }
+    }
+
+    @Test
+    void virtualThreadsWithPlatformSmtpThreads() throws Exception {
+        VirtualThreadPinningGuard guard = createGuard(200);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            run("virtual-threads-smtp-platform-200", executor, () -> guard.send(this::pinnedSend));
+        } finally {
+            guard.stop();
+        }
+    }
+
+    private void run(String name, ExecutorService executor, Runnable send) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(MAX_IN_FLIGHT);
+        CountDownLatch done = new CountDownLatch(SENDS);
+
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < SENDS; i++) {
+            inFlight.acquire();
+            executor.execute(() -> {
+                try {
+                    send.run();
+                } finally {
+                    inFlight.release();
+                    done.countDown();
+                }
+            });
+        }
+
+        assertThat(done.await(5, TimeUnit.MINUTES)).isTrue();
+        double seconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+        log.info("[{}] {}건 / {}초 = {} sends/s (in-flight {}, 지연 {}ms, CPU {})", name, SENDS, String.format("%.2f", seconds),
+            String.format("%.0f", SENDS / seconds), MAX_IN_FLIGHT, SMTP_LATENCY_MILLIS, Runtime.getRuntime().availableProcessors());
+    }
+
+    private void unpinnedSend() {
+        sleep(SMTP_LATENCY_MILLIS);
+    }
+
+    /**
+     * JavaMail SMTPTransport 처럼 모니터를 잡은 채 응답을 기다림
+     */
+    private void pinnedSend() {
+        Object transport = new Object();
+        synchronized (transport) {
+            sleep(SMTP_LATENCY_MILLIS);
+        }
+    }
+
+    private VirtualThreadPinningGuard createGuard(int smtpPlatformThreads) {
+        MailDispatchProperties properties = new MailDispatchProperties();
+        properties.setSmtpPlatformThreads(smtpPlatformThreads);
+        MockEnvironment environment = new MockEnvironment().withProperty("spring.threads.virtual.enabled", "true");
+
+        VirtualThreadPinningGuard guard = new VirtualThreadPinningGuard(properties, environment, new SimpleMeterRegistry());
+        guard.start();
+        return guard;
+    }
+
+    private void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.hermes.service.queue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 그룹 큐 가중 DRR 배분 - 가중치 비율, 예산 제한과 회전, deficit 이월과 상한, 활성 그룹 갱신
+ */
+class FairQueueSchedulerTest {
+
+    private static final int QUANTUM = 10;
+
+    @Test
+    void allocatesQuantumTimesWeightPerGroup() {
+        Map<String, Integer> weights = Map.of("bulk", 3, "otp", 1);
+        FairQueueScheduler scheduler = new FairQueueScheduler(QUANTUM, weights::get);
+        scheduler.refresh(List.of("bulk", "otp"));
+
+        assertThat(scheduler.plan(100)).containsExactly(entry("bulk", 30), entry("otp", 10));
+    }
+
+    @Test
+    void treatsNonPositiveWeightAsOne() {
+        FairQueueScheduler scheduler = new FairQueueScheduler(QUANTUM, group -> "zero".equals(group) ? 0 : -5);
+        scheduler.refresh(List.of("zero", "negative"));
+
+        assertThat(scheduler.plan(100)).containsExactly(entry("zero", 10), entry("negative", 10));
+    }
+
+    @Test
+    void stopsAtBudgetAndResumesFromNextGroup() {
+        FairQueueScheduler scheduler = new FairQueueScheduler(QUANTUM, group -> 1);
+        scheduler.refresh(List.of("a", "b", "c"));
+
+        assertThat(scheduler.plan(15)).containsExactly(entry("a", 10), entry("b", 5));
+        scheduler.complete("a", 10, false);
+        scheduler.complete("b", 5, false);
+
+        // 다음 회차는 이번에 방문하지 못한 c 부터
+        assertThat(scheduler.plan(15)).containsExactly(entry("c", 10), entry("a", 5));
+    }
+
+    @Test
+    void carriesUnusedDeficitUpToTwoRounds() {
+        FairQueueScheduler scheduler = new FairQueueScheduler(QUANTUM, group -> 1);
+        scheduler.refresh(List.of("a"));
+
+        assertThat(scheduler.plan(100)).containsExactly(entry("a", 10));
+        // 2건만 가져와 남은 8 은 다음 라운드로 이월
+        scheduler.complete("a", 2, false);
+        assertThat(scheduler.plan(100)).containsExactly(entry("a", 18));
+
+        // 계속 쓰지 못해도 두 라운드 분량 이상은 몰아 주지 않음
+        scheduler.complete("a", 0, false);
+        assertThat(scheduler.plan(100)).containsExactly(entry("a", 20));
+    }
+
+    @Test
+    void keepsWeightRatioWhenBudgetCutsRoundShort() {
+        FairQueueScheduler scheduler = new FairQueueScheduler(QUANTUM, group -> 1);
+        scheduler.refresh(List.of("a", "b"));
+
+        // b 는 예산이 모자라 몫의 절반만 받음
+        assertThat(scheduler.plan(15)).containsExactly(entry("a", 10), entry("b", 5));
+        scheduler.complete("a", 10, false);
+        scheduler.complete("b", 5, false);
+
+        // 남은 5 를 이월받아 두 라운드 합계가 a 와 같아짐
+        assertThat(scheduler.plan(100)).containsExactly(entry("a", 10), entry("b", 15));
+    }
+
+    @Test
+    void removesDrainedGroupFromRing() {
+        FairQueueScheduler scheduler = new FairQueueScheduler(QUANTUM, group -> 1);
+        scheduler.refresh(List.of("a", "b"));
+
+        scheduler.plan(100);
+        scheduler.complete("a", 3, true);
+        scheduler.complete("b", 10, false);
+
+        assertThat(scheduler.plan(100)).containsOnlyKeys("b");
+
+        scheduler.complete("b", 4, true);
+        assertThat(scheduler.isEmpty()).isTrue();
+        assertThat(scheduler.plan(100)).isEmpty();
+    }
+
+    @Test
+    void refreshAppendsNewGroupsAndDropsInactiveOnes() {
+        FairQueueScheduler scheduler = new FairQueueScheduler(QUANTUM, group -> 1);
+        scheduler.refresh(List.of("a", "b"));
+        scheduler.refresh(List.of("b", "c"));
+
+        assertThat(scheduler.plan(100)).containsExactly(entry("b", 10), entry("c", 10));
+    }
+}
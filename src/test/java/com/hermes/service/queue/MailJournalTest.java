@@ -0,0 +1,164 @@
+package com.hermes.service.queue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * 메일 큐 저널 - 재기동 복구, 중복 추가 방지, 세그먼트 교체와 삭제, 손상 레코드 처리
+ */
+class MailJournalTest {
+
+    private static final byte HIGH = 1;
+    private static final byte LOW = 0;
+
+    // 세그먼트당 레코드 4개
+    private static final int SEGMENT_BYTES = MailJournal.RECORD_SIZE * 4;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recoversUnacknowledgedMailsInEnqueueOrder() throws IOException {
+        try (MailJournal journal = open(new LinkedHashMap<>())) {
+            journal.appendEnqueue(3L, LOW);
+            journal.appendEnqueue(1L, HIGH);
+            journal.appendEnqueue(2L, LOW);
+            journal.appendAck(1L);
+        }
+
+        Map<Long, Byte> recovered = new LinkedHashMap<>();
+        try (MailJournal journal = open(recovered)) {
+            assertThat(recovered).containsExactly(entry(3L, LOW), entry(2L, LOW));
+            assertThat(journal.getOutstandingCount()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void rejectsDuplicateEnqueueUntilAcknowledged() throws IOException {
+        try (MailJournal journal = open(new LinkedHashMap<>())) {
+            assertThat(journal.appendEnqueue(1L, HIGH)).isTrue();
+            assertThat(journal.appendEnqueue(1L, LOW)).isFalse();
+
+            journal.appendAck(1L);
+            assertThat(journal.appendEnqueue(1L, LOW)).isTrue();
+        }
+
+        Map<Long, Byte> recovered = new LinkedHashMap<>();
+        try (MailJournal journal = open(recovered)) {
+            assertThat(recovered).containsExactly(entry(1L, LOW));
+            // 복구된 미처리 메일도 다시 기록하지 않음
+            assertThat(journal.appendEnqueue(1L, HIGH)).isFalse();
+        }
+    }
+
+    @Test
+    void ignoresAckOfUnknownMail() throws IOException {
+        try (MailJournal journal = open(new LinkedHashMap<>())) {
+            journal.appendAck(99L);
+            journal.appendEnqueue(1L, HIGH);
+        }
+
+        Map<Long, Byte> recovered = new LinkedHashMap<>();
+        try (MailJournal ignored = open(recovered)) {
+            assertThat(recovered).containsExactly(entry(1L, HIGH));
+        }
+    }
+
+    @Test
+    void rollsOverFullSegmentAndDeletesItOnceAllAcknowledged() throws IOException {
+        try (MailJournal journal = open(new LinkedHashMap<>())) {
+            for (long id = 1; id <= 4; id++) {
+                journal.appendEnqueue(id, LOW);
+            }
+            journal.appendEnqueue(5L, HIGH);
+            assertThat(segmentFiles()).hasSize(2);
+
+            journal.appendAck(1L);
+            journal.appendAck(2L);
+            journal.appendAck(3L);
+            assertThat(segmentFiles()).hasSize(2);
+
+            // 첫 세그먼트의 마지막 메일 처리 완료 - ACK 는 세 번째 세그먼트에 기록되고 첫 세그먼트는 삭제됨
+            journal.appendAck(4L);
+            assertThat(segmentFiles()).containsExactly(segmentName(1), segmentName(2));
+        }
+
+        Map<Long, Byte> recovered = new LinkedHashMap<>();
+        try (MailJournal journal = open(recovered)) {
+            assertThat(recovered).containsExactly(entry(5L, HIGH));
+            assertThat(journal.getOutstandingCount()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void keepsOldestSegmentWhileItHasOutstandingMail() throws IOException {
+        try (MailJournal journal = open(new LinkedHashMap<>())) {
+            for (long id = 1; id <= 8; id++) {
+                journal.appendEnqueue(id, LOW);
+            }
+            // 두 번째 세그먼트가 먼저 모두 처리되어도 순서대로만 삭제
+            for (long id = 5; id <= 8; id++) {
+                journal.appendAck(id);
+            }
+            assertThat(segmentFiles()).startsWith(segmentName(0), segmentName(1));
+        }
+
+        Map<Long, Byte> recovered = new LinkedHashMap<>();
+        try (MailJournal ignored = open(recovered)) {
+            assertThat(recovered).containsOnlyKeys(1L, 2L, 3L, 4L);
+        }
+    }
+
+    @Test
+    void stopsReplayAtCorruptRecordAndOverwritesIt() throws IOException {
+        try (MailJournal journal = open(new LinkedHashMap<>())) {
+            journal.appendEnqueue(1L, HIGH);
+            journal.appendEnqueue(2L, HIGH);
+            journal.appendEnqueue(3L, HIGH);
+        }
+
+        // 두 번째 레코드의 ID 를 바꿔 체크섬이 맞지 않게 함
+        try (FileChannel channel = FileChannel.open(directory.resolve(segmentName(0)), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, 42L), MailJournal.RECORD_SIZE + 8);
+        }
+
+        Map<Long, Byte> recovered = new LinkedHashMap<>();
+        try (MailJournal journal = open(recovered)) {
+            assertThat(recovered).containsExactly(entry(1L, HIGH));
+            journal.appendEnqueue(4L, LOW);
+        }
+
+        // 손상 이후 영역은 비워졌으므로 3 은 다시 살아나지 않음
+        recovered.clear();
+        try (MailJournal ignored = open(recovered)) {
+            assertThat(recovered).containsExactly(entry(1L, HIGH), entry(4L, LOW));
+        }
+    }
+
+    private MailJournal open(Map<Long, Byte> recovered) throws IOException {
+        return MailJournal.open(directory, SEGMENT_BYTES, recovered);
+    }
+
+    private List<String> segmentFiles() throws IOException {
+        try (Stream<Path> stream = Files.list(directory)) {
+            return stream.map(path -> path.getFileName().toString()).filter(name -> name.endsWith(".journal")).sorted().toList();
+        }
+    }
+
+    private static String segmentName(long index) {
+        return String.format("%020d.journal", index);
+    }
+}
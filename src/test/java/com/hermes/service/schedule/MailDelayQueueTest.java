@@ -0,0 +1,232 @@
+package com.hermes.service.schedule;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.hermes.config.properties.MailScheduleProperties;
+import com.hermes.entity.MailLog;
+import com.hermes.repository.MailLogRepository;
+import com.hermes.service.queue.MailQueueBackend;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.mockito.InOrder;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.GenericContainer;
+
+/**
+ * 예약 발송 타이밍 휠 - 시간 칸 -> 초 칸 분할, 커서 이동, 토큰 버킷 속도 제한, claimed 회수 (Lua 스크립트를 실제 Redis 에서 실행)
+ * <p>
+ * Redis 는 Testcontainers(Docker 필요)로 띄우며, Docker 가 없으면 건너뛴다. 시각은 스크립트가 현재 시각을 쓰므로, 커서 / 분할 위치를 미리 심어 두고 그에 상대적인 예약 시각으로 검증한다.
+ */
+@EnabledIf("isDockerAvailable")
+class MailDelayQueueTest {
+
+    private static final String GROUP_KEY = "campaign";
+    private static final String HOUR_SLOT_PREFIX = "mail:{delay}:hour:";
+    private static final String SECOND_SLOT_PREFIX = "mail:{delay}:second:";
+    private static final String CASCADED_KEY = "mail:{delay}:cascaded";
+    private static final String CURSOR_KEY = "mail:{delay}:cursor";
+    private static final String TOKENS_KEY = "mail:{delay}:tokens";
+    private static final String CLAIMED_KEY = "mail:{delay}:claimed";
+
+    private static GenericContainer<?> redis;
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate stringRedisTemplate;
+
+    private final MailLogRepository mailLogRepository = mock(MailLogRepository.class);
+    private final MailQueueBackend mailQueueBackend = mock(MailQueueBackend.class);
+    private final MailScheduleProperties scheduleProperties = new MailScheduleProperties();
+    private final Map<Long, MailLog.MailStatus> statuses = new HashMap<>();
+
+    private MailDelayQueue delayQueue;
+
+    static boolean isDockerAvailable() {
+        return DockerClientFactory.instance().isDockerAvailable();
+    }
+
+    @BeforeAll
+    static void startRedis() {
+        redis = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+        redis.start();
+
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(redis.getHost(), redis.getMappedPort(6379)));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        stringRedisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void stopRedis() {
+        connectionFactory.destroy();
+        redis.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        stringRedisTemplate.delete(stringRedisTemplate.keys("mail:*"));
+
+        when(mailLogRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            List<MailLog> mailLogs = new ArrayList<>();
+            for (Long id : invocation.<Iterable<Long>>getArgument(0)) {
+                mailLogs.add(MailLog.builder()
+                    .id(id)
+                    .groupKey(GROUP_KEY)
+                    .priority(MailLog.MailPriority.LOW)
+                    .status(statuses.getOrDefault(id, MailLog.MailStatus.PENDING))
+                    .build());
+            }
+            return mailLogs;
+        });
+
+        delayQueue = new MailDelayQueue(stringRedisTemplate, mailLogRepository, mailQueueBackend, scheduleProperties);
+    }
+
+    @Test
+    void cascadesDueHourSlotIntoSecondSlotsAndReleases() {
+        long now = System.currentTimeMillis();
+        seed(hourOf(now) - 2, secondOf(now) - 100);
+
+        delayQueue.schedule(1L, GROUP_KEY, MailLog.MailPriority.LOW, now - 5_000);
+        // 아직 나누지 않은 시간이므로 시간 칸에 예약 시각을 점수로 보관
+        assertThat(stringRedisTemplate.opsForZSet().score(HOUR_SLOT_PREFIX + hourOf(now - 5_000), "1")).isEqualTo((double) (now - 5_000));
+        assertThat(delayQueue.getScheduledCount()).isEqualTo(1);
+
+        delayQueue.tick();
+
+        verify(mailQueueBackend).enqueue(1L, GROUP_KEY, MailLog.MailPriority.LOW);
+        assertThat(stringRedisTemplate.hasKey(HOUR_SLOT_PREFIX + hourOf(now - 5_000))).isFalse();
+        assertThat(Long.parseLong(stringRedisTemplate.opsForValue().get(CASCADED_KEY))).isGreaterThanOrEqualTo(hourOf(now));
+        assertThat(stringRedisTemplate.opsForZSet().size(CLAIMED_KEY)).isZero();
+        assertThat(delayQueue.getScheduledCount()).isZero();
+    }
+
+    @Test
+    void keepsFutureHourSlotUntilWithinCascadeLead() {
+        long now = System.currentTimeMillis();
+        long sendAt = now + 2 * 3_600_000L;
+
+        delayQueue.schedule(1L, GROUP_KEY, MailLog.MailPriority.LOW, sendAt);
+        delayQueue.tick();
+
+        verify(mailQueueBackend, never()).enqueue(any(), any(), any());
+        assertThat(stringRedisTemplate.opsForZSet().score(HOUR_SLOT_PREFIX + hourOf(sendAt), "1")).isEqualTo((double) sendAt);
+        assertThat(delayQueue.getScheduledCount()).isEqualTo(1);
+    }
+
+    @Test
+    void schedulesPastSecondIntoSlotAfterCursor() {
+        long now = System.currentTimeMillis();
+        long cursor = secondOf(now) - 10;
+        seed(hourOf(now), cursor);
+
+        // 커서가 이미 지난 초로 예약되면 다음 칸에 넣어 빠뜨리지 않음
+        delayQueue.schedule(1L, GROUP_KEY, MailLog.MailPriority.LOW, now - 60_000);
+        assertThat(stringRedisTemplate.opsForList().range(SECOND_SLOT_PREFIX + (cursor + 1), 0, -1)).containsExactly("1");
+
+        delayQueue.tick();
+
+        verify(mailQueueBackend).enqueue(1L, GROUP_KEY, MailLog.MailPriority.LOW);
+        // 지나간 빈 칸을 모두 건너 현재 초 직전까지 이동
+        assertThat(Long.parseLong(stringRedisTemplate.opsForValue().get(CURSOR_KEY))).isGreaterThanOrEqualTo(secondOf(now) - 1);
+    }
+
+    @Test
+    void limitsReleaseByTokenBucketAndResumesFromSameSlot() {
+        scheduleProperties.setReleaseRatePerSecond(1);
+        scheduleProperties.setReleaseBurst(3);
+
+        long now = System.currentTimeMillis();
+        long slot = secondOf(now) - 5;
+        seed(hourOf(now), secondOf(now) - 10);
+        for (long id = 1; id <= 5; id++) {
+            delayQueue.schedule(id, GROUP_KEY, MailLog.MailPriority.LOW, now - 5_000);
+        }
+
+        delayQueue.tick();
+
+        // 버킷 크기만큼만 꺼내고, 칸이 비지 않았으므로 커서는 그 칸 앞에 머묾
+        verify(mailQueueBackend, times(3)).enqueue(anyLong(), anyString(), any());
+        assertThat(stringRedisTemplate.opsForList().range(SECOND_SLOT_PREFIX + slot, 0, -1)).containsExactly("4", "5");
+        assertThat(stringRedisTemplate.opsForValue().get(CURSOR_KEY)).isEqualTo(String.valueOf(slot - 1));
+        assertThat(delayQueue.getScheduledCount()).isEqualTo(2);
+
+        // 토큰이 다시 차기 전에는 꺼내지 않음
+        delayQueue.tick();
+        verify(mailQueueBackend, times(3)).enqueue(anyLong(), anyString(), any());
+
+        // 10초가 지난 것처럼 마지막 충전 시각을 되돌리면 남은 메일을 이어서 꺼냄
+        stringRedisTemplate.opsForHash().put(TOKENS_KEY, "at", String.valueOf(System.currentTimeMillis() - 10_000));
+        delayQueue.tick();
+
+        InOrder order = inOrder(mailQueueBackend);
+        for (long id = 1; id <= 5; id++) {
+            order.verify(mailQueueBackend).enqueue(id, GROUP_KEY, MailLog.MailPriority.LOW);
+        }
+        assertThat(stringRedisTemplate.hasKey(SECOND_SLOT_PREFIX + slot)).isFalse();
+        assertThat(Long.parseLong(stringRedisTemplate.opsForValue().get(CURSOR_KEY))).isGreaterThanOrEqualTo(slot);
+        assertThat(delayQueue.getScheduledCount()).isZero();
+    }
+
+    @Test
+    void keepsOnlyFailedEnqueuesInClaimedSet() {
+        long now = System.currentTimeMillis();
+        stringRedisTemplate.opsForZSet().add(CLAIMED_KEY, "1", now - 4_000);
+        stringRedisTemplate.opsForZSet().add(CLAIMED_KEY, "2", now - 3_000);
+        stringRedisTemplate.opsForZSet().add(CLAIMED_KEY, "3", now - 2_000);
+        stringRedisTemplate.opsForZSet().add(CLAIMED_KEY, "not-an-id", now - 1_000);
+        statuses.put(3L, MailLog.MailStatus.SENT);
+        doThrow(new IllegalStateException("queue unavailable")).when(mailQueueBackend).enqueue(eq(2L), any(), any());
+
+        delayQueue.recoverExpiredClaims();
+
+        verify(mailQueueBackend).enqueue(1L, GROUP_KEY, MailLog.MailPriority.LOW);
+        verify(mailQueueBackend, never()).enqueue(eq(3L), any(), any());
+        // 큐 등록에 실패한 메일만 연장된 기한으로 남아 claimTimeout 이후 다시 옮겨짐
+        assertThat(stringRedisTemplate.opsForZSet().range(CLAIMED_KEY, 0, -1)).containsExactly("2");
+        assertThat(stringRedisTemplate.opsForZSet().score(CLAIMED_KEY, "2")).isGreaterThan((double) now);
+    }
+
+    @Test
+    void leavesScheduleToBackendThatSupportsDelay() {
+        long sendAt = System.currentTimeMillis() + 60_000;
+        when(mailQueueBackend.enqueueAt(1L, GROUP_KEY, MailLog.MailPriority.HIGH, sendAt)).thenReturn(true);
+
+        delayQueue.schedule(1L, GROUP_KEY, MailLog.MailPriority.HIGH, sendAt);
+
+        assertThat(stringRedisTemplate.keys("mail:*")).isEmpty();
+    }
+
+    private static void seed(long cascadedHour, long cursorSecond) {
+        stringRedisTemplate.opsForValue().set(CASCADED_KEY, String.valueOf(cascadedHour));
+        stringRedisTemplate.opsForValue().set(CURSOR_KEY, String.valueOf(cursorSecond));
+    }
+
+    private static long hourOf(long millis) {
+        return millis / 3_600_000L;
+    }
+
+    private static long secondOf(long millis) {
+        return millis / 1000;
+    }
+}
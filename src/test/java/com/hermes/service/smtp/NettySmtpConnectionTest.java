@@ -0,0 +1,239 @@
+package com.hermes.service.smtp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import com.hermes.config.properties.MailSmtpNettyProperties;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.LineBasedFrameDecoder;
+import jakarta.mail.Address;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+import org.eclipse.angus.mail.smtp.SMTPAddressFailedException;
+import org.eclipse.angus.mail.smtp.SMTPSendFailedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Netty SMTP 연결 - PIPELINING 응답 매칭, 수신자 일부 거부, 응답 시간 초과와 요청하지 않은 응답 시 연결 폐기
+ */
+class NettySmtpConnectionTest {
+
+    private final MailSmtpNettyProperties properties = new MailSmtpNettyProperties();
+
+    private NettySmtpConnection connection;
+    private EmbeddedChannel channel;
+
+    @BeforeEach
+    void setUp() {
+        properties.setStarttlsEnable(false);
+        SmtpRelay relay = new SmtpRelay("test", "mx.example.com", 25, null, null, 0, 0);
+        connection = new NettySmtpConnection(relay, properties, null, "hermes.example.com");
+        channel = new EmbeddedChannel(new LineBasedFrameDecoder(1024), new SmtpReplyDecoder(), connection);
+    }
+
+    @AfterEach
+    void tearDown() {
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    void handshakeReadsEhloExtensions() {
+        CompletableFuture<Void> handshake = connection.handshakeAsync(channel.newSucceededFuture());
+        reply("220 mx.example.com ESMTP");
+        assertThat(readCommands()).containsExactly("EHLO hermes.example.com");
+
+        reply("250-mx.example.com", "250-PIPELINING", "250 SIZE 10240000");
+
+        assertThat(handshake).isCompleted();
+    }
+
+    @Test
+    void pipelinesEnvelopeAndMatchesRepliesInOrder() throws MessagingException {
+        handshake("250-PIPELINING", "250 SIZE 10240000");
+
+        CompletableFuture<Void> sent = connection.sendAsync(submission("alice@example.com", "bob@example.com"));
+
+        // 응답을 받기 전에 봉투 명령을 모두 보냄
+        List<String> commands = readCommands();
+        assertThat(commands).hasSize(4);
+        assertThat(commands.get(0)).startsWith("MAIL FROM:<sender@example.com> SIZE=");
+        assertThat(commands.subList(1, 4)).containsExactly("RCPT TO:<alice@example.com>", "RCPT TO:<bob@example.com>", "DATA");
+
+        reply("250 2.1.0 Ok", "250 2.1.5 Ok", "250 2.1.5 Ok", "354 End data with <CR><LF>.<CR><LF>");
+        assertThat(readData()).contains("Subject: hello").endsWith("\r\n.\r\n");
+        assertThat(sent).isNotCompleted();
+
+        reply("250 2.0.0 Ok: queued");
+        assertThat(sent).isCompleted();
+    }
+
+    @Test
+    void waitsForEachReplyWithoutPipelining() throws MessagingException {
+        handshake("250 SIZE 10240000");
+
+        CompletableFuture<Void> sent = connection.sendAsync(submission("alice@example.com"));
+
+        List<String> mailFrom = readCommands();
+        assertThat(mailFrom).hasSize(1);
+        assertThat(mailFrom.get(0)).startsWith("MAIL FROM:<sender@example.com>");
+        reply("250 2.1.0 Ok");
+        assertThat(readCommands()).containsExactly("RCPT TO:<alice@example.com>");
+        reply("250 2.1.5 Ok");
+        assertThat(readCommands()).containsExactly("DATA");
+        reply("354 Go ahead");
+        readData();
+        reply("250 2.0.0 Ok: queued");
+
+        assertThat(sent).isCompleted();
+    }
+
+    @Test
+    void deliversToAcceptedRecipientsAndReportsRejectedOnes() throws MessagingException {
+        handshake("250-PIPELINING", "250 SIZE 10240000");
+
+        CompletableFuture<Void> sent = connection.sendAsync(submission("alice@example.com", "bob@example.com", "carol@example.com"));
+        readCommands();
+
+        reply("250 2.1.0 Ok", "250 2.1.5 Ok", "550 5.1.1 User unknown", "452 4.5.3 Too many recipients", "354 Go ahead");
+        readData();
+        reply("250 2.0.0 Ok: queued");
+
+        SMTPSendFailedException failure = (SMTPSendFailedException) failureOf(sent);
+        assertThat(addresses(failure.getValidSentAddresses())).containsExactly("alice@example.com");
+        assertThat(addresses(failure.getInvalidAddresses())).containsExactly("bob@example.com");
+        assertThat(addresses(failure.getValidUnsentAddresses())).containsExactly("carol@example.com");
+
+        // 수신자별 RCPT TO 응답이 체인으로 이어져 있음
+        SMTPAddressFailedException bob = (SMTPAddressFailedException) failure.getNextException();
+        SMTPAddressFailedException carol = (SMTPAddressFailedException) bob.getNextException();
+        assertThat(bob.getAddress().getAddress()).isEqualTo("bob@example.com");
+        assertThat(bob.getReturnCode()).isEqualTo(550);
+        assertThat(carol.getAddress().getAddress()).isEqualTo("carol@example.com");
+        assertThat(carol.getReturnCode()).isEqualTo(452);
+
+        // 트랜잭션은 정상 종료되었으므로 연결은 계속 사용
+        assertThat(channel.isOpen()).isTrue();
+    }
+
+    @Test
+    void skipsDataWhenEveryRecipientIsRejected() throws MessagingException {
+        handshake("250-PIPELINING", "250 SIZE 10240000");
+
+        CompletableFuture<Void> sent = connection.sendAsync(submission("alice@example.com"));
+        readCommands();
+        reply("250 2.1.0 Ok", "550 5.1.1 User unknown", "554 5.5.1 No valid recipients");
+
+        assertThat((Object) channel.readOutbound()).isNull();
+        SendFailedException failure = (SendFailedException) failureOf(sent);
+        assertThat(failure).isNotInstanceOf(SMTPSendFailedException.class);
+        assertThat(addresses(failure.getInvalidAddresses())).containsExactly("alice@example.com");
+        assertThat(failure.getNextException()).isInstanceOf(SMTPAddressFailedException.class);
+    }
+
+    @Test
+    void discardsConnectionWhenReplyTimesOut() throws MessagingException {
+        handshake("250-PIPELINING", "250 SIZE 10240000");
+        properties.setCommandTimeoutMillis(100);
+
+        CompletableFuture<Void> sent = connection.sendAsync(submission("alice@example.com"));
+        readCommands();
+        // MAIL FROM 응답만 도착하고 나머지는 시간 초과
+        reply("250 2.1.0 Ok");
+
+        assertThat(failureOf(sent)).isInstanceOf(TimeoutException.class);
+        // 늦게 온 응답이 다음 트랜잭션의 응답으로 쓰이지 않도록 연결을 재사용하지 않음
+        assertThat(connection.isConnected()).isFalse();
+        awaitClosed();
+    }
+
+    @Test
+    void discardsConnectionOnUnsolicitedReply() {
+        connection.handshakeAsync(channel.newSucceededFuture());
+        reply("220 mx.example.com ESMTP");
+        readCommands();
+
+        reply("250 mx.example.com", "421 4.4.2 Idle timeout");
+
+        assertThat(channel.isOpen()).isFalse();
+        assertThat(connection.isConnected()).isFalse();
+    }
+
+    private void handshake(String... ehloReply) {
+        CompletableFuture<Void> handshake = connection.handshakeAsync(channel.newSucceededFuture());
+        reply("220 mx.example.com ESMTP");
+        readCommands();
+        List<String> lines = new ArrayList<>();
+        lines.add("250-mx.example.com");
+        lines.addAll(List.of(ehloReply));
+        reply(lines.toArray(String[]::new));
+        assertThat(handshake).isCompleted();
+    }
+
+    private void reply(String... lines) {
+        channel.writeInbound(Unpooled.copiedBuffer(String.join("\r\n", lines) + "\r\n", StandardCharsets.UTF_8));
+    }
+
+    private List<String> readCommands() {
+        List<String> commands = new ArrayList<>();
+        ByteBuf command;
+        while ((command = channel.readOutbound()) != null) {
+            commands.add(command.toString(StandardCharsets.UTF_8).stripTrailing());
+            command.release();
+        }
+        return commands;
+    }
+
+    private String readData() {
+        ByteBuf data = channel.readOutbound();
+        try {
+            return data.toString(StandardCharsets.UTF_8);
+        } finally {
+            data.release();
+        }
+    }
+
+    private void awaitClosed() {
+        long deadline = System.currentTimeMillis() + 1000;
+        while (channel.isOpen() && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertThat(channel.isOpen()).isFalse();
+    }
+
+    private static Throwable failureOf(CompletableFuture<Void> future) {
+        Throwable failure = catchThrowable(future::join);
+        assertThat(failure).isInstanceOf(CompletionException.class);
+        return failure.getCause();
+    }
+
+    private static SmtpSubmission submission(String... recipients) throws MessagingException {
+        MimeMessage message = new MimeMessage(Session.getInstance(new Properties()));
+        message.setFrom(new InternetAddress("sender@example.com"));
+        message.setSubject("hello");
+        message.setText("본문", StandardCharsets.UTF_8.name());
+
+        Address[] addresses = new Address[recipients.length];
+        for (int i = 0; i < recipients.length; i++) {
+            addresses[i] = new InternetAddress(recipients[i]);
+        }
+        return new SmtpSubmission(message, addresses);
+    }
+
+    private static List<String> addresses(Address[] addresses) {
+        return addresses == null ? List.of() : List.of(addresses).stream().map(address -> ((InternetAddress) address).getAddress()).toList();
+    }
+}
@@ -0,0 +1,158 @@
+package com.hermes.service.smtp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.mail.Address;
+import jakarta.mail.AuthenticationFailedException;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.internet.AddressException;
+import jakarta.mail.internet.InternetAddress;
+import java.io.UnsupportedEncodingException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.eclipse.angus.mail.smtp.SMTPAddressFailedException;
+import org.eclipse.angus.mail.smtp.SMTPSendFailedException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.MailSendException;
+
+/**
+ * 전송 실패 분류 - 응답 코드, 확장 상태 코드, 예외 종류, 수신자별 응답과 예외 체인 탐색
+ */
+class SmtpFailureClassifierTest {
+
+    private final SmtpFailureClassifier classifier = new SmtpFailureClassifier();
+
+    @ParameterizedTest
+    @ValueSource(ints = {421, 451, 452})
+    void classifiesThrottlingCodesAsThrottled(int code) {
+        assertThat(classifier.classify(code, code + " Too many messages")).isEqualTo(SmtpFailureClass.THROTTLED);
+    }
+
+    @Test
+    void classifiesEnhancedStatus47xAsThrottled() {
+        assertThat(classifier.classify(450, "450 4.7.1 Rate limit exceeded, try again later")).isEqualTo(SmtpFailureClass.THROTTLED);
+        assertThat(classifier.classify(450, "450 4.7.28 Unusual rate of unsolicited mail")).isEqualTo(SmtpFailureClass.THROTTLED);
+    }
+
+    @Test
+    void classifiesOtherTemporaryFailuresAsTransient() {
+        assertThat(classifier.classify(450, "450 4.2.1 Mailbox busy")).isEqualTo(SmtpFailureClass.TRANSIENT);
+        assertThat(classifier.classify(450, null)).isEqualTo(SmtpFailureClass.TRANSIENT);
+        // 4.7.1 처럼 보이는 숫자가 다른 숫자의 일부이면 속도 제한이 아님
+        assertThat(classifier.classify(450, "450 14.7.10 Mailbox busy")).isEqualTo(SmtpFailureClass.TRANSIENT);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {550, 551, 552, 553, 554})
+    void classifiesPermanentCodesAsPermanent(int code) {
+        assertThat(classifier.classify(code, code + " 5.1.1 User unknown")).isEqualTo(SmtpFailureClass.PERMANENT);
+    }
+
+    @Test
+    void classifiesPermanentCodeWithPolicyStatusAsPermanent() {
+        assertThat(classifier.classify(550, "550 5.7.1 Message rejected as spam")).isEqualTo(SmtpFailureClass.PERMANENT);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {454, 530, 534, 535, 538})
+    void classifiesAuthenticationAndTlsCodesAsRelayDown(int code) {
+        assertThat(classifier.classify(code, code + " 5.7.0 Authentication required")).isEqualTo(SmtpFailureClass.RELAY_DOWN);
+    }
+
+    @Test
+    void classifiesConnectionFailuresAsRelayDown() {
+        assertThat(classifier.classify(new MessagingException("Could not connect to SMTP host", new ConnectException("Connection refused"))))
+            .isEqualTo(SmtpFailureClass.RELAY_DOWN);
+        assertThat(classifier.classify(new MailSendException("Mail server connection failed", new SocketTimeoutException("Read timed out"))))
+            .isEqualTo(SmtpFailureClass.RELAY_DOWN);
+        assertThat(classifier.classify(new AuthenticationFailedException("535 Authentication failed")))
+            .isEqualTo(SmtpFailureClass.RELAY_DOWN);
+        assertThat(classifier.classify(new SmtpRelayUnavailableException("모든 릴레이 사용 불가")))
+            .isEqualTo(SmtpFailureClass.RELAY_DOWN);
+    }
+
+    @Test
+    void classifiesPreparationFailuresAsPermanentEvenWhenIoException() {
+        assertThat(classifier.classify(new MailPreparationException("메일 생성 실패", new UnsupportedEncodingException("x-unknown"))))
+            .isEqualTo(SmtpFailureClass.PERMANENT);
+        assertThat(classifier.classify(new MessagingException("잘못된 주소", new AddressException("Illegal address", "not an address"))))
+            .isEqualTo(SmtpFailureClass.PERMANENT);
+    }
+
+    @Test
+    void classifiesUnknownFailureAsTransient() {
+        assertThat(classifier.classify(new IllegalStateException("unexpected"))).isEqualTo(SmtpFailureClass.TRANSIENT);
+    }
+
+    @Test
+    void walksCauseChainToTransactionReply() {
+        SMTPSendFailedException rejected = sendFailed(421, "421 4.3.2 Service shutting down");
+        MailSendException wrapped = new MailSendException("Failed messages", new MessagingException("wrapper", rejected));
+
+        assertThat(classifier.classify(wrapped)).isEqualTo(SmtpFailureClass.THROTTLED);
+    }
+
+    @Test
+    void walksFailedMessagesOfMailSendException() throws AddressException {
+        SendFailedException failure = new SendFailedException("Invalid Addresses");
+        failure.setNextException(addressFailed("alice@example.com", 552, "552 5.2.2 Mailbox full"));
+
+        Map<Object, Exception> failedMessages = new LinkedHashMap<>();
+        failedMessages.put("message-1", failure);
+        MailSendException sendException = new MailSendException(failedMessages);
+
+        assertThat(classifier.classify(sendException, "alice@example.com")).isEqualTo(SmtpFailureClass.PERMANENT);
+    }
+
+    @Test
+    void classifiesEachRecipientByItsOwnRcptReply() throws AddressException {
+        // 일부 수신자만 RCPT TO 가 거부된 트랜잭션
+        SendFailedException failure = new SendFailedException("Invalid Addresses");
+        failure.setNextException(addressFailed("alice@example.com", 452, "452 4.5.3 Too many recipients"));
+        failure.setNextException(addressFailed("bob@example.com", 550, "550 5.1.1 User unknown"));
+        failure.setNextException(sendFailed(554, "554 5.5.1 No valid recipients"));
+
+        assertThat(classifier.classify(failure, "alice@example.com")).isEqualTo(SmtpFailureClass.THROTTLED);
+        assertThat(classifier.classify(failure, "BOB@example.com")).isEqualTo(SmtpFailureClass.PERMANENT);
+        // RCPT 응답이 없는 수신자 / 트랜잭션 단위는 트랜잭션 응답으로 판단
+        assertThat(classifier.classify(failure, "carol@example.com")).isEqualTo(SmtpFailureClass.PERMANENT);
+        assertThat(classifier.classify(failure)).isEqualTo(SmtpFailureClass.PERMANENT);
+    }
+
+    @Test
+    void usesFirstTransactionReplyInChain() {
+        SMTPSendFailedException first = sendFailed(451, "451 4.3.0 Temporary failure");
+        first.setNextException(sendFailed(554, "554 5.0.0 Transaction failed"));
+
+        assertThat(classifier.classify(first)).isEqualTo(SmtpFailureClass.THROTTLED);
+    }
+
+    @Test
+    void stopsOnCyclicCauseChain() {
+        MessagingException first = new MessagingException("first");
+        MessagingException second = new MessagingException("second");
+        first.setNextException(second);
+        second.setNextException(first);
+
+        assertThat(classifier.classify(first)).isEqualTo(SmtpFailureClass.TRANSIENT);
+    }
+
+    @Test
+    void handlesNullFailure() {
+        assertThat(classifier.classify(null)).isEqualTo(SmtpFailureClass.TRANSIENT);
+    }
+
+    private static SMTPAddressFailedException addressFailed(String address, int code, String message) throws AddressException {
+        return new SMTPAddressFailedException(new InternetAddress(address), "RCPT TO:<" + address + ">", code, message);
+    }
+
+    private static SMTPSendFailedException sendFailed(int code, String message) {
+        return new SMTPSendFailedException("DATA", code, message, null, new Address[0], new Address[0], new Address[0]);
+    }
+}
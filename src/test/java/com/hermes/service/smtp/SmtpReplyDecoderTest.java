@@ -0,0 +1,63 @@
+package com.hermes.service.smtp;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.DecoderException;
+import io.netty.handler.codec.LineBasedFrameDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * SMTP 응답 조립 - 여러 줄 응답, 한 번에 도착한 여러 응답, 잘못된 응답
+ */
+class SmtpReplyDecoderTest {
+
+    private final EmbeddedChannel channel = new EmbeddedChannel(new LineBasedFrameDecoder(1024), new SmtpReplyDecoder());
+
+    @AfterEach
+    void tearDown() {
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    void assemblesMultilineReply() {
+        receive("250-mx.example.com\r\n250-PIPELINING\r\n");
+        assertThat((Object) channel.readInbound()).isNull();
+
+        receive("250 SIZE 10240000\r\n");
+        assertThat((SmtpReply) channel.readInbound()).isEqualTo(new SmtpReply(250, List.of("mx.example.com", "PIPELINING", "SIZE 10240000")));
+    }
+
+    @Test
+    void splitsPipelinedRepliesInArrivalOrder() {
+        receive("250 2.1.0 Ok\r\n550 5.1.1 User unknown\r\n354 End data with <CR><LF>.<CR><LF>\r\n");
+
+        SmtpReply mailFrom = channel.readInbound();
+        SmtpReply rcptTo = channel.readInbound();
+        SmtpReply data = channel.readInbound();
+        assertThat(mailFrom.code()).isEqualTo(250);
+        assertThat(rcptTo.message()).isEqualTo("550 5.1.1 User unknown");
+        assertThat(data.code()).isEqualTo(354);
+    }
+
+    @Test
+    void acceptsReplyWithoutText() {
+        receive("354\r\n");
+
+        assertThat((SmtpReply) channel.readInbound()).isEqualTo(new SmtpReply(354, List.of("")));
+    }
+
+    @Test
+    void rejectsLineWithoutReplyCode() {
+        assertThatThrownBy(() -> receive("hello\r\n")).isInstanceOf(DecoderException.class);
+    }
+
+    private void receive(String text) {
+        channel.writeInbound(Unpooled.copiedBuffer(text, StandardCharsets.UTF_8));
+    }
+}